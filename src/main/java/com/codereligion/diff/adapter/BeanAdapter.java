@@ -0,0 +1,81 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.adapter;
+
+import java.util.List;
+
+/**
+ * Reads the properties of the beans of a single class by calling their getters directly, so that neither
+ * the class needs to be introspected nor the getters need to be invoked reflectively.
+ *
+ * <p>
+ * Adapters are supposed to be generated at compile time for the classes which are diffed frequently, but
+ * may also be written by hand. A typical implementation reads the property at the given index in a switch
+ * statement, e.g.:
+ *
+ * <pre>
+ * public Object read(final Address address, final int propertyIndex) {
+ *     switch (propertyIndex) {
+ *         case 0: return address.getStreet();
+ *         case 1: return address.getZipCode();
+ *         default: throw new IndexOutOfBoundsException(String.valueOf(propertyIndex));
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>
+ * The properties are written in the order of their names, regardless of the order in which an adapter
+ * declares them, so that the lines equal the ones written by reflection. An adapter only applies to beans
+ * of exactly its bean class, since subclasses may declare further properties. Implementations need to be
+ * thread-safe, since they are shared by all diffs.
+ *
+ * @since 19.10.2026
+ * @param <T> The type of the beans which are read by this adapter.
+ */
+public interface BeanAdapter<T> {
+
+    /**
+     * Retrieves the class of the beans read by this adapter.
+     *
+     * @return the bean class
+     */
+    Class<T> getBeanClass();
+
+    /**
+     * Retrieves the names of the readable properties, of which the indices are used to read them.
+     *
+     * @return the list of property names
+     */
+    List<String> getPropertyNames();
+
+    /**
+     * Retrieves the declared type of the property at the given {@code propertyIndex}, which is checked
+     * against the excluded types.
+     *
+     * @param propertyIndex the index of the property in the list of property names
+     * @return the declared type of the property
+     */
+    Class<?> getPropertyType(int propertyIndex);
+
+    /**
+     * Reads the value of the property at the given {@code propertyIndex} from the given {@code bean}.
+     *
+     * @param bean the bean to read the property of
+     * @param propertyIndex the index of the property in the list of property names
+     * @return the value of the property
+     */
+    Object read(T bean, int propertyIndex);
+}
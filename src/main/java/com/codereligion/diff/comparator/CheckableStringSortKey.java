@@ -0,0 +1,42 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.comparator;
+
+import com.codereligion.diff.Checkable;
+
+/**
+ * Extracts a {@link String} sort key from the objects it applies to, so that iterables and map keys
+ * can be sorted by comparing keys extracted once per object, instead of invoking a
+ * {@link CheckableComparator} for every comparison.
+ *
+ * <p>
+ * The natural order of the keys must agree with the {@link CheckableComparator} of the objects: an
+ * object with a lower key must compare as less than an object with a higher key. The comparator only
+ * decides the order of objects with equal keys.
+ *
+ * @since 19.10.2026
+ * @param <T> The type of the object to extract the key from.
+ */
+public interface CheckableStringSortKey<T> extends Checkable {
+
+    /**
+     * Extracts the sort key of the given {@code object}.
+     *
+     * @param object the object to extract the key from
+     * @return the sort key, never {@code null}
+     */
+    String extractKey(T object);
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.differ;
+
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Allows to abort a running {@link Differ#diff(Object, Object, CancellationToken)}, either explicitly
+ * from another thread or implicitly when a deadline has passed. The diff checks the token in bounded
+ * intervals and aborts with a {@link com.codereligion.diff.exception.DiffCancelledException}.
+ *
+ * <p>
+ * A token can be shared by several diffs, e.g. all the diffs running for a single request.
+ *
+ * @since 19.10.2026
+ */
+@ThreadSafe
+public final class CancellationToken {
+
+    /**
+     * Whether the token has been cancelled explicitly.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Whether the token has a deadline.
+     */
+    private final boolean hasDeadline;
+
+    /**
+     * The value of {@link System#nanoTime()} at which the token is cancelled, if it has a deadline.
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Creates a new token which is only cancelled explicitly.
+     *
+     * @return a new instance
+     * @see #cancel()
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(false, 0);
+    }
+
+    /**
+     * Creates a new token which is cancelled after the given {@code timeout} or explicitly,
+     * whichever comes first.
+     *
+     * @param timeout the time after which the token is cancelled
+     * @param unit the unit of the given {@code timeout}
+     * @return a new instance
+     * @throws IllegalArgumentException when the given {@code timeout} is negative or the
+     *             given {@code unit} is {@code null}
+     */
+    public static CancellationToken withTimeout(final long timeout, final TimeUnit unit) {
+        checkArgument(timeout >= 0, "timeout must not be negative.");
+        checkArgument(unit != null, "unit must not be null.");
+        return new CancellationToken(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Disallows public instantiation.
+     *
+     * @param hasDeadline whether the token has a deadline
+     * @param deadlineNanos the value of {@link System#nanoTime()} at which the token is cancelled
+     */
+    private CancellationToken(final boolean hasDeadline, final long deadlineNanos) {
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Cancels this token, so that the diffs using it abort at their next check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether this token has been cancelled explicitly or its deadline has passed.
+     *
+     * @return true if this token has been cancelled
+     */
+    public boolean isCancelled() {
+        // the difference is compared, since nano times may overflow
+        return cancelled || (hasDeadline && System.nanoTime() - deadlineNanos >= 0);
+    }
+}
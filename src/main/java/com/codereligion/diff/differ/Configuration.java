@@ -15,13 +15,23 @@
  */
 package com.codereligion.diff.differ;
 
+import com.codereligion.diff.adapter.BeanAdapter;
 import com.codereligion.diff.comparator.CheckableComparator;
+import com.codereligion.diff.comparator.CheckableLongSortKey;
+import com.codereligion.diff.comparator.CheckableStringSortKey;
+import com.codereligion.diff.internal.PathPattern;
+import com.codereligion.diff.laziness.LazinessDetector;
 import com.codereligion.diff.serializer.CheckableSerializer;
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.File;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -35,12 +45,32 @@ import static com.google.common.base.Preconditions.checkArgument;
 @ThreadSafe
 public final class Configuration {
 
+    /**
+     * The default maximum number of serialized values to cache.
+     */
+    private static final int DEFAULT_SERIALIZATION_CACHE_SIZE = 1000;
+
     /**
      * Simple property names that will be excluded from the diff of all objects
      * in the graph.
      */
     private final Set<String> excludedProperties = Sets.newHashSet();
 
+    /**
+     * Path patterns of which the matching values will be excluded from the diff.
+     */
+    private final Set<String> excludedPaths = Sets.newHashSet();
+
+    /**
+     * Path patterns which project the diff onto the matching values, empty to diff all values.
+     */
+    private final Set<String> includedPaths = Sets.newHashSet();
+
+    /**
+     * Types of which the values and properties will be excluded from the diff.
+     */
+    private final Set<Class<?>> excludedTypes = Sets.newHashSet();
+
     /**
      * Custom comparators to order collections.
      */
@@ -51,11 +81,131 @@ public final class Configuration {
      */
     private final Set<Class<? extends Comparable<?>>> comparables = Sets.newHashSet();
 
+    /**
+     * Extractors of {@code long} sort keys to order collections.
+     */
+    private final Set<CheckableLongSortKey<?>> longSortKeys = Sets.newHashSet();
+
+    /**
+     * Extractors of {@link String} sort keys to order collections.
+     */
+    private final Set<CheckableStringSortKey<?>> stringSortKeys = Sets.newHashSet();
+
     /**
      * Custom serializer for serialization of specific classes.
      */
     private final Set<CheckableSerializer<?>> checkableSerializers = Sets.newHashSet();
 
+    /**
+     * Adapters reading the properties of beans without reflection by their bean class.
+     */
+    private final Map<Class<?>, BeanAdapter<?>> beanAdapters = Maps.newHashMap();
+
+    /**
+     * Detectors of values which have not been loaded yet.
+     */
+    private final Set<LazinessDetector> lazinessDetectors = Sets.newHashSet();
+
+    /**
+     * Whether uninitialized values are skipped instead of being written as a placeholder line.
+     */
+    private boolean skipUninitializedValues = false;
+
+    /**
+     * Whether accessors calling the getters directly are generated at runtime.
+     */
+    private boolean generateAccessors;
+
+    /**
+     * Whether the properties of beans are read from their fields instead of their getters.
+     */
+    private boolean readFields;
+
+    /**
+     * Immutable types of which the serialized values are cached by equality.
+     */
+    private final Set<Class<?>> typesCachedByEquality = Sets.newHashSet();
+
+    /**
+     * Types of which the serialized values are cached by identity.
+     */
+    private final Set<Class<?>> typesCachedByIdentity = Sets.newHashSet();
+
+    /**
+     * The maximum number of serialized values to cache.
+     */
+    private int serializationCacheSize = DEFAULT_SERIALIZATION_CACHE_SIZE;
+
+    /**
+     * The length above which strings, byte arrays and byte buffers are serialized as a digest.
+     */
+    private Optional<Integer> digestThreshold = Optional.absent();
+
+    /**
+     * Whether the built-in serializers for common value types of the JDK should be used.
+     */
+    private boolean useBuiltInSerializers = false;
+
+    /**
+     * The executor traversing large iterables and maps in parallel, absent to traverse serially.
+     */
+    private Optional<Executor> parallelExecutor = Optional.absent();
+
+    /**
+     * The number of elements of iterables and maps above which they are traversed in parallel.
+     */
+    private int parallelThreshold = Integer.MAX_VALUE;
+
+    /**
+     * The executor sorting large iterables and maps in parallel, absent to sort serially.
+     */
+    private Optional<Executor> sortExecutor = Optional.absent();
+
+    /**
+     * The number of elements of iterables and maps above which they are sorted in parallel.
+     */
+    private int sortThreshold = Integer.MAX_VALUE;
+
+    /**
+     * The directory to sort large iterables in, absent to sort iterables by comparators in memory.
+     */
+    private Optional<File> sortDirectory = Optional.absent();
+
+    /**
+     * The number of elements of iterables above which they are sorted on disk.
+     */
+    private int sortRunSize = Integer.MAX_VALUE;
+
+    /**
+     * The minimum size of iterables and maps which are collapsed if unchanged, absent to never collapse them.
+     */
+    private Optional<Integer> collapseThreshold = Optional.absent();
+
+    /**
+     * Whether objects reachable through several paths are written as references after their first path.
+     */
+    private boolean referenceSharedObjects = false;
+
+    /**
+     * The maximum number of nested objects to traverse.
+     */
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * The maximum number of lines to write for an object.
+     */
+    private int maxLines = Integer.MAX_VALUE;
+
+    /**
+     * The maximum number of elements to write for a single collection, map or array.
+     */
+    private int maxElements = Integer.MAX_VALUE;
+
+    /**
+     * Whether an exceeded limit results in an exception instead of a truncation marker line.
+     */
+    private boolean failWhenLimitExceeded = false;
+
     /**
      * The name of the base object, which titles the diff list.
      */
@@ -89,6 +239,80 @@ public final class Configuration {
         return copy;
     }
 
+    /**
+     * Returns a copy of this configuration with the given path {@code pattern} to be
+     * excluded for the diff. All values of which the path matches the pattern will be
+     * excluded together with the values nested in them.
+     *
+     * <p>
+     * A pattern consists of segments, which are separated by dots or appended as
+     * {@code [*]}. The first segment matches the name of the diffed object, e.g. its
+     * simple class name, and the following segments match either a property name,
+     * any property by {@code *}, any element or map value by {@code [*]} and any number
+     * of segments including none by {@code **}, e.g. {@code Order.lines[*].audit} or
+     * {@code **.password}.
+     *
+     * <p>
+     * The properties matching a pattern are excluded before their getters are invoked.
+     *
+     * @param pattern the path pattern of the values to be excluded
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code pattern} is
+     *             {@code null} or not a valid path pattern
+     */
+    public Configuration excludePath(final String pattern) {
+        checkArgument(pattern != null, "pattern must not be null.");
+        PathPattern.parse(pattern);
+        final Configuration copy = this.copy();
+        copy.excludedPaths.add(pattern);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given path {@code pattern} to be
+     * included in the diff. Once any pattern has been included, the diff is projected
+     * onto the values of which the path matches one of the included patterns, together
+     * with the values nested in them. The values on the way to them are traversed as
+     * well, without writing any lines for themselves, and only their properties leading
+     * to an included path are read, so that the cost of the diff depends on the size of
+     * the projection instead of the size of the object graph.
+     *
+     * <p>
+     * The patterns follow the syntax described by {@link #excludePath(String)}, e.g.
+     * {@code Order.lines[*].price}. Excluded paths and types are excluded from the
+     * projection as well.
+     *
+     * @param pattern the path pattern of the values to be included
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code pattern} is
+     *             {@code null} or not a valid path pattern
+     */
+    public Configuration includePath(final String pattern) {
+        checkArgument(pattern != null, "pattern must not be null.");
+        PathPattern.parse(pattern);
+        final Configuration copy = this.copy();
+        copy.includedPaths.add(pattern);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given {@code type} to be excluded
+     * for the diff. All properties declared as the given type or a subtype of it are
+     * excluded before their getters are invoked, all other values being an instance
+     * of the given type are excluded when they are reached.
+     *
+     * @param type the type of the values to be excluded
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code type} is
+     *             {@code null}
+     */
+    public Configuration excludeType(final Class<?> type) {
+        checkArgument(type != null, "type must not be null.");
+        final Configuration copy = this.copy();
+        copy.excludedTypes.add(type);
+        return copy;
+    }
+
     /**
      * Returns a copy of this configuration with the given {@code comparator} added to
      * be used for sorting iterables, so that they can be ordered and compared
@@ -128,15 +352,56 @@ public final class Configuration {
         return copy;
     }
 
+    /**
+     * Returns a copy of this configuration with the given {@code sortKey} added to be used
+     * for sorting iterables and map keys it applies to. The key of each element is extracted
+     * once and the elements are sorted by their keys, while the comparator of the elements is
+     * only used for elements with equal keys. Since the order of the keys has to agree with
+     * the comparator, the diff equals the one created without the sort key.
+     *
+     * @param sortKey the {@link CheckableLongSortKey} to add
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code sortKey} is {@code null}
+     * @see CheckableLongSortKey
+     */
+    public Configuration useLongSortKey(final CheckableLongSortKey<?> sortKey) {
+        checkArgument(sortKey != null, "sortKey must not be null.");
+        final Configuration copy = this.copy();
+        copy.longSortKeys.add(sortKey);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given {@code sortKey} added to be used
+     * for sorting iterables and map keys it applies to, like {@link #useLongSortKey(CheckableLongSortKey)}.
+     * A {@code long} sort key applying to the same objects has a higher priority.
+     *
+     * @param sortKey the {@link CheckableStringSortKey} to add
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code sortKey} is {@code null}
+     * @see CheckableStringSortKey
+     */
+    public Configuration useStringSortKey(final CheckableStringSortKey<?> sortKey) {
+        checkArgument(sortKey != null, "sortKey must not be null.");
+        final Configuration copy = this.copy();
+        copy.stringSortKeys.add(sortKey);
+        return copy;
+    }
+
     /**
      * Returns a copy of this configuration with the given {@code serializer} added to
      * be used for serializing objects.
+     *
+     * <p>
+     * Serializers which implement {@link com.codereligion.diff.serializer.CheckableAppendingSerializer}
+     * append their values directly to the line being written, instead of returning an intermediate string.
      * 
      * @param serializer the {@link CheckableSerializer} to add
      * @return a copy of this instance
      * @throws IllegalArgumentException when the given {@code serializer} is
      *             {@code null}
      * @see CheckableSerializer
+     * @see com.codereligion.diff.serializer.CheckableAppendingSerializer
      */
     public Configuration useSerializer(final CheckableSerializer<?> serializer) {
         checkArgument(serializer != null, "serializer must not be null.");
@@ -145,6 +410,402 @@ public final class Configuration {
         return copy;
     }
 
+    /**
+     * Returns a copy of this configuration with the given {@code adapter} to read the
+     * properties of the beans of its bean class without reflection. The adapter replaces
+     * any adapter added before for the same bean class and applies to beans of exactly
+     * its bean class only.
+     *
+     * <p>
+     * Excluded properties and types are applied to the properties of the adapter by their
+     * names and declared types.
+     *
+     * @param adapter the adapter to use
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code adapter} is
+     *             {@code null}
+     */
+    public Configuration useAdapter(final BeanAdapter<?> adapter) {
+        checkArgument(adapter != null, "adapter must not be null.");
+        final Configuration copy = this.copy();
+        copy.beanAdapters.put(adapter.getBeanClass(), adapter);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which uses the given {@code detector} to keep the diff from
+     * loading lazy values, like the lazy collections and proxies of an object-relational mapper. Every
+     * value is checked by all detectors before it is traversed. Values which have not been loaded yet
+     * are written as a placeholder line, e.g. {@code Order.lines=uninitialized}, unless
+     * {@link #skipUninitializedValues()} is requested.
+     *
+     * @param detector the detector of uninitialized values
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code detector} is
+     *             {@code null}
+     */
+    public Configuration useLazinessDetector(final LazinessDetector detector) {
+        checkArgument(detector != null, "detector must not be null.");
+        final Configuration copy = this.copy();
+        copy.lazinessDetectors.add(detector);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which skips values that have not been loaded yet according
+     * to the laziness detectors, instead of writing a placeholder line for them.
+     *
+     * @return a copy of this instance
+     * @see #useLazinessDetector(LazinessDetector)
+     */
+    public Configuration skipUninitializedValues() {
+        final Configuration copy = this.copy();
+        copy.skipUninitializedValues = true;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which generates an accessor class at runtime for
+     * each bean class without an adapter, which calls the getters directly instead of invoking
+     * them reflectively. The accessors are generated once per bean class and {@link Differ}, so
+     * this pays off for differs which are reused for many diffs.
+     *
+     * <p>
+     * Accessors can only be generated for public classes with public getters, the getters of
+     * all other classes are invoked reflectively.
+     *
+     * @return a copy of this instance
+     * @see #useAdapter(BeanAdapter)
+     */
+    public Configuration generateAccessors() {
+        final Configuration copy = this.copy();
+        copy.generateAccessors = true;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which reads the properties of beans without an adapter
+     * directly from their instance fields, including the ones declared by their superclasses, instead
+     * of calling their getters. This avoids the side effects of getters which compute values, log or
+     * load data lazily, as common for persistent entities.
+     *
+     * <p>
+     * The properties are named like the fields, so properties and paths are excluded and included by
+     * the names of the fields. Static and transient fields are skipped, as well as the fields hidden by
+     * a field of the same name in a subclass.
+     *
+     * @return a copy of this instance
+     * @see #useAdapter(BeanAdapter)
+     */
+    public Configuration readFields() {
+        final Configuration copy = this.copy();
+        copy.readFields = true;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which uses built-in serializers for common
+     * value types of the JDK. These are {@link String}, the primitive wrappers,
+     * {@link java.math.BigDecimal}, {@link java.math.BigInteger}, {@link java.util.UUID},
+     * {@link java.util.Date}, enums and the value types of {@code java.time}, if available.
+     *
+     * <p>
+     * The built-in serializers are looked up by the exact class of a value after all custom
+     * serializers, so custom serializers have a higher priority. Enums are serialized by their
+     * name and dates as ISO-8601 instants in UTC, e.g. {@code 2013-11-13T08:15:30.000Z}.
+     *
+     * @return a copy of this instance
+     * @see #useSerializer(CheckableSerializer)
+     */
+    public Configuration useBuiltInSerializers() {
+        final Configuration copy = this.copy();
+        copy.useBuiltInSerializers = true;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration in which an object, which is reachable through
+     * several paths of the object graph, is written completely only under the first path it
+     * is reached through. Under every other path it is written as a single line referencing
+     * the first one, e.g. {@code Order.billingAddress=ref(Order.shippingAddress)}.
+     *
+     * <p>
+     * By default the lines of such an object are repeated under every path, reusing the lines
+     * written under the first path instead of traversing the object again. Objects reached again
+     * while they are still being traversed, like in bidirectional associations, are always
+     * written as a reference to the path of their ancestor.
+     *
+     * @return a copy of this instance
+     */
+    public Configuration referenceSharedObjects() {
+        final Configuration copy = this.copy();
+        copy.referenceSharedObjects = true;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which traverses iterables and maps with more than the given
+     * {@code threshold} of elements in parallel on the given {@code executor}. The elements are split
+     * into chunks of the threshold size, which are traversed by the executor and the thread running the
+     * diff. The lines of the chunks are joined in the order of the elements, so the diff equals the one
+     * created serially. Only the outermost large iterable or map on each path is split, so that the
+     * chunks never wait for each other.
+     *
+     * <p>
+     * Referencing shared objects and limiting the number of lines depend on all lines written before,
+     * so in combination with {@link #referenceSharedObjects()} or {@link #limitLines(int)} all values
+     * are traversed serially. Objects shared between chunks are traversed by each of them.
+     *
+     * @param executor the executor to traverse the chunks of elements on
+     * @param threshold the number of elements per chunk, iterables and maps with more elements are split
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code executor} is {@code null} or the
+     *             given {@code threshold} is not positive
+     */
+    public Configuration traverseInParallel(final Executor executor, final int threshold) {
+        checkArgument(executor != null, "executor must not be null.");
+        checkArgument(threshold > 0, "threshold must be positive.");
+        final Configuration copy = this.copy();
+        copy.parallelExecutor = Optional.of(executor);
+        copy.parallelThreshold = threshold;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which sorts iterables and maps with more than the given
+     * {@code threshold} of elements in parallel on the given {@code executor}. The elements are split
+     * into runs of the threshold size, which are sorted and then merged pairwise by the executor and the
+     * thread running the diff. The sort is stable and entries of maps with keys comparing as equal are
+     * collapsed like a {@link java.util.TreeMap} does, so the diff equals the one created serially.
+     *
+     * @param executor the executor to sort and merge the runs of elements on
+     * @param threshold the number of elements per run, iterables and maps with more elements are sorted in parallel
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code executor} is {@code null} or the
+     *             given {@code threshold} is not positive
+     */
+    public Configuration sortInParallel(final Executor executor, final int threshold) {
+        checkArgument(executor != null, "executor must not be null.");
+        checkArgument(threshold > 0, "threshold must be positive.");
+        final Configuration copy = this.copy();
+        copy.sortExecutor = Optional.of(executor);
+        copy.sortThreshold = threshold;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which orders the elements of all iterables by their lines
+     * instead of by comparators, so that no {@link CheckableComparator} is needed for them. The elements
+     * are written while the iterable is iterated once without copying it. Iterables with more than the
+     * given {@code runSize} of elements are sorted on disk: each run of elements is sorted by their lines
+     * and written to a temporary file in the given {@code directory}, and the runs are merged while the
+     * lines of the iterable are joined. Thus neither the elements of huge or lazily produced iterables nor
+     * their lines are kept in memory before the merge. The temporary files are deleted afterwards.
+     *
+     * <p>
+     * The merged lines are still diffed in memory, so the heap used by a diff is only bounded in combination
+     * with {@link #limitElements(int)} or {@link #limitLines(int)}, which are enforced while merging, in the
+     * order of the sorted elements.
+     *
+     * <p>
+     * Referencing shared objects depends on the order the elements are written in, so in combination with
+     * {@link #referenceSharedObjects()} iterables are still sorted by comparators in memory.
+     *
+     * @param directory the directory to create the temporary files of the runs in
+     * @param runSize the number of elements per run, iterables with more elements are sorted on disk
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code directory} is {@code null} or the
+     *             given {@code runSize} is not positive
+     */
+    public Configuration sortIterablesOnDisk(final File directory, final int runSize) {
+        checkArgument(directory != null, "directory must not be null.");
+        checkArgument(runSize > 0, "runSize must be positive.");
+        final Configuration copy = this.copy();
+        copy.sortDirectory = Optional.of(directory);
+        copy.sortRunSize = runSize;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which collapses iterables and maps with at least the given
+     * {@code minSize} of elements, if they are unchanged. The size and an order-independent hash of the
+     * lines of each such collection are recorded for both objects. If they are equal for the same path, the
+     * lines of the collection are replaced by a single summary line for both objects, e.g.
+     * {@code Customer.orders=unchanged(size=1000)}, so that they are not compared line by line. Unchanged
+     * collections nested in other unchanged collections are collapsed together with the outer one.
+     *
+     * <p>
+     * Limiting the number of lines cuts off the lines of collections after they have been written, so in
+     * combination with {@link #limitLines(int)} no collections are collapsed.
+     *
+     * @param minSize the minimum number of elements or entries of collapsed collections
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code minSize} is not positive
+     */
+    public Configuration collapseUnchangedCollections(final int minSize) {
+        checkArgument(minSize > 0, "minSize must be positive.");
+        final Configuration copy = this.copy();
+        copy.collapseThreshold = Optional.of(minSize);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which traverses at most the given {@code maxDepth}
+     * of nested objects, the diffed object counting as the first one. Deeper objects are written
+     * as a truncation marker line, e.g. {@code User.address=truncated(maxDepth=1)}.
+     *
+     * @param maxDepth the maximum number of nested objects to traverse
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code maxDepth} is not positive
+     * @see #failWhenLimitExceeded()
+     */
+    public Configuration limitDepth(final int maxDepth) {
+        checkArgument(maxDepth > 0, "maxDepth must be positive.");
+        final Configuration copy = this.copy();
+        copy.maxDepth = maxDepth;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which writes at most the given {@code maxLines}
+     * for each of the diffed objects. The traversal stops as soon as the limit is reached
+     * and the last line is followed by a truncation marker line, e.g.
+     * {@code User.credentials[3]=truncated(maxLines=100)}.
+     *
+     * @param maxLines the maximum number of lines to write for an object
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code maxLines} is not positive
+     * @see #failWhenLimitExceeded()
+     */
+    public Configuration limitLines(final int maxLines) {
+        checkArgument(maxLines > 0, "maxLines must be positive.");
+        final Configuration copy = this.copy();
+        copy.maxLines = maxLines;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which writes at most the given {@code maxElements}
+     * of a single iterable, map or array. The remaining elements are not traversed and the written
+     * ones are followed by a truncation marker line, e.g. {@code User.credentials=truncated(maxElements=10)}.
+     *
+     * <p>
+     * The written elements of iterables and maps are still the first ones in their sorted order, so that
+     * they do not depend on the iteration order. They are selected while iterating, without copying or
+     * sorting the remaining elements, so that the memory used for a large iterable or map is bounded by
+     * the given {@code maxElements}.
+     *
+     * @param maxElements the maximum number of elements to write for a single iterable, map or array
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code maxElements} is not positive
+     * @see #failWhenLimitExceeded()
+     */
+    public Configuration limitElements(final int maxElements) {
+        checkArgument(maxElements > 0, "maxElements must be positive.");
+        final Configuration copy = this.copy();
+        copy.maxElements = maxElements;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration which fails with a
+     * {@link com.codereligion.diff.exception.TraversalBudgetExceededException} instead of
+     * writing a truncation marker line, when one of the configured limits is exceeded.
+     *
+     * @return a copy of this instance
+     * @see #limitDepth(int)
+     * @see #limitLines(int)
+     * @see #limitElements(int)
+     */
+    public Configuration failWhenLimitExceeded() {
+        final Configuration copy = this.copy();
+        copy.failWhenLimitExceeded = true;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration in which the serialized values of the given
+     * {@code immutableType} and its subtypes are cached by equality, so that equal values
+     * which occur repeatedly are only serialized once. Instances of the given type must be
+     * immutable and implement {@link Object#equals(Object)} and {@link Object#hashCode()},
+     * typical examples are currency codes or other reference data.
+     *
+     * <p>
+     * The cache is shared by all diffs of a {@link Differ} and its size is bounded by
+     * {@link #useSerializationCacheSize(int)}.
+     *
+     * @param immutableType the immutable type of which the serialized values should be cached
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code immutableType} is
+     *             {@code null}
+     * @see #cacheSerializationByIdentityOf(Class)
+     */
+    public Configuration cacheSerializationOf(final Class<?> immutableType) {
+        checkArgument(immutableType != null, "immutableType must not be null.");
+        final Configuration copy = this.copy();
+        copy.typesCachedByEquality.add(immutableType);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration in which the serialized values of the given
+     * {@code immutableType} and its subtypes are cached by identity, so that the same instance
+     * is only serialized once, even if the type does not implement {@link Object#equals(Object)}.
+     * Instances of the given type must be immutable. The cached instances are only weakly referenced.
+     *
+     * @param immutableType the immutable type of which the serialized values should be cached
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code immutableType} is
+     *             {@code null}
+     * @see #cacheSerializationOf(Class)
+     */
+    public Configuration cacheSerializationByIdentityOf(final Class<?> immutableType) {
+        checkArgument(immutableType != null, "immutableType must not be null.");
+        final Configuration copy = this.copy();
+        copy.typesCachedByIdentity.add(immutableType);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given {@code maximumSize} of cached
+     * serialized values, beyond which the least recently used values will be evicted.
+     * The default is 1000.
+     *
+     * @param maximumSize the maximum number of cached values
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code maximumSize} is
+     *             not positive
+     * @see #cacheSerializationOf(Class)
+     */
+    public Configuration useSerializationCacheSize(final int maximumSize) {
+        checkArgument(maximumSize > 0, "maximumSize must be positive.");
+        final Configuration copy = this.copy();
+        copy.serializationCacheSize = maximumSize;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this configuration in which strings, byte arrays and byte buffers,
+     * which are longer than the given {@code threshold}, are serialized into a fixed size
+     * digest of their content followed by their length, instead of their full content.
+     * This keeps the diffed documents small, while still detecting changes of the content.
+     *
+     * <p>
+     * The length is measured in characters for strings and in bytes otherwise. For values
+     * above the threshold the digest has a higher priority than custom serializers.
+     *
+     * @param threshold the length above which digests are serialized
+     * @return a copy of this instance
+     * @throws IllegalArgumentException when the given {@code threshold} is
+     *             negative
+     */
+    public Configuration useDigestsAbove(final int threshold) {
+        checkArgument(threshold >= 0, "threshold must not be negative.");
+        final Configuration copy = this.copy();
+        copy.digestThreshold = Optional.of(threshold);
+        return copy;
+    }
+
     /**
      * Returns a copy of this configuration with the given {@code objectName} added to
      * be used for the working object. This property is optional.
@@ -181,10 +842,37 @@ public final class Configuration {
         final Configuration copy = new Configuration();
         copy.baseObjectName = this.baseObjectName;
         copy.workingObjectName = this.workingObjectName;
+        copy.useBuiltInSerializers = this.useBuiltInSerializers;
+        copy.referenceSharedObjects = this.referenceSharedObjects;
+        copy.parallelExecutor = this.parallelExecutor;
+        copy.parallelThreshold = this.parallelThreshold;
+        copy.sortExecutor = this.sortExecutor;
+        copy.sortThreshold = this.sortThreshold;
+        copy.sortDirectory = this.sortDirectory;
+        copy.sortRunSize = this.sortRunSize;
+        copy.collapseThreshold = this.collapseThreshold;
+        copy.maxDepth = this.maxDepth;
+        copy.maxLines = this.maxLines;
+        copy.maxElements = this.maxElements;
+        copy.failWhenLimitExceeded = this.failWhenLimitExceeded;
+        copy.digestThreshold = this.digestThreshold;
+        copy.serializationCacheSize = this.serializationCacheSize;
+        copy.typesCachedByEquality.addAll(this.typesCachedByEquality);
+        copy.typesCachedByIdentity.addAll(this.typesCachedByIdentity);
         copy.comparables.addAll(this.comparables);
         copy.comparators.addAll(this.comparators);
+        copy.longSortKeys.addAll(this.longSortKeys);
+        copy.stringSortKeys.addAll(this.stringSortKeys);
         copy.checkableSerializers.addAll(this.checkableSerializers);
+        copy.beanAdapters.putAll(this.beanAdapters);
+        copy.lazinessDetectors.addAll(this.lazinessDetectors);
+        copy.skipUninitializedValues = this.skipUninitializedValues;
+        copy.generateAccessors = this.generateAccessors;
+        copy.readFields = this.readFields;
         copy.excludedProperties.addAll(this.excludedProperties);
+        copy.excludedPaths.addAll(this.excludedPaths);
+        copy.includedPaths.addAll(this.includedPaths);
+        copy.excludedTypes.addAll(this.excludedTypes);
         return copy;
     }
 
@@ -216,6 +904,159 @@ public final class Configuration {
         return checkableSerializers;
     }
 
+    /**
+     * Retrieves whether the built-in serializers should be used.
+     *
+     * @return true if the built-in serializers should be used
+     */
+    boolean isUsingBuiltInSerializers() {
+        return useBuiltInSerializers;
+    }
+
+    /**
+     * Retrieves whether objects reachable through several paths are written as references.
+     *
+     * @return true if shared objects should be written as references
+     */
+    boolean isReferencingSharedObjects() {
+        return referenceSharedObjects;
+    }
+
+    /**
+     * Retrieves the executor traversing large iterables and maps in parallel.
+     *
+     * @return an optional of the executor, absent to traverse serially
+     */
+    Optional<Executor> getParallelExecutor() {
+        return parallelExecutor;
+    }
+
+    /**
+     * Retrieves the number of elements above which iterables and maps are traversed in parallel.
+     *
+     * @return the parallel threshold
+     */
+    int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Retrieves the executor sorting large iterables and maps in parallel.
+     *
+     * @return an optional of the executor, absent to sort serially
+     */
+    Optional<Executor> getSortExecutor() {
+        return sortExecutor;
+    }
+
+    /**
+     * Retrieves the number of elements above which iterables and maps are sorted in parallel.
+     *
+     * @return the sort threshold
+     */
+    int getSortThreshold() {
+        return sortThreshold;
+    }
+
+    /**
+     * Retrieves the directory to sort large iterables in.
+     *
+     * @return an optional of the directory, absent to sort iterables by comparators in memory
+     */
+    Optional<File> getSortDirectory() {
+        return sortDirectory;
+    }
+
+    /**
+     * Retrieves the number of elements above which iterables are sorted on disk.
+     *
+     * @return the sort run size
+     */
+    int getSortRunSize() {
+        return sortRunSize;
+    }
+
+    /**
+     * Retrieves the minimum size of iterables and maps which are collapsed if unchanged.
+     *
+     * @return an optional of the collapse threshold, absent to never collapse collections
+     */
+    Optional<Integer> getCollapseThreshold() {
+        return collapseThreshold;
+    }
+
+    /**
+     * Retrieves the maximum number of nested objects to traverse.
+     *
+     * @return the maximum depth
+     */
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Retrieves the maximum number of lines to write for an object.
+     *
+     * @return the maximum number of lines
+     */
+    int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Retrieves the maximum number of elements to write for a single collection, map or array.
+     *
+     * @return the maximum number of elements
+     */
+    int getMaxElements() {
+        return maxElements;
+    }
+
+    /**
+     * Retrieves whether an exceeded limit results in an exception.
+     *
+     * @return true if an exceeded limit should result in an exception
+     */
+    boolean isFailingWhenLimitExceeded() {
+        return failWhenLimitExceeded;
+    }
+
+    /**
+     * Retrieves the types of which the serialized values are cached by equality.
+     *
+     * @return a set of immutable types
+     */
+    Set<Class<?>> getTypesCachedByEquality() {
+        return typesCachedByEquality;
+    }
+
+    /**
+     * Retrieves the types of which the serialized values are cached by identity.
+     *
+     * @return a set of immutable types
+     */
+    Set<Class<?>> getTypesCachedByIdentity() {
+        return typesCachedByIdentity;
+    }
+
+    /**
+     * Retrieves the maximum number of cached serialized values.
+     *
+     * @return the maximum size of the serialization cache
+     */
+    int getSerializationCacheSize() {
+        return serializationCacheSize;
+    }
+
+    /**
+     * Retrieves the length above which digests are serialized.
+     *
+     * @return an optional of the digest threshold
+     */
+    Optional<Integer> getDigestThreshold() {
+        return digestThreshold;
+    }
+
     /**
      * Retrieves the checkable comparators.
      * 
@@ -235,6 +1076,71 @@ public final class Configuration {
         return comparables;
     }
 
+    /**
+     * Retrieves the extractors of {@code long} sort keys.
+     *
+     * @return a set of long sort keys
+     * @see CheckableLongSortKey
+     */
+    Set<CheckableLongSortKey<?>> getLongSortKeys() {
+        return longSortKeys;
+    }
+
+    /**
+     * Retrieves the extractors of {@link String} sort keys.
+     *
+     * @return a set of string sort keys
+     * @see CheckableStringSortKey
+     */
+    Set<CheckableStringSortKey<?>> getStringSortKeys() {
+        return stringSortKeys;
+    }
+
+    /**
+     * Retrieves the bean adapters.
+     *
+     * @return a map of bean adapters by their bean class
+     */
+    Map<Class<?>, BeanAdapter<?>> getBeanAdapters() {
+        return beanAdapters;
+    }
+
+    /**
+     * Retrieves the laziness detectors.
+     *
+     * @return a set of laziness detectors
+     */
+    Set<LazinessDetector> getLazinessDetectors() {
+        return lazinessDetectors;
+    }
+
+    /**
+     * Retrieves whether uninitialized values are skipped.
+     *
+     * @return true if uninitialized values are skipped
+     */
+    boolean isSkippingUninitializedValues() {
+        return skipUninitializedValues;
+    }
+
+    /**
+     * Retrieves whether accessors are generated at runtime.
+     *
+     * @return true if accessors are generated
+     */
+    boolean isGeneratingAccessors() {
+        return generateAccessors;
+    }
+
+    /**
+     * Retrieves whether the properties of beans are read from their fields.
+     *
+     * @return true if fields are read
+     */
+    boolean isReadingFields() {
+        return readFields;
+    }
+
     /**
      * Retrieves the excluded properties.
      *
@@ -243,4 +1149,31 @@ public final class Configuration {
     Set<String> getExcludedProperties() {
         return excludedProperties;
     }
+
+    /**
+     * Retrieves the excluded path patterns.
+     *
+     * @return a set of excluded path patterns
+     */
+    Set<String> getExcludedPaths() {
+        return excludedPaths;
+    }
+
+    /**
+     * Retrieves the included path patterns.
+     *
+     * @return a set of included path patterns
+     */
+    Set<String> getIncludedPaths() {
+        return includedPaths;
+    }
+
+    /**
+     * Retrieves the excluded types.
+     *
+     * @return a set of excluded types
+     */
+    Set<Class<?>> getExcludedTypes() {
+        return excludedTypes;
+    }
 }
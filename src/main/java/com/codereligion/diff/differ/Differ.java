@@ -15,16 +15,36 @@
  */
 package com.codereligion.diff.differ;
 
+import com.codereligion.diff.exception.DiffCancelledException;
 import com.codereligion.diff.internal.ComparatorRepository;
 import com.codereligion.diff.internal.SerializerRepository;
 import com.codereligion.diff.internal.PropertyInclusionChecker;
-import com.codereligion.diff.internal.linewriter.LineWriter;
+import com.codereligion.diff.internal.linewriter.CollectionCollapser;
+import com.codereligion.diff.internal.linewriter.CollectionDigest;
+import com.codereligion.diff.internal.linewriter.DifferenceDetector;
+import com.codereligion.diff.internal.linewriter.ExclusionAutomaton;
+import com.codereligion.diff.internal.linewriter.ExternalSort;
+import com.codereligion.diff.internal.linewriter.LazinessGuard;
+import com.codereligion.diff.internal.linewriter.ParallelSorter;
+import com.codereligion.diff.internal.linewriter.ParallelTraversal;
+import com.codereligion.diff.internal.linewriter.PlanCompiler;
 import com.codereligion.diff.internal.linewriter.RootLineWriter;
+import com.codereligion.diff.internal.linewriter.SubtreeHasher;
+import com.codereligion.diff.internal.linewriter.TraversalBudget;
+import com.codereligion.diff.internal.serializer.DigestSerializer;
+import com.codereligion.diff.internal.serializer.SerializationCache;
+import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 import difflib.DiffUtils;
 import difflib.Patch;
+import difflib.myers.Equalizer;
+import java.io.File;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -52,10 +72,50 @@ public final class Differ {
     private final Configuration configuration;
 
     /**
-     * The root differ which starts traversing the object graph.
+     * Compiler of the plans to traverse the classes in the object graphs, shared by all traversals.
      */
-    private final LineWriter lineWriter;
-    
+    private final PlanCompiler planCompiler;
+
+    /**
+     * Automaton matching the paths of the values against the excluded and included path patterns, shared by all traversals.
+     */
+    private final ExclusionAutomaton exclusionAutomaton;
+
+    /**
+     * Repository of the serializers, shared by all traversals.
+     */
+    private final SerializerRepository serializerRepository;
+
+    /**
+     * Repository of the comparators, shared by all traversals.
+     */
+    private final ComparatorRepository comparatorRepository;
+
+    /**
+     * The limits enforced by all traversals.
+     */
+    private final TraversalBudget budget;
+
+    /**
+     * The guard keeping all traversals from loading lazy values.
+     */
+    private final LazinessGuard lazinessGuard;
+
+    /**
+     * The executor and threshold to traverse large iterables and maps in parallel, absent to traverse serially.
+     */
+    private final Optional<ParallelTraversal> parallelTraversal;
+
+    /**
+     * The sorter to sort large iterables and maps in parallel, absent to sort serially.
+     */
+    private final Optional<ParallelSorter> parallelSorter;
+
+    /**
+     * The directory and run size to sort iterables by the lines of their elements, absent to sort them by comparators.
+     */
+    private final Optional<ExternalSort> externalSort;
+
     /**
      * Constructs a new instance for the given {@link Configuration}.
      * 
@@ -66,19 +126,129 @@ public final class Differ {
     public Differ(final Configuration configuration) {
         checkArgument(configuration != null, "configuration must not be null.");
         this.configuration = configuration;
-        this.lineWriter = createRootLineWriter();
+        this.planCompiler = new PlanCompiler(
+                new PropertyInclusionChecker(configuration.getExcludedProperties(), configuration.getExcludedTypes()),
+                configuration.getBeanAdapters(),
+                configuration.isGeneratingAccessors(),
+                configuration.isReadingFields());
+        this.exclusionAutomaton = new ExclusionAutomaton(configuration.getExcludedPaths(), configuration.getIncludedPaths());
+        this.serializerRepository = new SerializerRepository(
+                configuration.getCheckableSerializer(),
+                configuration.isUsingBuiltInSerializers(),
+                createSerializationCache(),
+                createDigestSerializer());
+        this.comparatorRepository = new ComparatorRepository(
+                configuration.getCheckableComparators(),
+                configuration.getComparables(),
+                configuration.getLongSortKeys(),
+                configuration.getStringSortKeys());
+        this.budget = new TraversalBudget(
+                configuration.getMaxDepth(),
+                configuration.getMaxLines(),
+                configuration.getMaxElements(),
+                configuration.isFailingWhenLimitExceeded());
+        this.lazinessGuard = new LazinessGuard(configuration.getLazinessDetectors(), configuration.isSkippingUninitializedValues());
+        this.parallelTraversal = createParallelTraversal();
+        this.parallelSorter = createParallelSorter();
+        this.externalSort = createExternalSort();
     }
 
     /**
-     * Creates a new instance of the root line writer.
+     * Creates a new instance of the root line writer, which tracks the objects of a single traversal.
      *
+     * @param cancellationToken the optional token to check for the cancellation of the traversal
      * @return a new instance of the root line writer.
      */
-    private LineWriter createRootLineWriter() {
+    private RootLineWriter createRootLineWriter(final Optional<CancellationToken> cancellationToken) {
         return new RootLineWriter(
-                new PropertyInclusionChecker(configuration.getExcludedProperties()),
-                new SerializerRepository(configuration.getCheckableSerializer()),
-                new ComparatorRepository(configuration.getCheckableComparators(), configuration.getComparables()));
+                planCompiler,
+                exclusionAutomaton,
+                serializerRepository,
+                comparatorRepository,
+                configuration.isReferencingSharedObjects(),
+                budget,
+                lazinessGuard,
+                cancellationToken,
+                parallelTraversal,
+                parallelSorter,
+                externalSort,
+                configuration.getCollapseThreshold());
+    }
+
+    /**
+     * Creates the parallel traversal, if an executor has been configured.
+     *
+     * @return an optional of the parallel traversal
+     */
+    private Optional<ParallelTraversal> createParallelTraversal() {
+        final Optional<Executor> parallelExecutor = configuration.getParallelExecutor();
+
+        if (!parallelExecutor.isPresent()) {
+            return Optional.absent();
+        }
+
+        return Optional.of(new ParallelTraversal(parallelExecutor.get(), configuration.getParallelThreshold()));
+    }
+
+    /**
+     * Creates the parallel sorter, if an executor for sorting has been configured.
+     *
+     * @return an optional of the parallel sorter
+     */
+    private Optional<ParallelSorter> createParallelSorter() {
+        final Optional<Executor> sortExecutor = configuration.getSortExecutor();
+
+        if (!sortExecutor.isPresent()) {
+            return Optional.absent();
+        }
+
+        return Optional.of(new ParallelSorter(sortExecutor.get(), configuration.getSortThreshold()));
+    }
+
+    /**
+     * Creates the external sort, if a directory to sort iterables in has been configured.
+     *
+     * @return an optional of the external sort
+     */
+    private Optional<ExternalSort> createExternalSort() {
+        final Optional<File> sortDirectory = configuration.getSortDirectory();
+
+        if (!sortDirectory.isPresent()) {
+            return Optional.absent();
+        }
+
+        return Optional.of(new ExternalSort(sortDirectory.get(), configuration.getSortRunSize()));
+    }
+
+    /**
+     * Creates the cache for serialized values, if any types have been declared to be cached.
+     *
+     * @return an optional of the serialization cache
+     */
+    private Optional<SerializationCache> createSerializationCache() {
+        final Set<Class<?>> typesCachedByEquality = configuration.getTypesCachedByEquality();
+        final Set<Class<?>> typesCachedByIdentity = configuration.getTypesCachedByIdentity();
+
+        if (typesCachedByEquality.isEmpty() && typesCachedByIdentity.isEmpty()) {
+            return Optional.absent();
+        }
+
+        return Optional.of(new SerializationCache(typesCachedByEquality, typesCachedByIdentity, configuration.getSerializationCacheSize()));
+    }
+
+    /**
+     * Creates the serializer for large content, if a digest threshold has been configured.
+     *
+     * @return an optional of the digest serializer
+     */
+    private Optional<DigestSerializer> createDigestSerializer() {
+        final Optional<Integer> digestThreshold = configuration.getDigestThreshold();
+
+        if (!digestThreshold.isPresent()) {
+            return Optional.absent();
+        }
+
+        return Optional.of(new DigestSerializer(digestThreshold.get()));
     }
 
     /**
@@ -104,22 +274,230 @@ public final class Differ {
      *             missing an {@link com.codereligion.diff.comparator.CheckableComparator} to perform the diff
      * @throws com.codereligion.diff.exception.UnreadablePropertyException when a getter of a property of the given
      *             object threw an exception during invocation
+     * @throws com.codereligion.diff.exception.TraversalBudgetExceededException when a configured limit has been
+     *             exceeded and the {@link Configuration} requests to fail in that case
      */
     public List<String> diff(@Nullable final Object base, final Object working) {
 
         checkArgument(working != null, "working object must not be null.");
 
-        final List<String> serializedPropertiesOfBase = Lists.newArrayList();
+        return createDiff(base, working, Collections.<String>emptyList(), Optional.<CancellationToken>absent());
+    }
+
+    /**
+     * Creates a diff like {@link #diff(Object, Object)}, but checks the given {@code cancellationToken}
+     * in bounded intervals while traversing the objects and comparing their lines. As soon as the token
+     * has been cancelled or its deadline has passed, the diff is aborted.
+     *
+     * <p>
+     * The sorting of a single iterable or map and the writing of a single array are not interrupted, so
+     * limiting their size with {@link Configuration#limitElements(int)} bounds the time between two checks.
+     *
+     * @param base the object which represents the state before a change
+     * @param working the object which represents the state after a change
+     * @param cancellationToken the token to abort the diff with
+     * @return a list of strings representing the detected differences between the given objects
+     * @throws IllegalArgumentException when the given {@code working} object or the given
+     *             {@code cancellationToken} is {@code null}
+     * @throws com.codereligion.diff.exception.DiffCancelledException when the given {@code cancellationToken}
+     *             has been cancelled before the diff has been completed
+     * @see #diff(Object, Object)
+     */
+    public List<String> diff(@Nullable final Object base, final Object working, final CancellationToken cancellationToken) {
+
+        checkArgument(working != null, "working object must not be null.");
+        checkArgument(cancellationToken != null, "cancellationToken must not be null.");
+
+        return createDiff(base, working, Collections.<String>emptyList(), Optional.of(cancellationToken));
+    }
 
-        if (base != null) {
-            final String simpleClassNameOfBase = getBeanName(base);
-            serializedPropertiesOfBase.addAll(lineWriter.write(simpleClassNameOfBase, base));
+    /**
+     * Creates a diff like {@link #diff(Object, Object)}, but only of the subtree of both objects which
+     * is reached by following the properties of the given root-relative {@code path}, e.g.
+     * {@code customer.addresses}. Neither the values on the way to the subtree nor their other
+     * properties are written, but the paths of the written lines are fully qualified, so that they
+     * match the lines of a diff of the whole objects.
+     *
+     * <p>
+     * In case a value on the way to the subtree is {@code null} or excluded, the subtree is considered
+     * to be empty. References to objects outside of the subtree are only written for the objects on the
+     * way to the subtree, other objects shared with the rest of the object graph are written completely.
+     *
+     * @param base the object which represents the state before a change
+     * @param working the object which represents the state after a change
+     * @param path the names of the properties leading to the subtree separated by dots, empty to diff
+     *            the whole objects
+     * @return a list of strings representing the detected differences between the subtrees of the given objects
+     * @throws IllegalArgumentException when the given {@code working} object or the given {@code path} is
+     *             {@code null}, the given {@code path} is not a dot separated list of property names or
+     *             a value on the way to the subtree does not have an included property of the next name
+     * @see #diff(Object, Object)
+     */
+    public List<String> diffAt(@Nullable final Object base, final Object working, final String path) {
+
+        checkArgument(working != null, "working object must not be null.");
+        checkArgument(path != null, "path must not be null.");
+
+        return createDiff(base, working, parsePropertyNames(path), Optional.<CancellationToken>absent());
+    }
+
+    /**
+     * Splits the given {@code path} into the names of its properties.
+     *
+     * @param path the dot separated property names
+     * @return the list of property names, empty for an empty path
+     * @throws IllegalArgumentException when the given {@code path} contains empty names or characters
+     *             which are not allowed in property names
+     */
+    private static List<String> parsePropertyNames(final String path) {
+        if (path.isEmpty()) {
+            return Collections.emptyList();
         }
 
+        final List<String> propertyNames = Lists.newArrayList(Splitter.on('.').split(path));
+        for (final String propertyName : propertyNames) {
+            final boolean validName = !propertyName.isEmpty() && propertyName.indexOf('[') < 0
+                    && propertyName.indexOf(']') < 0 && propertyName.indexOf('*') < 0;
+            checkArgument(validName, "path must consist of property names separated by dots.");
+        }
+        return propertyNames;
+    }
+
+    /**
+     * Creates the diff for the subtrees of the given {@code base} and {@code working} objects.
+     *
+     * @param base the object which represents the state before a change
+     * @param working the object which represents the state after a change
+     * @param propertyNames the names of the properties leading to the subtrees, empty to diff the whole objects
+     * @param cancellationToken the optional token to abort the diff with
+     * @return a list of strings representing the detected differences between the given objects
+     */
+    private List<String> createDiff(@Nullable final Object base,
+                                    final Object working,
+                                    final List<String> propertyNames,
+                                    final Optional<CancellationToken> cancellationToken) {
+
+        if (base == null) {
+            final String simpleClassNameOfWorking = getBeanName(working);
+            final List<String> serializedPropertiesOfWorking =
+                    createRootLineWriter(cancellationToken).writeSubtree(simpleClassNameOfWorking, working, propertyNames);
+
+            return unifiedDiff(Lists.<String>newArrayList(), serializedPropertiesOfWorking, cancellationToken);
+        }
+
+        final String simpleClassNameOfBase = getBeanName(base);
+        final RootLineWriter baseLineWriter = createRootLineWriter(cancellationToken);
+        final List<String> serializedPropertiesOfBase = baseLineWriter.writeSubtree(simpleClassNameOfBase, base, propertyNames);
+
+        final String simpleClassNameOfWorking = getBeanName(working);
+        final RootLineWriter workingLineWriter = createRootLineWriter(cancellationToken);
+        final List<String> serializedPropertiesOfWorking = workingLineWriter.writeSubtree(simpleClassNameOfWorking, working, propertyNames);
+
+        // collections written with equal lines for both objects are not compared line by line
+        final Map<String, CollectionDigest> unchangedCollections = CollectionCollapser.unchangedCollections(
+                baseLineWriter.getCollectionDigests(), workingLineWriter.getCollectionDigests());
+
+        return unifiedDiff(
+                CollectionCollapser.collapse(serializedPropertiesOfBase, unchangedCollections),
+                CollectionCollapser.collapse(serializedPropertiesOfWorking, unchangedCollections),
+                cancellationToken);
+    }
+
+    /**
+     * Checks whether a diff of the given {@code base} and {@code working} objects would contain
+     * any differences, without creating the diff.
+     *
+     * <p>
+     * Both objects are traversed together and the traversal stops at the first difference. As long
+     * as no difference is found, the values are compared without writing any lines. Only if the lines
+     * of two values can not be compared that way, e.g. because an object is reachable through several
+     * paths, the traversal is limited or guarded against lazy values or iterables are sorted by their lines
+     * according to the {@link Configuration}, the lines are written and compared without creating the diff.
+     *
+     * <p>
+     * Since the traversal stops at the first difference, exceptions about missing serializers or
+     * comparators are only thrown for the parts of the object graphs traversed until then.
+     *
+     * @param base the object which represents the state before a change
+     * @param working the object which represents the state after a change
+     * @return true if a diff of the given objects would not be empty
+     * @throws IllegalArgumentException when the given {@code working} object is
+     *             {@code null}
+     * @throws com.codereligion.diff.exception.MissingSerializerException when the {@link Configuration} is missing
+     *             a {@link com.codereligion.diff.serializer.CheckableSerializer} to perform the diff
+     * @throws com.codereligion.diff.exception.MissingComparatorException when the {@link Configuration} is
+     *             missing an {@link com.codereligion.diff.comparator.CheckableComparator} to perform the diff
+     * @throws com.codereligion.diff.exception.UnreadablePropertyException when a getter of a property of the given
+     *             object threw an exception during invocation
+     * @throws com.codereligion.diff.exception.TraversalBudgetExceededException when a configured limit has been
+     *             exceeded and the {@link Configuration} requests to fail in that case
+     * @see #diff(Object, Object)
+     */
+    public boolean hasDifferences(@Nullable final Object base, final Object working) {
+
+        checkArgument(working != null, "working object must not be null.");
+
         final String simpleClassNameOfWorking = getBeanName(working);
-        final List<String> serializedPropertiesOfWorking = lineWriter.write(simpleClassNameOfWorking, working);
 
-        return unifiedDiff(serializedPropertiesOfBase, serializedPropertiesOfWorking);
+        if (base == null) {
+            return !createRootLineWriter(Optional.<CancellationToken>absent()).write(simpleClassNameOfWorking, working).isEmpty();
+        }
+
+        final String simpleClassNameOfBase = getBeanName(base);
+        final boolean comparableWithoutLines = budget.isUnlimited()
+                && !lazinessGuard.detectsLaziness()
+                && !externalSort.isPresent()
+                && simpleClassNameOfBase.equals(simpleClassNameOfWorking);
+
+        if (comparableWithoutLines) {
+            final Optional<Boolean> hasDifferences =
+                    new DifferenceDetector(planCompiler, exclusionAutomaton, serializerRepository, comparatorRepository)
+                            .hasDifferences(simpleClassNameOfWorking, base, working);
+
+            if (hasDifferences.isPresent()) {
+                return hasDifferences.get();
+            }
+        }
+
+        final List<String> serializedPropertiesOfBase = createRootLineWriter(Optional.<CancellationToken>absent()).write(simpleClassNameOfBase, base);
+        final List<String> serializedPropertiesOfWorking = createRootLineWriter(Optional.<CancellationToken>absent()).write(simpleClassNameOfWorking, working);
+
+        return !serializedPropertiesOfBase.equals(serializedPropertiesOfWorking);
+    }
+
+    /**
+     * Computes the fingerprints of the given {@code object} and all of its subtrees, i.e. the values of
+     * its properties, elements and entries, from the lines a diff would contain for it. The fingerprint
+     * of a subtree combines the fingerprints of its children, so it only changes when a line within the
+     * subtree changes.
+     *
+     * <p>
+     * Storing the fingerprints of an object allows to check whether a later version of it differs,
+     * with {@link Fingerprints#getRootFingerprint()}, and which of its subtrees have changed, with
+     * {@link Fingerprints#findChangedPaths(Fingerprints)}, without keeping the previous version in memory.
+     * The fingerprints are only comparable between differs with equal {@link Configuration}s.
+     *
+     * @param object the object to fingerprint
+     * @return the fingerprints of the object and its subtrees
+     * @throws IllegalArgumentException when the given {@code object} is {@code null}
+     * @throws com.codereligion.diff.exception.MissingSerializerException when the {@link Configuration} is missing
+     *             a {@link com.codereligion.diff.serializer.CheckableSerializer} to write the object
+     * @throws com.codereligion.diff.exception.MissingComparatorException when the {@link Configuration} is
+     *             missing an {@link com.codereligion.diff.comparator.CheckableComparator} to write the object
+     * @throws com.codereligion.diff.exception.UnreadablePropertyException when a getter of a property of the given
+     *             object threw an exception during invocation
+     * @throws com.codereligion.diff.exception.TraversalBudgetExceededException when a configured limit has been
+     *             exceeded and the {@link Configuration} requests to fail in that case
+     * @see #diff(Object, Object)
+     */
+    public Fingerprints fingerprint(final Object object) {
+
+        checkArgument(object != null, "object must not be null.");
+
+        final String simpleClassName = getBeanName(object);
+        final List<String> serializedProperties = createRootLineWriter(Optional.<CancellationToken>absent()).write(simpleClassName, object);
+
+        return new Fingerprints(simpleClassName, SubtreeHasher.fingerprint(simpleClassName, serializedProperties));
     }
 
     /**
@@ -140,10 +518,16 @@ public final class Differ {
      *
      * @param baseDocument the document representing the base object
      * @param workingDocument the document representing the working object
+     * @param cancellationToken the optional token to abort the comparison of the documents with
      * @return a list of strings representing the diff between the given documents
      */
-    private List<String> unifiedDiff(final List<String> baseDocument, final List<String> workingDocument) {
-        final Patch<String> patch = DiffUtils.diff(baseDocument, workingDocument);
+    private List<String> unifiedDiff(final List<String> baseDocument,
+                                     final List<String> workingDocument,
+                                     final Optional<CancellationToken> cancellationToken) {
+
+        final Patch<String> patch = cancellationToken.isPresent()
+                ? DiffUtils.diff(baseDocument, workingDocument, new CancellableEqualizer(cancellationToken.get()))
+                : DiffUtils.diff(baseDocument, workingDocument);
         final boolean objectsHaveNoDiff = patch.getDeltas().isEmpty();
 
         if (objectsHaveNoDiff) {
@@ -154,4 +538,45 @@ public final class Differ {
         final String workingObjectName = configuration.getWorkingObjectName();
         return DiffUtils.generateUnifiedDiff(baseObjectName, workingObjectName, baseDocument, patch, LINES_OF_CONTEXT_AROUND_OUTPUT);
     }
+
+    /**
+     * Compares the lines of the documents like the default equalizer of the diff algorithm, but checks
+     * the cancellation token in bounded intervals, since the comparisons grow with the product of the
+     * number of lines and the number of differences.
+     */
+    private static final class CancellableEqualizer implements Equalizer<String> {
+
+        /**
+         * The number of comparisons after which the cancellation token is checked, must be a power of two.
+         */
+        private static final int CANCELLATION_CHECK_INTERVAL = 1024;
+
+        /**
+         * The token to check for the cancellation of the comparison.
+         */
+        private final CancellationToken cancellationToken;
+
+        /**
+         * The number of comparisons so far.
+         */
+        private int comparisonCount;
+
+        /**
+         * Creates a new instance for the given {@code cancellationToken}.
+         *
+         * @param cancellationToken the token to check for the cancellation of the comparison
+         */
+        CancellableEqualizer(final CancellationToken cancellationToken) {
+            this.cancellationToken = cancellationToken;
+        }
+
+        @Override
+        public boolean equals(final String original, final String revised) {
+            final boolean checkDue = (comparisonCount++ & (CANCELLATION_CHECK_INTERVAL - 1)) == 0;
+            if (checkDue && cancellationToken.isCancelled()) {
+                throw DiffCancelledException.cancelledWhileComparingLines();
+            }
+            return original.equals(revised);
+        }
+    }
 }
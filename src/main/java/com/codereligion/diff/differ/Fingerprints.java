@@ -0,0 +1,162 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.differ;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The fingerprints of an object and all of its subtrees as computed by {@link Differ#fingerprint(Object)}.
+ * The fingerprint of a subtree only changes when a line of a diff within it would change, so comparing the
+ * fingerprints of two versions of an object tells whether and where they differ without keeping the
+ * previous version in memory.
+ *
+ * <p>
+ * The fingerprints are hexadecimal strings of 128 bit hashes by the paths of their subtrees, e.g.
+ * {@code Customer.addresses[0]}, which can be stored with {@link #asMap()} and restored with
+ * {@link #restore(String, Map)}.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+public final class Fingerprints {
+
+    /**
+     * The path of the fingerprinted object.
+     */
+    private final String rootPath;
+
+    /**
+     * The fingerprints by the paths of their subtrees.
+     */
+    private final ImmutableMap<String, String> fingerprints;
+
+    /**
+     * Restores the fingerprints of an object from the given previously stored ones.
+     *
+     * @param rootPath the path of the fingerprinted object, as returned by {@link #getRootPath()}
+     * @param fingerprints the fingerprints by the paths of their subtrees, as returned by {@link #asMap()}
+     * @return a new instance
+     * @throws IllegalArgumentException when any of the given parameters is {@code null} or the given
+     *             {@code fingerprints} do not contain one for the given {@code rootPath}
+     */
+    public static Fingerprints restore(final String rootPath, final Map<String, String> fingerprints) {
+        checkArgument(rootPath != null, "rootPath must not be null.");
+        checkArgument(fingerprints != null, "fingerprints must not be null.");
+        checkArgument(fingerprints.containsKey(rootPath), "fingerprints must contain the one of the rootPath.");
+        return new Fingerprints(rootPath, fingerprints);
+    }
+
+    /**
+     * Creates a new instance for the given {@code rootPath} and {@code fingerprints}.
+     *
+     * @param rootPath the path of the fingerprinted object
+     * @param fingerprints the fingerprints by the paths of their subtrees
+     */
+    Fingerprints(final String rootPath, final Map<String, String> fingerprints) {
+        this.rootPath = rootPath;
+        this.fingerprints = ImmutableMap.copyOf(fingerprints);
+    }
+
+    /**
+     * Retrieves the path of the fingerprinted object, which is the simple name of its class.
+     *
+     * @return the root path
+     */
+    public String getRootPath() {
+        return rootPath;
+    }
+
+    /**
+     * Retrieves the fingerprint of the whole object. Two objects with equal root fingerprints have an
+     * empty diff.
+     *
+     * @return the root fingerprint
+     */
+    public String getRootFingerprint() {
+        return fingerprints.get(rootPath);
+    }
+
+    /**
+     * Retrieves the fingerprint of the subtree with the given {@code path}.
+     *
+     * @param path the path of the subtree, e.g. {@code Customer.addresses[0]}
+     * @return the fingerprint or {@code null} if the object does not have a written subtree with the given path
+     */
+    @Nullable
+    public String getFingerprint(final String path) {
+        return fingerprints.get(path);
+    }
+
+    /**
+     * Retrieves all fingerprints by the paths of their subtrees, parents before their children.
+     *
+     * @return an immutable map of the fingerprints
+     */
+    public Map<String, String> asMap() {
+        return fingerprints;
+    }
+
+    /**
+     * Finds the paths of the subtrees whose fingerprints differ from the ones of the given {@code other}
+     * fingerprints or which only exist in one of them. Subtrees whose paths are not contained can be
+     * skipped, since they are unchanged.
+     *
+     * @param other the fingerprints to compare with, usually of a previous version of the object
+     * @return the paths of the changed subtrees, parents before their children
+     * @throws IllegalArgumentException when the given {@code other} fingerprints are {@code null}
+     */
+    public Set<String> findChangedPaths(final Fingerprints other) {
+        checkArgument(other != null, "other must not be null.");
+
+        final ImmutableSet.Builder<String> changedPaths = ImmutableSet.builder();
+        for (final Map.Entry<String, String> fingerprint : fingerprints.entrySet()) {
+            if (!fingerprint.getValue().equals(other.fingerprints.get(fingerprint.getKey()))) {
+                changedPaths.add(fingerprint.getKey());
+            }
+        }
+        for (final String otherPath : other.fingerprints.keySet()) {
+            if (!fingerprints.containsKey(otherPath)) {
+                changedPaths.add(otherPath);
+            }
+        }
+        return changedPaths.build();
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof Fingerprints)) {
+            return false;
+        }
+
+        final Fingerprints other = (Fingerprints) object;
+        return rootPath.equals(other.rootPath) && fingerprints.equals(other.fingerprints);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(rootPath, fingerprints);
+    }
+}
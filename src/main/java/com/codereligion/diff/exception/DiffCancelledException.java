@@ -0,0 +1,72 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.exception;
+
+/**
+ * Indicates that the {@link com.codereligion.diff.differ.Differ} aborted a diff, because the
+ * {@link com.codereligion.diff.differ.CancellationToken} it was given has been cancelled or
+ * its deadline has passed, or because the thread running the diff has been interrupted while
+ * waiting for a parallel traversal.
+ *
+ * @since 19.10.2026
+ * @see com.codereligion.diff.differ.CancellationToken
+ */
+public final class DiffCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new {@link DiffCancelledException} to indicate that the traversal of an object
+     * graph has been aborted.
+     *
+     * @param path the path of the value at which the traversal has been aborted
+     * @return a new instance of {@link DiffCancelledException}
+     */
+    public static DiffCancelledException cancelledAt(final String path) {
+        return new DiffCancelledException("Cancelled the diff while traversing '" + path + "'");
+    }
+
+    /**
+     * Creates a new {@link DiffCancelledException} to indicate that the traversal of an object
+     * graph has been aborted, because the traversing thread has been interrupted while waiting
+     * for the elements traversed in parallel.
+     *
+     * @param path the path of the iterable or map at which the traversal has been aborted
+     * @return a new instance of {@link DiffCancelledException}
+     */
+    public static DiffCancelledException interruptedAt(final String path) {
+        return new DiffCancelledException("Interrupted the diff while traversing '" + path + "' in parallel");
+    }
+
+    /**
+     * Creates a new {@link DiffCancelledException} to indicate that the comparison of the
+     * written lines has been aborted.
+     *
+     * @return a new instance of {@link DiffCancelledException}
+     */
+    public static DiffCancelledException cancelledWhileComparingLines() {
+        return new DiffCancelledException("Cancelled the diff while comparing the lines");
+    }
+
+    /**
+     * Disallows public instantiation.
+     *
+     * @param message the message to use
+     */
+    private DiffCancelledException(final String message) {
+        super(message);
+    }
+}
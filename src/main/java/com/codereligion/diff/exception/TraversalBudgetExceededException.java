@@ -0,0 +1,74 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.exception;
+
+/**
+ * Indicates that the {@link com.codereligion.diff.differ.Differ} stopped traversing an object graph, because
+ * one of the traversal budgets configured on the {@link com.codereligion.diff.differ.Configuration} has been
+ * exceeded and failing on exceeded budgets has been requested.
+ *
+ * @since 19.10.2026
+ * @see com.codereligion.diff.differ.Configuration#failWhenLimitExceeded()
+ */
+public final class TraversalBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new {@link TraversalBudgetExceededException} to indicate that the object graph
+     * is nested deeper than the given {@code maxDepth}.
+     *
+     * @param path the path of the object which exceeded the depth
+     * @param maxDepth the maximum depth
+     * @return a new instance of {@link TraversalBudgetExceededException}
+     */
+    public static TraversalBudgetExceededException depthExceeded(final String path, final int maxDepth) {
+        return new TraversalBudgetExceededException("Exceeded the maximum depth of " + maxDepth + " at '" + path + "'");
+    }
+
+    /**
+     * Creates a new {@link TraversalBudgetExceededException} to indicate that the object graph
+     * is serialized to more than the given {@code maxLines}.
+     *
+     * @param path the path of the value which exceeded the number of lines
+     * @param maxLines the maximum number of lines
+     * @return a new instance of {@link TraversalBudgetExceededException}
+     */
+    public static TraversalBudgetExceededException linesExceeded(final String path, final int maxLines) {
+        return new TraversalBudgetExceededException("Exceeded the maximum number of " + maxLines + " lines at '" + path + "'");
+    }
+
+    /**
+     * Creates a new {@link TraversalBudgetExceededException} to indicate that a collection, map or
+     * array contains more than the given {@code maxElements}.
+     *
+     * @param path the path of the collection which exceeded the number of elements
+     * @param maxElements the maximum number of elements
+     * @return a new instance of {@link TraversalBudgetExceededException}
+     */
+    public static TraversalBudgetExceededException elementsExceeded(final String path, final int maxElements) {
+        return new TraversalBudgetExceededException("Exceeded the maximum number of " + maxElements + " elements at '" + path + "'");
+    }
+
+    /**
+     * Disallows public instantiation.
+     *
+     * @param message the message to use
+     */
+    private TraversalBudgetExceededException(final String message) {
+        super(message);
+    }
+}
@@ -16,7 +16,10 @@
 package com.codereligion.diff.internal;
 
 import com.codereligion.diff.comparator.CheckableComparator;
+import com.codereligion.diff.comparator.CheckableLongSortKey;
+import com.codereligion.diff.comparator.CheckableStringSortKey;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
 import java.util.Comparator;
 import java.util.Set;
 
@@ -38,6 +41,16 @@ public class ComparatorRepository {
      */
     private final Set<Class<? extends Comparable<?>>> comparables;
 
+    /**
+     * The set of possible {@code long} sort keys.
+     */
+    private final Set<CheckableLongSortKey<?>> longSortKeys;
+
+    /**
+     * The set of possible {@link String} sort keys.
+     */
+    private final Set<CheckableStringSortKey<?>> stringSortKeys;
+
     /**
      * Creates a new instance for the given {@code checkableComparators} and
      * {@code comparable}.
@@ -49,8 +62,28 @@ public class ComparatorRepository {
             final Set<CheckableComparator<?>> checkableComparators,
             final Set<Class<? extends Comparable<?>>> comparables) {
 
+        this(checkableComparators, comparables, ImmutableSet.<CheckableLongSortKey<?>>of(), ImmutableSet.<CheckableStringSortKey<?>>of());
+    }
+
+    /**
+     * Creates a new instance for the given {@code checkableComparators}, {@code comparable},
+     * {@code longSortKeys} and {@code stringSortKeys}.
+     *
+     * @param checkableComparators the checkable comparators to use
+     * @param comparables the comparables to use
+     * @param longSortKeys the {@code long} sort keys to use
+     * @param stringSortKeys the {@link String} sort keys to use
+     */
+    public ComparatorRepository(
+            final Set<CheckableComparator<?>> checkableComparators,
+            final Set<Class<? extends Comparable<?>>> comparables,
+            final Set<CheckableLongSortKey<?>> longSortKeys,
+            final Set<CheckableStringSortKey<?>> stringSortKeys) {
+
         this.checkableComparators = checkableComparators;
         this.comparables = comparables;
+        this.longSortKeys = longSortKeys;
+        this.stringSortKeys = stringSortKeys;
     }
 
     /**
@@ -71,6 +104,38 @@ public class ComparatorRepository {
         return findComparatorFor(object);
     }
 
+    /**
+     * Finds an optional {@code long} sort key suitable for the given {@code object}.
+     *
+     * @param object the {@link Object} to find a sort key for
+     * @return an optional of a {@link CheckableLongSortKey}
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<CheckableLongSortKey<Object>> findLongSortKeyFor(final Object object) {
+        for (final CheckableLongSortKey<?> sortKey : longSortKeys) {
+            if (sortKey.applies(object)) {
+                return Optional.of((CheckableLongSortKey<Object>) sortKey);
+            }
+        }
+        return Optional.absent();
+    }
+
+    /**
+     * Finds an optional {@link String} sort key suitable for the given {@code object}.
+     *
+     * @param object the {@link Object} to find a sort key for
+     * @return an optional of a {@link CheckableStringSortKey}
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<CheckableStringSortKey<Object>> findStringSortKeyFor(final Object object) {
+        for (final CheckableStringSortKey<?> sortKey : stringSortKeys) {
+            if (sortKey.applies(object)) {
+                return Optional.of((CheckableStringSortKey<Object>) sortKey);
+            }
+        }
+        return Optional.absent();
+    }
+
     /**
      * Finds an optional comparator suitable for the given {@code object}.
      * 
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A parsed pattern matching the paths of values in an object graph, e.g. {@code Order.lines[*].audit}.
+ *
+ * <p>
+ * The pattern is split into segments, each of which matches a single step of a path. A segment is
+ * either the name of a property, {@link #ANY_PROPERTY}, {@link #ANY_ELEMENT} or {@link #ANY_DEPTH}.
+ * The first segment matches the name of the root object.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+public final class PathPattern {
+
+    /**
+     * The segment matching any single property.
+     */
+    public static final String ANY_PROPERTY = "*";
+
+    /**
+     * The segment matching any element of an iterable or any value of a map.
+     */
+    public static final String ANY_ELEMENT = "[*]";
+
+    /**
+     * The segment matching any number of steps, including none.
+     */
+    public static final String ANY_DEPTH = "**";
+
+    /**
+     * The segments of the pattern in the order of the path.
+     */
+    private final ImmutableList<String> segments;
+
+    /**
+     * Creates a new instance for the given {@code segments}.
+     *
+     * @param segments the segments of the pattern
+     */
+    private PathPattern(final ImmutableList<String> segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Parses the given {@code pattern}.
+     *
+     * @param pattern the pattern to parse
+     * @return the parsed pattern
+     * @throws IllegalArgumentException when the given {@code pattern} is not a valid path pattern
+     */
+    public static PathPattern parse(final String pattern) {
+        final ImmutableList.Builder<String> segments = ImmutableList.builder();
+        int position = 0;
+        boolean expectingName = true;
+
+        while (position < pattern.length() || expectingName) {
+            if (expectingName) {
+                final int end = endOfName(pattern, position);
+                segments.add(parseName(pattern, pattern.substring(position, end)));
+                position = end;
+                expectingName = false;
+            } else if (pattern.charAt(position) == '.') {
+                position++;
+                expectingName = true;
+            } else if (pattern.startsWith(ANY_ELEMENT, position)) {
+                segments.add(ANY_ELEMENT);
+                position += ANY_ELEMENT.length();
+            } else {
+                throw invalidPattern(pattern, "unexpected character '" + pattern.charAt(position) + "' at " + position);
+            }
+        }
+
+        return new PathPattern(segments.build());
+    }
+
+    /**
+     * Finds the end of the name starting at the given {@code start} of the given {@code pattern}.
+     *
+     * @param pattern the pattern containing the name
+     * @param start the index of the first character of the name
+     * @return the index after the last character of the name
+     */
+    private static int endOfName(final String pattern, final int start) {
+        int end = start;
+        while (end < pattern.length() && pattern.charAt(end) != '.' && pattern.charAt(end) != '[') {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Validates the given {@code name} segment of the given {@code pattern}.
+     *
+     * @param pattern the pattern containing the name
+     * @param name the name to validate
+     * @return the given name
+     * @throws IllegalArgumentException when the given {@code name} is empty or contains wildcards next to other characters
+     */
+    private static String parseName(final String pattern, final String name) {
+        if (name.isEmpty()) {
+            throw invalidPattern(pattern, "empty segment");
+        }
+        if (name.indexOf(']') >= 0) {
+            throw invalidPattern(pattern, "unexpected ']' in segment '" + name + "'");
+        }
+        if (name.indexOf('*') >= 0 && !name.equals(ANY_PROPERTY) && !name.equals(ANY_DEPTH)) {
+            throw invalidPattern(pattern, "wildcards can not be combined with other characters in segment '" + name + "'");
+        }
+        return name;
+    }
+
+    /**
+     * Creates the exception for the given invalid {@code pattern}.
+     *
+     * @param pattern the invalid pattern
+     * @param reason the reason why the pattern is invalid
+     * @return the exception to throw
+     */
+    private static IllegalArgumentException invalidPattern(final String pattern, final String reason) {
+        return new IllegalArgumentException("Invalid path pattern '" + pattern + "': " + reason + ".");
+    }
+
+    /**
+     * Retrieves the segments of the pattern.
+     *
+     * @return an immutable list of segments
+     */
+    public List<String> getSegments() {
+        return segments;
+    }
+}
@@ -19,6 +19,7 @@ import com.google.common.base.Predicate;
 
 import javax.annotation.Nullable;
 import java.beans.PropertyDescriptor;
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -34,13 +35,53 @@ public final class PropertyInclusionChecker implements Predicate<PropertyDescrip
      */
     private final Set<String> excludedProperties;
 
+    /**
+     * The types of which the properties and values are excluded from the diff.
+     */
+    private final Set<Class<?>> excludedTypes;
+
     /**
      * Creates a new instance for the given {@code excludedProperties}.
      *
      * @param excludedProperties the set of excluded properties, by name
      */
     public PropertyInclusionChecker(final Set<String> excludedProperties) {
+        this(excludedProperties, Collections.<Class<?>>emptySet());
+    }
+
+    /**
+     * Creates a new instance for the given {@code excludedProperties} and {@code excludedTypes}.
+     *
+     * @param excludedProperties the set of excluded properties, by name
+     * @param excludedTypes the set of excluded types, including their subtypes
+     */
+    public PropertyInclusionChecker(final Set<String> excludedProperties, final Set<Class<?>> excludedTypes) {
         this.excludedProperties = excludedProperties;
+        this.excludedTypes = excludedTypes;
+    }
+
+    /**
+     * Checks whether any types are excluded.
+     *
+     * @return true if any types are excluded
+     */
+    public boolean excludesTypes() {
+        return !excludedTypes.isEmpty();
+    }
+
+    /**
+     * Checks whether the given {@code type} is one of the excluded types or a subtype of one of them.
+     *
+     * @param type the type to check
+     * @return true if values of the given type are excluded
+     */
+    public boolean isExcludedType(final Class<?> type) {
+        for (final Class<?> excludedType : excludedTypes) {
+            if (excludedType.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -50,6 +91,22 @@ public final class PropertyInclusionChecker implements Predicate<PropertyDescrip
             return false;
         }
 
-        return !excludedProperties.contains(input.getName());
+        return isIncluded(input.getName(), input.getPropertyType());
+    }
+
+    /**
+     * Checks whether the property with the given {@code name} and declared {@code type} is included.
+     * The declared type is checked before any value is read, so that the getters of properties of
+     * excluded types are never invoked.
+     *
+     * @param name the name of the property
+     * @param type the declared type of the property, {@code null} if unknown
+     * @return true if the property is included
+     */
+    public boolean isIncluded(final String name, @Nullable final Class<?> type) {
+        if (excludedProperties.contains(name)) {
+            return false;
+        }
+        return type == null || !isExcludedType(type);
     }
 }
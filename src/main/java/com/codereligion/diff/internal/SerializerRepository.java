@@ -15,14 +15,23 @@
  */
 package com.codereligion.diff.internal;
 
-import com.codereligion.diff.serializer.CheckableSerializer;
+import com.codereligion.diff.internal.serializer.BuiltInSerializer;
+import com.codereligion.diff.internal.serializer.CachingSerializer;
 import com.codereligion.diff.internal.serializer.ClassSerializer;
+import com.codereligion.diff.internal.serializer.DigestSerializer;
 import com.codereligion.diff.internal.serializer.NullSerializer;
+import com.codereligion.diff.internal.serializer.SerializationCache;
+import com.codereligion.diff.serializer.AppendingSerializer;
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
+import com.codereligion.diff.serializer.CheckableSerializer;
 import com.codereligion.diff.serializer.Serializer;
 import com.google.common.base.Optional;
-import com.google.common.collect.Sets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import static com.codereligion.diff.internal.serializer.InQuotesSerializer.wrapInQuotes;
+import static com.codereligion.diff.internal.serializer.InQuotesSerializer.appendInQuotes;
 
 /**
  * Allows the internals to easily lookup a matching serializer for a given object.
@@ -35,13 +44,32 @@ public final class SerializerRepository {
     /**
      * Custom checkable serializers.
      */
-    private final Set<CheckableSerializer<?>> customSerializer;
+    private final List<CheckableAppendingSerializer<Object>> customSerializer;
+
+    /**
+     * Built-in serializers for common value types indexed by the exact class they apply to, empty if not enabled.
+     */
+    private final Map<Class<?>, CheckableAppendingSerializer<Object>> builtInSerializerByClass;
+
+    /**
+     * Built-in serializer for enum constants, absent if not enabled.
+     */
+    private final Optional<CheckableAppendingSerializer<Object>> builtInEnumSerializer;
 
     /**
      * Default serializers provided by the framework.
      */
-    @SuppressWarnings("unchecked")
-    private final Set<CheckableSerializer<?>> defaultSerializer = Sets.newHashSet(wrapInQuotes(ClassSerializer.INSTANCE), NullSerializer.INSTANCE);
+    private final List<CheckableAppendingSerializer<Object>> defaultSerializer;
+
+    /**
+     * Serializer for large content which precedes all other serializers, absent if not enabled.
+     */
+    private final Optional<CheckableAppendingSerializer<Object>> digestSerializer;
+
+    /**
+     * Cache for the serialized values of immutable types, absent if not enabled.
+     */
+    private final Optional<SerializationCache> serializationCache;
 
     /**
      * Creates a new instance for the given {@code checkableSerializers}, decorating each one of them
@@ -50,7 +78,69 @@ public final class SerializerRepository {
      * @param checkableSerializers the set of {@link CheckableSerializer} to store
      */
     public SerializerRepository(final Set<CheckableSerializer<?>> checkableSerializers) {
-        this.customSerializer = wrapInQuotes(checkableSerializers);
+        this(checkableSerializers, false, Optional.<SerializationCache>absent(), Optional.<DigestSerializer>absent());
+    }
+
+    /**
+     * Creates a new instance for the given {@code checkableSerializers}, decorating each one of them
+     * in a quote wrapping serializer, so that the serialized values will be enclosed in single quotes.
+     * In case a {@code serializationCache} is given, the serializers will look up the serialized values
+     * of immutable types in it. In case a {@code digestSerializer} is given, it will be used before any
+     * other serializer.
+     *
+     * @param checkableSerializers the set of {@link CheckableSerializer} to store
+     * @param useBuiltInSerializers whether the {@link BuiltInSerializer}s should be used after the given ones
+     * @param serializationCache the optional cache for serialized values
+     * @param digestSerializer the optional serializer for large content
+     */
+    public SerializerRepository(
+            final Set<CheckableSerializer<?>> checkableSerializers,
+            final boolean useBuiltInSerializers,
+            final Optional<SerializationCache> serializationCache,
+            final Optional<DigestSerializer> digestSerializer) {
+
+        this.serializationCache = serializationCache;
+
+        if (digestSerializer.isPresent()) {
+            // large content is not cached, to not keep it from being garbage collected
+            this.digestSerializer = Optional.of(appendInQuotes(digestSerializer.get()));
+        } else {
+            this.digestSerializer = Optional.absent();
+        }
+
+        final ImmutableList.Builder<CheckableAppendingSerializer<Object>> builder = ImmutableList.builder();
+        for (final CheckableSerializer<?> checkableSerializer : checkableSerializers) {
+            builder.add(decorate(checkableSerializer));
+        }
+        this.customSerializer = builder.build();
+
+        final ImmutableMap.Builder<Class<?>, CheckableAppendingSerializer<Object>> index = ImmutableMap.builder();
+        if (useBuiltInSerializers) {
+            for (final Map.Entry<Class<?>, BuiltInSerializer> entry : BuiltInSerializer.indexByExactClass().entrySet()) {
+                index.put(entry.getKey(), decorate(entry.getValue()));
+            }
+            this.builtInEnumSerializer = Optional.of(decorate(BuiltInSerializer.ENUM));
+        } else {
+            this.builtInEnumSerializer = Optional.absent();
+        }
+        this.builtInSerializerByClass = index.build();
+
+        this.defaultSerializer = ImmutableList.of(decorate(ClassSerializer.INSTANCE), NullSerializer.INSTANCE);
+    }
+
+    /**
+     * Decorates the given {@code checkableSerializer} so that its values are enclosed in single quotes
+     * and looked up in the serialization cache, if present.
+     *
+     * @param checkableSerializer the serializer to decorate
+     * @return the decorated serializer
+     */
+    private CheckableAppendingSerializer<Object> decorate(final CheckableSerializer<?> checkableSerializer) {
+        final CheckableAppendingSerializer<Object> quoted = appendInQuotes(checkableSerializer);
+        if (serializationCache.isPresent()) {
+            return CachingSerializer.cached(quoted, serializationCache.get());
+        }
+        return quoted;
     }
 
     /**
@@ -62,15 +152,44 @@ public final class SerializerRepository {
      */
     @SuppressWarnings("unchecked")
     public Optional<Serializer<Object>> findFor(final Object object) {
-        for (final CheckableSerializer<?> serializer : customSerializer) {
+        // optionals are immutable, so the covariant cast is safe
+        return (Optional<Serializer<Object>>) (Optional<?>) findAppendingFor(object);
+    }
+
+    /**
+     * Tries to find a serializer for the given {@code object}, which is able to append the serialized
+     * value to a given buffer, by first checking the digest serializer for large content, second searching
+     * through custom serializers, third looking up the built-in serializers by the class of the given
+     * object and fourth through the default serializers.
+     *
+     * @param object the object to find the serializer for
+     * @return an optional of an {@link AppendingSerializer}
+     */
+    public Optional<AppendingSerializer<Object>> findAppendingFor(final Object object) {
+        if (digestSerializer.isPresent() && digestSerializer.get().applies(object)) {
+            return Optional.<AppendingSerializer<Object>>of(digestSerializer.get());
+        }
+
+        for (final CheckableAppendingSerializer<Object> serializer : customSerializer) {
             if (serializer.applies(object)) {
-                return Optional.of((Serializer<Object>) serializer);
+                return Optional.<AppendingSerializer<Object>>of(serializer);
+            }
+        }
+
+        if (object != null) {
+            final CheckableAppendingSerializer<Object> builtInSerializer = builtInSerializerByClass.get(object.getClass());
+            if (builtInSerializer != null) {
+                return Optional.<AppendingSerializer<Object>>of(builtInSerializer);
+            }
+
+            if (object instanceof Enum && builtInEnumSerializer.isPresent()) {
+                return Optional.<AppendingSerializer<Object>>of(builtInEnumSerializer.get());
             }
         }
 
-        for (final CheckableSerializer<?> serializer : defaultSerializer) {
+        for (final CheckableAppendingSerializer<Object> serializer : defaultSerializer) {
             if (serializer.applies(object)) {
-                return Optional.of((Serializer<Object>) serializer);
+                return Optional.<AppendingSerializer<Object>>of(serializer);
             }
         }
 
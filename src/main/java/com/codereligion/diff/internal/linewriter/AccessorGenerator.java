@@ -0,0 +1,631 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Generates a {@link GeneratedAccessor} per bean class at runtime, which reads the properties by
+ * {@code invokevirtual} instructions on their getters instead of invoking them reflectively, so that
+ * the getter calls can be inlined by the JIT compiler like any other call.
+ *
+ * <p>
+ * The class files are written in version 49, which does not require stack map frames, and are defined
+ * by a class loader of their own, which delegates to the class loader of the bean class. Accessors can
+ * only be generated for public, non-interface bean classes with public getters, of which the package is
+ * exported by its module on runtimes supporting modules. In any other case,
+ * or if the class can not be defined, no accessor is generated, so that the getters are invoked
+ * reflectively instead.
+ *
+ * @since 19.10.2026
+ */
+final class AccessorGenerator {
+
+    /**
+     * The version of the generated class files.
+     */
+    private static final int CLASS_FILE_VERSION = 49;
+
+    /**
+     * The access flags of the generated classes, which are public, final and use the modern semantics of invokespecial.
+     */
+    private static final int CLASS_ACCESS_FLAGS = 0x0001 | 0x0010 | 0x0020;
+
+    /**
+     * The access flags of the generated methods, which are public.
+     */
+    private static final int METHOD_ACCESS_FLAGS = 0x0001;
+
+    /**
+     * The package of the generated classes.
+     */
+    private static final String PACKAGE_NAME = "com.codereligion.diff.generated.";
+
+    /**
+     * The opcodes of the instructions used by the generated code.
+     */
+    private static final int ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_3 = 0x2d, ILOAD_2 = 0x1c, ASTORE_3 = 0x4e, DUP = 0x59,
+            TABLESWITCH = 0xaa, ARETURN = 0xb0, RETURN = 0xb1, INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7,
+            INVOKESTATIC = 0xb8, NEW = 0xbb, ATHROW = 0xbf, CHECKCAST = 0xc0;
+
+    /**
+     * The wrapper classes of the primitive types, used to box the values of primitive getters.
+     */
+    private static final Map<Class<?>, Class<?>> WRAPPERS = ImmutableMap.<Class<?>, Class<?>>builder()
+            .put(boolean.class, Boolean.class)
+            .put(byte.class, Byte.class)
+            .put(char.class, Character.class)
+            .put(short.class, Short.class)
+            .put(int.class, Integer.class)
+            .put(long.class, Long.class)
+            .put(float.class, Float.class)
+            .put(double.class, Double.class)
+            .build();
+
+    /**
+     * The descriptors of the primitive types.
+     */
+    private static final Map<Class<?>, String> PRIMITIVE_DESCRIPTORS = ImmutableMap.<Class<?>, String>builder()
+            .put(boolean.class, "Z")
+            .put(byte.class, "B")
+            .put(char.class, "C")
+            .put(short.class, "S")
+            .put(int.class, "I")
+            .put(long.class, "J")
+            .put(float.class, "F")
+            .put(double.class, "D")
+            .put(void.class, "V")
+            .build();
+
+    /**
+     * The number of classes generated so far, used to make their names unique.
+     */
+    private static final AtomicInteger GENERATED_CLASS_COUNT = new AtomicInteger();
+
+    /**
+     * The {@code Class.getModule()} method, {@code null} if modules are not supported by the runtime.
+     */
+    @Nullable
+    private static final Method GET_MODULE;
+
+    /**
+     * The {@code Module.isExported(String)} method, {@code null} if modules are not supported by the runtime.
+     */
+    @Nullable
+    private static final Method IS_EXPORTED;
+
+    static {
+        Method getModule = null;
+        Method isExported = null;
+        try {
+            final Class<?> moduleClass = Class.forName("java.lang.Module");
+            getModule = Class.class.getMethod("getModule");
+            isExported = moduleClass.getMethod("isExported", String.class);
+        } catch (final ClassNotFoundException e) {
+            // modules are not supported by this runtime
+        } catch (final NoSuchMethodException e) {
+            // modules are not supported by this runtime
+        }
+        GET_MODULE = getModule;
+        IS_EXPORTED = isExported;
+    }
+
+    /**
+     * No public constructor.
+     */
+    private AccessorGenerator() {
+        throw new IllegalAccessError("This is a static utility class, which must not be instantiated");
+    }
+
+    /**
+     * Generates an accessor for the given {@code getters} of the given {@code beanClass}, which reads the
+     * property of a getter by its index in the given list.
+     *
+     * @param beanClass the class of the beans
+     * @param getters the getters to generate the accessor for
+     * @return an optional of the accessor, absent if it could not be generated
+     */
+    static Optional<GeneratedAccessor> generate(final Class<?> beanClass, final List<Method> getters) {
+        if (!canGenerate(beanClass, getters)) {
+            return Optional.absent();
+        }
+
+        final String className = PACKAGE_NAME + beanClass.getSimpleName() + "Accessor" + GENERATED_CLASS_COUNT.incrementAndGet();
+        try {
+            final byte[] classFile = writeClassFile(internalName(className), beanClass, getters);
+            final Class<?> accessorClass = new AccessorClassLoader(beanClass.getClassLoader()).define(className, classFile);
+            return Optional.of((GeneratedAccessor) accessorClass.newInstance());
+        } catch (final IOException e) {
+            return Optional.absent();
+        } catch (final LinkageError e) {
+            return Optional.absent();
+        } catch (final SecurityException e) {
+            return Optional.absent();
+        } catch (final InstantiationException e) {
+            return Optional.absent();
+        } catch (final IllegalAccessException e) {
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * Checks whether the given {@code getters} of the given {@code beanClass} can be called by a class of
+     * another runtime package.
+     *
+     * @param beanClass the class of the beans
+     * @param getters the getters to check
+     * @return true if an accessor can be generated
+     */
+    private static boolean canGenerate(final Class<?> beanClass, final List<Method> getters) {
+        if (getters.isEmpty() || beanClass.isInterface() || beanClass.isArray() || !Modifier.isPublic(beanClass.getModifiers())) {
+            return false;
+        }
+
+        // the getters are called on the bean class, which is only accessible from another module if its package is exported
+        if (!isExported(beanClass)) {
+            return false;
+        }
+
+        for (final Method getter : getters) {
+            final boolean callable = Modifier.isPublic(getter.getModifiers())
+                    && !Modifier.isStatic(getter.getModifiers())
+                    && getter.getParameterTypes().length == 0
+                    && getter.getReturnType() != void.class
+                    && getter.getDeclaringClass().isAssignableFrom(beanClass);
+            if (!callable) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the package of the given {@code beanClass} is exported by its module to all other modules,
+     * which includes the unnamed module of the generated class. This is always the case on runtimes without modules
+     * and for classes of unnamed modules.
+     *
+     * @param beanClass the class of the beans
+     * @return true if the package of the given class is exported unconditionally
+     */
+    private static boolean isExported(final Class<?> beanClass) {
+        if (GET_MODULE == null || IS_EXPORTED == null) {
+            return true;
+        }
+
+        final String className = beanClass.getName();
+        final int packageEnd = className.lastIndexOf('.');
+        if (packageEnd < 0) {
+            // the unnamed package only exists in unnamed modules, which export all of their packages
+            return true;
+        }
+
+        try {
+            final Object module = GET_MODULE.invoke(beanClass);
+            return Boolean.TRUE.equals(IS_EXPORTED.invoke(module, className.substring(0, packageEnd)));
+        } catch (final IllegalAccessException e) {
+            return false;
+        } catch (final InvocationTargetException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the class file of an accessor with the given {@code className}.
+     *
+     * @param className the internal name of the accessor class
+     * @param beanClass the class of the beans
+     * @param getters the getters to call
+     * @return the class file
+     * @throws IOException never, since the class file is written to memory
+     */
+    private static byte[] writeClassFile(final String className, final Class<?> beanClass, final List<Method> getters) throws IOException {
+        final ConstantPool constantPool = new ConstantPool();
+        final String superclassName = internalName(GeneratedAccessor.class.getName());
+
+        final int thisClass = constantPool.classReference(className);
+        final int superclass = constantPool.classReference(superclassName);
+        final byte[] constructor = writeConstructor(constantPool, superclassName);
+        final byte[] readMethod = writeReadMethod(constantPool, beanClass, getters);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xcafebabe);
+        out.writeShort(0);
+        out.writeShort(CLASS_FILE_VERSION);
+        constantPool.writeTo(out);
+        out.writeShort(CLASS_ACCESS_FLAGS);
+        out.writeShort(thisClass);
+        out.writeShort(superclass);
+        // no interfaces and no fields
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(2);
+        out.write(constructor);
+        out.write(readMethod);
+        // no class attributes
+        out.writeShort(0);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the public no-arg constructor, which calls the constructor of the superclass.
+     *
+     * @param constantPool the constant pool of the class
+     * @param superclassName the internal name of the superclass
+     * @return the method structure of the constructor
+     * @throws IOException never, since the method is written to memory
+     */
+    private static byte[] writeConstructor(final ConstantPool constantPool, final String superclassName) throws IOException {
+        final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(code);
+        out.writeByte(ALOAD_0);
+        out.writeByte(INVOKESPECIAL);
+        out.writeShort(constantPool.methodReference(superclassName, "<init>", "()V"));
+        out.writeByte(RETURN);
+        out.flush();
+        return writeMethod(constantPool, "<init>", "()V", 1, 1, code.toByteArray());
+    }
+
+    /**
+     * Writes the method reading a property, which casts the bean once and jumps to the getter call
+     * of the given index through a table switch, boxing the values of primitive getters.
+     *
+     * @param constantPool the constant pool of the class
+     * @param beanClass the class of the beans
+     * @param getters the getters to call
+     * @return the method structure of the read method
+     * @throws IOException never, since the method is written to memory
+     */
+    private static byte[] writeReadMethod(final ConstantPool constantPool, final Class<?> beanClass, final List<Method> getters)
+            throws IOException {
+
+        final String beanClassName = internalName(beanClass.getName());
+        final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(code);
+
+        out.writeByte(ALOAD_1);
+        out.writeByte(CHECKCAST);
+        out.writeShort(constantPool.classReference(beanClassName));
+        out.writeByte(ASTORE_3);
+        out.writeByte(ILOAD_2);
+
+        final int switchAddress = code.size();
+        out.writeByte(TABLESWITCH);
+        // the operands of the switch are aligned to four bytes relative to the start of the code
+        while (code.size() % 4 != 0) {
+            out.writeByte(0);
+        }
+
+        final int operandsSize = 4 * (3 + getters.size());
+        final byte[][] cases = new byte[getters.size()][];
+        for (int i = 0; i < getters.size(); i++) {
+            cases[i] = writeGetterCall(constantPool, beanClassName, getters.get(i));
+        }
+
+        int caseAddress = code.size() + operandsSize;
+        final int[] caseOffsets = new int[cases.length];
+        for (int i = 0; i < cases.length; i++) {
+            caseOffsets[i] = caseAddress - switchAddress;
+            caseAddress += cases[i].length;
+        }
+
+        out.writeInt(caseAddress - switchAddress);
+        out.writeInt(0);
+        out.writeInt(getters.size() - 1);
+        for (final int caseOffset : caseOffsets) {
+            out.writeInt(caseOffset);
+        }
+        for (final byte[] caseCode : cases) {
+            out.write(caseCode);
+        }
+
+        // the default case throws an IndexOutOfBoundsException
+        final String exceptionClassName = internalName(IndexOutOfBoundsException.class.getName());
+        out.writeByte(NEW);
+        out.writeShort(constantPool.classReference(exceptionClassName));
+        out.writeByte(DUP);
+        out.writeByte(INVOKESPECIAL);
+        out.writeShort(constantPool.methodReference(exceptionClassName, "<init>", "()V"));
+        out.writeByte(ATHROW);
+        out.flush();
+
+        // the stack holds at most a long or double value or the exception twice, the locals are this, bean, index and cast bean
+        return writeMethod(constantPool, "read", "(Ljava/lang/Object;I)Ljava/lang/Object;", 2, 4, code.toByteArray());
+    }
+
+    /**
+     * Writes the code calling the given {@code getter} on the cast bean and returning its boxed value.
+     *
+     * @param constantPool the constant pool of the class
+     * @param beanClassName the internal name of the bean class
+     * @param getter the getter to call
+     * @return the code of the call
+     * @throws IOException never, since the code is written to memory
+     */
+    private static byte[] writeGetterCall(final ConstantPool constantPool, final String beanClassName, final Method getter)
+            throws IOException {
+
+        final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(code);
+        final Class<?> returnType = getter.getReturnType();
+
+        out.writeByte(ALOAD_3);
+        out.writeByte(INVOKEVIRTUAL);
+        out.writeShort(constantPool.methodReference(beanClassName, getter.getName(), "()" + descriptor(returnType)));
+
+        if (returnType.isPrimitive()) {
+            final Class<?> wrapper = WRAPPERS.get(returnType);
+            final String wrapperName = internalName(wrapper.getName());
+            out.writeByte(INVOKESTATIC);
+            out.writeShort(constantPool.methodReference(wrapperName, "valueOf", "(" + descriptor(returnType) + ")" + descriptor(wrapper)));
+        }
+
+        out.writeByte(ARETURN);
+        out.flush();
+        return code.toByteArray();
+    }
+
+    /**
+     * Writes a method structure with a code attribute.
+     *
+     * @param constantPool the constant pool of the class
+     * @param name the name of the method
+     * @param descriptor the descriptor of the method
+     * @param maxStack the maximum depth of the operand stack
+     * @param maxLocals the number of local variables, including the parameters
+     * @param code the byte code of the method
+     * @return the method structure
+     * @throws IOException never, since the method is written to memory
+     */
+    private static byte[] writeMethod(final ConstantPool constantPool,
+                                      final String name,
+                                      final String descriptor,
+                                      final int maxStack,
+                                      final int maxLocals,
+                                      final byte[] code) throws IOException {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(METHOD_ACCESS_FLAGS);
+        out.writeShort(constantPool.utf8(name));
+        out.writeShort(constantPool.utf8(descriptor));
+        // the code is the only attribute of the method
+        out.writeShort(1);
+        out.writeShort(constantPool.utf8("Code"));
+        // max stack, max locals, code length, code, exception table length and attributes count
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Converts the given binary class name into an internal name, e.g. {@code java/lang/String}.
+     *
+     * @param className the binary name of the class
+     * @return the internal name of the class
+     */
+    private static String internalName(final String className) {
+        return className.replace('.', '/');
+    }
+
+    /**
+     * Creates the field descriptor of the given {@code type}, e.g. {@code I} or {@code Ljava/lang/String;}.
+     *
+     * @param type the type to describe
+     * @return the descriptor of the given type
+     */
+    private static String descriptor(final Class<?> type) {
+        if (type.isPrimitive()) {
+            return PRIMITIVE_DESCRIPTORS.get(type);
+        }
+        if (type.isArray()) {
+            // the binary name of an array class already is its descriptor
+            return internalName(type.getName());
+        }
+        return "L" + internalName(type.getName()) + ";";
+    }
+
+    /**
+     * The constant pool of a class file, which reuses equal entries.
+     */
+    private static final class ConstantPool {
+
+        /**
+         * The tags of the used constant pool entries.
+         */
+        private static final int UTF8 = 1, CLASS = 7, METHOD_REFERENCE = 10, NAME_AND_TYPE = 12;
+
+        /**
+         * The indices of the entries written so far by a key describing them.
+         */
+        private final Map<String, Integer> indices = Maps.newHashMap();
+
+        /**
+         * The entries written so far.
+         */
+        private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+
+        /**
+         * The stream to write the entries with.
+         */
+        private final DataOutputStream out = new DataOutputStream(entries);
+
+        /**
+         * The index of the next entry, which starts at one.
+         */
+        private int nextIndex = 1;
+
+        /**
+         * Retrieves the index of the given UTF-8 constant, adding it if necessary.
+         *
+         * @param value the constant
+         * @return the index of the entry
+         * @throws IOException never, since the pool is written to memory
+         */
+        int utf8(final String value) throws IOException {
+            final String key = "U" + value;
+            final Integer index = indices.get(key);
+            if (index != null) {
+                return index;
+            }
+            out.writeByte(UTF8);
+            out.writeUTF(value);
+            return register(key);
+        }
+
+        /**
+         * Retrieves the index of the reference to the class with the given internal name, adding it if necessary.
+         *
+         * @param className the internal name of the class
+         * @return the index of the entry
+         * @throws IOException never, since the pool is written to memory
+         */
+        int classReference(final String className) throws IOException {
+            final String key = "C" + className;
+            final Integer index = indices.get(key);
+            if (index != null) {
+                return index;
+            }
+            final int nameIndex = utf8(className);
+            out.writeByte(CLASS);
+            out.writeShort(nameIndex);
+            return register(key);
+        }
+
+        /**
+         * Retrieves the index of the reference to the given method, adding it if necessary.
+         *
+         * @param className the internal name of the class declaring or inheriting the method
+         * @param name the name of the method
+         * @param descriptor the descriptor of the method
+         * @return the index of the entry
+         * @throws IOException never, since the pool is written to memory
+         */
+        int methodReference(final String className, final String name, final String descriptor) throws IOException {
+            final String key = "M" + className + "." + name + descriptor;
+            final Integer index = indices.get(key);
+            if (index != null) {
+                return index;
+            }
+            final int classIndex = classReference(className);
+            final int nameAndTypeIndex = nameAndType(name, descriptor);
+            out.writeByte(METHOD_REFERENCE);
+            out.writeShort(classIndex);
+            out.writeShort(nameAndTypeIndex);
+            return register(key);
+        }
+
+        /**
+         * Retrieves the index of the given name and type, adding it if necessary.
+         *
+         * @param name the name of the member
+         * @param descriptor the descriptor of the member
+         * @return the index of the entry
+         * @throws IOException never, since the pool is written to memory
+         */
+        private int nameAndType(final String name, final String descriptor) throws IOException {
+            final String key = "N" + name + ":" + descriptor;
+            final Integer index = indices.get(key);
+            if (index != null) {
+                return index;
+            }
+            final int nameIndex = utf8(name);
+            final int descriptorIndex = utf8(descriptor);
+            out.writeByte(NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            return register(key);
+        }
+
+        /**
+         * Registers the entry written last under the given {@code key}.
+         *
+         * @param key the key describing the entry
+         * @return the index of the entry
+         */
+        private int register(final String key) {
+            final int index = nextIndex++;
+            indices.put(key, index);
+            return index;
+        }
+
+        /**
+         * Writes the constant pool count and the entries to the given {@code target}.
+         *
+         * @param target the stream to write to
+         * @throws IOException if the target could not be written to
+         */
+        void writeTo(final DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(nextIndex);
+            entries.writeTo(target);
+        }
+    }
+
+    /**
+     * Defines a single accessor class and resolves all other classes through the class loader of the bean
+     * class, except for the superclass of the accessors, which may not be visible to that class loader.
+     */
+    private static final class AccessorClassLoader extends ClassLoader {
+
+        /**
+         * Creates a new instance for the given {@code parent}.
+         *
+         * @param parent the class loader of the bean class, {@code null} for the bootstrap class loader
+         */
+        AccessorClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (name.equals(GeneratedAccessor.class.getName())) {
+                return GeneratedAccessor.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        /**
+         * Defines the class with the given {@code name} from the given {@code classFile}.
+         *
+         * @param name the binary name of the class
+         * @param classFile the class file
+         * @return the defined class
+         */
+        Class<?> define(final String name, final byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.adapter.BeanAdapter;
+import java.lang.reflect.InvocationTargetException;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Reads a property through a {@link BeanAdapter}, which calls the getter directly.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+final class AdapterPropertyReader implements PropertyReader {
+
+    /**
+     * The adapter reading the properties of the bean class.
+     */
+    private final BeanAdapter<Object> adapter;
+
+    /**
+     * The index of the property in the property names of the adapter.
+     */
+    private final int propertyIndex;
+
+    /**
+     * Creates a new instance for the given {@code adapter} and {@code propertyIndex}.
+     *
+     * @param adapter the adapter reading the properties of the bean class
+     * @param propertyIndex the index of the property in the property names of the adapter
+     */
+    AdapterPropertyReader(final BeanAdapter<Object> adapter, final int propertyIndex) {
+        this.adapter = adapter;
+        this.propertyIndex = propertyIndex;
+    }
+
+    @Override
+    public Object read(final Object bean) throws InvocationTargetException {
+        try {
+            return adapter.read(bean, propertyIndex);
+        } catch (final RuntimeException e) {
+            // wrapped like an exception thrown by a reflectively invoked getter, so both are reported the same way
+            throw new InvocationTargetException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The compiled plan to traverse the beans of a single class, consisting of the ordered included
+ * properties and their getters.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+final class BeanPlan {
+
+    /**
+     * The class of the beans.
+     */
+    private final Class<?> beanClass;
+
+    /**
+     * The included properties in the order they are written.
+     */
+    private final ImmutableList<PropertyPlan> properties;
+
+    /**
+     * Creates a new instance for the given {@code beanClass} and {@code properties}.
+     *
+     * @param beanClass the class of the beans
+     * @param properties the included properties in the order they are written
+     */
+    BeanPlan(final Class<?> beanClass, final List<PropertyPlan> properties) {
+        this.beanClass = beanClass;
+        this.properties = ImmutableList.copyOf(properties);
+    }
+
+    /**
+     * Retrieves the class of the beans.
+     *
+     * @return the bean class
+     */
+    Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Retrieves the included properties in the order they are written.
+     *
+     * @return the property plans
+     */
+    List<PropertyPlan> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Retrieves the included property with the given {@code name}.
+     *
+     * @param name the name of the property
+     * @return the property plan or {@code null} if no included property has the given name
+     */
+    @Nullable
+    PropertyPlan getProperty(final String name) {
+        for (final PropertyPlan property : properties) {
+            if (property.getName().equals(name)) {
+                return property;
+            }
+        }
+        return null;
+    }
+}
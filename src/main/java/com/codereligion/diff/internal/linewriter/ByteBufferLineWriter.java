@@ -0,0 +1,73 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.Lists;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Serializes the remaining bytes of {@link ByteBuffer}s to lines. The bytes are read
+ * with absolute gets, so that neither the content of the buffer gets copied, which
+ * allows direct buffers to be read in place, nor the position of the buffer gets changed.
+ *
+ * @since 19.10.2026
+ */
+class ByteBufferLineWriter extends TypeSafeCheckableLineWriter<ByteBuffer> {
+
+    /**
+     * The enclosing quotes.
+     */
+    private static final char VALUE_ENCLOSER = '\'';
+
+    /**
+     * The budget limiting the number of written bytes.
+     */
+    private final TraversalBudget budget;
+
+    /**
+     * Creates a new instance for the given {@code budget}.
+     *
+     * @param budget the budget limiting the number of written bytes
+     */
+    public ByteBufferLineWriter(final TraversalBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    List<String> typeSafeWrite(final String path, final ByteBuffer buffer) {
+        final int position = buffer.position();
+        final int length = Math.min(buffer.remaining(), budget.getMaxElements());
+        final List<String> lines = Lists.newArrayListWithCapacity(length + 1);
+        final StringBuilder builder = new StringBuilder(path);
+
+        for (int i = 0; i < length; i++) {
+            PathBuilder.resetToIterableIndexValue(builder, path.length(), i);
+            lines.add(builder.append(VALUE_ENCLOSER).append(buffer.get(position + i)).append(VALUE_ENCLOSER).toString());
+        }
+
+        if (buffer.remaining() > length) {
+            lines.add(budget.elementsExceeded(path));
+        }
+
+        return lines;
+    }
+
+    @Override
+    public boolean applies(final Object value) {
+        return value instanceof ByteBuffer;
+    }
+}
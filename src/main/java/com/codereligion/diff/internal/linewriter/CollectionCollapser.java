@@ -0,0 +1,115 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses the lines of iterables and maps, which have been written with equal lines for the base and the
+ * working object, to a single summary line, e.g. {@code Customer.orders=unchanged(size=1000)}. Since the
+ * summary lines are equal for both objects, the unchanged collections do not have to be compared line by line.
+ *
+ * @since 19.10.2026
+ */
+public final class CollectionCollapser {
+
+    /**
+     * The character separating the path and the value of a line.
+     */
+    private static final char KEY_VALUE_SEPARATOR = '=';
+
+    /**
+     * The character opening an index of an iterable or map.
+     */
+    private static final char INDEX_ENCLOSER_START = '[';
+
+    private CollectionCollapser() {
+        throw new IllegalAccessError("This is a static utility class, which must not be instantiated");
+    }
+
+    /**
+     * Finds the collections which have equal digests for the base and the working object.
+     *
+     * @param baseDigests the digests of the collections of the base object by their paths
+     * @param workingDigests the digests of the collections of the working object by their paths
+     * @return the digests of the unchanged collections by their paths
+     */
+    public static Map<String, CollectionDigest> unchangedCollections(final Map<String, CollectionDigest> baseDigests,
+                                                                     final Map<String, CollectionDigest> workingDigests) {
+        final Map<String, CollectionDigest> unchangedDigests = Maps.newHashMap();
+        for (final Map.Entry<String, CollectionDigest> baseDigest : baseDigests.entrySet()) {
+            if (baseDigest.getValue().equals(workingDigests.get(baseDigest.getKey()))) {
+                unchangedDigests.put(baseDigest.getKey(), baseDigest.getValue());
+            }
+        }
+        return unchangedDigests;
+    }
+
+    /**
+     * Replaces the lines of each of the given unchanged collections in the given {@code lines} with a single
+     * summary line. The lines of a collection follow each other and the first of them starts with its path
+     * followed by an index, so the outermost unchanged collection a line starts is replaced.
+     *
+     * @param lines the lines written for an object
+     * @param unchangedDigests the digests of the unchanged collections by their paths
+     * @return the lines with the unchanged collections collapsed
+     */
+    public static List<String> collapse(final List<String> lines, final Map<String, CollectionDigest> unchangedDigests) {
+        if (unchangedDigests.isEmpty()) {
+            return lines;
+        }
+
+        final List<String> collapsedLines = Lists.newArrayListWithCapacity(lines.size());
+        int i = 0;
+        while (i < lines.size()) {
+            final String line = lines.get(i);
+            final String unchangedPath = findUnchangedPath(line, unchangedDigests);
+
+            if (unchangedPath == null) {
+                collapsedLines.add(line);
+                i++;
+            } else {
+                final CollectionDigest digest = unchangedDigests.get(unchangedPath);
+                collapsedLines.add(PathBuilder.extendPathWithUnchangedMarker(unchangedPath, digest.getSize()));
+                i += digest.getLineCount();
+            }
+        }
+        return collapsedLines;
+    }
+
+    /**
+     * Finds the shortest path of an unchanged collection the given {@code line} starts with, followed by an index.
+     * Only the path of the line is searched, which ends at the first key/value separator.
+     *
+     * @param line the line to find the path in
+     * @param unchangedDigests the digests of the unchanged collections by their paths
+     * @return the path of the outermost unchanged collection or {@code null} if there is none
+     */
+    private static String findUnchangedPath(final String line, final Map<String, CollectionDigest> unchangedDigests) {
+        for (int i = 0; i < line.length() && line.charAt(i) != KEY_VALUE_SEPARATOR; i++) {
+            if (line.charAt(i) == INDEX_ENCLOSER_START) {
+                final String path = line.substring(0, i);
+                if (unchangedDigests.containsKey(path)) {
+                    return path;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The size of an iterable or map together with the number of its lines and an order-independent
+ * 128 bit hash of them, which is the sum of the hashes of the single lines. Two collections with
+ * equal digests are considered to have been written with equal lines.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+public final class CollectionDigest {
+
+    /**
+     * The hash function used to hash the single lines.
+     */
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * The number of elements or entries of the collection.
+     */
+    private final int size;
+
+    /**
+     * The number of lines written for the collection.
+     */
+    private final int lineCount;
+
+    /**
+     * The lower 64 bits of the sum of the line hashes.
+     */
+    private final long lowerHash;
+
+    /**
+     * The upper 64 bits of the sum of the line hashes.
+     */
+    private final long upperHash;
+
+    /**
+     * Creates a new instance for the given {@code size}, {@code lineCount} and hash halves.
+     *
+     * @param size the number of elements or entries of the collection
+     * @param lineCount the number of lines written for the collection
+     * @param lowerHash the lower 64 bits of the sum of the line hashes
+     * @param upperHash the upper 64 bits of the sum of the line hashes
+     */
+    private CollectionDigest(final int size, final int lineCount, final long lowerHash, final long upperHash) {
+        this.size = size;
+        this.lineCount = lineCount;
+        this.lowerHash = lowerHash;
+        this.upperHash = upperHash;
+    }
+
+    /**
+     * Creates the digest of a collection of the given {@code size} written with the given {@code lines}.
+     *
+     * @param size the number of elements or entries of the collection
+     * @param lines the lines written for the collection
+     * @return a new digest
+     */
+    static CollectionDigest of(final int size, final List<String> lines) {
+        long lowerHash = 0;
+        long upperHash = 0;
+        for (final String line : lines) {
+            final ByteBuffer hash = ByteBuffer.wrap(HASH_FUNCTION.hashString(line).asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            lowerHash += hash.getLong(0);
+            upperHash += hash.getLong(8);
+        }
+        return new CollectionDigest(size, lines.size(), lowerHash, upperHash);
+    }
+
+    /**
+     * Retrieves the number of elements or entries of the collection.
+     *
+     * @return the size
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the number of lines written for the collection.
+     *
+     * @return the line count
+     */
+    int getLineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof CollectionDigest)) {
+            return false;
+        }
+
+        final CollectionDigest other = (CollectionDigest) object;
+        return size == other.size && lineCount == other.lineCount && lowerHash == other.lowerHash && upperHash == other.upperHash;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (lowerHash ^ (lowerHash >>> 32));
+    }
+}
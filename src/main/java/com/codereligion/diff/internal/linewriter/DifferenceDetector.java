@@ -0,0 +1,537 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.internal.ComparatorRepository;
+import com.codereligion.diff.internal.SerializerRepository;
+import com.codereligion.diff.serializer.AppendingSerializer;
+import com.google.common.base.Optional;
+import com.google.common.collect.Sets;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Detects whether two object graphs would be written to different lines by traversing both graphs
+ * together and stopping at the first difference, without writing any lines.
+ *
+ * <p>
+ * Values are compared by serializing both of them into reused buffers, primitive arrays and byte
+ * buffers are compared element-wise. Whenever the lines of two values can not be compared without
+ * writing them, e.g. when an object is reached a second time or two values of different types are
+ * compared, the detection is undecided and the lines need to be compared instead. The same applies
+ * to any failure during the detection, so that the caller can report it with the correct path.
+ * Excluded paths and types are skipped the same way the line writers skip them.
+ *
+ * <p>
+ * A new instance is supposed to be used for every pair of compared object graphs.
+ *
+ * @since 19.10.2026
+ */
+@NotThreadSafe
+public final class DifferenceDetector {
+
+    /**
+     * The result of comparing two values.
+     */
+    private enum Comparison {
+        EQUAL, DIFFERENT, UNDECIDED
+    }
+
+    /**
+     * Compiler of the plans to traverse the classes in the object graphs.
+     */
+    private final PlanCompiler planCompiler;
+
+    /**
+     * Automaton matching the paths of the compared values against the excluded and included path patterns.
+     */
+    private final ExclusionAutomaton exclusionAutomaton;
+
+    /**
+     * Repository to look up serializers for the compared values and map keys.
+     */
+    private final SerializerRepository serializerRepository;
+
+    /**
+     * Sorter to sort iterables and maps the same way the line writers do.
+     */
+    private final ElementSorter elementSorter;
+
+    /**
+     * The objects of the base graph which have been reached so far by identity.
+     */
+    private final Set<Object> reachedBaseObjects = Sets.newIdentityHashSet();
+
+    /**
+     * The objects of the working graph which have been reached so far by identity.
+     */
+    private final Set<Object> reachedWorkingObjects = Sets.newIdentityHashSet();
+
+    /**
+     * The buffer the base values are serialized into.
+     */
+    private final StringBuilder baseBuilder = new StringBuilder();
+
+    /**
+     * The buffer the working values are serialized into.
+     */
+    private final StringBuilder workingBuilder = new StringBuilder();
+
+    /**
+     * Creates a new instance for the given {@code planCompiler}, {@code serializerRepository} and
+     * {@code comparatorRepository}.
+     *
+     * @param planCompiler compiler of the plans to traverse the classes in the object graphs
+     * @param serializerRepository repository to find serializers
+     * @param comparatorRepository repository to find comparators
+     */
+    public DifferenceDetector(final PlanCompiler planCompiler,
+                              final SerializerRepository serializerRepository,
+                              final ComparatorRepository comparatorRepository) {
+
+        this(planCompiler, ExclusionAutomaton.NONE, serializerRepository, comparatorRepository);
+    }
+
+    /**
+     * Creates a new instance for the given {@code planCompiler}, {@code exclusionAutomaton},
+     * {@code serializerRepository} and {@code comparatorRepository}.
+     *
+     * @param planCompiler compiler of the plans to traverse the classes in the object graphs
+     * @param exclusionAutomaton automaton matching the paths of the values against the excluded and included path patterns
+     * @param serializerRepository repository to find serializers
+     * @param comparatorRepository repository to find comparators
+     */
+    public DifferenceDetector(final PlanCompiler planCompiler,
+                              final ExclusionAutomaton exclusionAutomaton,
+                              final SerializerRepository serializerRepository,
+                              final ComparatorRepository comparatorRepository) {
+
+        this.planCompiler = planCompiler;
+        this.exclusionAutomaton = exclusionAutomaton;
+        this.serializerRepository = serializerRepository;
+        this.elementSorter = new ElementSorter(comparatorRepository);
+    }
+
+    /**
+     * Detects whether the given {@code base} and {@code working} objects, written under the same path,
+     * would result in different lines.
+     *
+     * @param path the path both objects are written under
+     * @param base the object which represents the state before a change
+     * @param working the object which represents the state after a change
+     * @return an optional of whether the objects differ, absent if the lines need to be compared instead
+     */
+    public Optional<Boolean> hasDifferences(final String path, final Object base, final Object working) {
+        final ExclusionState state = exclusionAutomaton.rootState(path);
+        if (state.isExcluded()) {
+            return Optional.of(false);
+        }
+
+        final Comparison comparison;
+        try {
+            comparison = compare(base, working, state);
+        } catch (final RuntimeException e) {
+            // failures are reported by the line writers, which know the path at which they occur
+            return Optional.absent();
+        }
+
+        if (comparison == Comparison.UNDECIDED) {
+            return Optional.absent();
+        }
+        return Optional.of(comparison == Comparison.DIFFERENT);
+    }
+
+    /**
+     * Compares the given values, which are located at the same path of both graphs.
+     *
+     * @param base the value of the base graph
+     * @param working the value of the working graph
+     * @param state the state of the exclusion automaton at both values
+     * @return the result of the comparison
+     */
+    private Comparison compare(final Object base, final Object working, final ExclusionState state) {
+        final boolean baseExcluded = isExcludedType(base);
+        final boolean workingExcluded = isExcludedType(working);
+        if (baseExcluded || workingExcluded) {
+            // an excluded value is written without any lines, which the lines of the other value may or may not be
+            return baseExcluded && workingExcluded ? Comparison.EQUAL : Comparison.UNDECIDED;
+        }
+
+        final Optional<AppendingSerializer<Object>> baseSerializer = serializerRepository.findAppendingFor(base);
+        final Optional<AppendingSerializer<Object>> workingSerializer = serializerRepository.findAppendingFor(working);
+
+        if (!state.isIncluded()) {
+            // a value on the way to an included path is written without a line of its own
+            final boolean baseWrittenByItself = baseSerializer.isPresent() || isWrittenByItself(base);
+            final boolean workingWrittenByItself = workingSerializer.isPresent() || isWrittenByItself(working);
+            if (baseWrittenByItself || workingWrittenByItself) {
+                return baseWrittenByItself && workingWrittenByItself ? Comparison.EQUAL : Comparison.UNDECIDED;
+            }
+        }
+
+        if (baseSerializer.isPresent() && workingSerializer.isPresent()) {
+            return compareSerialized(baseSerializer.get(), base, workingSerializer.get(), working);
+        }
+
+        if (baseSerializer.isPresent() || workingSerializer.isPresent()) {
+            // a single value line never matches the lines of a nested object, which extend the path
+            return Comparison.DIFFERENT;
+        }
+
+        final boolean reachedBefore = !reachedBaseObjects.add(base) | !reachedWorkingObjects.add(working);
+        if (reachedBefore) {
+            return Comparison.UNDECIDED;
+        }
+
+        if (base instanceof Iterable && working instanceof Iterable) {
+            return compareIterables(asIterable(base), asIterable(working), state.onElement());
+        }
+
+        if (base instanceof Map && working instanceof Map) {
+            return compareMaps(asMap(base), asMap(working), state.onElement());
+        }
+
+        if (base instanceof ByteBuffer && working instanceof ByteBuffer) {
+            return base.equals(working) ? Comparison.EQUAL : Comparison.DIFFERENT;
+        }
+
+        if (base.getClass() != working.getClass()) {
+            return Comparison.UNDECIDED;
+        }
+
+        if (base.getClass().isArray() && base.getClass().getComponentType().isPrimitive()) {
+            return comparePrimitiveArrays(base, working);
+        }
+
+        return compareProperties(base, working, state);
+    }
+
+    /**
+     * Checks whether the given value, which has no serializer, is written with a line of its own,
+     * instead of by its properties, elements or entries.
+     *
+     * @param value the value to check
+     * @return true if the value is a {@link ByteBuffer} or a primitive array
+     */
+    private static boolean isWrittenByItself(final Object value) {
+        return value instanceof ByteBuffer || (value != null && value.getClass().isArray() && value.getClass().getComponentType().isPrimitive());
+    }
+
+    /**
+     * Compares the given values by serializing them.
+     *
+     * @param baseSerializer the serializer of the base value
+     * @param base the value of the base graph
+     * @param workingSerializer the serializer of the working value
+     * @param working the value of the working graph
+     * @return the result of the comparison
+     */
+    private Comparison compareSerialized(final AppendingSerializer<Object> baseSerializer,
+                                         final Object base,
+                                         final AppendingSerializer<Object> workingSerializer,
+                                         final Object working) {
+
+        return serializesEqually(baseSerializer, base, workingSerializer, working) ? Comparison.EQUAL : Comparison.DIFFERENT;
+    }
+
+    /**
+     * Checks whether the given values are serialized to the same string.
+     *
+     * @param baseSerializer the serializer of the base value
+     * @param base the value of the base graph
+     * @param workingSerializer the serializer of the working value
+     * @param working the value of the working graph
+     * @return true if both values are serialized to the same string
+     */
+    private boolean serializesEqually(final AppendingSerializer<Object> baseSerializer,
+                                      final Object base,
+                                      final AppendingSerializer<Object> workingSerializer,
+                                      final Object working) {
+
+        baseBuilder.setLength(0);
+        workingBuilder.setLength(0);
+        baseSerializer.serialize(base, baseBuilder);
+        workingSerializer.serialize(working, workingBuilder);
+
+        final int length = baseBuilder.length();
+        if (length != workingBuilder.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (baseBuilder.charAt(i) != workingBuilder.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the given iterables element-wise after sorting them.
+     *
+     * @param base the iterable of the base graph
+     * @param working the iterable of the working graph
+     * @param elementState the state of the exclusion automaton at the elements
+     * @return the result of the comparison
+     */
+    private Comparison compareIterables(final Iterable<Object> base, final Iterable<Object> working, final ExclusionState elementState) {
+        if (elementState.isExcluded()) {
+            return Comparison.EQUAL;
+        }
+
+        final List<Object> baseElements = elementSorter.sortedList("", base);
+        final List<Object> workingElements = elementSorter.sortedList("", working);
+
+        if (baseElements.size() != workingElements.size()) {
+            return mayBeWrittenWithoutLines(baseElements, elementState) || mayBeWrittenWithoutLines(workingElements, elementState)
+                    ? Comparison.UNDECIDED
+                    : Comparison.DIFFERENT;
+        }
+
+        Comparison result = Comparison.EQUAL;
+        for (int i = 0; i < baseElements.size(); i++) {
+            final Comparison comparison = compare(baseElements.get(i), workingElements.get(i), elementState);
+            if (comparison == Comparison.DIFFERENT) {
+                return comparison;
+            }
+            result = combine(result, comparison);
+        }
+        return result;
+    }
+
+    /**
+     * Compares the given maps entry-wise after sorting them by their keys.
+     *
+     * @param base the map of the base graph
+     * @param working the map of the working graph
+     * @param valueState the state of the exclusion automaton at the values
+     * @return the result of the comparison
+     */
+    private Comparison compareMaps(final Map<Object, Object> base, final Map<Object, Object> working, final ExclusionState valueState) {
+        if (valueState.isExcluded()) {
+            return Comparison.EQUAL;
+        }
+
+        final SortedMap<Object, Object> baseEntries = elementSorter.sortedMap("", base);
+        final SortedMap<Object, Object> workingEntries = elementSorter.sortedMap("", working);
+
+        if (baseEntries.size() != workingEntries.size()) {
+            return mayBeWrittenWithoutLines(baseEntries.values(), valueState)
+                    || mayBeWrittenWithoutLines(workingEntries.values(), valueState)
+                    ? Comparison.UNDECIDED
+                    : Comparison.DIFFERENT;
+        }
+
+        Comparison result = Comparison.EQUAL;
+        final Iterator<Map.Entry<Object, Object>> workingIterator = workingEntries.entrySet().iterator();
+        for (final Map.Entry<Object, Object> baseEntry : baseEntries.entrySet()) {
+            final Map.Entry<Object, Object> workingEntry = workingIterator.next();
+
+            final Optional<AppendingSerializer<Object>> baseKeySerializer = serializerRepository.findAppendingFor(baseEntry.getKey());
+            final Optional<AppendingSerializer<Object>> workingKeySerializer = serializerRepository.findAppendingFor(workingEntry.getKey());
+            if (!baseKeySerializer.isPresent() || !workingKeySerializer.isPresent()) {
+                return Comparison.UNDECIDED;
+            }
+
+            final boolean keysEqual = serializesEqually(baseKeySerializer.get(), baseEntry.getKey(),
+                                                        workingKeySerializer.get(), workingEntry.getKey());
+            if (!keysEqual) {
+                final boolean mayBeWrittenWithoutLines = mayBeWrittenWithoutLines(baseEntry.getValue(), valueState)
+                        || mayBeWrittenWithoutLines(workingEntry.getValue(), valueState);
+                return mayBeWrittenWithoutLines ? Comparison.UNDECIDED : Comparison.DIFFERENT;
+            }
+
+            final Comparison comparison = compare(baseEntry.getValue(), workingEntry.getValue(), valueState);
+            if (comparison == Comparison.DIFFERENT) {
+                return comparison;
+            }
+            result = combine(result, comparison);
+        }
+        return result;
+    }
+
+    /**
+     * Compares the given primitive arrays of the same type element-wise.
+     *
+     * @param base the array of the base graph
+     * @param working the array of the working graph
+     * @return the result of the comparison
+     */
+    private Comparison comparePrimitiveArrays(final Object base, final Object working) {
+        final boolean equal;
+        if (base instanceof int[]) {
+            equal = Arrays.equals((int[]) base, (int[]) working);
+        } else if (base instanceof long[]) {
+            equal = Arrays.equals((long[]) base, (long[]) working);
+        } else if (base instanceof double[]) {
+            // compares the bits like the written lines do, so NaN equals NaN and 0.0 differs from -0.0
+            equal = Arrays.equals((double[]) base, (double[]) working);
+        } else if (base instanceof byte[]) {
+            equal = Arrays.equals((byte[]) base, (byte[]) working);
+        } else if (base instanceof float[]) {
+            equal = Arrays.equals((float[]) base, (float[]) working);
+        } else if (base instanceof short[]) {
+            equal = Arrays.equals((short[]) base, (short[]) working);
+        } else if (base instanceof char[]) {
+            equal = Arrays.equals((char[]) base, (char[]) working);
+        } else {
+            equal = Arrays.equals((boolean[]) base, (boolean[]) working);
+        }
+        return equal ? Comparison.EQUAL : Comparison.DIFFERENT;
+    }
+
+    /**
+     * Compares the included properties of the given objects of the same class.
+     *
+     * @param base the object of the base graph
+     * @param working the object of the working graph
+     * @param state the state of the exclusion automaton at both objects
+     * @return the result of the comparison
+     */
+    private Comparison compareProperties(final Object base, final Object working, final ExclusionState state) {
+        final List<PropertyPlan> properties = planCompiler.planFor(base.getClass()).getProperties();
+
+        Comparison result = Comparison.EQUAL;
+        boolean hasProperties = false;
+        for (final PropertyPlan property : properties) {
+            final ExclusionState propertyState = state.onProperty(property.getName());
+            if (propertyState.isExcluded()) {
+                hasProperties = true;
+                continue;
+            }
+
+            final Comparison comparison = compare(safeInvoke(base, property), safeInvoke(working, property), propertyState);
+            if (comparison == Comparison.DIFFERENT) {
+                return comparison;
+            }
+            result = combine(result, comparison);
+            hasProperties = true;
+        }
+
+        // objects without any included properties can not be written, which is left to the line writers to report
+        return hasProperties ? result : Comparison.UNDECIDED;
+    }
+
+    /**
+     * Combines the result of the values compared so far with the result of the next compared value.
+     *
+     * @param result the result of the values compared so far
+     * @param comparison the result of the next compared value
+     * @return the combined result
+     */
+    private static Comparison combine(final Comparison result, final Comparison comparison) {
+        if (result == Comparison.UNDECIDED || comparison == Comparison.UNDECIDED) {
+            return Comparison.UNDECIDED;
+        }
+        return Comparison.EQUAL;
+    }
+
+    /**
+     * Checks whether any of the given values may be written to no lines at all, which is the case
+     * for empty iterables, maps and arrays, so that the number of values does not tell whether the
+     * lines differ.
+     *
+     * @param values the values to check
+     * @param state the state of the exclusion automaton at the values
+     * @return true if any of the values may be written to no lines
+     */
+    private boolean mayBeWrittenWithoutLines(final Iterable<Object> values, final ExclusionState state) {
+        for (final Object value : values) {
+            if (mayBeWrittenWithoutLines(value, state)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the given value may be written to no lines at all.
+     *
+     * @param value the value to check
+     * @param state the state of the exclusion automaton at the value
+     * @return true if the value may be written to no lines
+     */
+    private boolean mayBeWrittenWithoutLines(final Object value, final ExclusionState state) {
+        if (isExcludedType(value) || !state.isIncluded()) {
+            return true;
+        }
+        if (serializerRepository.findAppendingFor(value).isPresent()) {
+            return false;
+        }
+        // the properties of a bean may all be excluded by the paths following the value or by their types
+        return value instanceof Iterable || value instanceof Map || value instanceof ByteBuffer || value.getClass().isArray()
+                || state.mayExcludeFollowingPaths() || planCompiler.excludesTypes();
+    }
+
+    /**
+     * Checks whether the given {@code value} is an instance of an excluded type.
+     *
+     * @param value the value to check
+     * @return true if the given value is excluded by its type
+     */
+    private boolean isExcludedType(final Object value) {
+        return value != null
+                && planCompiler.excludesTypes()
+                && planCompiler.dispatchFor(value.getClass()).getDispatch() == Dispatch.EXCLUDED;
+    }
+
+    /**
+     * Safely reads the property of the given {@code propertyPlan} from the given {@code object} and returns the result.
+     *
+     * @param object the object to read the property of
+     * @param propertyPlan the plan of the property to read
+     * @return the value of the property
+     * @throws IllegalStateException in case the property could not be read
+     */
+    private static Object safeInvoke(final Object object, final PropertyPlan propertyPlan) {
+        try {
+            return propertyPlan.read(object);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (final InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Casts the given value to an iterable.
+     *
+     * @param value the value to cast
+     * @return the given value
+     */
+    @SuppressWarnings("unchecked")
+    private static Iterable<Object> asIterable(final Object value) {
+        return (Iterable<Object>) value;
+    }
+
+    /**
+     * Casts the given value to a map.
+     *
+     * @param value the value to cast
+     * @return the given value
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> asMap(final Object value) {
+        return (Map<Object, Object>) value;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * The ways values, which are not serialized into a single line, are written. The dispatch only
+ * depends on the class of a value, so it can be computed once per class. Values of excluded types
+ * are dispatched to {@link #EXCLUDED} by the {@link PlanCompiler}, regardless of how they would be written.
+ *
+ * @since 19.10.2026
+ */
+enum Dispatch {
+
+    ITERABLE, MAP, PRIMITIVE_ARRAY, BYTE_BUFFER, BEAN, EXCLUDED;
+
+    /**
+     * Determines the dispatch for values of the given {@code type}, in the order in which the
+     * line writers are checked.
+     *
+     * @param type the class of the values
+     * @return the dispatch for the given type
+     */
+    static Dispatch of(final Class<?> type) {
+        if (Iterable.class.isAssignableFrom(type)) {
+            return ITERABLE;
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return MAP;
+        }
+        if (type.isArray() && type.getComponentType().isPrimitive()) {
+            return PRIMITIVE_ARRAY;
+        }
+        if (ByteBuffer.class.isAssignableFrom(type)) {
+            return BYTE_BUFFER;
+        }
+        return BEAN;
+    }
+}
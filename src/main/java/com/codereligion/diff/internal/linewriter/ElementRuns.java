@@ -0,0 +1,299 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Collects the lines of the elements of an iterable and returns them ordered by their lines. Once more elements
+ * than the run size of the {@link ExternalSort} have been added, each full run is sorted and written to a temporary
+ * file, so that only the lines of a single run are kept in memory, and the runs are merged when the sorted
+ * elements are read.
+ *
+ * <p>
+ * The temporary files are deleted when an instance is closed.
+ *
+ * @since 19.10.2026
+ */
+@NotThreadSafe
+final class ElementRuns implements Closeable {
+
+    /**
+     * The order of the lines of elements, compared line by line.
+     */
+    private static final Ordering<Iterable<String>> LINES_ORDER = Ordering.<String>natural().lexicographical();
+
+    /**
+     * The directory and the run size.
+     */
+    private final ExternalSort externalSort;
+
+    /**
+     * The path of the iterable, used to report failures.
+     */
+    private final String path;
+
+    /**
+     * The lines of the elements of the run not written to disk yet.
+     */
+    private final List<List<String>> currentRun = Lists.newArrayList();
+
+    /**
+     * The temporary files of the runs written to disk.
+     */
+    private final List<File> runFiles = Lists.newArrayList();
+
+    /**
+     * The number of elements of each run written to disk.
+     */
+    private final List<Integer> runSizes = Lists.newArrayList();
+
+    /**
+     * The streams reading the runs while they are merged.
+     */
+    private final List<DataInputStream> inputs = Lists.newArrayList();
+
+    /**
+     * The number of elements added so far.
+     */
+    private int size;
+
+    /**
+     * Creates a new instance for the given {@code externalSort} and {@code path}.
+     *
+     * @param externalSort the directory and the run size
+     * @param path the path of the iterable, used to report failures
+     */
+    ElementRuns(final ExternalSort externalSort, final String path) {
+        this.externalSort = externalSort;
+        this.path = path;
+    }
+
+    /**
+     * Adds the lines of the next element, writing the current run to disk if it is full.
+     *
+     * @param lines the lines of the element
+     * @throws IllegalStateException when the run could not be written to disk
+     */
+    void add(final List<String> lines) {
+        if (currentRun.size() == externalSort.getRunSize()) {
+            spill();
+        }
+        currentRun.add(lines);
+        size++;
+    }
+
+    /**
+     * Checks whether any run has been written to disk, so that the elements added from now on are not kept in memory.
+     *
+     * @return true if a run has been written to disk
+     */
+    boolean isSpilled() {
+        return !runFiles.isEmpty();
+    }
+
+    /**
+     * Retrieves the number of elements added so far.
+     *
+     * @return the number of elements
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the lines of all added elements ordered by their lines. Elements with equal lines are
+     * indistinguishable, so the order does not depend on the order the elements have been added in.
+     *
+     * @return an iterator over the lines of the elements in order
+     * @throws IllegalStateException when the runs could not be written to or read from disk
+     */
+    Iterator<List<String>> sorted() {
+        if (!isSpilled()) {
+            Collections.sort(currentRun, LINES_ORDER);
+            return currentRun.iterator();
+        }
+
+        spill();
+        final PriorityQueue<RunReader> readers = new PriorityQueue<RunReader>(runFiles.size(), new Comparator<RunReader>() {
+            @Override
+            public int compare(final RunReader first, final RunReader second) {
+                return LINES_ORDER.compare(first.head, second.head);
+            }
+        });
+        try {
+            for (int i = 0; i < runFiles.size(); i++) {
+                final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(runFiles.get(i))));
+                inputs.add(input);
+                final RunReader reader = new RunReader(input, runSizes.get(i));
+                if (reader.advance()) {
+                    readers.add(reader);
+                }
+            }
+        } catch (final IOException e) {
+            throw sortFailed(e);
+        }
+
+        return new AbstractIterator<List<String>>() {
+            @Override
+            protected List<String> computeNext() {
+                final RunReader reader = readers.poll();
+                if (reader == null) {
+                    return endOfData();
+                }
+
+                final List<String> lines = reader.head;
+                try {
+                    if (reader.advance()) {
+                        readers.add(reader);
+                    }
+                } catch (final IOException e) {
+                    throw sortFailed(e);
+                }
+                return lines;
+            }
+        };
+    }
+
+    /**
+     * Sorts the current run and writes it to a new temporary file.
+     *
+     * @throws IllegalStateException when the run could not be written to disk
+     */
+    private void spill() {
+        Collections.sort(currentRun, LINES_ORDER);
+        try {
+            final File runFile = File.createTempFile("diff-run", ".tmp", externalSort.getDirectory());
+            runFiles.add(runFile);
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile)));
+            try {
+                for (final List<String> lines : currentRun) {
+                    output.writeInt(lines.size());
+                    for (final String line : lines) {
+                        final byte[] bytes = line.getBytes(Charsets.UTF_8);
+                        output.writeInt(bytes.length);
+                        output.write(bytes);
+                    }
+                }
+            } finally {
+                output.close();
+            }
+        } catch (final IOException e) {
+            throw sortFailed(e);
+        }
+        runSizes.add(currentRun.size());
+        currentRun.clear();
+    }
+
+    /**
+     * Creates the exception for the given {@code cause} of a failed access to the disk.
+     *
+     * @param cause the exception thrown by the access to the disk
+     * @return the exception to throw
+     */
+    private IllegalStateException sortFailed(final IOException cause) {
+        return new IllegalStateException("Could not sort the elements at: '" + path + "' on disk.", cause);
+    }
+
+    /**
+     * Closes the streams reading the runs and deletes their temporary files.
+     */
+    @Override
+    public void close() {
+        for (final DataInputStream input : inputs) {
+            try {
+                input.close();
+            } catch (final IOException e) {
+                // the file is deleted anyway
+            }
+        }
+        for (final File runFile : runFiles) {
+            runFile.delete();
+        }
+    }
+
+    /**
+     * Reads the lines of the elements of a single run one element after the other.
+     */
+    private static final class RunReader {
+
+        /**
+         * The stream reading the run.
+         */
+        private final DataInputStream input;
+
+        /**
+         * The number of elements of the run not read yet.
+         */
+        private int remaining;
+
+        /**
+         * The lines of the element read last.
+         */
+        private List<String> head;
+
+        /**
+         * Creates a new instance for the given {@code input} and {@code size}.
+         *
+         * @param input the stream reading the run
+         * @param size the number of elements of the run
+         */
+        RunReader(final DataInputStream input, final int size) {
+            this.input = input;
+            this.remaining = size;
+        }
+
+        /**
+         * Reads the lines of the next element of the run into the head.
+         *
+         * @return false if the run has been read completely
+         * @throws IOException when the run could not be read
+         */
+        boolean advance() throws IOException {
+            if (remaining-- == 0) {
+                head = null;
+                return false;
+            }
+
+            final int lineCount = input.readInt();
+            head = Lists.newArrayListWithCapacity(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                final byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                head.add(new String(bytes, Charsets.UTF_8));
+            }
+            return true;
+        }
+    }
+}
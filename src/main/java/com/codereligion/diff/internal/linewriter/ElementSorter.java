@@ -0,0 +1,555 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.comparator.CheckableLongSortKey;
+import com.codereligion.diff.comparator.CheckableStringSortKey;
+import com.codereligion.diff.exception.MissingComparatorException;
+import com.codereligion.diff.internal.ComparatorRepository;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Sorts the elements of iterables and the entries of maps with the comparators of a repository,
+ * so that every traversal of an object graph writes them in the same order.
+ *
+ * <p>
+ * If the repository contains a sort key for the elements or map keys, the key of each element is
+ * extracted once and the elements are sorted by their keys, using the comparator only for equal keys.
+ *
+ * <p>
+ * If only the first elements or entries are needed, they are selected with a bounded heap instead of
+ * sorting all of them. Since the sort keys agree with the comparator, they are not needed for that.
+ *
+ * @since 19.10.2026
+ */
+final class ElementSorter {
+
+    /**
+     * Repository to lookup comparators to use for sorting the given elements.
+     */
+    private final ComparatorRepository comparatorRepository;
+
+    /**
+     * The sorter to sort large iterables and maps in parallel, absent to sort serially.
+     */
+    private final Optional<ParallelSorter> parallelSorter;
+
+    /**
+     * Creates a new instance for the given {@code comparatorRepository}, which sorts serially.
+     *
+     * @param comparatorRepository the repository to look up comparators
+     */
+    ElementSorter(final ComparatorRepository comparatorRepository) {
+        this(comparatorRepository, Optional.<ParallelSorter>absent());
+    }
+
+    /**
+     * Creates a new instance for the given {@code comparatorRepository} and {@code parallelSorter}.
+     *
+     * @param comparatorRepository the repository to look up comparators
+     * @param parallelSorter the optional sorter to sort large iterables and maps in parallel
+     */
+    ElementSorter(final ComparatorRepository comparatorRepository, final Optional<ParallelSorter> parallelSorter) {
+        this.comparatorRepository = comparatorRepository;
+        this.parallelSorter = parallelSorter;
+    }
+
+    /**
+     * Transforms the given iterable value into a sorted list or throws an {@link MissingComparatorException}
+     * if none was found.
+     *
+     * @param path the path which describes the position of the given item's iterable in the object graph
+     * @param value the property value to sort into a list
+     * @return a new sorted list of the given iterable
+     * @throws MissingComparatorException if no comparator could be found for the given iterable
+     */
+    List<Object> sortedList(final String path, final Iterable<Object> value) {
+        final Object[] elements = Iterables.toArray(value, Object.class);
+        final List<Object> list = Arrays.asList(elements);
+        final Optional<Object> firstElement = Iterables.tryFind(list, Predicates.notNull());
+
+        if (!firstElement.isPresent()) {
+            return list;
+        }
+
+        final Optional<Comparator<Object>> comparator = comparatorRepository.findFor(firstElement.get());
+        if (!comparator.isPresent()) {
+            throw MissingComparatorException.missingIterableComparator(path);
+        }
+
+        sort(path, elements, firstElement.get(), comparator.get(), false);
+
+        return list;
+    }
+
+    /**
+     * Selects the first {@code count} elements of the given iterable {@code value} in the order of
+     * {@link #sortedList(String, Iterable)}, or throws an {@link MissingComparatorException} if none was found.
+     * The iterable is iterated only once and without copying it. The comparator is looked up for the first element
+     * which is not {@code null} and the selected elements are kept in a heap of the given size, so that the
+     * remaining elements are neither kept nor sorted. Equal elements keep their iteration order, like they do when
+     * sorting all of them.
+     *
+     * @param path the path which describes the position of the given item's iterable in the object graph
+     * @param value the property value to select the first elements of
+     * @param count the number of elements to select
+     * @return the sorted first elements and the number of all elements of the given iterable
+     * @throws MissingComparatorException if no comparator could be found for the given iterable
+     */
+    SelectedElements firstElements(final String path, final Iterable<Object> value, final int count) {
+        Comparator<IndexedElement> indexedComparator = null;
+        PriorityQueue<IndexedElement> selectedElements = null;
+        int index = 0;
+        for (final Object element : value) {
+            if (selectedElements == null && element != null) {
+                final Optional<Comparator<Object>> comparator = comparatorRepository.findFor(element);
+                if (!comparator.isPresent()) {
+                    throw MissingComparatorException.missingIterableComparator(path);
+                }
+
+                // the greatest selected element is at the head of the heap, so it is replaced by any smaller element
+                indexedComparator = new IndexedElementComparator(comparator.get());
+                selectedElements = new PriorityQueue<IndexedElement>(count + 1, Collections.reverseOrder(indexedComparator));
+
+                // of the null elements iterated so far, only the first ones can be selected
+                for (int i = 0; i < Math.min(index, count); i++) {
+                    selectedElements.add(new IndexedElement(i, null));
+                }
+            }
+
+            if (selectedElements != null) {
+                selectedElements.add(new IndexedElement(index, element));
+                if (selectedElements.size() > count) {
+                    selectedElements.poll();
+                }
+            }
+            index++;
+        }
+
+        if (selectedElements == null) {
+            return new SelectedElements(Collections.<Object>nCopies(Math.min(index, count), null), index);
+        }
+
+        final IndexedElement[] sortedElements = selectedElements.toArray(new IndexedElement[selectedElements.size()]);
+        Arrays.sort(sortedElements, indexedComparator);
+
+        final List<Object> list = Lists.newArrayListWithCapacity(sortedElements.length);
+        for (final IndexedElement element : sortedElements) {
+            list.add(element.element);
+        }
+        return new SelectedElements(list, index);
+    }
+
+    /**
+     * Transforms the given map {@code value} into a {@link SortedMap} or throws an
+     * {@link MissingComparatorException} if no comparator was found for its keys.
+     *
+     * @param path the path which describes the position of the given value in the object graph
+     * @param value the map to be sorted
+     * @return a new sorted map with the contents of the given map
+     * @throws MissingComparatorException if no comparator could be found for the keys of the given map
+     */
+    SortedMap<Object, Object> sortedMap(final String path, final Map<Object, Object> value) {
+
+        final Optional<Object> anyKey = Iterables.tryFind(value.keySet(), Predicates.notNull());
+
+        final boolean thereIsJustOneKeyAndItIsNull = !anyKey.isPresent();
+        if (thereIsJustOneKeyAndItIsNull) {
+            return new TreeMap<Object, Object>();
+        }
+
+        final Optional<Comparator<Object>> comparator = comparatorRepository.findFor(anyKey.get());
+        if (!comparator.isPresent()) {
+            throw MissingComparatorException.missingMapKeyComparator(path, anyKey.get().getClass());
+        }
+
+        final SortedMap<Object, Object> sortedMap = new TreeMap<Object, Object>(comparator.get());
+        sortedMap.putAll(value);
+
+        return sortedMap;
+    }
+
+    /**
+     * Sorts the entries of the given map {@code value} by their keys or throws an
+     * {@link MissingComparatorException} if no comparator was found for its keys. The entries equal the ones of
+     * the {@link #sortedMap(String, Map)}, but are sorted by the sort keys of the map keys if there are any and
+     * in parallel if the map is large and a parallel sorter is given.
+     *
+     * @param path the path which describes the position of the given value in the object graph
+     * @param value the map of which the entries are sorted
+     * @return the sorted entries of the given map
+     * @throws MissingComparatorException if no comparator could be found for the keys of the given map
+     */
+    Collection<Map.Entry<Object, Object>> sortedEntries(final String path, final Map<Object, Object> value) {
+        final Optional<Object> anyKey = Iterables.tryFind(value.keySet(), Predicates.notNull());
+        if (!anyKey.isPresent()) {
+            return sortedMap(path, value).entrySet();
+        }
+
+        final Optional<Comparator<Object>> comparator = comparatorRepository.findFor(anyKey.get());
+        if (!comparator.isPresent()) {
+            throw MissingComparatorException.missingMapKeyComparator(path, anyKey.get().getClass());
+        }
+
+        final Object[] entries = value.entrySet().toArray();
+        sort(path, entries, anyKey.get(), comparator.get(), true);
+
+        // keys comparing as equal are collapsed to the first key and the last value, as a tree map would do
+        final List<Map.Entry<Object, Object>> sortedEntries = Lists.newArrayListWithCapacity(entries.length);
+        int first = 0;
+        for (int i = 1; i <= entries.length; i++) {
+            if (i == entries.length || comparator.get().compare(keyOf(entries[first]), keyOf(entries[i])) != 0) {
+                sortedEntries.add(Maps.immutableEntry(keyOf(entries[first]), ((Map.Entry<?, ?>) entries[i - 1]).getValue()));
+                first = i;
+            }
+        }
+
+        return sortedEntries;
+    }
+
+    /**
+     * Selects the first {@code count} entries of the given map {@code value} in the order of
+     * {@link #sortedEntries(String, Map)}, or throws an {@link MissingComparatorException} if no comparator was
+     * found for its keys. The selected entries are kept in a tree map of the given size, so that the remaining
+     * entries are neither copied nor sorted. Keys comparing as equal are collapsed like they are when sorting all
+     * entries, since a key comparing as equal to a dropped one is dropped again.
+     *
+     * @param path the path which describes the position of the given value in the object graph
+     * @param value the map of which the first entries are selected
+     * @param count the number of entries to select
+     * @return the sorted first entries of the given map
+     * @throws MissingComparatorException if no comparator could be found for the keys of the given map
+     */
+    Collection<Map.Entry<Object, Object>> firstEntries(final String path, final Map<Object, Object> value, final int count) {
+        final Optional<Object> anyKey = Iterables.tryFind(value.keySet(), Predicates.notNull());
+        if (!anyKey.isPresent()) {
+            return sortedEntries(path, value);
+        }
+
+        final Optional<Comparator<Object>> comparator = comparatorRepository.findFor(anyKey.get());
+        if (!comparator.isPresent()) {
+            throw MissingComparatorException.missingMapKeyComparator(path, anyKey.get().getClass());
+        }
+
+        final TreeMap<Object, Object> selectedEntries = new TreeMap<Object, Object>(comparator.get());
+        for (final Map.Entry<Object, Object> entry : value.entrySet()) {
+            selectedEntries.put(entry.getKey(), entry.getValue());
+            if (selectedEntries.size() > count) {
+                selectedEntries.pollLastEntry();
+            }
+        }
+        return selectedEntries.entrySet();
+    }
+
+    /**
+     * Sorts the given {@code elements} or map entries with the given {@code comparator}, by their sort keys first if
+     * the repository contains a sort key for the given {@code firstKey}.
+     *
+     * @param path the path of the iterable or map
+     * @param elements the elements or map entries to sort in place
+     * @param firstKey the first element or map key which is not {@code null}, used to look up the sort key
+     * @param comparator the comparator of the elements or map keys
+     * @param entries whether the given elements are map entries sorted by their keys
+     */
+    private void sort(final String path,
+                      final Object[] elements,
+                      final Object firstKey,
+                      final Comparator<Object> comparator,
+                      final boolean entries) {
+        final Comparator<Object> elementComparator = entries ? new EntryKeyComparator(comparator) : comparator;
+        final Optional<Object[]> keyedElements = extractKeys(elements, firstKey, entries);
+
+        if (!keyedElements.isPresent()) {
+            sort(path, elements, elementComparator);
+            return;
+        }
+
+        sort(path, keyedElements.get(), new KeyedElementComparator(elementComparator));
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = ((KeyedElement) keyedElements.get()[i]).element;
+        }
+    }
+
+    /**
+     * Sorts the given {@code elements} with the given {@code comparator}, in parallel if there are more elements
+     * than the threshold of the parallel sorter.
+     *
+     * @param path the path of the iterable or map
+     * @param elements the elements to sort in place
+     * @param comparator the comparator defining the order
+     */
+    private void sort(final String path, final Object[] elements, final Comparator<Object> comparator) {
+        if (isParallel(elements.length)) {
+            parallelSorter.get().sort(path, elements, comparator);
+        } else {
+            Arrays.sort(elements, comparator);
+        }
+    }
+
+    /**
+     * Pairs the given {@code elements} with the sort keys extracted from them or their map keys.
+     *
+     * @param elements the elements or map entries
+     * @param firstKey the first element or map key which is not {@code null}, used to look up the sort key
+     * @param entries whether the given elements are map entries sorted by their keys
+     * @return an optional of the elements paired with their keys, absent if there is no sort key for the given
+     *         {@code firstKey} or any element or map key is {@code null}
+     */
+    private Optional<Object[]> extractKeys(final Object[] elements, final Object firstKey, final boolean entries) {
+        final Optional<CheckableLongSortKey<Object>> longSortKey = comparatorRepository.findLongSortKeyFor(firstKey);
+        final Optional<CheckableStringSortKey<Object>> stringSortKey = comparatorRepository.findStringSortKeyFor(firstKey);
+        if (!longSortKey.isPresent() && !stringSortKey.isPresent()) {
+            return Optional.absent();
+        }
+
+        final Object[] keyedElements = new Object[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            final Object key = entries ? keyOf(elements[i]) : elements[i];
+            // the position of null among the keys is only known to the comparator
+            if (key == null) {
+                return Optional.absent();
+            }
+
+            keyedElements[i] = longSortKey.isPresent()
+                    ? new KeyedElement(longSortKey.get().extractKey(key), null, elements[i])
+                    : new KeyedElement(0, stringSortKey.get().extractKey(key), elements[i]);
+        }
+        return Optional.of(keyedElements);
+    }
+
+    /**
+     * Checks whether an iterable or map of the given {@code size} is sorted in parallel.
+     *
+     * @param size the number of elements or entries
+     * @return true if a parallel sorter is given and the size exceeds its threshold
+     */
+    private boolean isParallel(final int size) {
+        return parallelSorter.isPresent() && size > parallelSorter.get().getThreshold();
+    }
+
+    /**
+     * Retrieves the key of the given map {@code entry}.
+     *
+     * @param entry the map entry
+     * @return the key of the entry
+     */
+    private static Object keyOf(final Object entry) {
+        return ((Map.Entry<?, ?>) entry).getKey();
+    }
+
+    /**
+     * Compares map entries by their keys.
+     */
+    private static final class EntryKeyComparator implements Comparator<Object> {
+
+        /**
+         * The comparator of the keys.
+         */
+        private final Comparator<Object> keyComparator;
+
+        /**
+         * Creates a new instance for the given {@code keyComparator}.
+         *
+         * @param keyComparator the comparator of the keys
+         */
+        EntryKeyComparator(final Comparator<Object> keyComparator) {
+            this.keyComparator = keyComparator;
+        }
+
+        @Override
+        public int compare(final Object first, final Object second) {
+            return keyComparator.compare(keyOf(first), keyOf(second));
+        }
+    }
+
+    /**
+     * The first elements of an iterable selected by {@link ElementSorter#firstElements(String, Iterable, int)},
+     * together with the number of all of its elements.
+     */
+    static final class SelectedElements {
+
+        /**
+         * The selected elements in sorted order.
+         */
+        private final List<Object> elements;
+
+        /**
+         * The number of all elements of the iterable.
+         */
+        private final int size;
+
+        /**
+         * Creates a new instance for the given {@code elements} and {@code size}.
+         *
+         * @param elements the selected elements in sorted order
+         * @param size the number of all elements of the iterable
+         */
+        SelectedElements(final List<Object> elements, final int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        /**
+         * Retrieves the selected elements in sorted order.
+         *
+         * @return the selected elements
+         */
+        List<Object> getElements() {
+            return elements;
+        }
+
+        /**
+         * Retrieves the number of all elements of the iterable, including the ones which were not selected.
+         *
+         * @return the number of all elements
+         */
+        int getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * An element paired with its position in the iteration order of its iterable.
+     */
+    private static final class IndexedElement {
+
+        /**
+         * The position of the element in the iteration order.
+         */
+        private final int index;
+
+        /**
+         * The element.
+         */
+        private final Object element;
+
+        /**
+         * Creates a new instance for the given {@code index} and {@code element}.
+         *
+         * @param index the position of the element in the iteration order
+         * @param element the element
+         */
+        IndexedElement(final int index, final Object element) {
+            this.index = index;
+            this.element = element;
+        }
+    }
+
+    /**
+     * Compares indexed elements by a comparator and equal elements by their index.
+     */
+    private static final class IndexedElementComparator implements Comparator<IndexedElement> {
+
+        /**
+         * The comparator of the elements.
+         */
+        private final Comparator<Object> elementComparator;
+
+        /**
+         * Creates a new instance for the given {@code elementComparator}.
+         *
+         * @param elementComparator the comparator of the elements
+         */
+        IndexedElementComparator(final Comparator<Object> elementComparator) {
+            this.elementComparator = elementComparator;
+        }
+
+        @Override
+        public int compare(final IndexedElement first, final IndexedElement second) {
+            final int comparison = elementComparator.compare(first.element, second.element);
+            return comparison != 0 ? comparison : first.index - second.index;
+        }
+    }
+
+    /**
+     * An element paired with the sort key extracted from it.
+     */
+    private static final class KeyedElement {
+
+        /**
+         * The {@code long} sort key, if the string key is {@code null}.
+         */
+        private final long longKey;
+
+        /**
+         * The {@link String} sort key, {@code null} for a {@code long} sort key.
+         */
+        private final String stringKey;
+
+        /**
+         * The element or map entry.
+         */
+        private final Object element;
+
+        /**
+         * Creates a new instance for the given {@code longKey}, {@code stringKey} and {@code element}.
+         *
+         * @param longKey the {@code long} sort key
+         * @param stringKey the {@link String} sort key or {@code null} for a {@code long} sort key
+         * @param element the element or map entry
+         */
+        KeyedElement(final long longKey, final String stringKey, final Object element) {
+            this.longKey = longKey;
+            this.stringKey = stringKey;
+            this.element = element;
+        }
+    }
+
+    /**
+     * Compares keyed elements by their sort keys and elements with equal keys by a comparator.
+     */
+    private static final class KeyedElementComparator implements Comparator<Object> {
+
+        /**
+         * The comparator of elements with equal keys.
+         */
+        private final Comparator<Object> elementComparator;
+
+        /**
+         * Creates a new instance for the given {@code elementComparator}.
+         *
+         * @param elementComparator the comparator of elements with equal keys
+         */
+        KeyedElementComparator(final Comparator<Object> elementComparator) {
+            this.elementComparator = elementComparator;
+        }
+
+        @Override
+        public int compare(final Object first, final Object second) {
+            final KeyedElement firstElement = (KeyedElement) first;
+            final KeyedElement secondElement = (KeyedElement) second;
+            final int keyComparison = firstElement.stringKey == null
+                    ? Longs.compare(firstElement.longKey, secondElement.longKey)
+                    : firstElement.stringKey.compareTo(secondElement.stringKey);
+
+            return keyComparison != 0 ? keyComparison : elementComparator.compare(firstElement.element, secondElement.element);
+        }
+    }
+}
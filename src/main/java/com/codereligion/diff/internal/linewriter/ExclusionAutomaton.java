@@ -0,0 +1,300 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.internal.PathPattern;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Matches the paths of the traversed values against a set of excluded and a set of included
+ * {@link PathPattern}s, without building or parsing any paths. The patterns are compiled into a
+ * deterministic automaton, which is advanced by one {@link ExclusionState} per step of the traversal,
+ * so that a property is known to be excluded before its getter is invoked.
+ *
+ * <p>
+ * A path is excluded if it matches any of the excluded patterns. If any included patterns are given,
+ * a path is also excluded unless it matches one of them, is located below a path matching one of them
+ * or may still lead to a path matching one of them, so that only the projection described by the
+ * included patterns is traversed. Paths which only lead to a path matching an included pattern are
+ * not included themselves, so their values are traversed, but not written.
+ *
+ * <p>
+ * The states are created lazily, when a step is taken for the first time, and are shared by all
+ * traversals. A state is a set of positions in the patterns, each encoded as the index of the
+ * pattern in the upper and the index of the segment in the lower bits, and a marker position
+ * for paths located below a path matching an included pattern.
+ *
+ * @since 19.10.2026
+ */
+@ThreadSafe
+public final class ExclusionAutomaton {
+
+    /**
+     * The automaton which does not exclude any path.
+     */
+    public static final ExclusionAutomaton NONE = new ExclusionAutomaton(Collections.<String>emptySet());
+
+    /**
+     * The marker position of paths which match an included pattern or are located below such a path.
+     */
+    private static final int INCLUDED_SUBTREE = -1;
+
+    /**
+     * The number of bits a position uses for the index of the segment.
+     */
+    private static final int SEGMENT_BITS = 16;
+
+    /**
+     * The mask to extract the index of the segment from a position.
+     */
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+    /**
+     * The segments of the patterns, the excluded ones first.
+     */
+    private final ImmutableList<List<String>> patterns;
+
+    /**
+     * The number of excluded patterns, which precede the included ones.
+     */
+    private final int excludedPatternCount;
+
+    /**
+     * Whether any included patterns have been given, so that paths not matching them are excluded.
+     */
+    private final boolean projecting;
+
+    /**
+     * The states created so far by their positions.
+     */
+    private final ConcurrentMap<SortedSet<Integer>, ExclusionState> states =
+            new ConcurrentHashMap<SortedSet<Integer>, ExclusionState>();
+
+    /**
+     * The state before the root object has been reached.
+     */
+    private final ExclusionState initialState;
+
+    /**
+     * Creates a new instance for the given {@code excludedPatterns}.
+     *
+     * @param excludedPatterns the patterns of the excluded paths
+     * @throws IllegalArgumentException when one of the given patterns is not a valid path pattern
+     */
+    public ExclusionAutomaton(final Set<String> excludedPatterns) {
+        this(excludedPatterns, Collections.<String>emptySet());
+    }
+
+    /**
+     * Creates a new instance for the given {@code excludedPatterns} and {@code includedPatterns}.
+     *
+     * @param excludedPatterns the patterns of the excluded paths
+     * @param includedPatterns the patterns of the included paths, empty to include all paths not excluded
+     * @throws IllegalArgumentException when one of the given patterns is not a valid path pattern
+     */
+    public ExclusionAutomaton(final Set<String> excludedPatterns, final Set<String> includedPatterns) {
+        final ImmutableList.Builder<List<String>> builder = ImmutableList.builder();
+        for (final String pattern : excludedPatterns) {
+            builder.add(PathPattern.parse(pattern).getSegments());
+        }
+        for (final String pattern : includedPatterns) {
+            builder.add(PathPattern.parse(pattern).getSegments());
+        }
+        this.patterns = builder.build();
+        this.excludedPatternCount = excludedPatterns.size();
+        this.projecting = !includedPatterns.isEmpty();
+
+        final SortedSet<Integer> positions = new TreeSet<Integer>();
+        for (int i = 0; i < this.patterns.size(); i++) {
+            addPosition(positions, i, 0);
+        }
+        this.initialState = stateFor(positions);
+    }
+
+    /**
+     * Retrieves the state of the root object with the given {@code name}.
+     *
+     * @param name the name of the root object
+     * @return the state of the root object
+     */
+    ExclusionState rootState(final String name) {
+        return initialState.onProperty(name);
+    }
+
+    /**
+     * Computes the positions reached from the given {@code positions} by a step to the property with
+     * the given {@code propertyName} or to an element, if the name is {@code null}.
+     *
+     * @param positions the positions to step from
+     * @param propertyName the name of the property, {@code null} for an element
+     * @return the state of the reached positions
+     */
+    ExclusionState step(final SortedSet<Integer> positions, final String propertyName) {
+        final SortedSet<Integer> nextPositions = new TreeSet<Integer>();
+        for (final Integer position : positions) {
+            if (position == INCLUDED_SUBTREE) {
+                nextPositions.add(INCLUDED_SUBTREE);
+                continue;
+            }
+
+            final int patternIndex = position >>> SEGMENT_BITS;
+            final int segmentIndex = position & SEGMENT_MASK;
+            final List<String> segments = patterns.get(patternIndex);
+
+            if (segmentIndex == segments.size()) {
+                continue;
+            }
+
+            final String segment = segments.get(segmentIndex);
+            if (segment.equals(PathPattern.ANY_DEPTH)) {
+                addPosition(nextPositions, patternIndex, segmentIndex);
+            } else if (matches(segment, propertyName)) {
+                addPosition(nextPositions, patternIndex, segmentIndex + 1);
+            }
+        }
+        return stateFor(nextPositions);
+    }
+
+    /**
+     * Checks whether the given {@code segment} matches a step to the property with the given
+     * {@code propertyName} or to an element, if the name is {@code null}.
+     *
+     * @param segment the segment of a pattern
+     * @param propertyName the name of the property, {@code null} for an element
+     * @return true if the segment matches the step
+     */
+    private static boolean matches(final String segment, final String propertyName) {
+        if (propertyName == null) {
+            return segment.equals(PathPattern.ANY_ELEMENT);
+        }
+        return segment.equals(PathPattern.ANY_PROPERTY) || segment.equals(propertyName);
+    }
+
+    /**
+     * Adds the given position to the given {@code positions}, together with all positions following
+     * it, as long as it points to an {@link PathPattern#ANY_DEPTH} segment, which may match no step.
+     * Reaching the end of an included pattern adds the {@link #INCLUDED_SUBTREE} marker.
+     *
+     * @param positions the positions to add to
+     * @param patternIndex the index of the pattern
+     * @param segmentIndex the index of the segment
+     */
+    private void addPosition(final SortedSet<Integer> positions, final int patternIndex, final int segmentIndex) {
+        final List<String> segments = patterns.get(patternIndex);
+        int index = segmentIndex;
+        while (true) {
+            if (index == segments.size() && patternIndex >= excludedPatternCount) {
+                // the end of an included pattern can not lead to any other position, so only the marker is kept
+                positions.add(INCLUDED_SUBTREE);
+            } else {
+                positions.add((patternIndex << SEGMENT_BITS) | index);
+            }
+
+            if (index == segments.size() || !segments.get(index).equals(PathPattern.ANY_DEPTH)) {
+                return;
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Retrieves the state for the given {@code positions}, creating it on first use, so that equal
+     * sets of positions share the same state and its cached transitions.
+     *
+     * @param positions the positions of the state
+     * @return the state for the given positions
+     */
+    private ExclusionState stateFor(final SortedSet<Integer> positions) {
+        final ExclusionState state = states.get(positions);
+        if (state != null) {
+            return state;
+        }
+
+        final ImmutableSortedSet<Integer> immutablePositions = ImmutableSortedSet.copyOfSorted(positions);
+        final ExclusionState newState = new ExclusionState(
+                this,
+                immutablePositions,
+                isExcluded(immutablePositions),
+                isIncluded(immutablePositions),
+                mayExcludeFollowingPaths(immutablePositions));
+        final ExclusionState previousState = states.putIfAbsent(immutablePositions, newState);
+        return previousState == null ? newState : previousState;
+    }
+
+    /**
+     * Checks whether the paths leading to the given {@code positions} are excluded, either because
+     * they match an excluded pattern or because they are located outside of the included patterns.
+     *
+     * @param positions the positions to check
+     * @return true if the paths leading to the positions are excluded
+     */
+    private boolean isExcluded(final Set<Integer> positions) {
+        boolean projected = !projecting;
+        for (final Integer position : positions) {
+            if (position == INCLUDED_SUBTREE) {
+                projected = true;
+                continue;
+            }
+
+            final int patternIndex = position >>> SEGMENT_BITS;
+            if (patternIndex >= excludedPatternCount) {
+                // the path may still lead to a path matching the included pattern
+                projected = true;
+            } else if ((position & SEGMENT_MASK) == patterns.get(patternIndex).size()) {
+                return true;
+            }
+        }
+        return !projected;
+    }
+
+    /**
+     * Checks whether the paths leading to the given {@code positions} are included themselves, because no
+     * included patterns have been given or because they match an included pattern or are located below a
+     * path matching one, rather than only leading to such a path.
+     *
+     * @param positions the positions to check
+     * @return true if the paths leading to the positions are included themselves
+     */
+    private boolean isIncluded(final Set<Integer> positions) {
+        return !projecting || positions.contains(INCLUDED_SUBTREE);
+    }
+
+    /**
+     * Checks whether any path following the given {@code positions} may be excluded. This is not the case
+     * if none of the patterns is pending, unless the paths are projected and located outside of the
+     * included subtrees.
+     *
+     * @param positions the positions to check
+     * @return true if the paths following the positions may be excluded
+     */
+    private boolean mayExcludeFollowingPaths(final Set<Integer> positions) {
+        for (final Integer position : positions) {
+            if (position != INCLUDED_SUBTREE) {
+                return true;
+            }
+        }
+        return projecting && !positions.contains(INCLUDED_SUBTREE);
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A state of the {@link ExclusionAutomaton}, which represents all paths leading to the same positions
+ * in the patterns. The transitions to the following states are cached, so that advancing the state
+ * costs a single lookup per property name once the paths have been taken before.
+ *
+ * @since 19.10.2026
+ */
+@ThreadSafe
+final class ExclusionState {
+
+    /**
+     * The automaton the state belongs to.
+     */
+    private final ExclusionAutomaton automaton;
+
+    /**
+     * The positions in the patterns.
+     */
+    private final SortedSet<Integer> positions;
+
+    /**
+     * Whether the paths leading to this state are excluded.
+     */
+    private final boolean excluded;
+
+    /**
+     * Whether the paths leading to this state are included themselves, rather than only leading to included paths.
+     */
+    private final boolean included;
+
+    /**
+     * Whether any path following this state may be excluded, if not all following states equal this one.
+     */
+    private final boolean mayExcludeFollowingPaths;
+
+    /**
+     * The cached transitions by the name of the property stepped to.
+     */
+    private final ConcurrentMap<String, ExclusionState> propertyTransitions = new ConcurrentHashMap<String, ExclusionState>();
+
+    /**
+     * The cached transition to an element, {@code null} if it has not been taken yet.
+     */
+    private volatile ExclusionState elementTransition;
+
+    /**
+     * Creates a new instance for the given {@code automaton}, {@code positions}, {@code excluded},
+     * {@code included} and {@code mayExcludeFollowingPaths} flags.
+     *
+     * @param automaton the automaton the state belongs to
+     * @param positions the positions in the patterns
+     * @param excluded whether the paths leading to the state are excluded
+     * @param included whether the paths leading to the state are included themselves
+     * @param mayExcludeFollowingPaths whether any path following the state may be excluded
+     */
+    ExclusionState(final ExclusionAutomaton automaton,
+                   final SortedSet<Integer> positions,
+                   final boolean excluded,
+                   final boolean included,
+                   final boolean mayExcludeFollowingPaths) {
+        this.automaton = automaton;
+        this.positions = positions;
+        this.excluded = excluded;
+        this.included = included;
+        this.mayExcludeFollowingPaths = mayExcludeFollowingPaths;
+    }
+
+    /**
+     * Checks whether the paths leading to this state are excluded.
+     *
+     * @return true if the value at this state is excluded
+     */
+    boolean isExcluded() {
+        return excluded;
+    }
+
+    /**
+     * Checks whether the paths leading to this state are included themselves, which is the case if no included
+     * patterns have been given or they match an included pattern or are located below such a path. Values at
+     * paths which only lead to included patterns are traversed, but not written themselves.
+     *
+     * @return true if the value at this state is written, unless it is excluded
+     */
+    boolean isIncluded() {
+        return included;
+    }
+
+    /**
+     * Checks whether any path following this state may still be excluded.
+     *
+     * @return true if any of the patterns may match a path following this state
+     */
+    boolean mayExcludeFollowingPaths() {
+        return mayExcludeFollowingPaths;
+    }
+
+    /**
+     * Advances this state by a step to the property with the given {@code propertyName}.
+     *
+     * @param propertyName the name of the property
+     * @return the state of the property
+     */
+    ExclusionState onProperty(final String propertyName) {
+        if (!mayExcludeFollowingPaths) {
+            return this;
+        }
+
+        final ExclusionState state = propertyTransitions.get(propertyName);
+        if (state != null) {
+            return state;
+        }
+
+        // advancing the same transition concurrently is harmless, since the automaton returns the same state
+        final ExclusionState nextState = automaton.step(positions, propertyName);
+        propertyTransitions.put(propertyName, nextState);
+        return nextState;
+    }
+
+    /**
+     * Advances this state by a step to an element of an iterable or a value of a map.
+     *
+     * @return the state of the element
+     */
+    ExclusionState onElement() {
+        if (!mayExcludeFollowingPaths) {
+            return this;
+        }
+
+        final ExclusionState state = elementTransition;
+        if (state != null) {
+            return state;
+        }
+
+        final ExclusionState nextState = automaton.step(positions, null);
+        elementTransition = nextState;
+        return nextState;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.io.File;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The directory and the run size by which iterables are ordered by the lines of their elements. Iterables with
+ * more elements than the run size are written in sorted runs to temporary files in the directory, which are
+ * merged while the lines of the iterable are joined.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+public final class ExternalSort {
+
+    /**
+     * The directory to create the temporary files of the runs in.
+     */
+    private final File directory;
+
+    /**
+     * The number of elements per run, iterables with more elements are sorted on disk.
+     */
+    private final int runSize;
+
+    /**
+     * Creates a new instance for the given {@code directory} and {@code runSize}.
+     *
+     * @param directory the directory to create the temporary files of the runs in
+     * @param runSize the number of elements per run, iterables with more elements are sorted on disk
+     */
+    public ExternalSort(final File directory, final int runSize) {
+        this.directory = directory;
+        this.runSize = runSize;
+    }
+
+    /**
+     * Retrieves the directory to create the temporary files of the runs in.
+     *
+     * @return the directory
+     */
+    File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Retrieves the number of elements per run.
+     *
+     * @return the run size
+     */
+    int getRunSize() {
+        return runSize;
+    }
+}
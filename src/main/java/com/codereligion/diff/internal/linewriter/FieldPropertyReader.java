@@ -0,0 +1,47 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.lang.reflect.Field;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Reads a property directly from its field, without calling any getter.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+final class FieldPropertyReader implements PropertyReader {
+
+    /**
+     * The accessible field of the property.
+     */
+    private final Field field;
+
+    /**
+     * Creates a new instance for the given {@code field}, which must already be accessible.
+     *
+     * @param field the accessible field of the property
+     */
+    FieldPropertyReader(final Field field) {
+        this.field = field;
+    }
+
+    @Override
+    public Object read(final Object bean) throws IllegalAccessException {
+        return field.get(bean);
+    }
+}
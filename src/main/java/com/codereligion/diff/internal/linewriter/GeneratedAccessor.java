@@ -0,0 +1,44 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+/**
+ * The superclass of the accessors generated at runtime by the {@link AccessorGenerator}, each of which
+ * reads the properties of the beans of a single class by direct getter calls.
+ *
+ * <p>
+ * The class is public, since the generated subclasses are defined by their own class loaders and
+ * thereby belong to another runtime package.
+ *
+ * @since 19.10.2026
+ */
+public abstract class GeneratedAccessor {
+
+    /**
+     * Creates a new instance.
+     */
+    protected GeneratedAccessor() {
+    }
+
+    /**
+     * Reads the value of the property at the given {@code propertyIndex} from the given {@code bean}.
+     *
+     * @param bean the bean to read the property of
+     * @param propertyIndex the index of the getter the accessor has been generated for
+     * @return the value of the property, boxed if it is a primitive
+     */
+    public abstract Object read(Object bean, int propertyIndex);
+}
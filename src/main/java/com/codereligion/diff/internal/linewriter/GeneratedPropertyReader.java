@@ -0,0 +1,59 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.lang.reflect.InvocationTargetException;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Reads a property through a {@link GeneratedAccessor}, which calls the getter directly.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+final class GeneratedPropertyReader implements PropertyReader {
+
+    /**
+     * The accessor generated for the bean class.
+     */
+    private final GeneratedAccessor accessor;
+
+    /**
+     * The index of the getter in the getters the accessor has been generated for.
+     */
+    private final int propertyIndex;
+
+    /**
+     * Creates a new instance for the given {@code accessor} and {@code propertyIndex}.
+     *
+     * @param accessor the accessor generated for the bean class
+     * @param propertyIndex the index of the getter in the getters the accessor has been generated for
+     */
+    GeneratedPropertyReader(final GeneratedAccessor accessor, final int propertyIndex) {
+        this.accessor = accessor;
+        this.propertyIndex = propertyIndex;
+    }
+
+    @Override
+    public Object read(final Object bean) throws InvocationTargetException {
+        try {
+            return accessor.read(bean, propertyIndex);
+        } catch (final Exception e) {
+            // the generated code passes on checked exceptions of getters as well, which are wrapped like reflection does
+            throw new InvocationTargetException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Reads a property by invoking its getter reflectively.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+final class GetterPropertyReader implements PropertyReader {
+
+    /**
+     * The getter of the property.
+     */
+    private final Method readMethod;
+
+    /**
+     * Creates a new instance for the given {@code readMethod}.
+     *
+     * @param readMethod the getter of the property
+     */
+    GetterPropertyReader(final Method readMethod) {
+        this.readMethod = readMethod;
+    }
+
+    @Override
+    public Object read(final Object bean) throws IllegalAccessException, InvocationTargetException {
+        return readMethod.invoke(bean);
+    }
+
+    /**
+     * Retrieves the getter of the property.
+     *
+     * @return the read method
+     */
+    Method getReadMethod() {
+        return readMethod;
+    }
+}
@@ -15,14 +15,9 @@
  */
 package com.codereligion.diff.internal.linewriter;
 
-import com.codereligion.diff.exception.MissingComparatorException;
 import com.codereligion.diff.internal.ComparatorRepository;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicates;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -34,85 +29,80 @@ import java.util.List;
 class IterableLineWriter extends TypeSafeCheckableLineWriter<Iterable<Object>> {
 
     /**
-     * Line writer to delegate actual line writing to.
+     * Line writer to delegate actual line writing of the elements to.
      */
-    private final LineWriter lineWriter;
+    private final RootLineWriter lineWriter;
 
     /**
-     * Repository to lookup comparators to use for sorting the given iterables.
+     * Sorter to sort the given iterables with the comparators of the repository.
      */
-    private final ComparatorRepository comparatorRepository;
+    private final ElementSorter elementSorter;
 
     /**
-     * Creates a new instance for the given {@code lineWriter} and {@code comparatorRepository}.
+     * The budget limiting the number of written elements.
+     */
+    private final TraversalBudget budget;
+
+    /**
+     * Creates a new instance for the given {@code lineWriter}, {@code comparatorRepository}, {@code parallelSorter}
+     * and {@code budget}.
      *
-     * @param lineWriter the {@link LineWriter} to delegate actual line writing to
+     * @param lineWriter the {@link RootLineWriter} to delegate actual line writing of the elements to
      * @param comparatorRepository the repository to look up comparators
+     * @param parallelSorter the optional sorter to sort large iterables in parallel
+     * @param budget the budget limiting the number of written elements
      */
-    public IterableLineWriter(final LineWriter lineWriter, final ComparatorRepository comparatorRepository) {
+    public IterableLineWriter(final RootLineWriter lineWriter,
+                              final ComparatorRepository comparatorRepository,
+                              final Optional<ParallelSorter> parallelSorter,
+                              final TraversalBudget budget) {
         this.lineWriter = lineWriter;
-        this.comparatorRepository = comparatorRepository;
+        this.elementSorter = new ElementSorter(comparatorRepository, parallelSorter);
+        this.budget = budget;
     }
 
     @Override
     List<String> typeSafeWrite(final String path, final Iterable<Object> iterable) {
-        final List<Object> iterableProperty = transformToSortedList(path, iterable);
-        final List<String> lines = Lists.newArrayList();
-        
-        int i = 0;
-        for (final Object nestedProperty : iterableProperty) {
-            final String extendedPath = PathBuilder.extendPathWithIterableIndex(path, i++);
-            lines.addAll(lineWriter.write(extendedPath, nestedProperty));
+        if (lineWriter.sortsElementsByLines()) {
+            return lineWriter.writeElementsSortedByLines(path, iterable);
         }
-        
-        return lines;
-    }
-
-    @Override
-    public boolean applies(final Object value) {
-        return value instanceof Iterable;
-    }
 
-    /**
-     * Transforms the given iterable value into a sorted list or throws an {@link MissingComparatorException}
-     * if none was found.
-     *
-     * @param path the path which describes the position of the given item's iterable in the object graph
-     * @param value the property value to sort into a list
-     * @return a new sorted list of the given iterable
-     * @throws MissingComparatorException if no comparator could be found for the given iterable
-     */
-    private List<Object> transformToSortedList(final String path, final Iterable<Object> value) {
-        final List<Object> list = Lists.newArrayList(value);
-        final Optional<Object> firstElement = Iterables.tryFind(list, Predicates.notNull());
-
-        if (!firstElement.isPresent()) {
-            return list;
+        // the first elements in sorted order are written, so that they do not depend on the iteration order,
+        // while the iterable is iterated only once, since it may not be iterable again
+        final List<Object> iterableProperty;
+        final int size;
+        if (isWithinMaxElements(iterable)) {
+            iterableProperty = elementSorter.sortedList(path, iterable);
+            size = iterableProperty.size();
+        } else {
+            final ElementSorter.SelectedElements selectedElements =
+                    elementSorter.firstElements(path, iterable, budget.getMaxElements());
+            iterableProperty = selectedElements.getElements();
+            size = selectedElements.getSize();
         }
+        final List<String> lines = lineWriter.writeElements(path, iterableProperty);
 
-        final Comparator<Object> comparator = findComparatorOrThrowException(path, firstElement.get());
-        Collections.sort(list, comparator);
+        if (size > iterableProperty.size()) {
+            lines.add(budget.elementsExceeded(path));
+        }
 
-        return list;
+        lineWriter.recordCollection(path, size, lines);
+        return lines;
     }
 
     /**
-     * Tries to find a matching comparator for the given {@code item} or throws a
-     * {@link MissingComparatorException} if none was found.
+     * Checks whether the given {@code iterable} is known to be written completely without iterating it.
      *
-     * @param path the path which describes the position of the given item's iterable in the object graph
-     * @param item the item to find a matching comparator for
-     * @return a {@link Comparator} for the given {@code item}
-     * @throws MissingComparatorException if no comparator could be found for the given item
+     * @param iterable the iterable to check
+     * @return true if the number of elements is not limited or the iterable is a collection within the limit
      */
-    private Comparator<Object> findComparatorOrThrowException(final String path, final Object item) {
-
-        final Optional<Comparator<Object>> optional = comparatorRepository.findFor(item);
-
-        if (!optional.isPresent()) {
-            throw MissingComparatorException.missingIterableComparator(path);
-        }
+    private boolean isWithinMaxElements(final Iterable<Object> iterable) {
+        return budget.getMaxElements() == Integer.MAX_VALUE
+                || iterable instanceof Collection && ((Collection<?>) iterable).size() <= budget.getMaxElements();
+    }
 
-        return optional.get();
+    @Override
+    public boolean applies(final Object value) {
+        return value instanceof Iterable;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.laziness.LazinessDetector;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Keeps the traversal from loading lazy values by asking the {@link LazinessDetector}s about each value before
+ * it is traversed. Uninitialized values are either written as a placeholder line, e.g.
+ * {@code Order.lines=uninitialized}, or skipped.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+public final class LazinessGuard {
+
+    /**
+     * A guard which does not detect any uninitialized values.
+     */
+    public static final LazinessGuard NONE = new LazinessGuard(Collections.<LazinessDetector>emptySet(), false);
+
+    /**
+     * The detectors of uninitialized values.
+     */
+    private final Set<LazinessDetector> detectors;
+
+    /**
+     * Whether uninitialized values are skipped instead of being written as a placeholder line.
+     */
+    private final boolean skipUninitialized;
+
+    /**
+     * Creates a new instance for the given {@code detectors} and {@code skipUninitialized} flag.
+     *
+     * @param detectors the detectors of uninitialized values
+     * @param skipUninitialized whether uninitialized values are skipped instead of being written as a placeholder line
+     */
+    public LazinessGuard(final Set<LazinessDetector> detectors, final boolean skipUninitialized) {
+        this.detectors = ImmutableSet.copyOf(detectors);
+        this.skipUninitialized = skipUninitialized;
+    }
+
+    /**
+     * Checks whether this guard detects any uninitialized values at all.
+     *
+     * @return true if any detectors are given
+     */
+    public boolean detectsLaziness() {
+        return !detectors.isEmpty();
+    }
+
+    /**
+     * Checks whether the given {@code value} is uninitialized according to any of the detectors.
+     *
+     * @param value the value to check
+     * @return true if the given value is not {@code null} and uninitialized
+     */
+    boolean isUninitialized(@Nullable final Object value) {
+        if (value == null || detectors.isEmpty()) {
+            return false;
+        }
+        for (final LazinessDetector detector : detectors) {
+            if (detector.isUninitialized(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the given {@code value} is uninitialized and skipped, so that neither a placeholder line nor
+     * any other line is written for it.
+     *
+     * @param value the value to check
+     * @return true if the given value is skipped
+     */
+    boolean isSkipped(@Nullable final Object value) {
+        return skipUninitialized && isUninitialized(value);
+    }
+}
@@ -15,20 +15,15 @@
  */
 package com.codereligion.diff.internal.linewriter;
 
-import com.codereligion.diff.exception.MissingComparatorException;
 import com.codereligion.diff.exception.MissingSerializerException;
 import com.codereligion.diff.internal.ComparatorRepository;
 import com.codereligion.diff.internal.SerializerRepository;
-import com.codereligion.diff.serializer.Serializer;
+import com.codereligion.diff.serializer.AppendingSerializer;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicates;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 /**
  * Serializes maps to lines after sorting them by their keys.
@@ -41,7 +36,7 @@ class MapLineWriter extends TypeSafeCheckableLineWriter<Map<Object, Object>> {
     /**
      * Line writer to delegate the value serialization to
      */
-    private final LineWriter lineWriter;
+    private final RootLineWriter lineWriter;
 
     /**
      * Repository to lookup serializers to use for serializing the keys.
@@ -49,41 +44,78 @@ class MapLineWriter extends TypeSafeCheckableLineWriter<Map<Object, Object>> {
     private final SerializerRepository serializerRepository;
 
     /**
-     * Repository to lookup comparators to use for sorting the keys.
+     * Sorter to sort the given maps by their keys with the comparators of the repository.
      */
-    private final ComparatorRepository comparatorRepository;
+    private final ElementSorter elementSorter;
 
     /**
-     * Creates a new instance for the given {@code lineWriter}, {@code serializerRepository} and
-     * {@code comparatorRepository}.
+     * The budget limiting the number of written entries.
+     */
+    private final TraversalBudget budget;
+
+    /**
+     * Creates a new instance for the given {@code lineWriter}, {@code serializerRepository},
+     * {@code comparatorRepository}, {@code parallelSorter} and {@code budget}.
      *
-     * @param lineWriter the {@link LineWriter} to delegate value serialization to
+     * @param lineWriter the {@link RootLineWriter} to delegate value serialization to
      * @param serializerRepository repository to lookup key serializers
      * @param comparatorRepository repository to lookup key comparators
+     * @param parallelSorter the optional sorter to sort large maps in parallel
+     * @param budget the budget limiting the number of written entries
      */
     public MapLineWriter(
-            final LineWriter lineWriter,
+            final RootLineWriter lineWriter,
             final SerializerRepository serializerRepository,
-            final ComparatorRepository comparatorRepository) {
+            final ComparatorRepository comparatorRepository,
+            final Optional<ParallelSorter> parallelSorter,
+            final TraversalBudget budget) {
 
         this.lineWriter = lineWriter;
         this.serializerRepository = serializerRepository;
-        this.comparatorRepository = comparatorRepository;
+        this.elementSorter = new ElementSorter(comparatorRepository, parallelSorter);
+        this.budget = budget;
     }
 
     @Override
     List<String> typeSafeWrite(final String path, final Map<Object, Object> map) {
-        final SortedMap<Object, Object> mapProperty = transformToSortedMap(path, map);
-        final List<String> lines = Lists.newArrayList();
-        
-        for (final Map.Entry<Object, Object> entry : mapProperty.entrySet()) {
+        // one entry more than written is selected, which tells whether the written ones are followed by any other
+        final Collection<Map.Entry<Object, Object>> mapProperty = map.size() > budget.getMaxElements()
+                ? elementSorter.firstEntries(path, map, budget.getMaxElements() + 1)
+                : elementSorter.sortedEntries(path, map);
+        final List<String> entryPaths = Lists.newArrayList();
+        final List<Object> values = Lists.newArrayList();
+        boolean elementsExceeded = false;
+        MissingSerializerException missingKeySerializer = null;
+
+        int remainingEntries = budget.getMaxElements();
+        for (final Map.Entry<Object, Object> entry : mapProperty) {
+            if (remainingEntries-- == 0) {
+                elementsExceeded = true;
+                break;
+            }
+
             final Object key = entry.getKey();
-            final Serializer<Object> serializer = findMapKeySerializerOrThrowException(path, key);
-            final Object serializedKey = serializer.serialize(key);
-            final String extendedPath = PathBuilder.extendPathWithMapIndex(path, serializedKey);
-            lines.addAll(lineWriter.write(extendedPath, entry.getValue()));
+            final Optional<AppendingSerializer<Object>> serializer = serializerRepository.findAppendingFor(key);
+            if (!serializer.isPresent()) {
+                // thrown after the preceding values have been written, which may fail before
+                missingKeySerializer = MissingSerializerException.missingMapKeySerializer(path, key.getClass());
+                break;
+            }
+
+            final StringBuilder builder = PathBuilder.startMapIndex(path);
+            serializer.get().serialize(key, builder);
+            entryPaths.add(PathBuilder.closeMapIndex(builder));
+            values.add(entry.getValue());
         }
-        
+
+        final List<String> lines = lineWriter.writeEntries(path, entryPaths, values);
+        if (missingKeySerializer != null) {
+            throw missingKeySerializer;
+        }
+        if (elementsExceeded) {
+            lines.add(budget.elementsExceeded(path));
+        }
+        lineWriter.recordCollection(path, elementsExceeded ? map.size() : mapProperty.size(), lines);
         return lines;
     }
 
@@ -91,64 +123,4 @@ class MapLineWriter extends TypeSafeCheckableLineWriter<Map<Object, Object>> {
     public boolean applies(final Object value) {
         return value instanceof Map;
     }
-
-    /**
-     * Transforms the given map {@code value} into a {@link SortedMap}.
-     *
-     * @param path the path which describes the position of the given value in the object graph
-     * @param value the map to be sorted
-     * @return a new sorted map with the contents of the given map
-     */
-    private SortedMap<Object, Object> transformToSortedMap(final String path, final Map<Object, Object> value) {
-        
-        final Optional<Object> anyKey = Iterables.tryFind(value.keySet(), Predicates.notNull());
-
-        final boolean thereIsJustOneKeyAndItIsNull = !anyKey.isPresent();
-        if (thereIsJustOneKeyAndItIsNull) {
-            return new TreeMap<Object, Object>();
-        }
-
-        final Comparator<Object> comparator = findComparatorOrThrowException(path, anyKey.get());
-        final SortedMap<Object, Object> sortedMap = new TreeMap<Object, Object>(comparator);
-        sortedMap.putAll(value);
-
-        return sortedMap;
-    }
-
-    /**
-     * Tries to find a serializer for the given key or throws an {@link MissingSerializerException}
-     * if none could be found.
-     *
-     * @param path the path which describes the position of the given key's map in the object graph
-     * @param key the key to find a serializer for
-     * @return a {@link Serializer} for the given {@code key}
-     * @throws MissingSerializerException when no serializer could be found for the given {@code keys}
-     */
-    private Serializer<Object> findMapKeySerializerOrThrowException(final String path, final Object key) {
-        final Optional<Serializer<Object>> serializer = serializerRepository.findFor(key);
-        if (!serializer.isPresent()) {
-            throw MissingSerializerException.missingMapKeySerializer(path, key.getClass());
-        }
-
-        return serializer.get();
-    }
-
-    /**
-     * Tries to find a matching comparator for the given {@code key} or throws a
-     * {@link MissingComparatorException} if none was found.
-     *
-     * @param path the path which describes the position of the given key's map in the object graph
-     * @param key the key to find a matching comparator for
-     * @return a {@link Comparator} for the give {@code key}
-     * @throws MissingComparatorException if no comparator could be found for the given item
-     */
-    private Comparator<Object> findComparatorOrThrowException(final String path, final Object key) {
-        final Optional<Comparator<Object>> comparator = comparatorRepository.findFor(key);
-
-        if (!comparator.isPresent()) {
-            throw MissingComparatorException.missingMapKeyComparator(path, key.getClass());
-        }
-
-        return comparator.get();
-    }
-}
\ No newline at end of file
+}
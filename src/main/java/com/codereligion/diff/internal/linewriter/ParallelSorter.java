@@ -0,0 +1,151 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.Lists;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Sorts large arrays by a parallel merge sort: the array is split into runs of the threshold size, which are
+ * sorted on the executor, and the sorted runs are merged pairwise in parallel until a single run is left.
+ *
+ * <p>
+ * The runs are sorted by the stable {@link Arrays#sort(Object[], int, int, Comparator)} and the merges prefer the
+ * left run on ties, so the result equals the one of {@link java.util.Collections#sort(List, Comparator)}.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+public final class ParallelSorter {
+
+    /**
+     * The executor sorting and merging the runs.
+     */
+    private final Executor executor;
+
+    /**
+     * The length of the initially sorted runs, arrays which are not longer are sorted by the calling thread.
+     */
+    private final int threshold;
+
+    /**
+     * Creates a new instance for the given {@code executor} and {@code threshold}.
+     *
+     * @param executor the executor sorting and merging the runs
+     * @param threshold the length of the initially sorted runs, arrays which are not longer are sorted serially
+     */
+    public ParallelSorter(final Executor executor, final int threshold) {
+        this.executor = executor;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Retrieves the number of elements above which arrays are sorted in parallel.
+     *
+     * @return the threshold
+     */
+    int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sorts the given {@code elements} with the given {@code comparator}.
+     *
+     * @param path the path of the sorted iterable or map, used to report an interruption
+     * @param elements the elements to sort in place
+     * @param comparator the comparator defining the order
+     * @throws com.codereligion.diff.exception.DiffCancelledException when the calling thread is interrupted while
+     *             waiting for the executor
+     */
+    void sort(final String path, final Object[] elements, final Comparator<Object> comparator) {
+        final int length = elements.length;
+        if (length <= threshold) {
+            Arrays.sort(elements, comparator);
+            return;
+        }
+
+        final List<Callable<Void>> runs = Lists.newArrayList();
+        for (int from = 0; from < length; from += threshold) {
+            final int runFrom = from;
+            final int runTo = Math.min(from + threshold, length);
+            runs.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    Arrays.sort(elements, runFrom, runTo, comparator);
+                    return null;
+                }
+            });
+        }
+        ParallelTasks.runInOrder(executor, runs, path);
+
+        Object[] source = elements;
+        Object[] target = new Object[length];
+        for (int runLength = threshold; runLength < length; runLength *= 2) {
+            final List<Callable<Void>> merges = Lists.newArrayList();
+            for (int from = 0; from < length; from += 2 * runLength) {
+                final int middle = Math.min(from + runLength, length);
+                final int to = Math.min(from + 2 * runLength, length);
+                merges.add(merge(source, target, from, middle, to, comparator));
+            }
+            ParallelTasks.runInOrder(executor, merges, path);
+
+            final Object[] merged = target;
+            target = source;
+            source = merged;
+        }
+
+        if (source != elements) {
+            System.arraycopy(source, 0, elements, 0, length);
+        }
+    }
+
+    /**
+     * Creates the task merging the sorted runs {@code [from, middle)} and {@code [middle, to)} of the given
+     * {@code source} into the same range of the given {@code target}, preferring the left run on ties.
+     *
+     * @param source the array containing the sorted runs
+     * @param target the array to merge the runs into
+     * @param from the index of the first element of the left run
+     * @param middle the index of the first element of the right run
+     * @param to the index after the last element of the right run
+     * @param comparator the comparator defining the order
+     * @return the merge task
+     */
+    private static Callable<Void> merge(final Object[] source,
+                                        final Object[] target,
+                                        final int from,
+                                        final int middle,
+                                        final int to,
+                                        final Comparator<Object> comparator) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() {
+                int left = from;
+                int right = middle;
+                for (int i = from; i < to; i++) {
+                    final boolean takeLeft = right >= to || left < middle && comparator.compare(source[left], source[right]) <= 0;
+                    target[i] = takeLeft ? source[left++] : source[right++];
+                }
+                return null;
+            }
+        };
+    }
+}
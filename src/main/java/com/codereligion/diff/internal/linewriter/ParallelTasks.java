@@ -0,0 +1,103 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.exception.DiffCancelledException;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks on an executor and the calling thread together, collecting their results in order.
+ *
+ * <p>
+ * The calling thread runs every task in order which has not been started by the executor yet, so the tasks
+ * complete even if the executor is busy or rejects them, and waits for the others. The tasks must not wait for
+ * each other, so that a bounded executor can not deadlock.
+ *
+ * @since 19.10.2026
+ */
+final class ParallelTasks {
+
+    /**
+     * No public constructor.
+     */
+    private ParallelTasks() {
+        throw new IllegalAccessError("This is a static utility class, which must not be instantiated");
+    }
+
+    /**
+     * Runs the given {@code callables} on the given {@code executor} and the calling thread and returns their results
+     * in the order of the callables. If any of them fails, the exception of the first failed callable is rethrown and
+     * the callables which have not been started yet are cancelled.
+     *
+     * @param executor the executor to run the callables on
+     * @param callables the callables to run
+     * @param path the path of the value the callables work on, used to report an interruption
+     * @param <T> the type of the results
+     * @return the results of the callables in their order
+     * @throws DiffCancelledException when the calling thread is interrupted while waiting for a callable
+     */
+    static <T> List<T> runInOrder(final Executor executor, final List<Callable<T>> callables, final String path) {
+        final List<FutureTask<T>> tasks = Lists.newArrayListWithCapacity(callables.size());
+        for (final Callable<T> callable : callables) {
+            final FutureTask<T> task = new FutureTask<T>(callable);
+            // the first task is run by the calling thread anyway
+            if (!tasks.isEmpty()) {
+                try {
+                    executor.execute(task);
+                } catch (final RejectedExecutionException e) {
+                    // the task is run by the calling thread instead
+                }
+            }
+            tasks.add(task);
+        }
+
+        final List<T> results = Lists.newArrayListWithCapacity(tasks.size());
+        try {
+            for (final FutureTask<T> task : tasks) {
+                // runs the task unless it has been started by the executor already
+                task.run();
+                results.add(task.get());
+            }
+        } catch (final ExecutionException e) {
+            cancel(tasks);
+            throw Throwables.propagate(e.getCause());
+        } catch (final InterruptedException e) {
+            cancel(tasks);
+            Thread.currentThread().interrupt();
+            throw DiffCancelledException.interruptedAt(path);
+        }
+        return results;
+    }
+
+    /**
+     * Cancels the given {@code tasks}, which have not been started yet.
+     *
+     * @param tasks the tasks to cancel
+     * @param <T> the type of the results
+     */
+    private static <T> void cancel(final List<FutureTask<T>> tasks) {
+        for (final FutureTask<T> task : tasks) {
+            task.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.util.concurrent.Executor;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The executor and the threshold by which large iterables and maps are split into chunks of elements, which
+ * are traversed in parallel and of which the lines are joined in the order of the elements.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+public final class ParallelTraversal {
+
+    /**
+     * The executor running the chunks of elements.
+     */
+    private final Executor executor;
+
+    /**
+     * The number of elements per chunk, iterables and maps with more elements are split.
+     */
+    private final int threshold;
+
+    /**
+     * Creates a new instance for the given {@code executor} and {@code threshold}.
+     *
+     * @param executor the executor running the chunks of elements
+     * @param threshold the number of elements per chunk, iterables and maps with more elements are split
+     */
+    public ParallelTraversal(final Executor executor, final int threshold) {
+        this.executor = executor;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Retrieves the executor running the chunks of elements.
+     *
+     * @return the executor
+     */
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Retrieves the number of elements per chunk.
+     *
+     * @return the threshold
+     */
+    int getThreshold() {
+        return threshold;
+    }
+}
@@ -29,6 +29,16 @@ final class PathBuilder {
     private static final String PATH_SEPARATOR = ".";
     private static final String INDEX_ENCLOSER_START = "[";
     private static final String INDEX_ENCLOSER_END = "]";
+    private static final String REFERENCE_START = "ref(";
+    private static final char MARKER_END = ')';
+    private static final String TRUNCATION_START = "truncated(";
+    private static final String UNINITIALIZED = "uninitialized";
+    private static final String UNCHANGED_START = "unchanged(size=";
+
+    /**
+     * The capacity reserved for values appended to a path, to avoid growing the buffer for short values.
+     */
+    private static final int INITIAL_VALUE_CAPACITY = 16;
 
     /**
      * No public constructor.
@@ -69,21 +79,187 @@ final class PathBuilder {
     }
 
     /**
-     * Creates a full map path by concatenating the given {@code path} and
-     * {@code key}.
-     * 
+     * Creates the path of an element of the iterable at the given {@code path}, of which
+     * the index is not known yet, e.g. {@code Customer.orders[]}.
+     *
+     * @param path the path of the iterable
+     * @return the path of an element without an index
+     */
+    public static String extendPathWithUnknownIndex(final String path) {
+        return new StringBuilder(path.length() + 2).append(path)
+                                                   .append(INDEX_ENCLOSER_START)
+                                                   .append(INDEX_ENCLOSER_END)
+                                                   .toString();
+    }
+
+    /**
+     * Replaces the given {@code unindexedPath} the given {@code line} starts with by the
+     * given {@code indexedPath}, as well as at the start of the path it references, if the
+     * line references an ancestor within the element, e.g.
+     * {@code Order.items[].order=ref(Order.items[])} becomes
+     * {@code Order.items[3].order=ref(Order.items[3])}.
+     *
+     * @param line the line starting with the path of an element without an index
+     * @param unindexedPath the path of the element without an index
+     * @param indexedPath the path of the element with its index
+     * @return the line starting with the given indexed path
+     */
+    public static String replaceUnknownIndex(final String line, final String unindexedPath, final String indexedPath) {
+        final String referenceStart = KEY_VALUE_SEPARATOR + REFERENCE_START + unindexedPath;
+        final int referenceIndex = line.indexOf(referenceStart, unindexedPath.length());
+        final StringBuilder builder = new StringBuilder(line.length() + 2 * (indexedPath.length() - unindexedPath.length()))
+                .append(indexedPath);
+
+        if (referenceIndex < 0) {
+            return builder.append(line, unindexedPath.length(), line.length()).toString();
+        }
+
+        return builder.append(line, unindexedPath.length(), referenceIndex + referenceStart.length() - unindexedPath.length())
+                      .append(indexedPath)
+                      .append(line, referenceIndex + referenceStart.length(), line.length())
+                      .toString();
+    }
+
+    /**
+     * Truncates the given {@code builder} to the given {@code pathLength} and appends
+     * the given {@code index} followed by the key/value separator, so that the value
+     * of the indexed element can be appended directly to the returned builder.
+     *
+     * @param builder the builder which starts with the path to be indexed
+     * @param pathLength the length of the path to truncate the builder to
+     * @param index the actual index
+     * @return the given builder
+     */
+    public static StringBuilder resetToIterableIndexValue(final StringBuilder builder, final int pathLength, final int index) {
+        builder.setLength(pathLength);
+        return builder.append(INDEX_ENCLOSER_START)
+                      .append(index)
+                      .append(INDEX_ENCLOSER_END)
+                      .append(KEY_VALUE_SEPARATOR);
+    }
+
+    /**
+     * Creates a builder containing the given {@code path} and the opening of a map
+     * index, so that the key to be used as the index can be appended to it.
+     *
      * @param path the path to be indexed
-     * @param key the actual key to be used as the index
+     * @return a new builder starting with the given path
+     * @see #closeMapIndex(StringBuilder)
+     */
+    public static StringBuilder startMapIndex(final String path) {
+        return new StringBuilder(path.length() + INITIAL_VALUE_CAPACITY).append(path)
+                                                                       .append(INDEX_ENCLOSER_START);
+    }
+
+    /**
+     * Closes the map index which has been started with {@link #startMapIndex(String)}.
+     *
+     * @param builder the builder containing the path and the appended key
      * @return the concatenated path
      */
-    public static String extendPathWithMapIndex(final String path, final Object key) {
+    public static String closeMapIndex(final StringBuilder builder) {
+        return builder.append(INDEX_ENCLOSER_END).toString();
+    }
+
+    /**
+     * Creates a builder containing the given {@code path} and the key/value
+     * separator, so that the value can be appended to it.
+     *
+     * @param path the path to the value
+     * @return a new builder starting with the given path
+     */
+    public static StringBuilder startValue(final String path) {
+        return new StringBuilder(path.length() + INITIAL_VALUE_CAPACITY).append(path)
+                                                                       .append(KEY_VALUE_SEPARATOR);
+    }
+
+    /**
+     * Creates a line for the given {@code path} which refers to the given
+     * {@code referencedPath}, e.g. {@code Order.customer.orders[0]=ref(Order)}.
+     *
+     * @param path the path of the referencing value
+     * @param referencedPath the path at which the referenced value has been written
+     * @return the full reference line
+     */
+    public static String extendPathWithReference(final String path, final String referencedPath) {
+        return new StringBuilder(path.length() + referencedPath.length() + REFERENCE_START.length() + 2)
+                .append(path)
+                .append(KEY_VALUE_SEPARATOR)
+                .append(REFERENCE_START)
+                .append(referencedPath)
+                .append(MARKER_END)
+                .toString();
+    }
+
+    /**
+     * Creates a line for the given {@code path} which marks that the value has been
+     * truncated due to the given {@code limit}, e.g. {@code Order.items=truncated(maxElements=100)}.
+     *
+     * @param path the path of the truncated value
+     * @param limitName the name of the exceeded limit
+     * @param limit the exceeded limit
+     * @return the full truncation line
+     */
+    public static String extendPathWithTruncation(final String path, final String limitName, final int limit) {
         return new StringBuilder().append(path)
-                                  .append(INDEX_ENCLOSER_START)
-                                  .append(key)
-                                  .append(INDEX_ENCLOSER_END)
+                                  .append(KEY_VALUE_SEPARATOR)
+                                  .append(TRUNCATION_START)
+                                  .append(limitName)
+                                  .append(KEY_VALUE_SEPARATOR)
+                                  .append(limit)
+                                  .append(MARKER_END)
                                   .toString();
     }
 
+    /**
+     * Creates a line for the given {@code path} which marks that the value has not been
+     * traversed, since it has not been loaded yet, e.g. {@code Order.lines=uninitialized}.
+     *
+     * @param path the path of the uninitialized value
+     * @return the full placeholder line
+     */
+    public static String extendPathWithUninitializedMarker(final String path) {
+        return new StringBuilder(path.length() + UNINITIALIZED.length() + 1)
+                .append(path)
+                .append(KEY_VALUE_SEPARATOR)
+                .append(UNINITIALIZED)
+                .toString();
+    }
+
+    /**
+     * Creates a line for the given {@code path} which summarizes an iterable or map of
+     * the given {@code size}, which has not been changed, e.g. {@code Customer.orders=unchanged(size=1000)}.
+     *
+     * @param path the path of the unchanged iterable or map
+     * @param size the number of elements or entries
+     * @return the full summary line
+     */
+    public static String extendPathWithUnchangedMarker(final String path, final int size) {
+        return new StringBuilder().append(path)
+                                  .append(KEY_VALUE_SEPARATOR)
+                                  .append(UNCHANGED_START)
+                                  .append(size)
+                                  .append(MARKER_END)
+                                  .toString();
+    }
+
+    /**
+     * Replaces the first {@code prefixLength} characters of the given {@code line}
+     * with the given {@code path}, so that a line written for one path can be reused
+     * for another one.
+     *
+     * @param line the line starting with the path to replace
+     * @param prefixLength the length of the path to replace
+     * @param path the path to start the returned line with
+     * @return the line starting with the given path
+     */
+    public static String replacePath(final String line, final int prefixLength, final String path) {
+        return new StringBuilder(path.length() + line.length() - prefixLength)
+                .append(path)
+                .append(line, prefixLength, line.length())
+                .toString();
+    }
+
     /**
      * Creates a full key/value path for the given {@code path} and
      * {@code value}.
@@ -93,9 +269,6 @@ final class PathBuilder {
      * @return the full path
      */
     public static String extendPathWithValue(final String path, final Object value) {
-        return new StringBuilder().append(path)
-                                  .append(KEY_VALUE_SEPARATOR)
-                                  .append(value)
-                                  .toString();
+        return startValue(path).append(value).toString();
     }
 }
@@ -0,0 +1,329 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.cherry.reflect.BeanIntrospections;
+import com.codereligion.diff.adapter.BeanAdapter;
+import com.codereligion.diff.internal.PropertyInclusionChecker;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Compiles the dispatch and the traversal plans of the classes found in object graphs once per class,
+ * so that traversing an object neither introspects its class nor checks which of its properties are
+ * included again.
+ *
+ * <p>
+ * The serializers are not part of the compiled plans, because a
+ * {@link com.codereligion.diff.serializer.CheckableSerializer} decides per value whether it applies.
+ *
+ * <p>
+ * The properties of classes for which a {@link BeanAdapter} is given are read through the adapter, all other
+ * classes are introspected and their properties are read by invoking their getters reflectively, unless
+ * accessors are generated, which call the getters directly. When fields are read, the properties of the
+ * classes without an adapter are their instance fields, which are read without calling any getter.
+ * Records are traversed by their components in declaration order, which are read through their accessors.
+ *
+ * @since 19.10.2026
+ */
+@ThreadSafe
+public final class PlanCompiler {
+
+    /**
+     * Checker which allows to look up if properties are supposed to be included.
+     */
+    private final PropertyInclusionChecker propertyInclusionChecker;
+
+    /**
+     * The adapters reading the properties of beans without reflection by their exact bean class.
+     */
+    private final Map<Class<?>, BeanAdapter<?>> beanAdapters;
+
+    /**
+     * Whether accessors calling the getters directly are generated for the introspected classes.
+     */
+    private final boolean generateAccessors;
+
+    /**
+     * Whether the properties of the classes without an adapter are read from their fields instead of their getters.
+     */
+    private final boolean readFields;
+
+    /**
+     * The compiled dispatches by class.
+     */
+    private final ConcurrentMap<Class<?>, ValueDispatch> dispatches = new ConcurrentHashMap<Class<?>, ValueDispatch>();
+
+    /**
+     * Creates a new instance for the given {@code propertyInclusionChecker}.
+     *
+     * @param propertyInclusionChecker allows to look up which properties to include in the plans
+     */
+    public PlanCompiler(final PropertyInclusionChecker propertyInclusionChecker) {
+        this(propertyInclusionChecker, Collections.<Class<?>, BeanAdapter<?>>emptyMap(), false, false);
+    }
+
+    /**
+     * Creates a new instance for the given {@code propertyInclusionChecker}, {@code beanAdapters},
+     * {@code generateAccessors} and {@code readFields} flags.
+     *
+     * @param propertyInclusionChecker allows to look up which properties to include in the plans
+     * @param beanAdapters the adapters to read the properties of beans without reflection by their exact bean class
+     * @param generateAccessors whether accessors calling the getters directly are generated for the introspected classes
+     * @param readFields whether the properties of the classes without an adapter are read from their fields
+     */
+    public PlanCompiler(final PropertyInclusionChecker propertyInclusionChecker,
+                        final Map<Class<?>, BeanAdapter<?>> beanAdapters,
+                        final boolean generateAccessors,
+                        final boolean readFields) {
+        this.propertyInclusionChecker = propertyInclusionChecker;
+        this.beanAdapters = ImmutableMap.copyOf(beanAdapters);
+        this.generateAccessors = generateAccessors;
+        this.readFields = readFields;
+    }
+
+    /**
+     * Checks whether any types are excluded, so that the values need to be checked for an {@link Dispatch#EXCLUDED}
+     * dispatch before they are serialized.
+     *
+     * @return true if any types are excluded
+     */
+    boolean excludesTypes() {
+        return propertyInclusionChecker.excludesTypes();
+    }
+
+    /**
+     * Retrieves the dispatch for values of the given {@code valueClass}, compiling it on first use.
+     *
+     * @param valueClass the class of the values
+     * @return the dispatch for the given class
+     */
+    ValueDispatch dispatchFor(final Class<?> valueClass) {
+        final ValueDispatch dispatch = dispatches.get(valueClass);
+        if (dispatch != null) {
+            return dispatch;
+        }
+
+        // compiling the same class concurrently is harmless, since the results are equal
+        final ValueDispatch compiledDispatch = compile(valueClass);
+        final ValueDispatch previousDispatch = dispatches.putIfAbsent(valueClass, compiledDispatch);
+        return previousDispatch == null ? compiledDispatch : previousDispatch;
+    }
+
+    /**
+     * Retrieves the plan to traverse beans of the given {@code beanClass}, compiling it on first use.
+     *
+     * @param beanClass the class of the beans
+     * @return the bean plan for the given class
+     */
+    BeanPlan planFor(final Class<?> beanClass) {
+        final ValueDispatch dispatch = dispatchFor(beanClass);
+        if (dispatch.getBeanPlan() != null) {
+            return dispatch.getBeanPlan();
+        }
+        return compileBeanPlan(beanClass);
+    }
+
+    /**
+     * Compiles the dispatch for the given {@code valueClass}.
+     *
+     * @param valueClass the class of the values
+     * @return the compiled dispatch
+     */
+    private ValueDispatch compile(final Class<?> valueClass) {
+        if (propertyInclusionChecker.isExcludedType(valueClass)) {
+            return new ValueDispatch(valueClass, Dispatch.EXCLUDED, null);
+        }
+
+        final Dispatch dispatch = Dispatch.of(valueClass);
+        if (dispatch == Dispatch.BEAN) {
+            return new ValueDispatch(valueClass, dispatch, compileBeanPlan(valueClass));
+        }
+        return new ValueDispatch(valueClass, dispatch, null);
+    }
+
+    /**
+     * Compiles the plan for the given {@code beanClass} from its included properties, which are read through its
+     * adapter, its record components, its fields or its getters, whichever applies first.
+     *
+     * @param beanClass the class of the beans
+     * @return the compiled bean plan
+     */
+    private BeanPlan compileBeanPlan(final Class<?> beanClass) {
+        final BeanAdapter<?> beanAdapter = beanAdapters.get(beanClass);
+        if (beanAdapter != null) {
+            return compileAdaptedBeanPlan(beanClass, asObjectAdapter(beanAdapter));
+        }
+
+        final Optional<ImmutableList<Method>> componentAccessors = RecordIntrospector.getComponentAccessors(beanClass);
+        if (componentAccessors.isPresent()) {
+            return compileRecordPlan(beanClass, componentAccessors.get());
+        }
+
+        if (readFields) {
+            final Optional<BeanPlan> fieldPlan = compileFieldBeanPlan(beanClass);
+            if (fieldPlan.isPresent()) {
+                return fieldPlan.get();
+            }
+        }
+
+        final Iterable<PropertyDescriptor> readableProperties = BeanIntrospections.getReadableProperties(beanClass);
+        final List<String> names = Lists.newArrayList();
+        final List<Method> getters = Lists.newArrayList();
+        for (final PropertyDescriptor descriptor : Iterables.filter(readableProperties, propertyInclusionChecker)) {
+            names.add(descriptor.getName());
+            getters.add(descriptor.getReadMethod());
+        }
+        return compileGetterBeanPlan(beanClass, names, getters);
+    }
+
+    /**
+     * Compiles the plan for the given {@code recordClass} from its included components in their declaration order.
+     * The accessors of the components are made accessible, since records are often declared as nested classes
+     * which are not public.
+     *
+     * @param recordClass the class of the records
+     * @param componentAccessors the accessors of the components in their declaration order
+     * @return the compiled bean plan
+     */
+    private BeanPlan compileRecordPlan(final Class<?> recordClass, final List<Method> componentAccessors) {
+        final List<String> names = Lists.newArrayList();
+        final List<Method> getters = Lists.newArrayList();
+        for (final Method accessor : componentAccessors) {
+            if (propertyInclusionChecker.isIncluded(accessor.getName(), accessor.getReturnType())) {
+                try {
+                    accessor.setAccessible(true);
+                } catch (final RuntimeException e) {
+                    // denied by a security manager or, since Java 9, by a module which does not open the package
+                    // of the record, in which case the accessor is invoked without suppressing the access checks
+                }
+                names.add(accessor.getName());
+                getters.add(accessor);
+            }
+        }
+        return compileGetterBeanPlan(recordClass, names, getters);
+    }
+
+    /**
+     * Compiles the plan for the given {@code beanClass} from the given getters, which are called through a
+     * generated accessor if accessors are generated and one could be generated.
+     *
+     * @param beanClass the class of the beans
+     * @param names the names of the properties
+     * @param getters the getters of the properties at the same indices as their names
+     * @return the compiled bean plan
+     */
+    private BeanPlan compileGetterBeanPlan(final Class<?> beanClass, final List<String> names, final List<Method> getters) {
+        final Optional<GeneratedAccessor> accessor = generateAccessors
+                ? AccessorGenerator.generate(beanClass, getters)
+                : Optional.<GeneratedAccessor>absent();
+
+        final List<PropertyPlan> properties = Lists.newArrayList();
+        for (int i = 0; i < names.size(); i++) {
+            final PropertyReader reader = accessor.isPresent()
+                    ? new GeneratedPropertyReader(accessor.get(), i)
+                    : new GetterPropertyReader(getters.get(i));
+            properties.add(new PropertyPlan(names.get(i), reader));
+        }
+        return new BeanPlan(beanClass, properties);
+    }
+
+    /**
+     * Compiles the plan for the given {@code beanClass} from the included properties of the given {@code beanAdapter},
+     * ordered by their names like the introspected properties.
+     *
+     * @param beanClass the class of the beans
+     * @param beanAdapter the adapter reading the properties of the beans
+     * @return the compiled bean plan
+     */
+    private BeanPlan compileAdaptedBeanPlan(final Class<?> beanClass, final BeanAdapter<Object> beanAdapter) {
+        final SortedMap<String, PropertyPlan> properties = Maps.newTreeMap();
+        final List<String> propertyNames = beanAdapter.getPropertyNames();
+        for (int i = 0; i < propertyNames.size(); i++) {
+            final String propertyName = propertyNames.get(i);
+            if (propertyInclusionChecker.isIncluded(propertyName, beanAdapter.getPropertyType(i))) {
+                properties.put(propertyName, new PropertyPlan(propertyName, new AdapterPropertyReader(beanAdapter, i)));
+            }
+        }
+        return new BeanPlan(beanClass, Lists.newArrayList(properties.values()));
+    }
+
+    /**
+     * Compiles the plan for the given {@code beanClass} from its included instance fields and the ones of its
+     * superclasses, ordered by their names like the introspected properties. A field hides the fields of the
+     * same name declared by the superclasses. Static, transient and synthetic fields are not part of the state
+     * of a bean and therefore skipped.
+     *
+     * @param beanClass the class of the beans
+     * @return an optional of the compiled bean plan, absent if the fields can not be made accessible
+     */
+    private Optional<BeanPlan> compileFieldBeanPlan(final Class<?> beanClass) {
+        final SortedMap<String, PropertyPlan> properties = Maps.newTreeMap();
+        final Set<String> fieldNames = Sets.newHashSet();
+        for (Class<?> declaringClass = beanClass; declaringClass != null; declaringClass = declaringClass.getSuperclass()) {
+            for (final Field field : declaringClass.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+
+                final String fieldName = field.getName();
+                if (!fieldNames.add(fieldName) || !propertyInclusionChecker.isIncluded(fieldName, field.getType())) {
+                    continue;
+                }
+
+                try {
+                    field.setAccessible(true);
+                } catch (final RuntimeException e) {
+                    // denied by a security manager or, since Java 9, by a module which does not open the package
+                    // of the declaring class, e.g. for classes of the JDK, so the getters are used instead
+                    return Optional.absent();
+                }
+                properties.put(fieldName, new PropertyPlan(fieldName, new FieldPropertyReader(field)));
+            }
+        }
+        return Optional.of(new BeanPlan(beanClass, Lists.newArrayList(properties.values())));
+    }
+
+    /**
+     * Casts the given {@code beanAdapter} so that it accepts any bean, which is safe since it is only used
+     * for beans of exactly its bean class.
+     *
+     * @param beanAdapter the adapter to cast
+     * @return the given adapter
+     */
+    @SuppressWarnings("unchecked")
+    private static BeanAdapter<Object> asObjectAdapter(final BeanAdapter<?> beanAdapter) {
+        return (BeanAdapter<Object>) beanAdapter;
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+
+/**
+ * Serializes arrays of primitives to lines by iterating them directly, so that neither
+ * the elements get boxed nor a serializer needs to be looked up for every element.
+ *
+ * <p>
+ * In contrast to {@link Iterable}s arrays have a defined order, so the elements are
+ * written in the order of their indices.
+ *
+ * @since 19.10.2026
+ */
+class PrimitiveArrayLineWriter implements CheckableLineWriter {
+
+    /**
+     * The enclosing quotes.
+     */
+    private static final char VALUE_ENCLOSER = '\'';
+
+    /**
+     * The budget limiting the number of written elements.
+     */
+    private final TraversalBudget budget;
+
+    /**
+     * Creates a new instance for the given {@code budget}.
+     *
+     * @param budget the budget limiting the number of written elements
+     */
+    public PrimitiveArrayLineWriter(final TraversalBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean applies(final Object value) {
+        return value != null && value.getClass().isArray() && value.getClass().getComponentType().isPrimitive();
+    }
+
+    @Override
+    public List<String> write(final String path, final Object value) {
+        if (value instanceof int[]) {
+            final int[] array = (int[]) value;
+            return writeElements(path, array.length, new ElementAppender() {
+                @Override
+                public void append(final StringBuilder builder, final int index) {
+                    builder.append(array[index]);
+                }
+            });
+        }
+        if (value instanceof long[]) {
+            final long[] array = (long[]) value;
+            return writeElements(path, array.length, new ElementAppender() {
+                @Override
+                public void append(final StringBuilder builder, final int index) {
+                    builder.append(array[index]);
+                }
+            });
+        }
+        if (value instanceof double[]) {
+            final double[] array = (double[]) value;
+            return writeElements(path, array.length, new ElementAppender() {
+                @Override
+                public void append(final StringBuilder builder, final int index) {
+                    builder.append(array[index]);
+                }
+            });
+        }
+        if (value instanceof byte[]) {
+            final byte[] array = (byte[]) value;
+            return writeElements(path, array.length, new ElementAppender() {
+                @Override
+                public void append(final StringBuilder builder, final int index) {
+                    builder.append(array[index]);
+                }
+            });
+        }
+        if (value instanceof float[]) {
+            final float[] array = (float[]) value;
+            return writeElements(path, array.length, new ElementAppender() {
+                @Override
+                public void append(final StringBuilder builder, final int index) {
+                    builder.append(array[index]);
+                }
+            });
+        }
+        if (value instanceof short[]) {
+            final short[] array = (short[]) value;
+            return writeElements(path, array.length, new ElementAppender() {
+                @Override
+                public void append(final StringBuilder builder, final int index) {
+                    builder.append(array[index]);
+                }
+            });
+        }
+        if (value instanceof char[]) {
+            final char[] array = (char[]) value;
+            return writeElements(path, array.length, new ElementAppender() {
+                @Override
+                public void append(final StringBuilder builder, final int index) {
+                    builder.append(array[index]);
+                }
+            });
+        }
+        final boolean[] array = (boolean[]) value;
+        return writeElements(path, array.length, new ElementAppender() {
+            @Override
+            public void append(final StringBuilder builder, final int index) {
+                builder.append(array[index]);
+            }
+        });
+    }
+
+    /**
+     * Writes the elements of an array of the given {@code length} to one line per element, followed by the
+     * truncation marker if the array has more elements than the maximum number of elements.
+     *
+     * @param path the path defining the position of the array in the object graph
+     * @param length the length of the array
+     * @param appender the appender of the elements of the array
+     * @return a list of strings representing the document form of the array
+     */
+    private List<String> writeElements(final String path, final int length, final ElementAppender appender) {
+        final int writtenLength = Math.min(length, budget.getMaxElements());
+        final List<String> lines = Lists.newArrayListWithCapacity(writtenLength + 1);
+        final StringBuilder builder = new StringBuilder(path);
+        for (int i = 0; i < writtenLength; i++) {
+            PathBuilder.resetToIterableIndexValue(builder, path.length(), i);
+            appender.append(builder.append(VALUE_ENCLOSER), i);
+            lines.add(builder.append(VALUE_ENCLOSER).toString());
+        }
+
+        if (length > writtenLength) {
+            lines.add(budget.elementsExceeded(path));
+        }
+        return lines;
+    }
+
+    /**
+     * Appends the elements of an array of primitives without boxing them.
+     */
+    private interface ElementAppender {
+
+        /**
+         * Appends the element at the given {@code index} to the given {@code builder}.
+         *
+         * @param builder the builder to append the element to
+         * @param index the index of the element
+         */
+        void append(StringBuilder builder, int index);
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.lang.reflect.InvocationTargetException;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The compiled plan to read and write a single included property of a bean class.
+ *
+ * <p>
+ * Each property keeps an inline cache of the dispatch for the class of the value it has read last,
+ * so that properties which always hold values of the same class, which are most of them, dispatch
+ * without any lookup. Properties holding values of changing classes replace the cached dispatch.
+ *
+ * @since 19.10.2026
+ */
+@ThreadSafe
+final class PropertyPlan {
+
+    /**
+     * The name of the property.
+     */
+    private final String name;
+
+    /**
+     * The path segment appended to the path of the bean, e.g. {@code .street}.
+     */
+    private final String pathSegment;
+
+    /**
+     * The reader of the property.
+     */
+    private final PropertyReader reader;
+
+    /**
+     * The dispatch for the class of the value read last, {@code null} if none has been read yet.
+     * The dispatch is immutable, so it is safely published by the volatile write.
+     */
+    private volatile ValueDispatch cachedDispatch;
+
+    /**
+     * Creates a new instance for the given {@code name} and {@code reader}.
+     *
+     * @param name the name of the property
+     * @param reader the reader of the property
+     */
+    PropertyPlan(final String name, final PropertyReader reader) {
+        this.name = name;
+        this.pathSegment = PathBuilder.extendPathWithProperty("", name);
+        this.reader = reader;
+    }
+
+    /**
+     * Retrieves the name of the property.
+     *
+     * @return the name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Extends the given {@code path} of the bean with the name of this property.
+     *
+     * @param path the path of the bean
+     * @return the path of this property
+     */
+    String extendPath(final String path) {
+        return path.concat(pathSegment);
+    }
+
+    /**
+     * Reads the value of the property from the given {@code bean}.
+     *
+     * @param bean the bean to read the property of
+     * @return the value of the property
+     * @throws IllegalAccessException when the property is not accessible
+     * @throws InvocationTargetException when reading the property threw an exception, which is its cause
+     */
+    Object read(final Object bean) throws IllegalAccessException, InvocationTargetException {
+        return reader.read(bean);
+    }
+
+    /**
+     * Retrieves the dispatch for the given {@code valueClass}, either from the inline cache or from the
+     * given {@code planCompiler}.
+     *
+     * @param valueClass the class of the value read from this property
+     * @param planCompiler the compiler to look up the dispatch of classes not cached
+     * @return the dispatch for the given class
+     */
+    ValueDispatch dispatchFor(final Class<?> valueClass, final PlanCompiler planCompiler) {
+        final ValueDispatch dispatch = cachedDispatch;
+        if (dispatch != null && dispatch.getValueClass() == valueClass) {
+            return dispatch;
+        }
+
+        final ValueDispatch compiledDispatch = planCompiler.dispatchFor(valueClass);
+        cachedDispatch = compiledDispatch;
+        return compiledDispatch;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Reads the value of a single property of a bean, either reflectively or without reflection.
+ *
+ * @since 19.10.2026
+ */
+interface PropertyReader {
+
+    /**
+     * Reads the value of the property from the given {@code bean}.
+     *
+     * @param bean the bean to read the property of
+     * @return the value of the property
+     * @throws IllegalAccessException when the property is not accessible
+     * @throws InvocationTargetException when reading the property threw an exception, which is its cause
+     */
+    Object read(Object bean) throws IllegalAccessException, InvocationTargetException;
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import javax.annotation.Nullable;
+
+/**
+ * Looks up the components of record classes, which do not follow the naming conventions of getters and
+ * are therefore not found by introspection.
+ *
+ * <p>
+ * Records are looked up reflectively, so that they are supported on runtimes which provide them without
+ * requiring them at compile time. On older runtimes, no class is a record.
+ *
+ * @since 19.10.2026
+ */
+final class RecordIntrospector {
+
+    /**
+     * The {@code Class.isRecord()} method, {@code null} if records are not supported by the runtime.
+     */
+    @Nullable
+    private static final Method IS_RECORD;
+
+    /**
+     * The {@code Class.getRecordComponents()} method, {@code null} if records are not supported by the runtime.
+     */
+    @Nullable
+    private static final Method GET_RECORD_COMPONENTS;
+
+    /**
+     * The {@code RecordComponent.getAccessor()} method, {@code null} if records are not supported by the runtime.
+     */
+    @Nullable
+    private static final Method GET_ACCESSOR;
+
+    static {
+        Method isRecord = null;
+        Method getRecordComponents = null;
+        Method getAccessor = null;
+        try {
+            final Class<?> recordComponentClass = Class.forName("java.lang.reflect.RecordComponent");
+            isRecord = Class.class.getMethod("isRecord");
+            getRecordComponents = Class.class.getMethod("getRecordComponents");
+            getAccessor = recordComponentClass.getMethod("getAccessor");
+        } catch (final ClassNotFoundException e) {
+            // records are not supported by this runtime
+        } catch (final NoSuchMethodException e) {
+            // records are not supported by this runtime
+        }
+        IS_RECORD = isRecord;
+        GET_RECORD_COMPONENTS = getRecordComponents;
+        GET_ACCESSOR = getAccessor;
+    }
+
+    /**
+     * No public constructor.
+     */
+    private RecordIntrospector() {
+        throw new IllegalAccessError("This is a static utility class, which must not be instantiated");
+    }
+
+    /**
+     * Retrieves the accessors of the components of the given {@code beanClass} in their declaration order,
+     * if it is a record. The components are named like their accessors.
+     *
+     * @param beanClass the class to look up the components of
+     * @return an optional of the accessors of the components, absent if the given class is not a record
+     */
+    static Optional<ImmutableList<Method>> getComponentAccessors(final Class<?> beanClass) {
+        if (IS_RECORD == null || GET_RECORD_COMPONENTS == null || GET_ACCESSOR == null) {
+            return Optional.absent();
+        }
+
+        try {
+            if (!Boolean.TRUE.equals(IS_RECORD.invoke(beanClass))) {
+                return Optional.absent();
+            }
+
+            final Object components = GET_RECORD_COMPONENTS.invoke(beanClass);
+            final ImmutableList.Builder<Method> accessors = ImmutableList.builder();
+            for (int i = 0; i < Array.getLength(components); i++) {
+                accessors.add((Method) GET_ACCESSOR.invoke(Array.get(components, i)));
+            }
+            return Optional.of(accessors.build());
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException("Could not look up the record components of " + beanClass.getName() + ".", e);
+        } catch (final InvocationTargetException e) {
+            throw new IllegalStateException("Could not look up the record components of " + beanClass.getName() + ".", e.getCause());
+        }
+    }
+}
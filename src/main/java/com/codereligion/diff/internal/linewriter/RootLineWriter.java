@@ -15,41 +15,206 @@
  */
 package com.codereligion.diff.internal.linewriter;
 
-import com.codereligion.cherry.reflect.BeanIntrospections;
+import com.codereligion.diff.differ.CancellationToken;
+import com.codereligion.diff.exception.DiffCancelledException;
 import com.codereligion.diff.exception.MissingSerializerException;
 import com.codereligion.diff.exception.UnreadablePropertyException;
 import com.codereligion.diff.internal.ComparatorRepository;
 import com.codereligion.diff.internal.PropertyInclusionChecker;
 import com.codereligion.diff.internal.SerializerRepository;
-import com.google.common.collect.Iterables;
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
-import java.beans.PropertyDescriptor;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
 
 /**
  * The root line writer which aggregates other line writers and provides recursive traversing of the object graph.
  *
+ * <p>
+ * Objects which are not serialized into a single value are tracked by identity during the traversal.
+ * An object which is reached again while it is still being traversed, is written as a reference to the
+ * path of its ancestor, e.g. {@code Order.customer.orders[0]=ref(Order)}. An object which has already
+ * been written under another path, is either written as a reference to that path or its lines are
+ * reused for the new path, so that each distinct object is traversed only once.
+ *
+ * <p>
+ * Values of which the path matches an excluded path pattern or lies outside of the included path patterns
+ * and values of excluded types are not written at all. The state of the {@link ExclusionAutomaton} is
+ * advanced along with the traversal, so that excluded properties are skipped before their getters are invoked.
+ * Values which have not been loaded yet according to the {@link LazinessGuard} are not traversed, but either
+ * written as a placeholder line or skipped.
+ *
+ * <p>
+ * Since the tracked objects are kept for the lifetime of an instance, a new instance is supposed to be
+ * used for every traversed object graph.
+ *
  * @author Sebastian Gröbler
  * @since 13.11.2013
  */
+@NotThreadSafe
 public class RootLineWriter implements LineWriter {
 
     /**
-     * The line writers which are applied to the given object graph.
+     * The number of written values after which the cancellation token is checked, must be a power of two.
+     */
+    private static final int CANCELLATION_CHECK_INTERVAL = 64;
+
+    /**
+     * The minimum number of elements of an iterable from which on elements of the same bean class are
+     * read column by column.
+     */
+    private static final int COLUMNAR_THRESHOLD = 16;
+
+    /**
+     * The line writer for values which are serialized into a single line, these are not tracked.
+     */
+    private final CheckableLineWriter serializerLineWriter;
+
+    /**
+     * The line writer for iterables.
+     */
+    private final CheckableLineWriter iterableLineWriter;
+
+    /**
+     * The line writer for maps.
+     */
+    private final CheckableLineWriter mapLineWriter;
+
+    /**
+     * The line writer for arrays of primitives.
+     */
+    private final CheckableLineWriter primitiveArrayLineWriter;
+
+    /**
+     * The line writer for byte buffers.
+     */
+    private final CheckableLineWriter byteBufferLineWriter;
+
+    /**
+     * Whether objects written before under another path are written as references instead of reusing their lines.
+     */
+    private final boolean referenceSharedObjects;
+
+    /**
+     * The paths of the objects currently being traversed by identity.
+     */
+    private final Map<Object, String> ancestorPaths = new IdentityHashMap<Object, String>();
+
+    /**
+     * The objects which have been written completely by identity.
+     */
+    private final Map<Object, WrittenObject> writtenObjects = new IdentityHashMap<Object, WrittenObject>();
+
+    /**
+     * The number of references to ancestors and depth truncations written so far, used to detect subtrees
+     * of which the lines depend on the path they are reached through.
+     */
+    private int pathDependentLineCount;
+
+    /**
+     * The limits to enforce during the traversal.
+     */
+    private final TraversalBudget budget;
+
+    /**
+     * The token to check for the cancellation of the traversal, absent if it can not be cancelled.
+     */
+    private final Optional<CancellationToken> cancellationToken;
+
+    /**
+     * The number of values written so far, used to check the cancellation token in bounded intervals.
+     */
+    private int writtenValueCount;
+
+    /**
+     * The number of lines written so far.
+     */
+    private int lineCount;
+
+    /**
+     * Whether the lines have been cut off, because the maximum number of lines has been exceeded.
+     */
+    private boolean linesTruncated;
+
+    /**
+     * The guard keeping the traversal from loading lazy values.
+     */
+    private final LazinessGuard lazinessGuard;
+
+    /**
+     * The executor and threshold to traverse large iterables and maps in parallel, absent to traverse serially.
+     */
+    private final Optional<ParallelTraversal> parallelTraversal;
+
+    /**
+     * The sorter to sort large iterables and maps in parallel, absent to sort serially.
+     */
+    private final Optional<ParallelSorter> parallelSorter;
+
+    /**
+     * The directory and run size to sort iterables by the lines of their elements, absent to sort them by comparators.
+     */
+    private final Optional<ExternalSort> externalSort;
+
+    /**
+     * Whether the lines of written objects are kept to reuse them, which is not the case while the elements of an
+     * iterable are sorted on disk.
+     */
+    private boolean rememberingWrittenObjects = true;
+
+    /**
+     * The minimum size of iterables and maps of which the digests are recorded, absent to record none.
+     */
+    private final Optional<Integer> collapseThreshold;
+
+    /**
+     * The digests of the written iterables and maps by their paths.
+     */
+    private final Map<String, CollectionDigest> collectionDigests = Maps.newHashMap();
+
+    /**
+     * The number of iterables currently being written, of which the elements are written without an index.
+     */
+    private int unindexedIterableCount;
+
+    /**
+     * Repository to find serializers, passed on to the writers of parallel chunks.
+     */
+    private final SerializerRepository serializerRepository;
+
+    /**
+     * Repository to find comparators, passed on to the writers of parallel chunks.
+     */
+    private final ComparatorRepository comparatorRepository;
+
+    /**
+     * Compiler of the dispatches and plans of the classes in the object graph, shared by all traversals.
      */
-    private final List<CheckableLineWriter> lineWriters;
+    private final PlanCompiler planCompiler;
 
     /**
-     * Checker which allows to look up if properties are supposed to be included in the serialization of the object graph.
+     * The automaton matching the paths of the values against the excluded and included path patterns, shared by all traversals.
      */
-    private final PropertyInclusionChecker propertyInclusionChecker;
+    private final ExclusionAutomaton exclusionAutomaton;
+
+    /**
+     * The state of the exclusion automaton at the value currently being traversed, {@code null} before the
+     * root object is written.
+     */
+    private ExclusionState currentState;
 
     /**
      * Creates a new instance for the given {@code propertyInclusionChecker}, {@code serializerRepository} and
-     * {@code comparatorRepository}.
+     * {@code comparatorRepository}, which reuses the lines of objects written before under another path.
      *
      * @param propertyInclusionChecker allows to look up which properties to included in the serialization
      * @param serializerRepository repository to find serializers
@@ -58,71 +223,867 @@ public class RootLineWriter implements LineWriter {
     public RootLineWriter(final PropertyInclusionChecker propertyInclusionChecker,
                           final SerializerRepository serializerRepository,
                           final ComparatorRepository comparatorRepository) {
+        this(new PlanCompiler(propertyInclusionChecker), ExclusionAutomaton.NONE, serializerRepository, comparatorRepository, false,
+             TraversalBudget.UNLIMITED, LazinessGuard.NONE, Optional.<CancellationToken>absent(), Optional.<ParallelTraversal>absent(),
+             Optional.<ParallelSorter>absent(), Optional.<ExternalSort>absent(), Optional.<Integer>absent());
+    }
+
+    /**
+     * Creates a new instance for the given {@code planCompiler}, {@code exclusionAutomaton},
+     * {@code serializerRepository}, {@code comparatorRepository}, {@code referenceSharedObjects} flag,
+     * {@code budget}, {@code lazinessGuard}, {@code cancellationToken}, {@code parallelTraversal},
+     * {@code parallelSorter}, {@code externalSort} and {@code collapseThreshold}.
+     *
+     * @param planCompiler compiler of the plans to traverse the classes in the object graph
+     * @param exclusionAutomaton automaton matching the paths of the values against the excluded and included path patterns
+     * @param serializerRepository repository to find serializers
+     * @param comparatorRepository repository to find comparators
+     * @param referenceSharedObjects whether objects written before are written as references to their first path
+     * @param budget the limits to enforce during the traversal
+     * @param lazinessGuard the guard keeping the traversal from loading lazy values
+     * @param cancellationToken the optional token to check for the cancellation of the traversal
+     * @param parallelTraversal the optional executor and threshold to traverse large iterables and maps in parallel
+     * @param parallelSorter the optional sorter to sort large iterables and maps in parallel
+     * @param externalSort the optional directory and run size to sort iterables by the lines of their elements
+     * @param collapseThreshold the optional minimum size of iterables and maps of which the digests are recorded
+     */
+    public RootLineWriter(final PlanCompiler planCompiler,
+                          final ExclusionAutomaton exclusionAutomaton,
+                          final SerializerRepository serializerRepository,
+                          final ComparatorRepository comparatorRepository,
+                          final boolean referenceSharedObjects,
+                          final TraversalBudget budget,
+                          final LazinessGuard lazinessGuard,
+                          final Optional<CancellationToken> cancellationToken,
+                          final Optional<ParallelTraversal> parallelTraversal,
+                          final Optional<ParallelSorter> parallelSorter,
+                          final Optional<ExternalSort> externalSort,
+                          final Optional<Integer> collapseThreshold) {
 
-        this.propertyInclusionChecker = propertyInclusionChecker;
-        this.lineWriters = Lists.newArrayList(new SerializerLineWriter(serializerRepository),
-                                              new IterableLineWriter(this, comparatorRepository),
-                                              new MapLineWriter(this, serializerRepository, comparatorRepository));
+        this.planCompiler = planCompiler;
+        this.exclusionAutomaton = exclusionAutomaton;
+        this.referenceSharedObjects = referenceSharedObjects;
+        this.budget = budget;
+        this.lazinessGuard = lazinessGuard;
+        this.cancellationToken = cancellationToken;
+        this.parallelTraversal = parallelTraversal;
+        this.parallelSorter = parallelSorter;
+        this.externalSort = externalSort;
+        this.collapseThreshold = collapseThreshold;
+        this.serializerRepository = serializerRepository;
+        this.comparatorRepository = comparatorRepository;
+        this.serializerLineWriter = new SerializerLineWriter(serializerRepository);
+        this.iterableLineWriter = new IterableLineWriter(this, comparatorRepository, parallelSorter, budget);
+        this.mapLineWriter = new MapLineWriter(this, serializerRepository, comparatorRepository, parallelSorter, budget);
+        this.primitiveArrayLineWriter = new PrimitiveArrayLineWriter(budget);
+        this.byteBufferLineWriter = new ByteBufferLineWriter(budget);
     }
 
+    /**
+     * Writes the given {@code value}, which is either the root object or an element of the iterable or map
+     * currently being traversed, unless it is excluded or the maximum number of lines has been reached and
+     * cuts off the written lines at the maximum number of lines.
+     *
+     * @param path the path defining the position of the given value in the object graph
+     * @param value the value to be serialized into a list of strings
+     * @return a list of strings representing the document form of the given value
+     * @throws DiffCancelledException when the cancellation token has been cancelled
+     */
     @Override
     public List<String> write(final String path, final Object value) {
-        for (final CheckableLineWriter lineWriter : lineWriters) {
-            if (lineWriter.applies(value)) {
-                return lineWriter.write(path, value);
+        final ExclusionState state = currentState == null ? exclusionAutomaton.rootState(path) : currentState.onElement();
+        if (state.isExcluded() || isExcludedType(value, null) || lazinessGuard.isSkipped(value)) {
+            return Lists.newArrayList();
+        }
+        return writeValue(path, value, null, state, null);
+    }
+
+    /**
+     * Writes the subtree of the given {@code root} object, which is reached by following the properties
+     * with the given {@code propertyNames}, under its fully qualified path. The objects on the way to the
+     * subtree are tracked as ancestors, so that references to them are written the same way a traversal
+     * of the whole object graph would write them.
+     *
+     * @param rootName the name of the root object
+     * @param root the root object
+     * @param propertyNames the names of the properties leading from the root object to the subtree
+     * @return a list of strings representing the document form of the subtree, empty if a value on the way
+     *         to the subtree is {@code null} or excluded
+     * @throws IllegalArgumentException when a value on the way to the subtree does not have an included
+     *         property with the next name
+     * @throws DiffCancelledException when the cancellation token has been cancelled
+     */
+    public List<String> writeSubtree(final String rootName, final Object root, final List<String> propertyNames) {
+        if (propertyNames.isEmpty()) {
+            return write(rootName, root);
+        }
+
+        ExclusionState state = exclusionAutomaton.rootState(rootName);
+        if (state.isExcluded() || isExcludedType(root, null) || lazinessGuard.isSkipped(root)) {
+            return Lists.newArrayList();
+        }
+
+        final List<Object> ancestors = Lists.newArrayList();
+        String path = rootName;
+        Object value = root;
+        PropertyPlan propertyPlan = null;
+
+        try {
+            for (final String propertyName : propertyNames) {
+                // navigating through an uninitialized value would load it
+                if (value == null || lazinessGuard.isUninitialized(value)) {
+                    return Lists.newArrayList();
+                }
+
+                propertyPlan = navigableProperty(path, value, propertyName);
+                state = state.onProperty(propertyName);
+                if (state.isExcluded()) {
+                    return Lists.newArrayList();
+                }
+
+                ancestorPaths.put(value, path);
+                ancestors.add(value);
+                path = propertyPlan.extendPath(path);
+                value = safeInvoke(path, value, propertyPlan);
+                if (isExcludedType(value, propertyPlan) || lazinessGuard.isSkipped(value)) {
+                    return Lists.newArrayList();
+                }
+            }
+
+            return writeValue(path, value, propertyPlan, state, null);
+        } finally {
+            for (final Object ancestor : ancestors) {
+                ancestorPaths.remove(ancestor);
             }
         }
-        return traverseProperties(path, value);
+    }
+
+    /**
+     * Looks up the included property with the given {@code propertyName} of the given {@code value}, which
+     * needs to be traversed by its properties.
+     *
+     * @param path the path of the given value
+     * @param value the value to look up the property of
+     * @param propertyName the name of the property
+     * @return the plan of the property
+     * @throws IllegalArgumentException when the given {@code value} does not have an included property with the given name
+     */
+    private PropertyPlan navigableProperty(final String path, final Object value, final String propertyName) {
+        final ValueDispatch dispatch = planCompiler.dispatchFor(value.getClass());
+        final PropertyPlan propertyPlan = serializerLineWriter.applies(value) || dispatch.getBeanPlan() == null
+                ? null
+                : dispatch.getBeanPlan().getProperty(propertyName);
+
+        if (propertyPlan == null) {
+            throw new IllegalArgumentException("Could not navigate from '" + path + "' to the property '" + propertyName
+                    + "', since it is not an included property of a traversed bean.");
+        }
+        return propertyPlan;
+    }
+
+    /**
+     * Writes the given {@code value} like {@link #write(String, Object)}, using the inline cache of the
+     * given {@code propertyPlan} to dispatch the value, if it has been read from a property.
+     *
+     * @param path the path defining the position of the given value in the object graph
+     * @param value the value to be serialized into a list of strings
+     * @param propertyPlan the plan of the property the value has been read from, {@code null} otherwise
+     * @param state the state of the exclusion automaton at the given value
+     * @param propertyValues the values of the properties of the given bean read in advance, {@code null} to read them
+     *            while traversing the bean
+     * @return a list of strings representing the document form of the given value
+     * @throws DiffCancelledException when the cancellation token has been cancelled
+     */
+    private List<String> writeValue(final String path,
+                                    final Object value,
+                                    @Nullable final PropertyPlan propertyPlan,
+                                    final ExclusionState state,
+                                    @Nullable final Object[] propertyValues) {
+        checkCancellation(path);
+
+        if (linesTruncated) {
+            return Lists.newArrayList();
+        }
+
+        // the lines of elements written without an index are truncated once they have been sorted
+        if (lineCount >= budget.getMaxLines() && unindexedIterableCount == 0) {
+            linesTruncated = true;
+            return Lists.newArrayList(budget.linesExceeded(path));
+        }
+
+        final int lineCountBefore = lineCount;
+        final List<String> lines = writeTracked(path, value, propertyPlan, state, propertyValues);
+
+        // the lines of nested values are contained in the given lines, so they are not counted twice
+        lineCount = lineCountBefore + lines.size();
+
+        if (lineCount > budget.getMaxLines() && !linesTruncated && unindexedIterableCount == 0) {
+            linesTruncated = true;
+            final List<String> truncatedLines = Lists.newArrayList(lines.subList(0, budget.getMaxLines() - lineCountBefore));
+            truncatedLines.add(budget.linesExceeded(path));
+            return truncatedLines;
+        }
+
+        return lines;
+    }
+
+    /**
+     * Checks the cancellation token every {@link #CANCELLATION_CHECK_INTERVAL} written values, so that
+     * the cost of reading the clock is spread over several values.
+     *
+     * @param path the path of the value about to be written
+     * @throws DiffCancelledException when the cancellation token has been cancelled
+     */
+    private void checkCancellation(final String path) {
+        final boolean checkDue = (writtenValueCount++ & (CANCELLATION_CHECK_INTERVAL - 1)) == 0;
+        if (checkDue && cancellationToken.isPresent() && cancellationToken.get().isCancelled()) {
+            throw DiffCancelledException.cancelledAt(path);
+        }
+    }
+
+    /**
+     * Writes the given {@code value}, tracking objects which are not serialized into a single value
+     * by identity, so that cycles and objects written before are detected. A value which is not included
+     * itself, but only on the way to an included path, is traversed without writing any line for itself.
+     *
+     * @param path the path defining the position of the given value in the object graph
+     * @param value the value to be serialized into a list of strings
+     * @param propertyPlan the plan of the property the value has been read from, {@code null} otherwise
+     * @param state the state of the exclusion automaton at the given value
+     * @param propertyValues the values of the properties of the given bean read in advance, {@code null} to read them
+     *            while traversing the bean
+     * @return a list of strings representing the document form of the given value
+     */
+    private List<String> writeTracked(final String path,
+                                      final Object value,
+                                      @Nullable final PropertyPlan propertyPlan,
+                                      final ExclusionState state,
+                                      @Nullable final Object[] propertyValues) {
+        final boolean included = state.isIncluded();
+
+        // checked before any serializer is asked, since calling a method of a lazy value would load it
+        if (lazinessGuard.isUninitialized(value)) {
+            return included ? Lists.newArrayList(PathBuilder.extendPathWithUninitializedMarker(path)) : Lists.<String>newArrayList();
+        }
+
+        // values of which the properties have been read in advance are known to have no serializer
+        if (propertyValues == null && serializerLineWriter.applies(value)) {
+            return included ? serializerLineWriter.write(path, value) : Lists.<String>newArrayList();
+        }
+
+        final String ancestorPath = ancestorPaths.get(value);
+        if (ancestorPath != null) {
+            if (!included) {
+                return Lists.newArrayList();
+            }
+            pathDependentLineCount++;
+            return Lists.newArrayList(PathBuilder.extendPathWithReference(path, ancestorPath));
+        }
+
+        // references are written for included values only, so the other values are traversed again
+        final WrittenObject writtenObject = writtenObjects.get(value);
+        if (writtenObject != null && writtenObject.isReusableAt(state) && (included || !writtenObject.isReference())) {
+            return writtenObject.writeAt(path);
+        }
+
+        if (ancestorPaths.size() >= budget.getMaxDepth()) {
+            if (!included) {
+                return Lists.newArrayList();
+            }
+            pathDependentLineCount++;
+            return Lists.newArrayList(budget.depthExceeded(path));
+        }
+
+        final int pathDependentLineCountBefore = pathDependentLineCount;
+        final ExclusionState parentState = currentState;
+        ancestorPaths.put(value, path);
+        currentState = state;
+        final List<String> lines;
+        try {
+            lines = writeUntracked(path, value, propertyPlan, propertyValues);
+        } finally {
+            ancestorPaths.remove(value);
+            currentState = parentState;
+        }
+
+        if (referenceSharedObjects) {
+            if (included) {
+                writtenObjects.put(value, new WrittenObject(path, null, state));
+            }
+        } else if (rememberingWrittenObjects && pathDependentLineCount == pathDependentLineCountBefore && !linesTruncated) {
+            // lines referencing ancestors or truncated by depth depend on the path the object is reached through
+            // and lines truncated by the number of lines are incomplete, so neither of them are reused
+            writtenObjects.put(value, new WrittenObject(path, lines, state));
+        }
+
+        return lines;
+    }
+
+    /**
+     * Writes the given {@code value} with the line writer its class dispatches to or by traversing its properties.
+     *
+     * @param path the path representing the position of the given {@code value} in the object graph
+     * @param value the object to write
+     * @param propertyPlan the plan of the property the value has been read from, {@code null} otherwise
+     * @param propertyValues the values of the properties of the given bean read in advance, {@code null} to read them
+     *            while traversing the bean
+     * @return a list of strings representing the given {@code value}
+     */
+    private List<String> writeUntracked(final String path,
+                                        final Object value,
+                                        @Nullable final PropertyPlan propertyPlan,
+                                        @Nullable final Object[] propertyValues) {
+        final ValueDispatch dispatch = dispatchFor(value.getClass(), propertyPlan);
+
+        switch (dispatch.getDispatch()) {
+            case ITERABLE:
+                return iterableLineWriter.write(path, value);
+            case MAP:
+                return mapLineWriter.write(path, value);
+            case PRIMITIVE_ARRAY:
+                return currentState.isIncluded() ? primitiveArrayLineWriter.write(path, value) : Lists.<String>newArrayList();
+            case BYTE_BUFFER:
+                return currentState.isIncluded() ? byteBufferLineWriter.write(path, value) : Lists.<String>newArrayList();
+            case EXCLUDED:
+                return Lists.newArrayList();
+            default:
+                return traverseProperties(path, value, dispatch.getBeanPlan(), propertyValues);
+        }
+    }
+
+    /**
+     * Retrieves the dispatch for the given {@code valueClass}, using the inline cache of the given {@code propertyPlan},
+     * if the value has been read from a property.
+     *
+     * @param valueClass the class of the value
+     * @param propertyPlan the plan of the property the value has been read from, {@code null} otherwise
+     * @return the dispatch for the given class
+     */
+    private ValueDispatch dispatchFor(final Class<?> valueClass, @Nullable final PropertyPlan propertyPlan) {
+        return propertyPlan == null ? planCompiler.dispatchFor(valueClass) : propertyPlan.dispatchFor(valueClass, planCompiler);
+    }
+
+    /**
+     * Checks whether the given {@code value} is an instance of an excluded type.
+     *
+     * @param value the value to check
+     * @param propertyPlan the plan of the property the value has been read from, {@code null} otherwise
+     * @return true if the given value is excluded by its type
+     */
+    private boolean isExcludedType(final Object value, @Nullable final PropertyPlan propertyPlan) {
+        return value != null
+                && planCompiler.excludesTypes()
+                && dispatchFor(value.getClass(), propertyPlan).getDispatch() == Dispatch.EXCLUDED;
     }
 
     /**
      * Builds a recursion to traverse the object graph together with the {@link RootLineWriter#write(String, Object)}
-     * method. It traverses all public readable properties of the given {@code value} and delegates line writing
-     * the write method.
+     * method. It traverses the included properties of the given {@code value} in the order of the given
+     * {@code beanPlan} and delegates line writing the write method. Properties of which the path is excluded
+     * are skipped without invoking their getters.
      *
      * @param path the path representing the position of the given {@code value} in the object graph
      * @param value the object to traverse the properties of
+     * @param beanPlan the plan to traverse the properties of the class of the given {@code value}
+     * @param propertyValues the values of the properties read in advance in the order of the given {@code beanPlan},
+     *            {@code null} to read them while traversing
      * @return a list of strings representing the serialized properties of the given {@code value}
      * @throws MissingSerializerException when a branch of the graph could not be serialized
      */
-    private List<String> traverseProperties(final String path, final Object value) {
+    private List<String> traverseProperties(final String path,
+                                            final Object value,
+                                            final BeanPlan beanPlan,
+                                            @Nullable final Object[] propertyValues) {
 
         final List<String> lines = Lists.newArrayList();
-        final Class<?> beanClass = value.getClass();
+        final ExclusionState state = currentState;
+        final List<PropertyPlan> properties = beanPlan.getProperties();
+        boolean excludedAny = false;
+
+        for (int i = 0; i < properties.size(); i++) {
+            final PropertyPlan propertyPlan = properties.get(i);
+            final ExclusionState propertyState = state.onProperty(propertyPlan.getName());
+            if (propertyState.isExcluded()) {
+                excludedAny = true;
+                continue;
+            }
+
+            final String extendedPath = propertyPlan.extendPath(path);
+            final Object propertyValue = propertyValues == null ? safeInvoke(extendedPath, value, propertyPlan) : propertyValues[i];
+            if (isExcludedType(propertyValue, propertyPlan) || lazinessGuard.isSkipped(propertyValue)) {
+                excludedAny = true;
+                continue;
+            }
 
-        final Set<PropertyDescriptor> readableProperties = BeanIntrospections.getReadableProperties(beanClass);
-        for (final PropertyDescriptor descriptor : Iterables.filter(readableProperties, propertyInclusionChecker)) {
-            final String propertyName = descriptor.getName();
-            final Method readMethod = descriptor.getReadMethod();
-            final String extendedPath = PathBuilder.extendPathWithProperty(path, propertyName);
-            final Object propertyValue = safeInvoke(extendedPath, value, readMethod);
-            lines.addAll(write(extendedPath, propertyValue));
+            lines.addAll(writeValue(extendedPath, propertyValue, propertyPlan, propertyState, null));
         }
 
-        final boolean serializationFailed = lines.isEmpty();
+        // an object of which all written properties have been excluded explicitly is written without any lines,
+        // as well as an object on the way to an included path, which none of its properties has led to
+        final boolean serializationFailed = lines.isEmpty() && !excludedAny && state.isIncluded();
         if (serializationFailed) {
-            throw MissingSerializerException.missingPropertySerializer(path, beanClass);
+            throw MissingSerializerException.missingPropertySerializer(path, beanPlan.getBeanClass());
+        }
+
+        return lines;
+    }
+
+    /**
+     * Writes the given {@code elements} of the iterable at the given {@code path} like {@link #write(String, Object)}
+     * with their indices appended to the path.
+     *
+     * <p>
+     * Large iterables of which all elements are distinct beans of the same class, that have not been written yet,
+     * are traversed column by column: the class is dispatched once and each getter is invoked for all elements,
+     * before the lines are written element by element from the values read in advance. The written lines equal
+     * the ones written element by element.
+     *
+     * @param path the path of the iterable
+     * @param elements the elements to write in their order
+     * @return a list of strings representing the given elements
+     */
+    List<String> writeElements(final String path, final List<Object> elements) {
+        if (isParallel(elements.size())) {
+            return writeInParallel(path, elements.size(), new ChunkWriter() {
+                @Override
+                public List<String> write(final RootLineWriter writer, final int from, final int to) {
+                    return writer.writeElements(path, elements.subList(from, to), from);
+                }
+            });
+        }
+        return writeElements(path, elements, 0);
+    }
+
+    /**
+     * Writes the given {@code elements} of the iterable at the given {@code path} on the calling thread, starting
+     * at the given {@code firstIndex}.
+     *
+     * @param path the path of the iterable
+     * @param elements the elements to write in their order
+     * @param firstIndex the index of the first of the given elements in the iterable
+     * @return a list of strings representing the given elements
+     */
+    private List<String> writeElements(final String path, final List<Object> elements, final int firstIndex) {
+        final Optional<BeanPlan> columnarPlan = columnarPlanFor(elements);
+        if (columnarPlan.isPresent()) {
+            return writeColumns(path, elements, firstIndex, columnarPlan.get());
+        }
+
+        final List<String> lines = Lists.newArrayList();
+        for (int i = 0; i < elements.size(); i++) {
+            lines.addAll(write(PathBuilder.extendPathWithIterableIndex(path, firstIndex + i), elements.get(i)));
+        }
+        return lines;
+    }
+
+    /**
+     * Checks whether iterables are sorted by the lines of their elements instead of by comparators. Shared objects
+     * written as references depend on the order the elements are written in, so they require sorting the elements
+     * before writing them.
+     *
+     * @return true if iterables are sorted by the lines of their elements
+     */
+    boolean sortsElementsByLines() {
+        return externalSort.isPresent() && !referenceSharedObjects;
+    }
+
+    /**
+     * Writes the elements of the given {@code iterable} at the given {@code path} ordered by their lines. Each element
+     * is written under a path without an index while the iterable is iterated once, and is indexed once the elements
+     * have been sorted. Iterables with more elements than the run size are sorted on disk, in which case the lines of
+     * written objects are not kept for reuse either, so that neither the elements nor their lines are kept in memory
+     * until the iterable has been iterated completely.
+     *
+     * <p>
+     * The merged lines are joined in memory, since they are diffed in memory. So the maximum number of elements and
+     * lines are enforced while merging, in the order of the sorted elements, which bounds the joined lines.
+     *
+     * @param path the path of the iterable
+     * @param iterable the iterable to write the elements of
+     * @return a list of strings representing the given iterable
+     * @throws IllegalStateException when the elements could not be sorted on disk
+     */
+    List<String> writeElementsSortedByLines(final String path, final Iterable<Object> iterable) {
+        final String unindexedPath = PathBuilder.extendPathWithUnknownIndex(path);
+        final boolean rememberedWrittenObjects = rememberingWrittenObjects;
+        final int lineCountBefore = lineCount;
+        final ElementRuns runs = new ElementRuns(externalSort.get(), path);
+
+        try {
+            unindexedIterableCount++;
+            try {
+                for (final Object element : iterable) {
+                    runs.add(write(unindexedPath, element));
+                    if (runs.isSpilled()) {
+                        rememberingWrittenObjects = false;
+                    }
+                }
+            } finally {
+                unindexedIterableCount--;
+            }
+
+            // the lines of an iterable within elements written without an index are truncated with the elements
+            final int maxLines = unindexedIterableCount == 0 ? budget.getMaxLines() - lineCountBefore : Integer.MAX_VALUE;
+            final List<String> lines = Lists.newArrayList();
+            final Iterator<List<String>> sortedElements = runs.sorted();
+            final int length = Math.min(runs.size(), budget.getMaxElements());
+            for (int i = 0; i < length; i++) {
+                final String indexedPath = PathBuilder.extendPathWithIterableIndex(path, i);
+                for (final String line : sortedElements.next()) {
+                    if (lines.size() == maxLines) {
+                        linesTruncated = true;
+                        lines.add(budget.linesExceeded(indexedPath));
+                        return lines;
+                    }
+                    lines.add(PathBuilder.replaceUnknownIndex(line, unindexedPath, indexedPath));
+                }
+            }
+
+            if (runs.size() > length) {
+                lines.add(budget.elementsExceeded(path));
+            }
+            recordCollection(path, runs.size(), lines);
+            return lines;
+        } finally {
+            runs.close();
+            rememberingWrittenObjects = rememberedWrittenObjects;
+        }
+    }
+
+    /**
+     * Records the digest of the iterable or map of the given {@code size} written with the given {@code lines}
+     * at the given {@code path}, if it is large enough to be collapsed when unchanged. No digests are recorded
+     * for iterables within elements written without an index or if the number of lines is limited, since the
+     * lines of such collections are changed afterwards.
+     *
+     * @param path the path of the iterable or map
+     * @param size the number of elements or entries
+     * @param lines the lines written for the iterable or map
+     */
+    void recordCollection(final String path, final int size, final List<String> lines) {
+        if (collapseThreshold.isPresent()
+                && size >= collapseThreshold.get()
+                && unindexedIterableCount == 0
+                && budget.getMaxLines() == Integer.MAX_VALUE) {
+            collectionDigests.put(path, CollectionDigest.of(size, lines));
+        }
+    }
+
+    /**
+     * Retrieves the digests of the iterables and maps written so far, which are large enough to be collapsed
+     * when unchanged.
+     *
+     * @return the digests by the paths of the iterables and maps
+     */
+    public Map<String, CollectionDigest> getCollectionDigests() {
+        return collectionDigests;
+    }
+
+    /**
+     * Writes the given {@code values} of a map under the given {@code paths} of their entries like
+     * {@link #write(String, Object)}.
+     *
+     * @param path the path of the map
+     * @param entryPaths the paths of the entries, containing their serialized keys
+     * @param values the values of the entries in the order of their paths
+     * @return a list of strings representing the given values
+     */
+    List<String> writeEntries(final String path, final List<String> entryPaths, final List<Object> values) {
+        if (isParallel(values.size())) {
+            return writeInParallel(path, values.size(), new ChunkWriter() {
+                @Override
+                public List<String> write(final RootLineWriter writer, final int from, final int to) {
+                    return writer.writeEntries(path, entryPaths.subList(from, to), values.subList(from, to));
+                }
+            });
         }
 
+        final List<String> lines = Lists.newArrayList();
+        for (int i = 0; i < values.size(); i++) {
+            lines.addAll(write(entryPaths.get(i), values.get(i)));
+        }
+        return lines;
+    }
+
+    /**
+     * Checks whether the given number of elements of an iterable or map are traversed in parallel. Shared objects
+     * written as references and a limited number of lines depend on all lines written before, so they require a
+     * serial traversal.
+     *
+     * @param elementCount the number of elements
+     * @return true if the elements are split into chunks traversed in parallel
+     */
+    private boolean isParallel(final int elementCount) {
+        return parallelTraversal.isPresent()
+                && elementCount > parallelTraversal.get().getThreshold()
+                && !referenceSharedObjects
+                && budget.getMaxLines() == Integer.MAX_VALUE;
+    }
+
+    /**
+     * Splits the given number of elements into chunks of the size of the threshold and writes each of them with
+     * a writer of its own on the executor, while the calling thread runs the chunks not yet started in order. The
+     * lines of the chunks are joined in order, so they equal the lines written serially.
+     *
+     * <p>
+     * The writers of the chunks start with the ancestors of this writer and traverse serially, so that they never
+     * wait for other chunks. Objects shared between chunks are traversed by each of them, which results in the same
+     * lines as reusing them. If any chunk fails, the exception of the first failed chunk is rethrown, which is the
+     * one the serial traversal would have thrown.
+     *
+     * @param path the path of the iterable or map
+     * @param elementCount the number of elements
+     * @param chunkWriter the writer of a chunk of elements
+     * @return a list of strings representing all elements
+     * @throws DiffCancelledException when the calling thread is interrupted while waiting for a chunk
+     */
+    private List<String> writeInParallel(final String path, final int elementCount, final ChunkWriter chunkWriter) {
+        final int threshold = parallelTraversal.get().getThreshold();
+        final List<RootLineWriter> writers = Lists.newArrayList();
+        final List<Callable<List<String>>> chunks = Lists.newArrayList();
+
+        for (int from = 0; from < elementCount; from += threshold) {
+            final int chunkFrom = from;
+            final int chunkTo = Math.min(from + threshold, elementCount);
+            final RootLineWriter writer = forkChunkWriter();
+            writers.add(writer);
+            chunks.add(new Callable<List<String>>() {
+                @Override
+                public List<String> call() {
+                    return chunkWriter.write(writer, chunkFrom, chunkTo);
+                }
+            });
+        }
+
+        final List<List<String>> chunkLines = ParallelTasks.runInOrder(parallelTraversal.get().getExecutor(), chunks, path);
+        final List<String> lines = Lists.newArrayList();
+        for (int i = 0; i < chunkLines.size(); i++) {
+            lines.addAll(chunkLines.get(i));
+            pathDependentLineCount += writers.get(i).pathDependentLineCount;
+            collectionDigests.putAll(writers.get(i).collectionDigests);
+        }
+        return lines;
+    }
+
+    /**
+     * Creates a writer for a chunk of the elements currently being traversed, which starts with the ancestors and
+     * the exclusion state of this writer and traverses serially.
+     *
+     * @return a new writer for a chunk of elements
+     */
+    private RootLineWriter forkChunkWriter() {
+        final RootLineWriter writer = new RootLineWriter(planCompiler, exclusionAutomaton, serializerRepository, comparatorRepository,
+                referenceSharedObjects, budget, lazinessGuard, cancellationToken, Optional.<ParallelTraversal>absent(),
+                parallelSorter, externalSort, collapseThreshold);
+        writer.ancestorPaths.putAll(ancestorPaths);
+        writer.currentState = currentState;
+        return writer;
+    }
+
+    /**
+     * Looks up the plan to traverse the given {@code elements} column by column. This is only possible if they
+     * would all be traversed by their properties, which requires them to be distinct beans of the same class
+     * without a serializer, which are neither ancestors nor have been written before, and if none of them can be
+     * skipped or truncated.
+     *
+     * @param elements the elements of an iterable
+     * @return an optional of the plan of the class of all elements, absent if they are written element by element
+     */
+    private Optional<BeanPlan> columnarPlanFor(final List<Object> elements) {
+        final boolean columnarCandidate = elements.size() >= COLUMNAR_THRESHOLD
+                && elements.get(0) != null
+                && !linesTruncated
+                && !lazinessGuard.detectsLaziness()
+                && ancestorPaths.size() < budget.getMaxDepth()
+                && !currentState.onElement().isExcluded();
+        if (!columnarCandidate) {
+            return Optional.absent();
+        }
+
+        final Class<?> beanClass = elements.get(0).getClass();
+        final ValueDispatch dispatch = planCompiler.dispatchFor(beanClass);
+        if (dispatch.getDispatch() != Dispatch.BEAN) {
+            return Optional.absent();
+        }
+
+        final Set<Object> distinctElements = Sets.newIdentityHashSet();
+        for (final Object element : elements) {
+            final boolean traversedByProperties = element != null
+                    && element.getClass() == beanClass
+                    && !serializerLineWriter.applies(element)
+                    && !ancestorPaths.containsKey(element)
+                    && !writtenObjects.containsKey(element)
+                    && distinctElements.add(element);
+            if (!traversedByProperties) {
+                return Optional.absent();
+            }
+        }
+        return Optional.of(dispatch.getBeanPlan());
+    }
+
+    /**
+     * Writes the given {@code elements}, which are all traversed by the given {@code beanPlan}, by reading their
+     * included properties column by column and writing their lines element by element. An element which is reached
+     * through the properties of a preceding element is written like any other object reached again.
+     *
+     * @param path the path of the iterable
+     * @param elements the elements to write in their order
+     * @param firstIndex the index of the first of the given elements in the iterable
+     * @param beanPlan the plan of the class of all elements
+     * @return a list of strings representing the given elements
+     */
+    private List<String> writeColumns(final String path, final List<Object> elements, final int firstIndex, final BeanPlan beanPlan) {
+        final ExclusionState elementState = currentState.onElement();
+        final List<PropertyPlan> properties = beanPlan.getProperties();
+        final Object[][] rows = new Object[elements.size()][properties.size()];
+
+        // each getter is invoked for all elements in a row, so that its call site only sees a single class
+        for (int column = 0; column < properties.size(); column++) {
+            final PropertyPlan propertyPlan = properties.get(column);
+            if (elementState.onProperty(propertyPlan.getName()).isExcluded()) {
+                continue;
+            }
+            for (int row = 0; row < rows.length; row++) {
+                rows[row][column] = readElementProperty(path, firstIndex + row, elements.get(row), propertyPlan);
+            }
+        }
+
+        final List<String> lines = Lists.newArrayList();
+        for (int row = 0; row < rows.length; row++) {
+            final String elementPath = PathBuilder.extendPathWithIterableIndex(path, firstIndex + row);
+            lines.addAll(writeValue(elementPath, elements.get(row), null, elementState, rows[row]));
+        }
         return lines;
     }
 
     /**
-     * Safely invokes the given {@code readMethod} on the given {@code object} and returns the result.
+     * Reads the property of the given {@code propertyPlan} from the given {@code element} like
+     * {@link #safeInvoke(String, Object, PropertyPlan)}, building the path of the property only if it can not be read.
+     *
+     * @param path the path of the iterable
+     * @param index the index of the given element
+     * @param element the element to read the property of
+     * @param propertyPlan the plan of the property to read
+     * @return the value of the property
+     * @throws UnreadablePropertyException in case reading the property threw an exception
+     */
+    private Object readElementProperty(final String path, final int index, final Object element, final PropertyPlan propertyPlan) {
+        try {
+            return propertyPlan.read(element);
+        } catch (final IllegalAccessException e) {
+            final String propertyPath = propertyPlan.extendPath(PathBuilder.extendPathWithIterableIndex(path, index));
+            throw new IllegalStateException("Could not read property value at: '" + propertyPath + "' through it's getter.", e);
+        } catch (final InvocationTargetException e) {
+            throw new UnreadablePropertyException(propertyPlan.extendPath(PathBuilder.extendPathWithIterableIndex(path, index)), e);
+        }
+    }
+
+    /**
+     * Safely reads the property of the given {@code propertyPlan} from the given {@code object} and returns the result.
      *
-     * @param path the path representing the position of the read methods property in the object graph
-     * @param object the object to call the method on
-     * @param readMethod the {@link Method} to call
-     * @return the return value of the given {@code readMethod}
-     * @throws UnreadablePropertyException in case the given {@code readMethod} threw an exception during invocation
+     * @param path the path representing the position of the property in the object graph
+     * @param object the object to read the property of
+     * @param propertyPlan the plan of the property to read
+     * @return the value of the property
+     * @throws UnreadablePropertyException in case reading the property threw an exception
      */
-    private Object safeInvoke(final String path, final Object object, final Method readMethod) {
+    private Object safeInvoke(final String path, final Object object, final PropertyPlan propertyPlan) {
         try {
-            return readMethod.invoke(object);
+            return propertyPlan.read(object);
         } catch (final IllegalAccessException e) {
             throw new IllegalStateException("Could not read property value at: '" + path + "' through it's getter.", e);
         } catch (final InvocationTargetException e) {
             throw new UnreadablePropertyException(path, e);
         }
     }
+
+    /**
+     * Writes a chunk of the elements of an iterable or map with a given writer.
+     */
+    private interface ChunkWriter {
+
+        /**
+         * Writes the elements in the given range with the given {@code writer}.
+         *
+         * @param writer the writer of the chunk
+         * @param from the index of the first element of the chunk
+         * @param to the index after the last element of the chunk
+         * @return a list of strings representing the elements of the chunk
+         */
+        List<String> write(RootLineWriter writer, int from, int to);
+    }
+
+    /**
+     * An object which has been written completely, together with the path it has been written under.
+     */
+    private static final class WrittenObject {
+
+        /**
+         * The path the object has been written under first.
+         */
+        private final String path;
+
+        /**
+         * The lines written for the object, {@code null} if the object is supposed to be referenced.
+         */
+        private final List<String> lines;
+
+        /**
+         * The state of the exclusion automaton the object has been written at.
+         */
+        private final ExclusionState state;
+
+        /**
+         * Creates a new instance for the given {@code path}, {@code lines} and {@code state}.
+         *
+         * @param path the path the object has been written under
+         * @param lines the lines written for the object or {@code null} to reference it
+         * @param state the state of the exclusion automaton the object has been written at
+         */
+        WrittenObject(final String path, final List<String> lines, final ExclusionState state) {
+            this.path = path;
+            this.lines = lines;
+            this.state = state;
+        }
+
+        /**
+         * Checks whether the object can be written at the given {@code newState}, which is always the case
+         * for references. The lines are only reused at the same state, since the excluded paths below the
+         * object depend on the path it is reached through.
+         *
+         * @param newState the state of the exclusion automaton to write the object at
+         * @return true if the object can be written at the given state
+         */
+        boolean isReusableAt(final ExclusionState newState) {
+            return lines == null || state == newState;
+        }
+
+        /**
+         * Checks whether the object is written as a reference to the path it has been written under.
+         *
+         * @return true if the object is referenced
+         */
+        boolean isReference() {
+            return lines == null;
+        }
+
+        /**
+         * Writes the object for the given {@code newPath}, either as a reference to the path it has been
+         * written under or by replacing that path in each of its lines.
+         *
+         * @param newPath the path to write the object under
+         * @return a list of strings representing the object at the given path
+         */
+        List<String> writeAt(final String newPath) {
+            if (lines == null) {
+                return Lists.newArrayList(PathBuilder.extendPathWithReference(newPath, path));
+            }
+
+            final List<String> reusedLines = Lists.newArrayListWithCapacity(lines.size());
+            for (final String line : lines) {
+                reusedLines.add(PathBuilder.replacePath(line, path.length(), newPath));
+            }
+            return reusedLines;
+        }
+    }
 }
@@ -16,6 +16,7 @@
 package com.codereligion.diff.internal.linewriter;
 
 import com.codereligion.diff.internal.SerializerRepository;
+import com.codereligion.diff.serializer.AppendingSerializer;
 import com.codereligion.diff.serializer.Serializer;
 import com.google.common.base.Optional;
 import java.util.Collections;
@@ -24,6 +25,10 @@ import java.util.List;
 /**
  * Serializes objects to lines by using the {@link Serializer}s provided by the user.
  *
+ * <p>
+ * The path, the quotes and the serialized value are appended to a single buffer, so that
+ * only the resulting line needs to be allocated as a string.
+ *
  * @author Sebastian Gröbler
  * @since 14.11.2013
  */
@@ -50,8 +55,9 @@ class SerializerLineWriter implements CheckableLineWriter {
 
     @Override
     public List<String> write(final String path, final Object value) {
-        final Optional<Serializer<Object>> serializer = serializerRepository.findFor(value);
-        final String serializedValue = PathBuilder.extendPathWithValue(path, serializer.get().serialize(value));
-        return Collections.singletonList(serializedValue);
+        final Optional<AppendingSerializer<Object>> serializer = serializerRepository.findAppendingFor(value);
+        final StringBuilder builder = PathBuilder.startValue(path);
+        serializer.get().serialize(value, builder);
+        return Collections.singletonList(builder.toString());
     }
 }
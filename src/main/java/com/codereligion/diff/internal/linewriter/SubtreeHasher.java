@@ -0,0 +1,196 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes a fingerprint for every subtree of the lines written for an object, Merkle style: the
+ * fingerprint of a value combines the hash of its own serialized value with the names and fingerprints
+ * of its properties, elements or entries in the order in which they have been written. So the fingerprint
+ * of a subtree changes if and only if a line within it changes, while the fingerprints of all other subtrees,
+ * except the ones of its ancestors, remain the same.
+ *
+ * <p>
+ * The fingerprints are 128 bit murmur3 hashes, which do not depend on the path of a subtree, so equal
+ * subtrees at different paths have equal fingerprints.
+ *
+ * @since 19.10.2026
+ */
+public final class SubtreeHasher {
+
+    /**
+     * The hash function used to hash the single values and names.
+     */
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * The fingerprint of a value for which no line has been written.
+     */
+    private static final HashCode EMPTY_FINGERPRINT = HASH_FUNCTION.hashString("");
+
+    /**
+     * The character separating the path and the value of a line.
+     */
+    private static final char KEY_VALUE_SEPARATOR = '=';
+
+    /**
+     * The character separating a property name from the preceding path.
+     */
+    private static final char PATH_SEPARATOR = '.';
+
+    /**
+     * The character opening an index of an iterable or map.
+     */
+    private static final char INDEX_ENCLOSER_START = '[';
+
+    /**
+     * The character closing an index of an iterable or map.
+     */
+    private static final char INDEX_ENCLOSER_END = ']';
+
+    private SubtreeHasher() {
+        throw new IllegalAccessError("This is a static utility class, which must not be instantiated");
+    }
+
+    /**
+     * Computes the fingerprints of the root value with the given {@code rootPath} and all of its subtrees
+     * from the given {@code lines}. The lines of a subtree follow each other, as they are written by the
+     * {@link RootLineWriter}.
+     *
+     * @param rootPath the path of the root value, which all the given lines start with
+     * @param lines the lines written for the root value
+     * @return the hexadecimal fingerprints by the paths of their subtrees, parents before their children
+     */
+    public static Map<String, String> fingerprint(final String rootPath, final List<String> lines) {
+        final Map<String, String> fingerprints = Maps.newLinkedHashMap();
+        final List<Node> openNodes = Lists.newArrayList();
+        openNodes.add(new Node(rootPath));
+        fingerprints.put(rootPath, null);
+
+        final List<Integer> pathEnds = Lists.newArrayList();
+        for (final String line : lines) {
+            final int valueStart = findPathEnds(line, rootPath.length(), pathEnds);
+
+            // closes the subtrees the line does not belong to and opens the ones it starts
+            int depth = 1;
+            while (depth < openNodes.size() && depth < pathEnds.size()
+                    && openNodes.get(depth).path.length() == pathEnds.get(depth)
+                    && line.startsWith(openNodes.get(depth).path)) {
+                depth++;
+            }
+            closeNodes(openNodes, depth, fingerprints);
+            for (int i = depth; i < pathEnds.size(); i++) {
+                final String path = line.substring(0, pathEnds.get(i));
+                openNodes.add(new Node(path));
+                fingerprints.put(path, null);
+            }
+
+            openNodes.get(openNodes.size() - 1).entries.add(HASH_FUNCTION.hashString(line.substring(valueStart)));
+        }
+        closeNodes(openNodes, 0, fingerprints);
+        return fingerprints;
+    }
+
+    /**
+     * Finds the ends of the paths of the given {@code line}'s value and all its ancestors, up to the root
+     * value whose path ends at the given {@code rootPathEnd}. Property names and indices are separated
+     * by dots and square brackets, which are not considered within an index.
+     *
+     * @param line the line to find the path ends in
+     * @param rootPathEnd the end of the root path
+     * @param pathEnds the list to add the path ends to, starting with the root's
+     * @return the start of the line's value, which is the end of its path
+     */
+    private static int findPathEnds(final String line, final int rootPathEnd, final List<Integer> pathEnds) {
+        pathEnds.clear();
+        pathEnds.add(rootPathEnd);
+
+        int indexDepth = 0;
+        int i = rootPathEnd;
+        for (; i < line.length(); i++) {
+            final char character = line.charAt(i);
+            if (indexDepth == 0 && character == KEY_VALUE_SEPARATOR) {
+                break;
+            }
+            if (indexDepth == 0 && (character == PATH_SEPARATOR || character == INDEX_ENCLOSER_START) && i > rootPathEnd) {
+                pathEnds.add(i);
+            }
+            if (character == INDEX_ENCLOSER_START) {
+                indexDepth++;
+            } else if (character == INDEX_ENCLOSER_END && indexDepth > 0) {
+                indexDepth--;
+            }
+        }
+        if (i > rootPathEnd) {
+            pathEnds.add(i);
+        }
+        return i;
+    }
+
+    /**
+     * Closes the given {@code openNodes} down to the given {@code depth}, recording their fingerprints
+     * and adding them to their parents.
+     *
+     * @param openNodes the nodes of the subtrees the last line belonged to, starting with the root
+     * @param depth the number of nodes to keep open
+     * @param fingerprints the fingerprints to record the closed nodes' ones in
+     */
+    private static void closeNodes(final List<Node> openNodes, final int depth, final Map<String, String> fingerprints) {
+        while (openNodes.size() > depth) {
+            final Node node = openNodes.remove(openNodes.size() - 1);
+            final HashCode fingerprint = node.entries.isEmpty() ? EMPTY_FINGERPRINT : Hashing.combineOrdered(node.entries);
+            fingerprints.put(node.path, fingerprint.toString());
+
+            if (!openNodes.isEmpty()) {
+                final Node parent = openNodes.get(openNodes.size() - 1);
+                final String name = node.path.substring(parent.path.length());
+                parent.entries.add(Hashing.combineOrdered(Lists.newArrayList(HASH_FUNCTION.hashString(name), fingerprint)));
+            }
+        }
+    }
+
+    /**
+     * A subtree whose lines are currently hashed.
+     */
+    private static final class Node {
+
+        /**
+         * The path of the subtree's value.
+         */
+        private final String path;
+
+        /**
+         * The hashes of the value itself and of its named children in the order of their lines.
+         */
+        private final List<HashCode> entries = Lists.newArrayList();
+
+        /**
+         * Creates a new node for the given {@code path}.
+         *
+         * @param path the path of the subtree's value
+         */
+        private Node(final String path) {
+            this.path = path;
+        }
+    }
+}
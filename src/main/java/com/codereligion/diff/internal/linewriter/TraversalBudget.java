@@ -0,0 +1,153 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.exception.TraversalBudgetExceededException;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The limits the line writers enforce while traversing an object graph. An exceeded limit either
+ * results in a truncation marker line, e.g. {@code Order.items=truncated(maxElements=100)}, or in a
+ * {@link TraversalBudgetExceededException}.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+public final class TraversalBudget {
+
+    /**
+     * A budget without any limits.
+     */
+    public static final TraversalBudget UNLIMITED = new TraversalBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, false);
+
+    private static final String MAX_DEPTH = "maxDepth";
+    private static final String MAX_LINES = "maxLines";
+    private static final String MAX_ELEMENTS = "maxElements";
+
+    /**
+     * The maximum number of nested objects, the root object counting as the first one.
+     */
+    private final int maxDepth;
+
+    /**
+     * The maximum number of lines written for an object graph.
+     */
+    private final int maxLines;
+
+    /**
+     * The maximum number of elements written for a single collection, map or array.
+     */
+    private final int maxElements;
+
+    /**
+     * Whether an exceeded limit results in an exception instead of a truncation marker.
+     */
+    private final boolean failWhenExceeded;
+
+    /**
+     * Creates a new instance for the given limits.
+     *
+     * @param maxDepth the maximum number of nested objects
+     * @param maxLines the maximum number of lines
+     * @param maxElements the maximum number of elements per collection, map or array
+     * @param failWhenExceeded whether to throw an exception when a limit is exceeded
+     */
+    public TraversalBudget(final int maxDepth, final int maxLines, final int maxElements, final boolean failWhenExceeded) {
+        this.maxDepth = maxDepth;
+        this.maxLines = maxLines;
+        this.maxElements = maxElements;
+        this.failWhenExceeded = failWhenExceeded;
+    }
+
+    /**
+     * Checks whether this budget does not limit the traversal at all.
+     *
+     * @return true if none of the limits is set
+     */
+    public boolean isUnlimited() {
+        return maxDepth == Integer.MAX_VALUE && maxLines == Integer.MAX_VALUE && maxElements == Integer.MAX_VALUE;
+    }
+
+    /**
+     * Retrieves the maximum number of nested objects.
+     *
+     * @return the maximum depth
+     */
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Retrieves the maximum number of lines.
+     *
+     * @return the maximum number of lines
+     */
+    int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Retrieves the maximum number of elements per collection, map or array.
+     *
+     * @return the maximum number of elements
+     */
+    int getMaxElements() {
+        return maxElements;
+    }
+
+    /**
+     * Creates the truncation marker for an object at the given {@code path}, which is nested too deep.
+     *
+     * @param path the path of the object which is not traversed
+     * @return the truncation marker line
+     * @throws TraversalBudgetExceededException when failing on exceeded limits has been requested
+     */
+    String depthExceeded(final String path) {
+        if (failWhenExceeded) {
+            throw TraversalBudgetExceededException.depthExceeded(path, maxDepth);
+        }
+        return PathBuilder.extendPathWithTruncation(path, MAX_DEPTH, maxDepth);
+    }
+
+    /**
+     * Creates the truncation marker for the value at the given {@code path}, at which the lines are cut off.
+     *
+     * @param path the path of the value at which the lines are cut off
+     * @return the truncation marker line
+     * @throws TraversalBudgetExceededException when failing on exceeded limits has been requested
+     */
+    String linesExceeded(final String path) {
+        if (failWhenExceeded) {
+            throw TraversalBudgetExceededException.linesExceeded(path, maxLines);
+        }
+        return PathBuilder.extendPathWithTruncation(path, MAX_LINES, maxLines);
+    }
+
+    /**
+     * Creates the truncation marker for the collection, map or array at the given {@code path},
+     * of which the elements are cut off.
+     *
+     * @param path the path of the collection, map or array
+     * @return the truncation marker line
+     * @throws TraversalBudgetExceededException when failing on exceeded limits has been requested
+     */
+    String elementsExceeded(final String path) {
+        if (failWhenExceeded) {
+            throw TraversalBudgetExceededException.elementsExceeded(path, maxElements);
+        }
+        return PathBuilder.extendPathWithTruncation(path, MAX_ELEMENTS, maxElements);
+    }
+}
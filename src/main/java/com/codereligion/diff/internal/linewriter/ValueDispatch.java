@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The compiled dispatch for the values of a single class, including the plan to traverse
+ * them, if they are written as beans.
+ *
+ * @since 19.10.2026
+ */
+@Immutable
+final class ValueDispatch {
+
+    /**
+     * The class of the values.
+     */
+    private final Class<?> valueClass;
+
+    /**
+     * The way the values are written.
+     */
+    private final Dispatch dispatch;
+
+    /**
+     * The plan to traverse the values, {@code null} if they are not written as beans.
+     */
+    @Nullable
+    private final BeanPlan beanPlan;
+
+    /**
+     * Creates a new instance for the given {@code valueClass}, {@code dispatch} and {@code beanPlan}.
+     *
+     * @param valueClass the class of the values
+     * @param dispatch the way the values are written
+     * @param beanPlan the plan to traverse the values, {@code null} if they are not written as beans
+     */
+    ValueDispatch(final Class<?> valueClass, final Dispatch dispatch, @Nullable final BeanPlan beanPlan) {
+        this.valueClass = valueClass;
+        this.dispatch = dispatch;
+        this.beanPlan = beanPlan;
+    }
+
+    /**
+     * Retrieves the class of the values.
+     *
+     * @return the class of the values
+     */
+    Class<?> getValueClass() {
+        return valueClass;
+    }
+
+    /**
+     * Retrieves the way the values are written.
+     *
+     * @return the dispatch
+     */
+    Dispatch getDispatch() {
+        return dispatch;
+    }
+
+    /**
+     * Retrieves the plan to traverse the values.
+     *
+     * @return the bean plan, {@code null} if the values are not written as beans
+     */
+    @Nullable
+    BeanPlan getBeanPlan() {
+        return beanPlan;
+    }
+}
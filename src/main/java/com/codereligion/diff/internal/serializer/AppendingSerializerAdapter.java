@@ -0,0 +1,72 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.serializer;
+
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
+import com.codereligion.diff.serializer.CheckableSerializer;
+
+/**
+ * Adapts a string based {@link CheckableSerializer} to the {@link CheckableAppendingSerializer} interface
+ * by appending the serialized string to the given buffer.
+ *
+ * @since 19.10.2026
+ */
+public final class AppendingSerializerAdapter implements CheckableAppendingSerializer<Object> {
+
+    /**
+     * The adapted checkable serializer.
+     */
+    private final CheckableSerializer<Object> checkableSerializer;
+
+    /**
+     * Adapts the given serializer, unless it already is a {@link CheckableAppendingSerializer}.
+     *
+     * @param checkableSerializer the instance to adapt
+     * @return an appending serializer delegating to the given one
+     */
+    @SuppressWarnings("unchecked")
+    public static CheckableAppendingSerializer<Object> adapt(final CheckableSerializer<?> checkableSerializer) {
+        if (checkableSerializer instanceof CheckableAppendingSerializer) {
+            return (CheckableAppendingSerializer<Object>) checkableSerializer;
+        }
+        return new AppendingSerializerAdapter(checkableSerializer);
+    }
+
+    /**
+     * Hides public instantiation.
+     *
+     * @param checkableSerializer the {@link CheckableSerializer} to adapt
+     */
+    @SuppressWarnings("unchecked")
+    private AppendingSerializerAdapter(final CheckableSerializer<?> checkableSerializer) {
+        this.checkableSerializer = (CheckableSerializer<Object>) checkableSerializer;
+    }
+
+    @Override
+    public boolean applies(final Object object) {
+        return checkableSerializer.applies(object);
+    }
+
+    @Override
+    public String serialize(final Object object) {
+        return checkableSerializer.serialize(object);
+    }
+
+    @Override
+    public void serialize(final Object object, final StringBuilder builder) {
+        builder.append(checkableSerializer.serialize(object));
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.serializer;
+
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Serializers for common value types of the JDK, which can be enabled through
+ * {@link com.codereligion.diff.differ.Configuration#useBuiltInSerializers()}.
+ *
+ * <p>
+ * Each serializer applies to the exact classes it has been declared for, which allows
+ * them to be looked up by the class of the value instead of asking each of them, with
+ * the exception of {@link #ENUM} which applies to all enum constants. Primitive wrappers
+ * are appended through the primitive overloads of {@link StringBuilder#append}.
+ *
+ * @since 19.10.2026
+ */
+public enum BuiltInSerializer implements CheckableAppendingSerializer<Object> {
+
+    /**
+     * Appends strings as they are.
+     */
+    STRING(String.class) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append((String) object);
+        }
+    },
+
+    /**
+     * Serializes integral wrappers, which fit into an int, without creating intermediate strings.
+     */
+    INTEGER(Integer.class, Short.class, Byte.class) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append(((Number) object).intValue());
+        }
+    },
+
+    /**
+     * Serializes longs without creating intermediate strings.
+     */
+    LONG(Long.class) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append(((Long) object).longValue());
+        }
+    },
+
+    /**
+     * Serializes doubles without creating intermediate strings.
+     */
+    DOUBLE(Double.class) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append(((Double) object).doubleValue());
+        }
+    },
+
+    /**
+     * Serializes floats without creating intermediate strings.
+     */
+    FLOAT(Float.class) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append(((Float) object).floatValue());
+        }
+    },
+
+    /**
+     * Serializes booleans to {@code true} or {@code false}.
+     */
+    BOOLEAN(Boolean.class) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append(((Boolean) object).booleanValue());
+        }
+    },
+
+    /**
+     * Appends characters as they are.
+     */
+    CHARACTER(Character.class) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append(((Character) object).charValue());
+        }
+    },
+
+    /**
+     * Serializes enum constants by their name, which unlike their string representation can not be overridden.
+     */
+    ENUM {
+        @Override
+        public boolean applies(final Object object) {
+            return object instanceof Enum;
+        }
+
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append(((Enum<?>) object).name());
+        }
+    },
+
+    /**
+     * Serializes dates as ISO-8601 instants in UTC with millisecond precision, e.g. {@code 2013-11-13T08:15:30.000Z}.
+     */
+    DATE(Date.class) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            appendIsoInstant(((Date) object).getTime(), builder);
+        }
+    },
+
+    /**
+     * Serializes values, whose string representation is already their canonical representation.
+     * The {@code java.time} types are only registered when available on the running JVM.
+     */
+    CANONICAL_STRING(withOptionalClasses(new Class<?>[] {BigDecimal.class, BigInteger.class, UUID.class},
+                                         "java.time.Instant",
+                                         "java.time.LocalDate",
+                                         "java.time.LocalTime",
+                                         "java.time.LocalDateTime",
+                                         "java.time.OffsetTime",
+                                         "java.time.OffsetDateTime",
+                                         "java.time.ZonedDateTime",
+                                         "java.time.Duration",
+                                         "java.time.Period",
+                                         "java.time.Year",
+                                         "java.time.YearMonth",
+                                         "java.time.MonthDay",
+                                         "java.time.ZoneOffset")) {
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            builder.append(object.toString());
+        }
+    };
+
+    private static final int MILLIS_PER_HOUR = 60 * 60 * 1000;
+    private static final int MILLIS_PER_MINUTE = 60 * 1000;
+    private static final int MILLIS_PER_SECOND = 1000;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int DAYS_PER_ERA = 146097;
+    private static final int DAYS_FROM_YEAR_ZERO_TO_EPOCH = 719468;
+
+    /**
+     * The exact classes this serializer applies to.
+     */
+    private final Class<?>[] types;
+
+    /**
+     * Creates a serializer for the given exact {@code types}.
+     *
+     * @param types the classes this serializer applies to
+     */
+    private BuiltInSerializer(final Class<?>... types) {
+        this.types = types;
+    }
+
+    /**
+     * Creates an index of all built-in serializers by the exact classes they apply to.
+     * Serializers which do not apply to a fixed set of classes are not part of the index.
+     *
+     * @return a map of exact classes to their serializers
+     */
+    public static Map<Class<?>, BuiltInSerializer> indexByExactClass() {
+        final ImmutableMap.Builder<Class<?>, BuiltInSerializer> index = ImmutableMap.builder();
+        for (final BuiltInSerializer serializer : values()) {
+            for (final Class<?> type : serializer.types) {
+                index.put(type, serializer);
+            }
+        }
+        return index.build();
+    }
+
+    @Override
+    public boolean applies(final Object object) {
+        if (object == null) {
+            return false;
+        }
+
+        for (final Class<?> type : types) {
+            if (type == object.getClass()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String serialize(final Object object) {
+        final StringBuilder builder = new StringBuilder();
+        serialize(object, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Appends the given milliseconds since the epoch as an ISO-8601 instant in UTC to the given {@code builder},
+     * without going through a {@link java.util.Calendar} or a date format.
+     *
+     * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+     * @param builder the builder to append to
+     */
+    static void appendIsoInstant(final long epochMillis, final StringBuilder builder) {
+        final long epochDay = floorDiv(epochMillis, MILLIS_PER_DAY);
+        final int millisOfDay = (int) (epochMillis - epochDay * MILLIS_PER_DAY);
+
+        // converts the days since the epoch into the proleptic gregorian calendar with eras starting in march
+        final long shiftedDay = epochDay + DAYS_FROM_YEAR_ZERO_TO_EPOCH;
+        final long era = floorDiv(shiftedDay, DAYS_PER_ERA);
+        final int dayOfEra = (int) (shiftedDay - era * DAYS_PER_ERA);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 0) {
+            builder.append('-');
+        }
+        appendPadded(builder, Math.abs(year), 4).append('-');
+        appendPadded(builder, month, 2).append('-');
+        appendPadded(builder, day, 2).append('T');
+        appendPadded(builder, millisOfDay / MILLIS_PER_HOUR, 2).append(':');
+        appendPadded(builder, millisOfDay / MILLIS_PER_MINUTE % 60, 2).append(':');
+        appendPadded(builder, millisOfDay / MILLIS_PER_SECOND % 60, 2).append('.');
+        appendPadded(builder, millisOfDay % MILLIS_PER_SECOND, 3).append('Z');
+    }
+
+    /**
+     * Appends the given non negative {@code value} left padded with zeros to the given {@code digits}.
+     *
+     * @param builder the builder to append to
+     * @param value the value to append
+     * @param digits the minimum number of digits
+     * @return the given builder
+     */
+    private static StringBuilder appendPadded(final StringBuilder builder, final long value, final int digits) {
+        long threshold = 1;
+        for (int i = 1; i < digits; i++) {
+            threshold *= 10;
+            if (value < threshold) {
+                builder.append('0');
+            }
+        }
+        return builder.append(value);
+    }
+
+    /**
+     * Divides the given {@code dividend} by the given positive {@code divisor} rounding towards negative infinity.
+     *
+     * @param dividend the dividend
+     * @param divisor the positive divisor
+     * @return the largest value which is less than or equal to the algebraic quotient
+     */
+    private static long floorDiv(final long dividend, final long divisor) {
+        final long quotient = dividend / divisor;
+        return dividend % divisor < 0 ? quotient - 1 : quotient;
+    }
+
+    /**
+     * Appends the classes of the given names to the given {@code types}, ignoring those which are not
+     * available on the running JVM.
+     *
+     * @param types the classes which are always available
+     * @param optionalClassNames the fully qualified names of the classes to load
+     * @return a new array containing the given and the available optional classes
+     */
+    private static Class<?>[] withOptionalClasses(final Class<?>[] types, final String... optionalClassNames) {
+        final List<Class<?>> classes = Lists.<Class<?>>newArrayList(types);
+        for (final String className : optionalClassNames) {
+            try {
+                classes.add(Class.forName(className));
+            } catch (final ClassNotFoundException e) {
+                // not available before java 8
+            }
+        }
+        return classes.toArray(new Class<?>[classes.size()]);
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.serializer;
+
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
+
+/**
+ * Decorates a given {@link CheckableAppendingSerializer} so that the serialized values of immutable types
+ * are taken from a {@link SerializationCache} instead of being serialized again.
+ *
+ * @since 19.10.2026
+ */
+public final class CachingSerializer implements CheckableAppendingSerializer<Object> {
+
+    /**
+     * The decorated checkable serializer.
+     */
+    private final CheckableAppendingSerializer<Object> checkableSerializer;
+
+    /**
+     * The cache to look up serialized values in.
+     */
+    private final SerializationCache serializationCache;
+
+    /**
+     * Decorates the given serializer so that it's serialized values are looked up in the given cache.
+     *
+     * @param checkableSerializer the instance to decorate
+     * @param serializationCache the cache to use
+     * @return a decorated instance of the given one
+     */
+    public static CheckableAppendingSerializer<Object> cached(
+            final CheckableAppendingSerializer<Object> checkableSerializer,
+            final SerializationCache serializationCache) {
+        return new CachingSerializer(checkableSerializer, serializationCache);
+    }
+
+    /**
+     * Hides public instantiation.
+     *
+     * @param checkableSerializer the instance to decorate
+     * @param serializationCache the cache to use
+     */
+    private CachingSerializer(final CheckableAppendingSerializer<Object> checkableSerializer, final SerializationCache serializationCache) {
+        this.checkableSerializer = checkableSerializer;
+        this.serializationCache = serializationCache;
+    }
+
+    @Override
+    public boolean applies(final Object object) {
+        return checkableSerializer.applies(object);
+    }
+
+    @Override
+    public String serialize(final Object object) {
+        final StringBuilder builder = new StringBuilder();
+        serialize(object, builder);
+        return builder.toString();
+    }
+
+    @Override
+    public void serialize(final Object object, final StringBuilder builder) {
+        serializationCache.serialize(object, checkableSerializer, builder);
+    }
+}
@@ -15,7 +15,7 @@
  */
 package com.codereligion.diff.internal.serializer;
 
-import com.codereligion.diff.serializer.CheckableSerializer;
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
 
 /**
  * Serializes classes into their canonical name.
@@ -23,7 +23,7 @@ import com.codereligion.diff.serializer.CheckableSerializer;
  * @author Sebastian Gröbler
  * @since 12.11.2013
  */
-public enum ClassSerializer implements CheckableSerializer<Class<?>> {
+public enum ClassSerializer implements CheckableAppendingSerializer<Class<?>> {
 
     /**
      * Singleton instance of this class.
@@ -40,4 +40,9 @@ public enum ClassSerializer implements CheckableSerializer<Class<?>> {
         return object.getCanonicalName();
     }
 
+    @Override
+    public void serialize(final Class<?> object, final StringBuilder builder) {
+        builder.append(object.getCanonicalName());
+    }
+
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.serializer;
+
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+
+/**
+ * Serializes large strings, byte arrays and byte buffers into a fixed size digest of their content
+ * followed by their length, e.g. {@code murmur3_128:3c8a...;length=1048576}, instead of their content.
+ *
+ * <p>
+ * The digest is computed by streaming the content into the hash function, so that no intermediate
+ * string of the content gets created. The digest is meant to detect changes, not to protect against
+ * deliberately created collisions.
+ *
+ * @since 19.10.2026
+ */
+public final class DigestSerializer implements CheckableAppendingSerializer<Object> {
+
+    private static final String DIGEST_PREFIX = "murmur3_128:";
+    private static final String LENGTH_SEPARATOR = ";length=";
+
+    /**
+     * The size of the buffer used to stream the content of direct byte buffers.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The hash function used to create the digests.
+     */
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * The length of content, in characters or bytes, above which the digest is serialized instead of the content.
+     */
+    private final int threshold;
+
+    /**
+     * Creates a new instance for the given {@code threshold}.
+     *
+     * @param threshold the length of content above which this serializer applies
+     */
+    public DigestSerializer(final int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean applies(final Object object) {
+        if (object instanceof CharSequence) {
+            return ((CharSequence) object).length() > threshold;
+        }
+        if (object instanceof byte[]) {
+            return ((byte[]) object).length > threshold;
+        }
+        if (object instanceof ByteBuffer) {
+            return ((ByteBuffer) object).remaining() > threshold;
+        }
+        return false;
+    }
+
+    @Override
+    public String serialize(final Object object) {
+        final StringBuilder builder = new StringBuilder();
+        serialize(object, builder);
+        return builder.toString();
+    }
+
+    @Override
+    public void serialize(final Object object, final StringBuilder builder) {
+        final Hasher hasher = HASH_FUNCTION.newHasher();
+        final int length;
+
+        if (object instanceof CharSequence) {
+            final CharSequence charSequence = (CharSequence) object;
+            hasher.putString(charSequence);
+            length = charSequence.length();
+        } else if (object instanceof byte[]) {
+            final byte[] bytes = (byte[]) object;
+            hasher.putBytes(bytes);
+            length = bytes.length;
+        } else {
+            final ByteBuffer buffer = (ByteBuffer) object;
+            putRemainingBytes(hasher, buffer);
+            length = buffer.remaining();
+        }
+
+        builder.append(DIGEST_PREFIX)
+               .append(hasher.hash())
+               .append(LENGTH_SEPARATOR)
+               .append(length);
+    }
+
+    /**
+     * Puts the remaining bytes of the given {@code buffer} into the given {@code hasher} without changing
+     * the position of the buffer. The backing array of heap buffers is read in place, the content of direct
+     * buffers is streamed through a small chunk.
+     *
+     * @param hasher the hasher to put the bytes into
+     * @param buffer the buffer to read
+     */
+    private static void putRemainingBytes(final Hasher hasher, final ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            hasher.putBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+
+        final ByteBuffer duplicate = buffer.duplicate();
+        final byte[] chunk = new byte[Math.min(CHUNK_SIZE, duplicate.remaining())];
+        while (duplicate.hasRemaining()) {
+            final int chunkLength = Math.min(chunk.length, duplicate.remaining());
+            duplicate.get(chunk, 0, chunkLength);
+            hasher.putBytes(chunk, 0, chunkLength);
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.codereligion.diff.internal.serializer;
 
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
 import com.codereligion.diff.serializer.CheckableSerializer;
 import com.google.common.collect.Sets;
 import java.util.Set;
@@ -22,20 +23,24 @@ import java.util.Set;
 /**
  * Decorates a given {@link com.codereligion.diff.serializer.CheckableSerializer} so that each serialized value is enclosed by single quotes.
  *
+ * <p>
+ * The quotes are appended to the same buffer the decorated serializer appends to. Serializers which do not implement
+ * {@link CheckableAppendingSerializer} are adapted by an {@link AppendingSerializerAdapter}.
+ *
  * @author Sebastian Gröbler
  * @since 12.11.2013
  */
-public final class InQuotesSerializer implements CheckableSerializer<Object> {
+public final class InQuotesSerializer implements CheckableAppendingSerializer<Object> {
 
     /**
      * The enclosing quotes.
      */
-    private static final String VALUE_ENCLOSER = "'";
+    private static final char VALUE_ENCLOSER = '\'';
 
     /**
      * The decorated checkable serializer.
      */
-    private final CheckableSerializer<Object> checkableSerializer;
+    private final CheckableAppendingSerializer<Object> checkableSerializer;
 
     /**
      * Decorates the given serializer so that it's serialized value will be enclosed in single quotes.
@@ -44,6 +49,16 @@ public final class InQuotesSerializer implements CheckableSerializer<Object> {
      * @return a decorated instance of the given one
      */
     public static CheckableSerializer<?> wrapInQuotes(final CheckableSerializer<?> checkableSerializer) {
+        return appendInQuotes(checkableSerializer);
+    }
+
+    /**
+     * Decorates the given serializer so that it's serialized value will be appended in single quotes.
+     *
+     * @param checkableSerializer the instance to decorate
+     * @return a decorated instance of the given one
+     */
+    public static CheckableAppendingSerializer<Object> appendInQuotes(final CheckableSerializer<?> checkableSerializer) {
         return new InQuotesSerializer(checkableSerializer);
     }
 
@@ -67,9 +82,8 @@ public final class InQuotesSerializer implements CheckableSerializer<Object> {
      *
      * @param checkableSerializer the {@link CheckableSerializer} to decorate
      */
-    @SuppressWarnings("unchecked")
     private InQuotesSerializer(final CheckableSerializer<?> checkableSerializer) {
-        this.checkableSerializer = (CheckableSerializer<Object>) checkableSerializer;
+        this.checkableSerializer = AppendingSerializerAdapter.adapt(checkableSerializer);
     }
 
     @Override
@@ -79,7 +93,16 @@ public final class InQuotesSerializer implements CheckableSerializer<Object> {
 
     @Override
     public String serialize(Object object) {
-        return VALUE_ENCLOSER + checkableSerializer.serialize(object) + VALUE_ENCLOSER;
+        final StringBuilder builder = new StringBuilder();
+        serialize(object, builder);
+        return builder.toString();
+    }
+
+    @Override
+    public void serialize(final Object object, final StringBuilder builder) {
+        builder.append(VALUE_ENCLOSER);
+        checkableSerializer.serialize(object, builder);
+        builder.append(VALUE_ENCLOSER);
     }
 
 }
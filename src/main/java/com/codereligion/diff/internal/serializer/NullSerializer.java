@@ -15,7 +15,7 @@
  */
 package com.codereligion.diff.internal.serializer;
 
-import com.codereligion.diff.serializer.CheckableSerializer;
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
 
 /**
  * Serializes objects which are null to the string "null".
@@ -23,7 +23,7 @@ import com.codereligion.diff.serializer.CheckableSerializer;
  * @author Sebastian Gröbler
  * @since 12.11.2013
  */
-public enum NullSerializer implements CheckableSerializer<Object> {
+public enum NullSerializer implements CheckableAppendingSerializer<Object> {
 
     /**
      * Singleton instance of this class.
@@ -42,4 +42,9 @@ public enum NullSerializer implements CheckableSerializer<Object> {
         return NULL_VALUE;
     }
 
+    @Override
+    public void serialize(final Object object, final StringBuilder builder) {
+        builder.append(NULL_VALUE);
+    }
+
 }
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.serializer;
+
+import com.codereligion.diff.serializer.AppendingSerializer;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of the serialized form of values, whose types have been declared to be immutable,
+ * so that values which occur repeatedly in the diffed object graphs are only serialized once.
+ *
+ * <p>
+ * Values of types which are cached by equality are looked up by {@link Object#equals(Object)}, which requires
+ * them to be immutable. Values of types which are cached by identity are looked up by reference and are only
+ * weakly referenced by the cache. Both caches evict the least recently used entries once they exceed
+ * their maximum size.
+ *
+ * @since 19.10.2026
+ */
+public final class SerializationCache {
+
+    /**
+     * The types of which the values are cached by equality.
+     */
+    private final Set<Class<?>> equalityTypes;
+
+    /**
+     * The types of which the values are cached by identity.
+     */
+    private final Set<Class<?>> identityTypes;
+
+    /**
+     * The serialized values keyed by equality.
+     */
+    private final Cache<Object, String> byEquality;
+
+    /**
+     * The serialized values keyed by identity.
+     */
+    private final Cache<Object, String> byIdentity;
+
+    /**
+     * The cache to use for the values of a specific class, absent if the values of the class are not cached.
+     */
+    private final ConcurrentMap<Class<?>, Optional<Cache<Object, String>>> cacheByClass = new ConcurrentHashMap<Class<?>, Optional<Cache<Object, String>>>();
+
+    /**
+     * Creates a new instance for the given types and {@code maximumSize}.
+     *
+     * @param equalityTypes the types of which the values are cached by equality
+     * @param identityTypes the types of which the values are cached by identity
+     * @param maximumSize the maximum number of entries per cache
+     */
+    public SerializationCache(final Set<Class<?>> equalityTypes, final Set<Class<?>> identityTypes, final int maximumSize) {
+        this.equalityTypes = ImmutableSet.copyOf(equalityTypes);
+        this.identityTypes = ImmutableSet.copyOf(identityTypes);
+        this.byEquality = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.byIdentity = CacheBuilder.newBuilder().weakKeys().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Appends the serialized form of the given {@code object} to the given {@code builder}. The given
+     * {@code serializer} is only used if the serialized form has not been cached, yet.
+     *
+     * @param object the object to serialize
+     * @param serializer the serializer to use for cache misses
+     * @param builder the builder to append the serialized form to
+     */
+    public void serialize(final Object object, final AppendingSerializer<Object> serializer, final StringBuilder builder) {
+        final Optional<Cache<Object, String>> cache = findCacheFor(object);
+        if (!cache.isPresent()) {
+            serializer.serialize(object, builder);
+            return;
+        }
+
+        String serialized = cache.get().getIfPresent(object);
+        if (serialized == null) {
+            final StringBuilder valueBuilder = new StringBuilder();
+            serializer.serialize(object, valueBuilder);
+            serialized = valueBuilder.toString();
+            cache.get().put(object, serialized);
+        }
+        builder.append(serialized);
+    }
+
+    /**
+     * Finds the cache for the given {@code object}, preferring the identity cache in case the object
+     * is an instance of types declared for both caches.
+     *
+     * @param object the object to find the cache for
+     * @return an optional of the cache to use
+     */
+    private Optional<Cache<Object, String>> findCacheFor(final Object object) {
+        if (object == null) {
+            return Optional.absent();
+        }
+
+        final Class<?> type = object.getClass();
+        final Optional<Cache<Object, String>> cached = cacheByClass.get(type);
+        if (cached != null) {
+            return cached;
+        }
+
+        final Optional<Cache<Object, String>> cache;
+        if (isInstanceOfAny(identityTypes, type)) {
+            cache = Optional.of(byIdentity);
+        } else if (isInstanceOfAny(equalityTypes, type)) {
+            cache = Optional.of(byEquality);
+        } else {
+            cache = Optional.absent();
+        }
+        cacheByClass.putIfAbsent(type, cache);
+        return cache;
+    }
+
+    /**
+     * Checks whether the given {@code type} is a subtype of any of the given {@code types}.
+     *
+     * @param types the types to check against
+     * @param type the type to check
+     * @return true if the given type is assignable to any of the given types
+     */
+    private static boolean isInstanceOfAny(final Set<Class<?>> types, final Class<?> type) {
+        for (final Class<?> candidate : types) {
+            if (candidate.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
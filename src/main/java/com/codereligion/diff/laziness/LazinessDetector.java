@@ -0,0 +1,48 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.laziness;
+
+/**
+ * Detects values which have not been loaded yet, like the lazy collections and proxies of an object-relational
+ * mapper, so that they are not traversed. Traversing such a value would load it, e.g. by querying a database,
+ * as soon as one of its methods is called.
+ *
+ * <p>
+ * The traversal asks the detectors about every value it reaches, before any of the methods of the value are
+ * called. A typical implementation delegates to the utility of the mapper, e.g.:
+ *
+ * <pre>
+ * public boolean isUninitialized(final Object value) {
+ *     return !Hibernate.isInitialized(value);
+ * }
+ * </pre>
+ *
+ * <p>
+ * Implementations must not call any methods of the given values which load them and need to be thread-safe,
+ * since they are shared by all diffs.
+ *
+ * @since 19.10.2026
+ */
+public interface LazinessDetector {
+
+    /**
+     * Checks whether the given {@code value} has not been loaded yet.
+     *
+     * @param value the value to check, never {@code null}
+     * @return true if the given value is uninitialized and must not be traversed
+     */
+    boolean isUninitialized(Object value);
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.serializer;
+
+/**
+ * Base class for {@link CheckableAppendingSerializer}s, which derives the string based serialization
+ * from the appending one, so that implementations only need to implement
+ * {@link AppendingSerializer#serialize(Object, StringBuilder)} and {@link com.codereligion.diff.Checkable#applies(Object)}.
+ *
+ * @since 19.10.2026
+ * @param <T> The type of the object which should be serialized.
+ */
+public abstract class AbstractCheckableAppendingSerializer<T> implements CheckableAppendingSerializer<T> {
+
+    @Override
+    public String serialize(final T object) {
+        final StringBuilder builder = new StringBuilder();
+        serialize(object, builder);
+        return builder.toString();
+    }
+}
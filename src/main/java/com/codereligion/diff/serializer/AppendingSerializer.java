@@ -0,0 +1,37 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.serializer;
+
+/**
+ * Serializes a given object by appending its string representation to a given {@link StringBuilder}.
+ * This allows the framework to build a whole line of the diffed document, including path and quotes,
+ * inside a single buffer without allocating intermediate strings.
+ *
+ * @since 19.10.2026
+ * @param <T> The type of the object which should be serialized.
+ * @see AbstractCheckableAppendingSerializer
+ */
+public interface AppendingSerializer<T> extends Serializer<T> {
+
+    /**
+     * Appends the serialized representation of the given {@code object} to the given {@code builder}.
+     * The appended characters must be equal to the string returned by {@link #serialize(Object)}.
+     *
+     * @param object the {@link Object} to serialize
+     * @param builder the {@link StringBuilder} to append the serialized representation to
+     */
+    void serialize(T object, StringBuilder builder);
+}
@@ -0,0 +1,27 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.serializer;
+
+/**
+ * Combines the {@link AppendingSerializer} and {@link CheckableSerializer} interface to allow implementations
+ * of this interface to define if they can serialize a specific object into a given buffer.
+ *
+ * @since 19.10.2026
+ * @param <T> The type of the object which should be serialized.
+ */
+public interface CheckableAppendingSerializer<T> extends AppendingSerializer<T>, CheckableSerializer<T> {
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.differ;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link com.codereligion.diff.differ.CancellationToken}.
+ *
+ * @since 19.10.2026
+ */
+public class CancellationTokenTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void isNotCancelledInitially() {
+        assertThat(CancellationToken.create().isCancelled(), is(false));
+        assertThat(CancellationToken.withTimeout(1, TimeUnit.HOURS).isCancelled(), is(false));
+    }
+
+    @Test
+    public void isCancelledAfterCancel() {
+
+        // given
+        final CancellationToken cancellationToken = CancellationToken.withTimeout(1, TimeUnit.HOURS);
+
+        // when
+        cancellationToken.cancel();
+
+        // then
+        assertThat(cancellationToken.isCancelled(), is(true));
+    }
+
+    @Test
+    public void isCancelledAfterDeadline() {
+        assertThat(CancellationToken.withTimeout(0, TimeUnit.NANOSECONDS).isCancelled(), is(true));
+    }
+
+    @Test
+    public void withTimeoutThrowsIllegalArgumentExceptionOnNegativeTimeout() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("timeout must not be negative.");
+
+        CancellationToken.withTimeout(-1, TimeUnit.SECONDS);
+    }
+}
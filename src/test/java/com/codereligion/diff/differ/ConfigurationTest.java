@@ -18,9 +18,17 @@ package com.codereligion.diff.differ;
 
 import com.codereligion.diff.comparator.CheckableComparator;
 import com.codereligion.diff.serializer.CheckableSerializer;
+import com.codereligion.diff.util.AddressAdapter;
 import com.codereligion.diff.util.ToStringSerializer;
+import com.codereligion.diff.util.ToStringSortKey;
+import com.codereligion.diff.util.ZipCodeSortKey;
 import com.codereligion.diff.util.StubComparator;
+import com.codereligion.diff.util.StubLazinessDetector;
+import com.codereligion.diff.util.bean.Address;
 import com.codereligion.diff.util.bean.Credential;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.File;
+import java.util.concurrent.Executor;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -71,6 +79,26 @@ public class ConfigurationTest {
         assertThat(copy.getCheckableComparators().contains(comparator), is(true));
 	}
 
+	@Test
+	public void useLongSortKeyAddsGivenSortKeyAndLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final ZipCodeSortKey sortKey = new ZipCodeSortKey();
+		final Configuration copy = original.useLongSortKey(sortKey);
+
+		assertThat(original.getLongSortKeys(), is(empty()));
+		assertThat(copy.useBaseObjectName("foo").getLongSortKeys(), contains((Object) sortKey));
+	}
+
+	@Test
+	public void useStringSortKeyAddsGivenSortKeyAndLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final ToStringSortKey sortKey = new ToStringSortKey(String.class);
+		final Configuration copy = original.useStringSortKey(sortKey);
+
+		assertThat(original.getStringSortKeys(), is(empty()));
+		assertThat(copy.useBaseObjectName("foo").getStringSortKeys(), contains((Object) sortKey));
+	}
+
 	@Test
 	public void useComparableReturnsNewInstance() {
 		final Configuration original = new Configuration();
@@ -142,6 +170,223 @@ public class ConfigurationTest {
 		assertThat(copy.getExcludedProperties(), contains(propertyName));
 	}
 
+	@Test
+	public void excludePathAndTypeLeaveOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.excludePath("Order.lines[*].audit").excludeType(Integer.class);
+
+		assertThat(original.getExcludedPaths(), is(empty()));
+		assertThat(original.getExcludedTypes(), is(empty()));
+		assertThat(copy.getExcludedPaths(), contains("Order.lines[*].audit"));
+		assertThat(copy.useBaseObjectName("foo").getExcludedTypes().contains(Integer.class), is(true));
+	}
+
+	@Test
+	public void includePathLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.includePath("Order.lines[*].price");
+
+		assertThat(original.getIncludedPaths(), is(empty()));
+		assertThat(copy.useBaseObjectName("foo").getIncludedPaths(), contains("Order.lines[*].price"));
+	}
+
+	@Test
+	public void includePathThrowsIllegalArgumentExceptionOnInvalidPattern() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("Invalid path pattern 'Order.': empty segment.");
+
+		new Configuration().includePath("Order.");
+	}
+
+	@Test
+	public void useAdapterLeavesOriginalUntouched() {
+		final AddressAdapter adapter = new AddressAdapter();
+		final Configuration original = new Configuration();
+		final Configuration copy = original.useAdapter(adapter);
+
+		assertThat(original.getBeanAdapters().isEmpty(), is(true));
+		assertThat(copy.useBaseObjectName("foo").getBeanAdapters().get(Address.class), is(sameInstance((Object) adapter)));
+	}
+
+	@Test
+	public void generateAccessorsLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.generateAccessors();
+
+		assertThat(original.isGeneratingAccessors(), is(false));
+		assertThat(copy.useBaseObjectName("foo").isGeneratingAccessors(), is(true));
+	}
+
+	@Test
+	public void readFieldsLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.readFields();
+
+		assertThat(original.isReadingFields(), is(false));
+		assertThat(copy.useBaseObjectName("foo").isReadingFields(), is(true));
+	}
+
+	@Test
+	public void useLazinessDetectorLeavesOriginalUntouched() {
+		final StubLazinessDetector detector = new StubLazinessDetector();
+		final Configuration original = new Configuration();
+		final Configuration copy = original.useLazinessDetector(detector);
+
+		assertThat(original.getLazinessDetectors().isEmpty(), is(true));
+		assertThat(copy.useBaseObjectName("foo").getLazinessDetectors().contains(detector), is(true));
+	}
+
+	@Test
+	public void skipUninitializedValuesLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.skipUninitializedValues();
+
+		assertThat(original.isSkippingUninitializedValues(), is(false));
+		assertThat(copy.useBaseObjectName("foo").isSkippingUninitializedValues(), is(true));
+	}
+
+	@Test
+	public void useLazinessDetectorThrowsIllegalArgumentExceptionOnNullValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("detector must not be null.");
+
+		new Configuration().useLazinessDetector(null);
+	}
+
+	@Test
+	public void traverseInParallelLeavesOriginalUntouched() {
+		final Executor executor = MoreExecutors.sameThreadExecutor();
+		final Configuration original = new Configuration();
+		final Configuration copy = original.traverseInParallel(executor, 100);
+
+		assertThat(original.getParallelExecutor().isPresent(), is(false));
+		assertThat(copy.useBaseObjectName("foo").getParallelExecutor().get(), is(sameInstance(executor)));
+		assertThat(copy.useBaseObjectName("foo").getParallelThreshold(), is(100));
+	}
+
+	@Test
+	public void traverseInParallelThrowsIllegalArgumentExceptionOnNullExecutor() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("executor must not be null.");
+
+		new Configuration().traverseInParallel(null, 100);
+	}
+
+	@Test
+	public void traverseInParallelThrowsIllegalArgumentExceptionOnNonPositiveThreshold() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("threshold must be positive.");
+
+		new Configuration().traverseInParallel(MoreExecutors.sameThreadExecutor(), 0);
+	}
+
+	@Test
+	public void sortInParallelLeavesOriginalUntouched() {
+		final Executor executor = MoreExecutors.sameThreadExecutor();
+		final Configuration original = new Configuration();
+		final Configuration copy = original.sortInParallel(executor, 100);
+
+		assertThat(original.getSortExecutor().isPresent(), is(false));
+		assertThat(copy.useBaseObjectName("foo").getSortExecutor().get(), is(sameInstance(executor)));
+		assertThat(copy.useBaseObjectName("foo").getSortThreshold(), is(100));
+	}
+
+	@Test
+	public void sortInParallelThrowsIllegalArgumentExceptionOnNullExecutor() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("executor must not be null.");
+
+		new Configuration().sortInParallel(null, 100);
+	}
+
+	@Test
+	public void sortInParallelThrowsIllegalArgumentExceptionOnNonPositiveThreshold() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("threshold must be positive.");
+
+		new Configuration().sortInParallel(MoreExecutors.sameThreadExecutor(), 0);
+	}
+
+	@Test
+	public void sortIterablesOnDiskLeavesOriginalUntouched() {
+		final File directory = new File("runs");
+		final Configuration original = new Configuration();
+		final Configuration copy = original.sortIterablesOnDisk(directory, 100);
+
+		assertThat(original.getSortDirectory().isPresent(), is(false));
+		assertThat(copy.useBaseObjectName("foo").getSortDirectory().get(), is(sameInstance(directory)));
+		assertThat(copy.useBaseObjectName("foo").getSortRunSize(), is(100));
+	}
+
+	@Test
+	public void sortIterablesOnDiskThrowsIllegalArgumentExceptionOnNullDirectory() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("directory must not be null.");
+
+		new Configuration().sortIterablesOnDisk(null, 100);
+	}
+
+	@Test
+	public void sortIterablesOnDiskThrowsIllegalArgumentExceptionOnNonPositiveRunSize() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("runSize must be positive.");
+
+		new Configuration().sortIterablesOnDisk(new File("runs"), 0);
+	}
+
+	@Test
+	public void collapseUnchangedCollectionsLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.collapseUnchangedCollections(100);
+
+		assertThat(original.getCollapseThreshold().isPresent(), is(false));
+		assertThat(copy.useBaseObjectName("foo").getCollapseThreshold().get(), is(100));
+	}
+
+	@Test
+	public void collapseUnchangedCollectionsThrowsIllegalArgumentExceptionOnNonPositiveMinSize() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("minSize must be positive.");
+
+		new Configuration().collapseUnchangedCollections(0);
+	}
+
+	@Test
+	public void useAdapterThrowsIllegalArgumentExceptionOnNullValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("adapter must not be null.");
+
+		new Configuration().useAdapter(null);
+	}
+
+	@Test
+	public void excludePathThrowsIllegalArgumentExceptionOnInvalidPattern() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("Invalid path pattern 'Order..audit': empty segment.");
+
+		new Configuration().excludePath("Order..audit");
+	}
+
+	@Test
+	public void excludeTypeThrowsIllegalArgumentExceptionOnNullValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("type must not be null.");
+
+		new Configuration().excludeType(null);
+	}
+
 	@Test
 	public void useBaseObjectNameReturnsNewInstance() {
 		final Configuration original = new Configuration();
@@ -178,6 +423,113 @@ public class ConfigurationTest {
         assertThat(copy.getWorkingObjectName(), is(objectName));
 	}
 
+	@Test
+	public void useBuiltInSerializersLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.useBuiltInSerializers();
+
+		assertThat(original.isUsingBuiltInSerializers(), is(false));
+		assertThat(copy.isUsingBuiltInSerializers(), is(true));
+		assertThat(copy.useBaseObjectName("foo").isUsingBuiltInSerializers(), is(true));
+	}
+
+	@Test
+	public void cacheSerializationOfLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.cacheSerializationOf(String.class).cacheSerializationByIdentityOf(Credential.class);
+
+		assertThat(original.getTypesCachedByEquality(), is(empty()));
+		assertThat(original.getTypesCachedByIdentity(), is(empty()));
+		assertThat(copy.getTypesCachedByEquality().contains(String.class), is(true));
+		assertThat(copy.getTypesCachedByIdentity().contains(Credential.class), is(true));
+	}
+
+	@Test
+	public void useSerializationCacheSizeThrowsIllegalArgumentExceptionOnNonPositiveValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("maximumSize must be positive.");
+
+		new Configuration().useSerializationCacheSize(0);
+	}
+
+	@Test
+	public void useDigestsAboveLeavesOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.useDigestsAbove(64);
+
+		assertThat(original.getDigestThreshold().isPresent(), is(false));
+		assertThat(copy.getDigestThreshold().get(), is(64));
+		assertThat(copy.useBaseObjectName("foo").getDigestThreshold().get(), is(64));
+	}
+
+	@Test
+	public void useDigestsAboveThrowsIllegalArgumentExceptionOnNegativeValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("threshold must not be negative.");
+
+		new Configuration().useDigestsAbove(-1);
+	}
+
+	@Test
+	public void limitsLeaveOriginalUntouched() {
+		final Configuration original = new Configuration();
+		final Configuration copy = original.limitDepth(3).limitLines(100).limitElements(10).failWhenLimitExceeded();
+
+		assertThat(original.getMaxDepth(), is(Integer.MAX_VALUE));
+		assertThat(original.isFailingWhenLimitExceeded(), is(false));
+		assertThat(copy.getMaxDepth(), is(3));
+		assertThat(copy.getMaxLines(), is(100));
+		assertThat(copy.getMaxElements(), is(10));
+		assertThat(copy.isFailingWhenLimitExceeded(), is(true));
+	}
+
+	@Test
+	public void limitDepthThrowsIllegalArgumentExceptionOnNonPositiveValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("maxDepth must be positive.");
+
+		new Configuration().limitDepth(0);
+	}
+
+	@Test
+	public void limitLinesThrowsIllegalArgumentExceptionOnNonPositiveValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("maxLines must be positive.");
+
+		new Configuration().limitLines(0);
+	}
+
+	@Test
+	public void limitElementsThrowsIllegalArgumentExceptionOnNonPositiveValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("maxElements must be positive.");
+
+		new Configuration().limitElements(0);
+	}
+
+	@Test
+	public void useLongSortKeyThrowsIllegalArgumentExceptionOnNullValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("sortKey must not be null.");
+
+		new Configuration().useLongSortKey(null);
+	}
+
+	@Test
+	public void useStringSortKeyThrowsIllegalArgumentExceptionOnNullValue() {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("sortKey must not be null.");
+
+		new Configuration().useStringSortKey(null);
+	}
+
 	@Test
 	public void useComparatorThrowsIllegalArgumentExceptionOnNullValue() {
 
@@ -15,33 +15,56 @@
  */
 package com.codereligion.diff.differ;
 
+import com.codereligion.diff.exception.DiffCancelledException;
 import com.codereligion.diff.exception.MissingComparatorException;
 import com.codereligion.diff.exception.MissingSerializerException;
+import com.codereligion.diff.exception.TraversalBudgetExceededException;
 import com.codereligion.diff.exception.UnreadablePropertyException;
+import com.codereligion.diff.util.AddressAdapter;
+import com.codereligion.diff.util.SingleUseIterable;
 import com.codereligion.diff.util.ToStringSerializer;
+import com.codereligion.diff.util.ToStringSortKey;
+import com.codereligion.diff.util.ZipCodeSortKey;
 import com.codereligion.diff.util.NaturalOrderComparator;
 import com.codereligion.diff.util.StubComparator;
+import com.codereligion.diff.util.StubLazinessDetector;
 import com.codereligion.diff.util.bean.Address;
 import com.codereligion.diff.util.bean.Credential;
+import com.codereligion.diff.util.bean.Customer;
+import com.codereligion.diff.util.bean.Invoice;
+import com.codereligion.diff.util.bean.Order;
+import com.codereligion.diff.util.bean.Telemetry;
 import com.codereligion.diff.util.bean.User;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import static com.codereligion.matcher.IterableOfStringsMatchers.hasItem;
 import static com.codereligion.matcher.PatternMatcher.pattern;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -54,6 +77,9 @@ public class DifferTest {
 	
 	@Rule
 	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
 	
 	@Test
 	@SuppressWarnings("unused")
@@ -379,6 +405,337 @@ public class DifferTest {
         assertThat(result, hasItem("+ArrayList[2]='2'"));
     }
 	
+	@Test
+	public void diffsPrimitiveArraysInIndexOrder() throws Exception {
+		final Configuration configuration = new Configuration();
+
+		final int[] base = new int[] {3, 2, 1};
+		final int[] working = new int[] {3, 4, 1};
+
+		final List<String> result = new Differ(configuration).diff(base, working);
+		assertThat(result, hasItem("-int[][1]='2'"));
+		assertThat(result, hasItem("+int[][1]='4'"));
+		assertThat(result, not(hasItem(containsString("[0]"))));
+	}
+
+	@Test
+	public void diffsPrimitiveArrayProperties() throws Exception {
+		final Configuration configuration = new Configuration().excludeProperty("class");
+
+		final List<String> result = new Differ(configuration).diff(null, new Telemetry());
+		assertThat(result, hasItem("+Telemetry.bytes[1]='-1'"));
+		assertThat(result, hasItem("+Telemetry.doubles[0]='0.5'"));
+		assertThat(result, hasItem("+Telemetry.longs[1]='42'"));
+	}
+
+	@Test
+	public void diffsRemainingBytesOfDirectByteBuffers() throws Exception {
+		final Configuration configuration = new Configuration();
+
+		final ByteBuffer working = ByteBuffer.allocateDirect(4);
+		working.put((byte) 1).put((byte) 2).put((byte) 3).put((byte) 4);
+		working.position(1).limit(3);
+
+		final List<String> result = new Differ(configuration).diff(null, working);
+		assertThat(result, hasItem("+DirectByteBuffer[0]='2'"));
+		assertThat(result, hasItem("+DirectByteBuffer[1]='3'"));
+		assertThat(result, not(hasItem("+DirectByteBuffer[2]='4'")));
+		assertThat(working.position(), is(1));
+	}
+
+	@Test
+	public void diffsCommonValueTypesWithBuiltInSerializers() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useBuiltInSerializers()
+			.useNaturalOrderingFor(Integer.class)
+			.useNaturalOrderingFor(TimeUnit.class);
+
+		final Address base = createAddress();
+		final Address working = createAddress().withZipCode(54321);
+
+		assertThat(new Differ(configuration).diff(base, working), hasItem("+Address.zipCode='54321'"));
+		assertThat(new Differ(configuration).diff(null, Lists.newArrayList(TimeUnit.SECONDS)), hasItem("+ArrayList[0]='SECONDS'"));
+		assertThat(new Differ(configuration).diff(null, new Date(0)), hasItem("+Date='1970-01-01T00:00:00.000Z'"));
+	}
+
+	@Test
+	public void customSerializersHavePrecedenceOverBuiltInSerializers() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useBuiltInSerializers()
+			.useSerializer(new ToStringSerializer(Date.class));
+
+		final List<String> result = new Differ(configuration).diff(null, new Date(0));
+
+		assertThat(result, hasItem("+Date='" + new Date(0) + "'"));
+	}
+
+	@Test
+	public void diffsDigestsOfContentAboveThreshold() throws Exception {
+		final Configuration configuration = new Configuration().useDigestsAbove(4);
+		final Differ differ = new Differ(configuration);
+
+		final List<String> result = differ.diff("large base", "large working");
+
+		assertThat(result, hasItem(startsWith("-String='murmur3_128:")));
+		assertThat(result, hasItem(endsWith(";length=10'")));
+		assertThat(result, hasItem(endsWith(";length=13'")));
+		assertThat(differ.diff("large", "large").isEmpty(), is(true));
+		assertThat(differ.diff(null, ByteBuffer.wrap(new byte[] {1, 2})), hasItem("+HeapByteBuffer[0]='1'"));
+	}
+
+	@Test
+	public void writesCyclesAsReferencesToAncestors() throws Exception {
+		final Order order = new Order().withCustomer(new Customer().withName("Jane"));
+
+		final List<String> result = new Differ(createOrderConfiguration()).diff(null, order);
+
+		assertThat(result, hasItem("+Order.customer.name='Jane'"));
+		assertThat(result, hasItem("+Order.customer.orders[0]=ref(Order)"));
+	}
+
+	@Test
+	public void repeatsLinesOfSharedObjectsUnderEachPath() throws Exception {
+		final Address address = createAddress();
+		final Order order = new Order().withBillingAddress(address).withShippingAddress(address);
+
+		final List<String> result = new Differ(createOrderConfiguration()).diff(null, order);
+
+		assertThat(result, hasItem("+Order.billingAddress.street='street'"));
+		assertThat(result, hasItem("+Order.shippingAddress.street='street'"));
+		assertThat(result, hasItem("+Order.shippingAddress.zipCode='12345'"));
+	}
+
+	@Test
+	public void writesSharedObjectsAsReferencesWhenConfigured() throws Exception {
+		final Configuration configuration = createOrderConfiguration().referenceSharedObjects();
+		final Address address = createAddress();
+		final Order base = new Order().withBillingAddress(address).withShippingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(address).withShippingAddress(address);
+
+		final List<String> result = new Differ(configuration).diff(base, working);
+
+		assertThat(result, hasItem("+Order.shippingAddress=ref(Order.billingAddress)"));
+		assertThat(result, hasItem("-Order.shippingAddress.street='street'"));
+	}
+
+	@Test
+	public void truncatesObjectsNestedDeeperThanMaxDepth() throws Exception {
+		final Configuration configuration = createOrderConfiguration().limitDepth(1);
+		final Order order = new Order().withBillingAddress(createAddress());
+
+		final List<String> result = new Differ(configuration).diff(null, order);
+
+		assertThat(result, hasItem("+Order.billingAddress=truncated(maxDepth=1)"));
+		assertThat(result, not(hasItem(containsString("street"))));
+	}
+
+	@Test
+	public void truncatesElementsAboveMaxElements() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(Integer.class))
+			.useNaturalOrderingFor(Integer.class)
+			.limitElements(2);
+
+		final List<String> result = new Differ(configuration).diff(null, Lists.newArrayList(3, 2, 1));
+
+		assertThat(result, hasItem("+ArrayList[0]='1'"));
+		assertThat(result, hasItem("+ArrayList[1]='2'"));
+		assertThat(result, hasItem("+ArrayList=truncated(maxElements=2)"));
+		assertThat(result, not(hasItem("+ArrayList[2]='3'")));
+		assertThat(new Differ(configuration).diff(null, new int[] {1, 2, 3}), hasItem("+int[]=truncated(maxElements=2)"));
+	}
+
+	@Test
+	public void writesFirstSortedElementsAboveMaxElements() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(Integer.class))
+			.useNaturalOrderingFor(Integer.class);
+		final List<Integer> numbers = Lists.newArrayList();
+		for (int i = 0; i < 100; i++) {
+			numbers.add((i * 37) % 50);
+		}
+
+		final List<String> result = new Differ(configuration.limitElements(10)).diff(null, numbers);
+		final List<String> unlimitedResult = new Differ(configuration).diff(null, numbers);
+
+		assertThat(result.subList(3, 13), is(unlimitedResult.subList(3, 13)));
+		assertThat(result.get(13), is("+ArrayList=truncated(maxElements=10)"));
+	}
+
+	@Test
+	public void keepsIterationOrderOfEqualElementsAboveMaxElements() throws Exception {
+		final Configuration configuration = createOrderConfiguration()
+			.useComparator(new StubComparator(Address.class))
+			.limitElements(2);
+		final List<Address> addresses = Lists.newArrayList();
+		for (int i = 0; i < 5; i++) {
+			addresses.add(createAddress().withZipCode(i));
+		}
+
+		final List<String> result = new Differ(configuration).diff(null, addresses);
+
+		assertThat(result, hasItem("+ArrayList[0].zipCode='0'"));
+		assertThat(result, hasItem("+ArrayList[1].zipCode='1'"));
+		assertThat(result, hasItem("+ArrayList=truncated(maxElements=2)"));
+	}
+
+	@Test
+	public void iteratesIterablesOnlyOnce() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(Integer.class))
+			.useNaturalOrderingFor(Integer.class);
+		final List<Integer> numbers = Lists.newArrayList(3, 1, 2);
+
+		final List<String> result = new Differ(configuration).diff(null, new SingleUseIterable<Integer>(numbers));
+
+		assertThat(result.subList(3, result.size()), contains("+SingleUseIterable[0]='1'", "+SingleUseIterable[1]='2'",
+			"+SingleUseIterable[2]='3'"));
+	}
+
+	@Test
+	public void iteratesIterablesOnlyOnceAboveMaxElements() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(Integer.class))
+			.useComparator(NaturalOrderComparator.newInstance(Integer.class))
+			.limitElements(2);
+		final List<Integer> numbers = Lists.newArrayList(3, null, 1, null, 2);
+
+		final List<String> result = new Differ(configuration).diff(null, new SingleUseIterable<Integer>(numbers));
+
+		assertThat(result.subList(3, result.size()), contains("+SingleUseIterable[0]=null", "+SingleUseIterable[1]=null",
+			"+SingleUseIterable=truncated(maxElements=2)"));
+	}
+
+	@Test
+	public void writesFirstSortedEntriesAboveMaxElements() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.useComparator(NaturalOrderComparator.newInstance(Integer.class));
+		final Map<Integer, String> map = Maps.newHashMap();
+		for (int i = 0; i < 100; i++) {
+			map.put((i * 37) % 100, "v" + i);
+		}
+
+		final List<String> result = new Differ(configuration.limitElements(3)).diff(null, map);
+
+		assertThat(result.subList(3, result.size()), contains("+HashMap['0']='v0'", "+HashMap['1']='v73'", "+HashMap['2']='v46'",
+			"+HashMap=truncated(maxElements=3)"));
+	}
+
+	@Test
+	public void truncatesLinesAboveMaxLines() throws Exception {
+		final Configuration configuration = new Configuration().limitLines(2);
+
+		final List<String> result = new Differ(configuration).diff(null, new long[] {1, 2, 3, 4});
+
+		assertThat(result, hasItem("+long[][1]='2'"));
+		assertThat(result, hasItem("+long[]=truncated(maxLines=2)"));
+		assertThat(result, not(hasItem("+long[][2]='3'")));
+	}
+
+	@Test
+	public void throwsTraversalBudgetExceededExceptionWhenConfigured() throws Exception {
+		final Configuration configuration = new Configuration().limitElements(2).failWhenLimitExceeded();
+
+		expectedException.expect(TraversalBudgetExceededException.class);
+		expectedException.expectMessage("Exceeded the maximum number of 2 elements at 'int[]'");
+
+		new Differ(configuration).diff(null, new int[] {1, 2, 3});
+	}
+
+	@Test
+	public void hasDifferencesDetectsChangedProperty() throws Exception {
+		final Configuration configuration = createOrderConfiguration();
+		final Order base = new Order().withBillingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(createAddress().withZipCode(54321));
+
+		assertThat(new Differ(configuration).hasDifferences(base, working), is(true));
+		assertThat(new Differ(configuration).hasDifferences(base, new Order().withBillingAddress(createAddress())), is(false));
+	}
+
+	@Test
+	public void hasDifferencesFollowsExcludedProperties() throws Exception {
+		final Configuration configuration = createOrderConfiguration().excludeProperty("zipCode");
+		final Order base = new Order().withBillingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(createAddress().withZipCode(54321));
+
+		assertThat(new Differ(configuration).hasDifferences(base, working), is(false));
+	}
+
+	@Test
+	public void hasDifferencesAgreesWithDiffForSharedAndCyclicObjects() throws Exception {
+		final Configuration configuration = createOrderConfiguration();
+		final Address address = createAddress();
+		final Order base = new Order().withBillingAddress(address).withShippingAddress(address)
+			.withCustomer(new Customer().withName("Jane"));
+		final Order working = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress())
+			.withCustomer(new Customer().withName("Jane"));
+
+		final Differ differ = new Differ(configuration);
+		assertThat(differ.hasDifferences(base, working), is(!differ.diff(base, working).isEmpty()));
+		assertThat(differ.hasDifferences(base, working), is(false));
+	}
+
+	@Test
+	public void hasDifferencesComparesIterablesAndArrays() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(Integer.class))
+			.useNaturalOrderingFor(Integer.class);
+		final Differ differ = new Differ(configuration);
+
+		assertThat(differ.hasDifferences(Lists.newArrayList(1, 2), Lists.newArrayList(2, 1)), is(false));
+		assertThat(differ.hasDifferences(Lists.newArrayList(1, 2), Lists.newArrayList(1, 2, 3)), is(true));
+		assertThat(differ.hasDifferences(new double[] {0.5, Double.NaN}, new double[] {0.5, Double.NaN}), is(false));
+		assertThat(differ.hasDifferences(new double[] {0.0}, new double[] {-0.0}), is(true));
+	}
+
+	@Test
+	public void hasDifferencesTreatsMissingBaseAsEmptyDocument() throws Exception {
+		final Differ differ = new Differ(new Configuration().useSerializer(new ToStringSerializer(Integer.class)));
+
+		assertThat(differ.hasDifferences(null, 42), is(true));
+		assertThat(differ.hasDifferences(null, new int[0]), is(false));
+	}
+
+	@Test
+	public void diffsWithCancellationTokenWhichHasNotBeenCancelled() throws Exception {
+		final Configuration configuration = createOrderConfiguration();
+		final Order base = new Order().withBillingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(createAddress().withZipCode(54321));
+
+		final List<String> result = new Differ(configuration).diff(base, working, CancellationToken.create());
+
+		assertThat(result, hasItem("+Order.billingAddress.zipCode='54321'"));
+	}
+
+	@Test
+	public void throwsDiffCancelledExceptionWhenTokenHasBeenCancelled() throws Exception {
+		final CancellationToken cancellationToken = CancellationToken.create();
+		cancellationToken.cancel();
+
+		expectedException.expect(DiffCancelledException.class);
+		expectedException.expectMessage("Cancelled the diff while traversing 'Order'");
+
+		new Differ(createOrderConfiguration()).diff(null, new Order(), cancellationToken);
+	}
+
+	@Test
+	public void throwsDiffCancelledExceptionWhenDeadlineHasPassed() throws Exception {
+
+		expectedException.expect(DiffCancelledException.class);
+
+		new Differ(createOrderConfiguration()).diff(null, new Order(), CancellationToken.withTimeout(0, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void throwsIllegalArgumentExceptionForNullCancellationToken() throws Exception {
+
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("cancellationToken must not be null.");
+
+		new Differ(createOrderConfiguration()).diff(null, new Order(), null);
+	}
+
 	@Test
 	public void ordersIterablesWithSpecifiedComparator() throws Exception {
 		final Configuration configuration = new Configuration()
@@ -540,6 +897,813 @@ public class DifferTest {
 			.withAddress(createAddress());
 	}
 
+	@Test
+	public void excludesValuesMatchingPathPattern() throws Exception {
+		final Configuration configuration = createOrderConfiguration().excludePath("Order.billingAddress.zipCode");
+		final Order order = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress());
+
+		final List<String> result = new Differ(configuration).diff(null, order);
+
+		assertThat(result, hasItem("+Order.billingAddress.street='street'"));
+		assertThat(result, not(hasItem("+Order.billingAddress.zipCode='12345'")));
+		assertThat(result, hasItem("+Order.shippingAddress.zipCode='12345'"));
+	}
+
+	@Test
+	public void excludesValuesMatchingPathPatternAtAnyDepth() throws Exception {
+		final Configuration configuration = createOrderConfiguration().excludePath("**.zipCode");
+		final Order order = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress());
+
+		final List<String> result = new Differ(configuration).diff(null, order);
+
+		assertThat(result, hasItem("+Order.shippingAddress.street='street'"));
+		assertThat(result, not(hasItem(containsString("zipCode"))));
+	}
+
+	@Test
+	public void excludesElementsMatchingPathPattern() throws Exception {
+		final Configuration configuration = createOrderConfiguration().excludePath("Customer.orders[*].billingAddress");
+		final Customer customer = new Customer().withName("Jane");
+		new Order().withCustomer(customer).withBillingAddress(createAddress()).withShippingAddress(createAddress());
+
+		final List<String> result = new Differ(configuration).diff(null, customer);
+
+		assertThat(result, hasItem("+Customer.orders[0].shippingAddress.street='street'"));
+		assertThat(result, not(hasItem(containsString("billingAddress"))));
+	}
+
+	@Test
+	public void doesNotInvokeGettersOfExcludedPaths() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.useComparator(new StubComparator(Credential.class))
+			.excludePath("User.credentials[*].password");
+		final Credential credential = spy(new Credential().withPassword("foo"));
+
+		new Differ(configuration).diff(null, new User().withAddress(createAddress()).withCredential(credential));
+
+		verify(credential, never()).getPassword();
+	}
+
+	@Test
+	public void writesSharedObjectsWithTheExclusionsOfEachPath() throws Exception {
+		final Configuration configuration = createOrderConfiguration().excludePath("Order.billingAddress.zipCode");
+		final Address address = createAddress();
+		final Order order = new Order().withBillingAddress(address).withShippingAddress(address);
+
+		final List<String> result = new Differ(configuration).diff(null, order);
+
+		assertThat(result, not(hasItem("+Order.billingAddress.zipCode='12345'")));
+		assertThat(result, hasItem("+Order.shippingAddress.zipCode='12345'"));
+	}
+
+	@Test
+	public void excludesValuesOfExcludedTypes() throws Exception {
+		final Configuration configuration = createOrderConfiguration().excludeType(Address.class);
+		final Customer customer = new Customer().withName("Jane");
+		new Order().withCustomer(customer).withBillingAddress(createAddress());
+
+		final List<String> result = new Differ(configuration).diff(null, customer);
+
+		assertThat(result, hasItem("+Customer.name='Jane'"));
+		assertThat(result, not(hasItem(containsString("Address"))));
+	}
+
+	@Test
+	public void excludesElementsOfExcludedTypes() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.useComparator(new StubComparator(Object.class))
+			.excludeType(Integer.class);
+
+		final List<String> result = new Differ(configuration).diff(null, Lists.<Object>newArrayList("a", 1));
+
+		assertThat(result, hasItem("+ArrayList[0]='a'"));
+		assertThat(result, not(hasItem(containsString("'1'"))));
+	}
+
+	@Test
+	public void hasDifferencesFollowsExcludedPathsAndTypes() throws Exception {
+		final Order base = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(createAddress().withZipCode(54321)).withShippingAddress(createAddress());
+
+		assertThat(new Differ(createOrderConfiguration()).hasDifferences(base, working), is(true));
+		assertThat(new Differ(createOrderConfiguration().excludePath("Order.billingAddress.zipCode")).hasDifferences(base, working), is(false));
+		assertThat(new Differ(createOrderConfiguration().excludePath("Order.*.zipCode")).hasDifferences(base, working), is(false));
+		assertThat(new Differ(createOrderConfiguration().excludePath("Order.shippingAddress")).hasDifferences(base, working), is(true));
+		assertThat(new Differ(createOrderConfiguration().excludeType(Address.class)).hasDifferences(base, working), is(false));
+	}
+
+	@Test
+	public void projectsDiffOntoIncludedPaths() throws Exception {
+		final Configuration configuration = createOrderConfiguration().includePath("Order.billingAddress.zipCode");
+		final Order order = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress());
+
+		final List<String> result = new Differ(configuration).diff(null, order);
+
+		assertThat(result, hasItem("+Order.billingAddress.zipCode='12345'"));
+		assertThat(result, not(hasItem(containsString("street"))));
+		assertThat(result, not(hasItem(containsString("shippingAddress"))));
+	}
+
+	@Test
+	public void writesOnlyValuesMatchingIncludedPathsOfAnyDepth() throws Exception {
+		final Customer customer = new Customer().withName("Jane");
+		final Order order = new Order().withCustomer(customer).withBillingAddress(createAddress()).withShippingAddress(createAddress());
+
+		final List<String> result = new Differ(createOrderConfiguration().includePath("**.zipCode")).diff(null, order);
+		final List<String> nestedResult = new Differ(createOrderConfiguration().includePath("Order.**.zipCode")).diff(null, order);
+
+		assertThat(result, hasItem("+Order.billingAddress.zipCode='12345'"));
+		assertThat(result, hasItem("+Order.shippingAddress.zipCode='12345'"));
+		assertThat(result, not(hasItem(containsString("street"))));
+		assertThat(result, not(hasItem(containsString("name"))));
+		assertThat(result, not(hasItem(containsString("ref("))));
+		assertThat(nestedResult, is(result));
+	}
+
+	@Test
+	public void doesNotWriteValuesOnlyOnTheWayToIncludedPaths() throws Exception {
+		final Configuration configuration = createOrderConfiguration().includePath("Order.billingAddress.zipCode.value");
+		final Order order = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress());
+
+		final List<String> result = new Differ(configuration).diff(null, order);
+
+		assertThat(result, not(hasItem(containsString("zipCode"))));
+	}
+
+	@Test
+	public void hasDifferencesIgnoresValuesOnlyOnTheWayToIncludedPaths() throws Exception {
+		final Order base = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(createAddress().withStreet("otherStreet")).withShippingAddress(createAddress());
+
+		assertThat(new Differ(createOrderConfiguration().includePath("**.zipCode")).hasDifferences(base, working), is(false));
+		assertThat(new Differ(createOrderConfiguration().includePath("**.street")).hasDifferences(base, working), is(true));
+	}
+
+	@Test
+	public void includesSubtreesOfIncludedPathsExceptExcludedOnes() throws Exception {
+		final Configuration configuration = createOrderConfiguration()
+			.includePath("Customer.orders[*].billingAddress")
+			.excludePath("**.street");
+		final Customer customer = new Customer().withName("Jane");
+		new Order().withCustomer(customer).withBillingAddress(createAddress()).withShippingAddress(createAddress());
+
+		final List<String> result = new Differ(configuration).diff(null, customer);
+
+		assertThat(result, hasItem("+Customer.orders[0].billingAddress.zipCode='12345'"));
+		assertThat(result, not(hasItem(containsString("street"))));
+		assertThat(result, not(hasItem(containsString("name"))));
+	}
+
+	@Test
+	public void doesNotInvokeGettersOutsideOfIncludedPaths() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.useComparator(new StubComparator(Credential.class))
+			.includePath("User.address");
+		final Credential credential = spy(new Credential().withPassword("foo"));
+
+		final List<String> result = new Differ(configuration).diff(null, new User().withAddress(createAddress()).withCredential(credential));
+
+		assertThat(result, hasItem("+User.address.street='street'"));
+		verify(credential, never()).getPassword();
+	}
+
+	@Test
+	public void hasDifferencesFollowsIncludedPaths() throws Exception {
+		final Order base = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(createAddress().withZipCode(54321)).withShippingAddress(createAddress());
+
+		assertThat(new Differ(createOrderConfiguration().includePath("Order.shippingAddress")).hasDifferences(base, working), is(false));
+		assertThat(new Differ(createOrderConfiguration().includePath("Order.*.zipCode")).hasDifferences(base, working), is(true));
+	}
+
+	@Test
+	public void diffsSubtreeUnderFullyQualifiedPaths() throws Exception {
+		final Order base = new Order().withBillingAddress(createAddress()).withShippingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(createAddress().withZipCode(54321)).withShippingAddress(createAddress().withZipCode(54321));
+
+		final List<String> result = new Differ(createOrderConfiguration()).diffAt(base, working, "billingAddress");
+
+		assertThat(result, hasItem("-Order.billingAddress.zipCode='12345'"));
+		assertThat(result, hasItem("+Order.billingAddress.zipCode='54321'"));
+		assertThat(result, not(hasItem(containsString("shippingAddress"))));
+	}
+
+	@Test
+	public void diffsSubtreeWithReferencesToTheValuesOnTheWay() throws Exception {
+		final Order order = new Order().withCustomer(new Customer().withName("Jane"));
+
+		final List<String> result = new Differ(createOrderConfiguration()).diffAt(null, order, "customer");
+
+		assertThat(result, hasItem("+Order.customer.name='Jane'"));
+		assertThat(result, hasItem("+Order.customer.orders[0]=ref(Order)"));
+	}
+
+	@Test
+	public void diffsSubtreeBelowNullValueAsEmpty() throws Exception {
+		final Order base = new Order().withBillingAddress(createAddress());
+
+		final List<String> result = new Differ(createOrderConfiguration()).diffAt(base, new Order(), "billingAddress.street");
+
+		assertThat(result, hasItem("-Order.billingAddress.street='street'"));
+		assertThat(result, not(hasItem(startsWith("+Order"))));
+	}
+
+	@Test
+	public void throwsIllegalArgumentExceptionForSubtreeOfUnknownProperty() throws Exception {
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("Could not navigate from 'Order.billingAddress' to the property 'city'");
+
+		new Differ(createOrderConfiguration()).diffAt(null, new Order().withBillingAddress(createAddress()), "billingAddress.city");
+	}
+
+	@Test
+	public void throwsIllegalArgumentExceptionForMalformedSubtreePath() throws Exception {
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("path must consist of property names separated by dots.");
+
+		new Differ(createOrderConfiguration()).diffAt(null, new Order(), "lines[0]");
+	}
+
+	@Test
+	public void readsPropertiesThroughAdapterWithoutChangingTheLines() throws Exception {
+		final AddressAdapter adapter = new AddressAdapter();
+		final Order base = new Order().withBillingAddress(createAddress());
+		final Order working = new Order().withBillingAddress(createAddress().withZipCode(54321));
+
+		final List<String> expected = new Differ(createOrderConfiguration()).diff(base, working);
+		final List<String> result = new Differ(createOrderConfiguration().useAdapter(adapter)).diff(base, working);
+
+		assertThat(result, is(expected));
+		assertThat(adapter.getReadCount(), is(4));
+	}
+
+	@Test
+	public void throwsUnreadablePropertyExceptionForExceptionThrowingAdapter() throws Exception {
+		final IllegalStateException exception = new IllegalStateException();
+		final AddressAdapter adapter = new AddressAdapter() {
+			@Override
+			public Object read(final Address address, final int propertyIndex) {
+				throw exception;
+			}
+		};
+
+		expectedException.expect(UnreadablePropertyException.class);
+		expectedException.expectMessage("Could not read property at 'Address.street' due to an exception during invocation.");
+		expectedException.expectCause(is(exception));
+
+		new Differ(new Configuration().useAdapter(adapter)).diff(null, createAddress());
+	}
+
+	@Test
+	public void writesSameLinesThroughGeneratedAccessors() throws Exception {
+		final Customer customer = new Customer().withName("Jane");
+		new Order().withCustomer(customer).withBillingAddress(createAddress());
+		final Customer otherCustomer = new Customer().withName("John");
+		new Order().withCustomer(otherCustomer).withShippingAddress(createAddress());
+
+		final List<String> expected = new Differ(createOrderConfiguration()).diff(customer, otherCustomer);
+		final List<String> result = new Differ(createOrderConfiguration().generateAccessors()).diff(customer, otherCustomer);
+
+		assertThat(result, is(expected));
+	}
+
+	@Test
+	public void throwsUnreadablePropertyExceptionForExceptionThrowingGetterThroughGeneratedAccessor() throws Exception {
+		final Configuration configuration = new Configuration().generateAccessors();
+		final Credential working = spy(new Credential().withPassword("foo"));
+
+		final NullPointerException NPE = new NullPointerException();
+		when(working.getPassword()).thenThrow(NPE);
+
+		expectedException.expect(UnreadablePropertyException.class);
+		expectedException.expectCause(is(NPE));
+
+		new Differ(configuration).diff(null, working);
+	}
+
+	@Test
+	public void readsFieldsAcrossClassHierarchyWithoutCallingGetters() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.readFields();
+		final Invoice base = new Invoice().withId(1).withNumber("1000");
+		final Invoice working = new Invoice().withId(1).withNumber("1001");
+
+		final List<String> result = new Differ(configuration).diff(base, working);
+
+		assertThat(result, hasItem("-Invoice.number='1000'"));
+		assertThat(result, hasItem("+Invoice.number='1001'"));
+		assertThat(result, not(hasItem(containsString("label"))));
+		assertThat(result, not(hasItem(containsString("PREFIX"))));
+	}
+
+	@Test
+	public void readsFieldsOrGettersOfClassesOfTheRuntime() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(String.class))
+			.excludeProperty("class")
+			.readFields();
+
+		// the fields can not be made accessible on runtimes not opening the package to other modules
+		final List<String> result = new Differ(configuration).diff(null, new AbstractMap.SimpleEntry<String, String>("key", "value"));
+
+		assertThat(result, hasItem("+SimpleEntry.key='key'"));
+		assertThat(result, hasItem("+SimpleEntry.value='value'"));
+	}
+
+	@Test
+	public void excludesFieldsByTheirNames() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.readFields()
+			.excludeProperty("id")
+			.excludePath("Address.zipCode");
+
+		final List<String> invoiceResult = new Differ(configuration).diff(null, new Invoice().withId(1).withNumber("1000"));
+		final List<String> addressResult = new Differ(configuration).diff(null, createAddress());
+
+		assertThat(invoiceResult, hasItem("+Invoice.number='1000'"));
+		assertThat(invoiceResult, not(hasItem(containsString("id"))));
+		assertThat(addressResult, hasItem("+Address.street='street'"));
+		assertThat(addressResult, not(hasItem(containsString("zipCode"))));
+	}
+
+	@Test
+	public void writesPlaceholderForUninitializedValuesWithoutTouchingThem() throws Exception {
+		final Address address = spy(createAddress());
+		final Order order = new Order().withBillingAddress(address).withShippingAddress(createAddress());
+		final Configuration configuration = createOrderConfiguration().useLazinessDetector(new StubLazinessDetector(address));
+
+		final List<String> result = new Differ(configuration).diff(null, order);
+
+		assertThat(result, hasItem("+Order.billingAddress=uninitialized"));
+		assertThat(result, hasItem("+Order.shippingAddress.street='street'"));
+		verify(address, never()).getStreet();
+	}
+
+	@Test
+	public void writesPlaceholderForUninitializedCollections() throws Exception {
+		final Customer customer = new Customer().withName("Jane");
+		new Order().withCustomer(customer).withBillingAddress(createAddress());
+		final Configuration configuration = createOrderConfiguration().useLazinessDetector(new StubLazinessDetector(customer.getOrders()));
+
+		final List<String> result = new Differ(configuration).diff(null, customer);
+
+		assertThat(result, hasItem("+Customer.orders=uninitialized"));
+		assertThat(result, not(hasItem(containsString("billingAddress"))));
+	}
+
+	@Test
+	public void skipsUninitializedValues() throws Exception {
+		final Address address = createAddress();
+		final Order order = new Order().withBillingAddress(address).withShippingAddress(createAddress());
+		final Configuration configuration = createOrderConfiguration()
+			.useLazinessDetector(new StubLazinessDetector(address))
+			.skipUninitializedValues();
+
+		final List<String> result = new Differ(configuration).diff(null, order);
+
+		assertThat(result, hasItem("+Order.shippingAddress.street='street'"));
+		assertThat(result, not(hasItem(containsString("billingAddress"))));
+	}
+
+	@Test
+	public void hasDifferencesDoesNotTouchUninitializedValues() throws Exception {
+		final Address baseAddress = spy(createAddress());
+		final Address workingAddress = spy(createAddress().withZipCode(54321));
+		final Order base = new Order().withBillingAddress(baseAddress);
+		final Order working = new Order().withBillingAddress(workingAddress);
+		final Configuration configuration = createOrderConfiguration()
+			.useLazinessDetector(new StubLazinessDetector(baseAddress, workingAddress));
+
+		assertThat(new Differ(configuration).hasDifferences(base, working), is(false));
+		verify(workingAddress, never()).getZipCode();
+	}
+
+	@Test
+	public void writesLargeListsOfBeansColumnByColumnLikeElementByElement() throws Exception {
+		final Customer base = createCustomerWithOrders(20);
+		final Customer working = createCustomerWithOrders(21);
+		final Customer otherCustomer = new Customer().withName("John");
+		working.getOrders().get(0).withCustomer(otherCustomer);
+		otherCustomer.withOrder(working.getOrders().get(5));
+
+		// a laziness detector keeps the elements from being written column by column
+		final Configuration elementByElement = createOrderConfiguration().useLazinessDetector(new StubLazinessDetector());
+		final List<String> expected = new Differ(elementByElement).diff(base, working);
+		final List<String> result = new Differ(createOrderConfiguration()).diff(base, working);
+
+		assertThat(result, is(expected));
+		assertThat(new Differ(createOrderConfiguration().referenceSharedObjects()).diff(base, working),
+			is(new Differ(elementByElement.referenceSharedObjects()).diff(base, working)));
+		assertThat(result, hasItem("+Customer.orders[20].billingAddress.zipCode='20'"));
+		assertThat(result, hasItem("+Customer.orders[0].customer.orders[1].billingAddress.zipCode='5'"));
+	}
+
+	@Test
+	public void throwsUnreadablePropertyExceptionForElementOfLargeList() throws Exception {
+		final Customer customer = createCustomerWithOrders(20);
+		final Order order = spy(customer.getOrders().get(17));
+		customer.getOrders().set(17, order);
+		final IllegalStateException exception = new IllegalStateException();
+		when(order.getBillingAddress()).thenThrow(exception);
+
+		expectedException.expect(UnreadablePropertyException.class);
+		expectedException.expectMessage("Could not read property at 'Customer.orders[17].billingAddress' due to an exception during invocation.");
+		expectedException.expectCause(is(exception));
+
+		new Differ(createOrderConfiguration()).diff(null, customer);
+	}
+
+	@Test
+	public void traversesLargeIterablesInParallelLikeSerially() throws Exception {
+		final Customer base = createCustomerWithOrders(50);
+		final Customer working = createCustomerWithOrders(53);
+		working.getOrders().get(40).withCustomer(new Customer().withName("John"));
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			final List<String> expected = new Differ(createOrderConfiguration()).diff(base, working);
+			final List<String> result = new Differ(createOrderConfiguration().traverseInParallel(executor, 8)).diff(base, working);
+
+			assertThat(result, is(expected));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void traversesLargeMapsInParallelLikeSerially() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useComparator(NaturalOrderComparator.newInstance(String.class))
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.excludeProperty("class");
+		final Map<String, Address> base = Maps.newHashMap();
+		final Map<String, Address> working = Maps.newHashMap();
+		for (int i = 0; i < 30; i++) {
+			base.put("key" + i, createAddress().withZipCode(i));
+			working.put("key" + i, createAddress().withZipCode(i % 7));
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			final List<String> expected = new Differ(configuration).diff(base, working);
+			final List<String> result = new Differ(configuration.traverseInParallel(executor, 4)).diff(base, working);
+
+			assertThat(result, is(expected));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void throwsExceptionOfFirstElementInParallelTraversal() throws Exception {
+		final Customer customer = createCustomerWithOrders(40);
+		final IllegalStateException firstException = new IllegalStateException();
+		for (final int index : new int[] {5, 30}) {
+			final Order order = spy(customer.getOrders().get(index));
+			customer.getOrders().set(index, order);
+			when(order.getBillingAddress()).thenThrow(index == 5 ? firstException : new IllegalStateException());
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		expectedException.expect(UnreadablePropertyException.class);
+		expectedException.expectMessage("Could not read property at 'Customer.orders[5].billingAddress' due to an exception during invocation.");
+		expectedException.expectCause(is(firstException));
+
+		try {
+			new Differ(createOrderConfiguration().traverseInParallel(executor, 4)).diff(null, customer);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void sortsLargeIterablesInParallelLikeSerially() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useComparator(NaturalOrderComparator.newInstance(Integer.class))
+			.useSerializer(new ToStringSerializer(Integer.class));
+		final List<Integer> base = Lists.newArrayList();
+		final List<Integer> working = Lists.newArrayList();
+		for (int i = 0; i < 100; i++) {
+			base.add((i * 37) % 101);
+			working.add((i * 53) % 97);
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			final List<String> expected = new Differ(configuration).diff(base, working);
+			final List<String> result = new Differ(configuration.sortInParallel(executor, 7)).diff(base, working);
+
+			assertThat(result, is(expected));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void sortsLargeIterablesOfEqualElementsInParallelStably() throws Exception {
+		final Customer base = createCustomerWithOrders(50);
+		final Customer working = createCustomerWithOrders(53);
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			final List<String> expected = new Differ(createOrderConfiguration()).diff(base, working);
+			final List<String> result = new Differ(createOrderConfiguration().sortInParallel(executor, 4)).diff(base, working);
+
+			assertThat(result, is(expected));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void sortsLargeMapsInParallelLikeSerially() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useComparator(NaturalOrderComparator.newInstance(String.class))
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.excludeProperty("class");
+		final Map<String, Address> base = Maps.newHashMap();
+		final Map<String, Address> working = Maps.newHashMap();
+		for (int i = 0; i < 30; i++) {
+			base.put("key" + i, createAddress().withZipCode(i));
+			working.put("key" + (i * 7 % 31), createAddress().withZipCode(i % 7));
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			final List<String> expected = new Differ(configuration).diff(base, working);
+			final List<String> result = new Differ(configuration.sortInParallel(executor, 4)).diff(base, working);
+
+			assertThat(result, is(expected));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void sortsLargeMapsWithEqualKeysInParallelLikeSerially() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useComparator(new StubComparator(String.class))
+			.useSerializer(new ToStringSerializer(String.class, Integer.class));
+		final Map<String, Integer> base = Maps.newLinkedHashMap();
+		final Map<String, Integer> working = Maps.newLinkedHashMap();
+		for (int i = 0; i < 30; i++) {
+			base.put("key" + i, i);
+			working.put("key" + (29 - i), i);
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			final List<String> expected = new Differ(configuration).diff(base, working);
+			final List<String> result = new Differ(configuration.sortInParallel(executor, 4)).diff(base, working);
+
+			assertThat(result, is(expected));
+			assertThat(result, hasItem("+LinkedHashMap['key29']='29'"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void sortsIterablesByLinesWithoutComparator() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(Integer.class))
+			.sortIterablesOnDisk(temporaryFolder.getRoot(), 2);
+		final Differ differ = new Differ(configuration);
+
+		assertThat(differ.diff(Lists.newArrayList(3, 10, 1, 2, 3), Lists.newArrayList(2, 3, 1, 3, 10)).isEmpty(), is(true));
+		assertThat(differ.hasDifferences(Lists.newArrayList(3, 10, 1, 2, 3), Lists.newArrayList(2, 3, 1, 3, 10)), is(false));
+		assertThat(differ.diff(null, Lists.newArrayList(3, 10, 1, 2)), hasItem("+ArrayList[1]='10'"));
+		assertThat(temporaryFolder.getRoot().list(), is(emptyArray()));
+	}
+
+	@Test
+	public void sortsLargeIterablesOnDiskLikeInMemory() throws Exception {
+		final List<Order> base = Lists.newArrayList();
+		final List<Order> working = Lists.newArrayList();
+		for (int i = 0; i < 20; i++) {
+			base.add(new Order().withCustomer(new Customer().withName("c" + i)).withBillingAddress(createAddress().withZipCode(i)));
+			working.add(new Order().withCustomer(new Customer().withName("c" + i % 5)).withBillingAddress(createAddress().withZipCode(i)));
+		}
+		final Configuration configuration = createOrderConfiguration();
+
+		final Differ inMemoryDiffer = new Differ(configuration.sortIterablesOnDisk(temporaryFolder.getRoot(), 100));
+		final Differ onDiskDiffer = new Differ(configuration.sortIterablesOnDisk(temporaryFolder.getRoot(), 3));
+
+		assertThat(onDiskDiffer.diff(base, working), is(inMemoryDiffer.diff(base, working)));
+		assertThat(onDiskDiffer.diff(null, base), is(inMemoryDiffer.diff(null, base)));
+		assertThat(onDiskDiffer.diff(null, base), hasItem("+ArrayList[0].customer.orders[0]=ref(ArrayList[0])"));
+		assertThat(temporaryFolder.getRoot().list(), is(emptyArray()));
+	}
+
+	@Test
+	public void limitsElementsSortedOnDisk() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(Integer.class))
+			.sortIterablesOnDisk(temporaryFolder.getRoot(), 2)
+			.limitElements(3);
+
+		final List<String> result = new Differ(configuration).diff(null, Lists.newArrayList(5, 4, 3, 2, 1));
+
+		assertThat(result, hasItem("+ArrayList[2]='3'"));
+		assertThat(result, hasItem("+ArrayList=truncated(maxElements=3)"));
+		assertThat(result, not(hasItem("+ArrayList[3]='4'")));
+	}
+
+	@Test
+	public void limitsLinesOfElementsSortedOnDiskInSortedOrder() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(Integer.class))
+			.sortIterablesOnDisk(temporaryFolder.getRoot(), 2)
+			.limitLines(3);
+
+		final List<String> result = new Differ(configuration).diff(null, Lists.newArrayList(5, 4, 3, 2, 1));
+
+		assertThat(result, hasItem("+ArrayList[2]='3'"));
+		assertThat(result, hasItem("+ArrayList[3]=truncated(maxLines=3)"));
+		assertThat(result, not(hasItem("+ArrayList[3]='4'")));
+		assertThat(result.size(), is(7));
+		assertThat(temporaryFolder.getRoot().list(), is(emptyArray()));
+	}
+
+	@Test
+	public void sortsIterablesBySortKeysAndEqualKeysByComparator() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.useComparator(new StubComparator(Address.class))
+			.useLongSortKey(new ZipCodeSortKey())
+			.excludeProperty("class");
+		final List<Address> addresses = Lists.newArrayList(
+			new Address().withStreet("a").withZipCode(3),
+			new Address().withStreet("b").withZipCode(1),
+			new Address().withStreet("c").withZipCode(3),
+			new Address().withStreet("d").withZipCode(2));
+
+		final List<String> result = new Differ(configuration).diff(null, addresses);
+
+		assertThat(result, hasItem("+ArrayList[0].street='b'"));
+		assertThat(result, hasItem("+ArrayList[1].street='d'"));
+		assertThat(result, hasItem("+ArrayList[2].street='a'"));
+		assertThat(result, hasItem("+ArrayList[3].street='c'"));
+	}
+
+	@Test
+	public void sortsMapsBySortKeysLikeByComparator() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useComparator(NaturalOrderComparator.newInstance(String.class))
+			.useSerializer(new ToStringSerializer(String.class, Integer.class));
+		final Map<String, Integer> base = Maps.newHashMap();
+		final Map<String, Integer> working = Maps.newHashMap();
+		for (int i = 0; i < 30; i++) {
+			base.put("key" + i, i);
+			working.put("key" + (i * 7 % 31), i);
+		}
+
+		final List<String> expected = new Differ(configuration).diff(base, working);
+		final List<String> result = new Differ(configuration.useStringSortKey(new ToStringSortKey(String.class))).diff(base, working);
+
+		assertThat(result, is(expected));
+	}
+
+	@Test
+	public void collapsesUnchangedCollections() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useComparator(NaturalOrderComparator.newInstance(String.class))
+			.useComparator(NaturalOrderComparator.newInstance(Integer.class))
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.collapseUnchangedCollections(10);
+		final Map<String, Object> base = Maps.newHashMap();
+		final Map<String, Object> working = Maps.newHashMap();
+		final List<Integer> numbers = Lists.newArrayList();
+		for (int i = 0; i < 20; i++) {
+			numbers.add(i);
+		}
+		base.put("a", Lists.newArrayList(numbers));
+		base.put("b", 1);
+		working.put("a", Lists.newArrayList(numbers));
+		working.put("b", 2);
+
+		final List<String> result = new Differ(configuration).diff(base, working);
+
+		assertThat(result, hasItem("@@ -2,1 +2,1 @@"));
+		assertThat(result, hasItem("+HashMap['b']='2'"));
+	}
+
+	@Test
+	public void collapsesUnchangedCollectionsNestedInChangedOnes() throws Exception {
+		final Configuration configuration = new Configuration()
+			.useComparator(NaturalOrderComparator.newInstance(String.class))
+			.useComparator(NaturalOrderComparator.newInstance(Integer.class))
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.collapseUnchangedCollections(10);
+		final Map<String, Object> base = Maps.newHashMap();
+		final Map<String, Object> working = Maps.newHashMap();
+		final List<Integer> numbers = Lists.newArrayList();
+		for (int i = 0; i < 20; i++) {
+			numbers.add(i);
+		}
+		final List<Integer> changedNumbers = Lists.newArrayList(numbers);
+		changedNumbers.set(3, 30);
+		base.put("a", Lists.newArrayList(numbers));
+		base.put("b", Lists.newArrayList(numbers));
+		working.put("a", Lists.newArrayList(numbers));
+		working.put("b", changedNumbers);
+
+		final List<String> result = new Differ(configuration).diff(base, working);
+		final List<String> uncollapsedResult = new Differ(configuration.collapseUnchangedCollections(100)).diff(base, working);
+
+		assertThat(result.subList(3, result.size()), is(uncollapsedResult.subList(3, uncollapsedResult.size())));
+		assertThat(result, hasItem(startsWith("@@ -5,")));
+		assertThat(uncollapsedResult, hasItem(startsWith("@@ -24,")));
+	}
+
+	private Customer createCustomerWithOrders(final int orderCount) {
+		final Customer customer = new Customer().withName("Jane");
+		final Address shippingAddress = createAddress();
+		for (int i = 0; i < orderCount; i++) {
+			new Order().withCustomer(customer).withBillingAddress(createAddress().withZipCode(i)).withShippingAddress(shippingAddress);
+		}
+		return customer;
+	}
+
+	private Configuration createOrderConfiguration() {
+		return new Configuration()
+			.useSerializer(new ToStringSerializer(String.class, Integer.class))
+			.useComparator(new StubComparator(Order.class))
+			.excludeProperty("class");
+	}
+
+	@Test
+	public void fingerprintsEqualObjectsEqually() throws Exception {
+		final Configuration configuration = createFingerprintConfiguration();
+
+		final Fingerprints base = new Differ(configuration).fingerprint(createAddressesByName(1));
+		final Fingerprints working = new Differ(configuration).fingerprint(createAddressesByName(1));
+
+		assertThat(working, is(base));
+		assertThat(working.getRootPath(), is("HashMap"));
+		assertThat(working.getRootFingerprint(), is(base.getRootFingerprint()));
+		assertThat(working.findChangedPaths(base).isEmpty(), is(true));
+	}
+
+	@Test
+	public void fingerprintChangesForChangedSubtreeAndItsAncestorsOnly() throws Exception {
+		final Configuration configuration = createFingerprintConfiguration();
+
+		final Fingerprints base = new Differ(configuration).fingerprint(createAddressesByName(1));
+		final Fingerprints working = new Differ(configuration).fingerprint(createAddressesByName(2));
+
+		assertThat(working.getRootFingerprint(), not(base.getRootFingerprint()));
+		assertThat(working.getFingerprint("HashMap['a']"), is(base.getFingerprint("HashMap['a']")));
+		assertThat(working.findChangedPaths(base), contains("HashMap", "HashMap['b']", "HashMap['b'].zipCode"));
+	}
+
+	@Test
+	public void fingerprintIgnoresExcludedProperties() throws Exception {
+		final Configuration configuration = createFingerprintConfiguration().excludeProperty("zipCode");
+
+		final Fingerprints base = new Differ(configuration).fingerprint(createAddressesByName(1));
+		final Fingerprints working = new Differ(configuration).fingerprint(createAddressesByName(2));
+
+		assertThat(working.getRootFingerprint(), is(base.getRootFingerprint()));
+		assertThat(working.getFingerprint("HashMap['b'].zipCode"), is((String) null));
+	}
+
+	@Test
+	public void fingerprintsCanBeRestored() throws Exception {
+		final Fingerprints fingerprints = new Differ(createFingerprintConfiguration()).fingerprint(createAddressesByName(1));
+
+		final Fingerprints restored = Fingerprints.restore(fingerprints.getRootPath(), Maps.newHashMap(fingerprints.asMap()));
+
+		assertThat(restored, is(fingerprints));
+	}
+
+	@Test
+	public void fingerprintThrowsIllegalArgumentExceptionOnNullObject() throws Exception {
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("object must not be null.");
+
+		new Differ(new Configuration()).fingerprint(null);
+	}
+
+	private Configuration createFingerprintConfiguration() {
+		return new Configuration()
+			.excludeProperty("class")
+			.useComparator(NaturalOrderComparator.newInstance(String.class))
+			.useSerializer(new ToStringSerializer(String.class, Integer.class));
+	}
+
+	private Map<String, Address> createAddressesByName(final int zipCodeOfB) {
+		final Map<String, Address> addressesByName = Maps.newHashMap();
+		addressesByName.put("a", new Address().withStreet("street").withZipCode(1));
+		addressesByName.put("b", new Address().withStreet("street").withZipCode(zipCodeOfB));
+		return addressesByName;
+	}
+
 	private Address createAddress() {
 		return new Address()
 		.withStreet("street")
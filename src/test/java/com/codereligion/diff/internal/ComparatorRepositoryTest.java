@@ -17,7 +17,12 @@ package com.codereligion.diff.internal;
 
 
 import com.codereligion.diff.comparator.CheckableComparator;
+import com.codereligion.diff.comparator.CheckableLongSortKey;
+import com.codereligion.diff.comparator.CheckableStringSortKey;
 import com.codereligion.diff.util.StubComparator;
+import com.codereligion.diff.util.ToStringSortKey;
+import com.codereligion.diff.util.ZipCodeSortKey;
+import com.codereligion.diff.util.bean.Address;
 import com.codereligion.diff.util.bean.Credential;
 import com.codereligion.diff.util.bean.User;
 import com.google.common.base.Optional;
@@ -85,6 +90,27 @@ public class ComparatorRepositoryTest {
         assertThat(comparator.get(), is(expected));
     }
 
+    @Test
+    public void findsRegisteredSortKeys() {
+        // given
+        final ZipCodeSortKey longSortKey = new ZipCodeSortKey();
+        final ToStringSortKey stringSortKey = new ToStringSortKey(String.class);
+        final Set<CheckableComparator<?>> checkableComparators = Collections.emptySet();
+        final Set<Class<? extends Comparable<?>>> comparables = Collections.emptySet();
+        final ComparatorRepository finder = new ComparatorRepository(checkableComparators, comparables,
+                Sets.<CheckableLongSortKey<?>>newHashSet(longSortKey), Sets.<CheckableStringSortKey<?>>newHashSet(stringSortKey));
+
+        // when
+        final Optional<CheckableLongSortKey<Object>> foundLongSortKey = finder.findLongSortKeyFor(new Address());
+        final Optional<CheckableStringSortKey<Object>> foundStringSortKey = finder.findStringSortKeyFor("foo");
+
+        // then
+        assertThat(foundLongSortKey.get(), is((Object) longSortKey));
+        assertThat(foundStringSortKey.get(), is((Object) stringSortKey));
+        assertThat(finder.findLongSortKeyFor("foo").isPresent(), is(false));
+        assertThat(finder.findStringSortKeyFor(new Address()).isPresent(), is(false));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void returnsNullWhenNoComparatorCouldBeFound() {
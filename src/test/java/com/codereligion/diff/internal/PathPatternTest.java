@@ -0,0 +1,81 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+/**
+ * Tests the {@link PathPattern}.
+ *
+ * @since 19.10.2026
+ */
+public class PathPatternTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void splitsPropertiesAndElementsIntoSegments() {
+        // when
+        final PathPattern pattern = PathPattern.parse("Order.lines[*].audit");
+
+        // then
+        assertThat(pattern.getSegments(), contains("Order", "lines", "[*]", "audit"));
+    }
+
+    @Test
+    public void parsesWildcards() {
+        // when
+        final PathPattern pattern = PathPattern.parse("*.**.map[*][*].*");
+
+        // then
+        assertThat(pattern.getSegments(), contains("*", "**", "map", "[*]", "[*]", "*"));
+    }
+
+    @Test
+    public void rejectsEmptySegments() {
+        // then
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid path pattern 'Order.': empty segment.");
+
+        // when
+        PathPattern.parse("Order.");
+    }
+
+    @Test
+    public void rejectsWildcardsCombinedWithOtherCharacters() {
+        // then
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("wildcards can not be combined with other characters in segment 'line*'");
+
+        // when
+        PathPattern.parse("Order.line*");
+    }
+
+    @Test
+    public void rejectsElementsOtherThanWildcards() {
+        // then
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("unexpected character '[' at 11");
+
+        // when
+        PathPattern.parse("Order.lines[0]");
+    }
+}
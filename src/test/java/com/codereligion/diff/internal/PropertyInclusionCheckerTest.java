@@ -24,6 +24,7 @@ import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -57,4 +58,22 @@ public class PropertyInclusionCheckerTest {
         // then
         assertThat(result, is(false));
     }
+
+    @Test
+    public void mustExcludePropertiesDeclaredAsSubtypeOfExcludedType() {
+        // given
+        final Set<String> excludedProperties = Collections.emptySet();
+        final Set<Class<?>> excludedTypes = Sets.<Class<?>>newHashSet(Number.class);
+        final PropertyDescriptor propertyDescriptor = mock(PropertyDescriptor.class);
+        when(propertyDescriptor.getName()).thenReturn("amount");
+        doReturn(Integer.class).when(propertyDescriptor).getPropertyType();
+
+        // when
+        final PropertyInclusionChecker propertyInclusionChecker = new PropertyInclusionChecker(excludedProperties, excludedTypes);
+        final boolean result = propertyInclusionChecker.apply(propertyDescriptor);
+
+        // then
+        assertThat(result, is(false));
+        assertThat(propertyInclusionChecker.isExcludedType(String.class), is(false));
+    }
 }
@@ -16,6 +16,8 @@
 package com.codereligion.diff.internal;
 
 
+import com.codereligion.diff.internal.serializer.DigestSerializer;
+import com.codereligion.diff.internal.serializer.SerializationCache;
 import com.codereligion.diff.serializer.CheckableSerializer;
 import com.codereligion.diff.serializer.Serializer;
 import com.codereligion.diff.util.ToStringSerializer;
@@ -137,4 +139,30 @@ public class SerializerRepositoryTest {
         // then
         assertThat(actual.isPresent(), is(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void providesBuiltInSerializersInQuotesIfEnabled() {
+        // given
+        final Set<CheckableSerializer<?>> checkableSerializers = Sets.newHashSet();
+        final SerializerRepository finder = new SerializerRepository(checkableSerializers, true, Optional.<SerializationCache>absent(), Optional.<DigestSerializer>absent());
+
+        // when
+        final Optional<Serializer<Object>> actual = finder.findFor(42L);
+
+        // then
+        assertThat(actual.get().serialize(42L), is("'42'"));
+    }
+
+    @Test
+    public void doesNotProvideBuiltInSerializersByDefault() {
+        // given
+        final Set<CheckableSerializer<?>> checkableSerializers = Sets.newHashSet();
+        final SerializerRepository finder = new SerializerRepository(checkableSerializers);
+
+        // when
+        final Optional<Serializer<Object>> actual = finder.findFor(42L);
+
+        // then
+        assertThat(actual.isPresent(), is(false));
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.util.bean.Address;
+import com.codereligion.diff.util.bean.Credential;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.TimeZone;
+import org.junit.Test;
+import static com.codereligion.matcher.IsNotInstantiatable.isNotInstantiatable;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link AccessorGenerator}.
+ *
+ * @since 19.10.2026
+ */
+public class AccessorGeneratorTest {
+
+    @Test
+    public void isNotPublicInstantiatable() {
+        assertThat(AccessorGenerator.class, isNotInstantiatable());
+    }
+
+    @Test
+    public void generatesAccessorCallingGettersDirectly() throws Exception {
+
+        // given
+        final Method getStreet = Address.class.getMethod("getStreet");
+        final Method getZipCode = Address.class.getMethod("getZipCode");
+        final Method getClass = Address.class.getMethod("getClass");
+
+        // when
+        final Optional<GeneratedAccessor> accessor = AccessorGenerator.generate(Address.class,
+                ImmutableList.of(getStreet, getZipCode, getClass));
+
+        // then
+        final Address address = new Address().withStreet("street").withZipCode(12345);
+        assertThat(accessor.isPresent(), is(true));
+        assertThat(accessor.get().read(address, 0), is((Object) "street"));
+        assertThat(accessor.get().read(address, 1), is((Object) 12345));
+        assertThat(accessor.get().read(address, 2), is((Object) Address.class));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void generatesAccessorThrowingForUnknownIndices() throws Exception {
+
+        // given
+        final Optional<GeneratedAccessor> accessor = AccessorGenerator.generate(Address.class,
+                ImmutableList.of(Address.class.getMethod("getStreet")));
+
+        // when
+        accessor.get().read(new Address(), 1);
+    }
+
+    @Test
+    public void passesOnExceptionsOfGetters() throws Exception {
+
+        // given
+        final Optional<GeneratedAccessor> accessor = AccessorGenerator.generate(Credential.class,
+                ImmutableList.of(Credential.class.getMethod("getPassword")));
+        final GeneratedPropertyReader reader = new GeneratedPropertyReader(accessor.get(), 0);
+
+        // when
+        final Object result = reader.read(new Credential().withPassword("secret"));
+
+        // then
+        assertThat(result, is((Object) "secret"));
+    }
+
+    @Test
+    public void doesNotGenerateAccessorsForNonPublicClasses() throws Exception {
+        final Optional<GeneratedAccessor> accessor = AccessorGenerator.generate(Hidden.class,
+                ImmutableList.of(Hidden.class.getMethod("getValue")));
+
+        assertThat(accessor.isPresent(), is(false));
+    }
+
+    @Test
+    public void generatesOnlyAccessorsWhichCanCallTheGettersOfTheClass() throws Exception {
+
+        // given
+        final TimeZone timeZone = TimeZone.getTimeZone("UTC");
+
+        // when
+        final Optional<GeneratedAccessor> accessor = AccessorGenerator.generate(timeZone.getClass(),
+                ImmutableList.of(TimeZone.class.getMethod("getID")));
+
+        // then the internal class of the time zone is only accessible on runtimes without modules
+        if (accessor.isPresent()) {
+            assertThat(accessor.get().read(timeZone, 0), is((Object) "UTC"));
+        }
+    }
+
+    @Test
+    public void doesNotGenerateAccessorsWithoutGetters() {
+        assertThat(AccessorGenerator.generate(Address.class, Collections.<Method>emptyList()).isPresent(), is(false));
+    }
+
+    static class Hidden {
+
+        public String getValue() {
+            return "value";
+        }
+    }
+}
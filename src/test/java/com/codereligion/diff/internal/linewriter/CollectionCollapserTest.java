@@ -0,0 +1,83 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link CollectionCollapser}.
+ *
+ * @since 19.10.2026
+ */
+public class CollectionCollapserTest {
+
+    @Test
+    public void findsCollectionsWithEqualDigests() {
+        // given
+        final List<String> lines = Lists.newArrayList("Order.items[0]='a'", "Order.items[1]='b'");
+        final Map<String, CollectionDigest> baseDigests = ImmutableMap.of(
+                "Order.items", CollectionDigest.of(2, lines),
+                "Order.tags", CollectionDigest.of(1, Lists.newArrayList("Order.tags[0]='x'")));
+        final Map<String, CollectionDigest> workingDigests = ImmutableMap.of(
+                "Order.items", CollectionDigest.of(2, Lists.newArrayList(lines)),
+                "Order.tags", CollectionDigest.of(1, Lists.newArrayList("Order.tags[0]='y'")));
+
+        // when
+        final Map<String, CollectionDigest> unchangedDigests = CollectionCollapser.unchangedCollections(baseDigests, workingDigests);
+
+        // then
+        assertThat(unchangedDigests.keySet(), contains("Order.items"));
+    }
+
+    @Test
+    public void collapsesOutermostUnchangedCollection() {
+        // given
+        final List<String> innerLines = Lists.newArrayList("Order.items[0].tags[0]='a'", "Order.items[0].tags[1]='b'");
+        final List<String> outerLines = Lists.newArrayList(innerLines);
+        outerLines.add("Order.items[1].tags[0]='c'");
+        final List<String> lines = Lists.newArrayList("Order.id='1'");
+        lines.addAll(outerLines);
+        lines.add("Order.name='n'");
+        final Map<String, CollectionDigest> unchangedDigests = ImmutableMap.of(
+                "Order.items", CollectionDigest.of(2, outerLines),
+                "Order.items[0].tags", CollectionDigest.of(2, innerLines));
+
+        // when
+        final List<String> collapsedLines = CollectionCollapser.collapse(lines, unchangedDigests);
+
+        // then
+        assertThat(collapsedLines, contains("Order.id='1'", "Order.items=unchanged(size=2)", "Order.name='n'"));
+    }
+
+    @Test
+    public void returnsGivenLinesWithoutUnchangedCollections() {
+        // given
+        final List<String> lines = Lists.newArrayList("Order.items[0]='a'");
+
+        // when
+        final List<String> collapsedLines = CollectionCollapser.collapse(lines, ImmutableMap.<String, CollectionDigest>of());
+
+        // then
+        assertThat(collapsedLines, is(lines));
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.comparator.CheckableComparator;
+import com.codereligion.diff.internal.ComparatorRepository;
+import com.codereligion.diff.internal.PropertyInclusionChecker;
+import com.codereligion.diff.internal.SerializerRepository;
+import com.codereligion.diff.serializer.CheckableSerializer;
+import com.codereligion.diff.util.NaturalOrderComparator;
+import com.codereligion.diff.util.ToStringSerializer;
+import com.codereligion.diff.util.bean.Address;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link com.codereligion.diff.internal.linewriter.DifferenceDetector}.
+ *
+ * @since 19.10.2026
+ */
+public class DifferenceDetectorTest {
+
+    @Test
+    public void detectsEqualBeansWithoutWritingLines() {
+        final Optional<Boolean> result = createDetector().hasDifferences("Root", createAddress(12345), createAddress(12345));
+
+        assertThat(result, is(Optional.of(false)));
+    }
+
+    @Test
+    public void detectsDifferentBeans() {
+        final Optional<Boolean> result = createDetector().hasDifferences("Root", createAddress(12345), createAddress(54321));
+
+        assertThat(result, is(Optional.of(true)));
+    }
+
+    @Test
+    public void detectsDifferencesOfMapKeysAndValues() {
+        final DifferenceDetector detector = createDetector();
+
+        assertThat(detector.hasDifferences("Root", ImmutableMap.of(1, 2), ImmutableMap.of(1, 2)), is(Optional.of(false)));
+        assertThat(createDetector().hasDifferences("Root", ImmutableMap.of(1, 2), ImmutableMap.of(2, 2)), is(Optional.of(true)));
+        assertThat(createDetector().hasDifferences("Root", ImmutableMap.of(1, 2), ImmutableMap.of(1, 3)), is(Optional.of(true)));
+    }
+
+    @Test
+    public void detectsDifferencesOfByteBuffers() {
+        final ByteBuffer base = ByteBuffer.wrap(new byte[] {1, 2});
+        final ByteBuffer working = ByteBuffer.allocateDirect(2).put(new byte[] {1, 2});
+        working.flip();
+
+        assertThat(createDetector().hasDifferences("Root", base, working), is(Optional.of(false)));
+    }
+
+    @Test
+    public void isUndecidedForObjectsReachedTwice() {
+        final Address address = createAddress(12345);
+        final List<Address> base = Lists.newArrayList(address, address);
+        final List<Address> working = Lists.newArrayList(createAddress(12345), createAddress(12345));
+
+        final Optional<Boolean> result = createDetector().hasDifferences("Root", base, working);
+
+        assertThat(result, is(Optional.<Boolean>absent()));
+    }
+
+    @Test
+    public void isUndecidedForDifferentTypesWhichMayBeWrittenEqually() {
+        final Optional<Boolean> result = createDetector().hasDifferences("Root", new int[] {1}, Lists.newArrayList(1));
+
+        assertThat(result, is(Optional.<Boolean>absent()));
+    }
+
+    @Test
+    public void isUndecidedForDifferentSizesIfElementsMayBeWrittenWithoutLines() {
+        final Map<Integer, int[]> base = ImmutableMap.of(1, new int[0]);
+        final Map<Integer, int[]> working = ImmutableMap.of();
+
+        final Optional<Boolean> result = createDetector().hasDifferences("Root", base, working);
+
+        assertThat(result, is(Optional.<Boolean>absent()));
+    }
+
+    @Test
+    public void isUndecidedWhenComparatorIsMissing() {
+        final Optional<Boolean> result = createDetector().hasDifferences("Root", Lists.newArrayList("a"), Lists.newArrayList("b"));
+
+        assertThat(result, is(Optional.<Boolean>absent()));
+    }
+
+    private DifferenceDetector createDetector() {
+        final Set<CheckableSerializer<?>> serializers = Sets.<CheckableSerializer<?>>newHashSet(new ToStringSerializer(String.class, Integer.class));
+        final Set<CheckableComparator<?>> comparators = Sets.<CheckableComparator<?>>newHashSet(NaturalOrderComparator.newInstance(Integer.class));
+        return new DifferenceDetector(
+                new PlanCompiler(new PropertyInclusionChecker(Sets.newHashSet("class"))),
+                new SerializerRepository(serializers),
+                new ComparatorRepository(comparators, Sets.<Class<? extends Comparable<?>>>newHashSet()));
+    }
+
+    private Address createAddress(final int zipCode) {
+        return new Address().withStreet("street").withZipCode(zipCode);
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Tests the {@link ExclusionAutomaton}.
+ *
+ * @since 19.10.2026
+ */
+public class ExclusionAutomatonTest {
+
+    @Test
+    public void excludesPathsMatchingPropertiesAndElements() {
+        // given
+        final ExclusionAutomaton automaton = new ExclusionAutomaton(Sets.newHashSet("Order.lines[*].audit"));
+
+        // when
+        final ExclusionState lines = automaton.rootState("Order").onProperty("lines");
+        final ExclusionState line = lines.onElement();
+
+        // then
+        assertThat(lines.isExcluded(), is(false));
+        assertThat(line.onProperty("audit").isExcluded(), is(true));
+        assertThat(line.onProperty("amount").isExcluded(), is(false));
+        assertThat(lines.onProperty("audit").isExcluded(), is(false));
+    }
+
+    @Test
+    public void excludesPathsMatchingWildcards() {
+        // given
+        final ExclusionAutomaton automaton = new ExclusionAutomaton(Sets.newHashSet("*.*.id", "**.password"));
+
+        // when
+        final ExclusionState customer = automaton.rootState("Order").onProperty("customer");
+
+        // then
+        assertThat(customer.onProperty("id").isExcluded(), is(true));
+        assertThat(customer.onElement().onProperty("id").isExcluded(), is(false));
+        assertThat(automaton.rootState("password").isExcluded(), is(true));
+        assertThat(customer.onElement().onProperty("credential").onProperty("password").isExcluded(), is(true));
+    }
+
+    @Test
+    public void sharesStatesOfEqualPositions() {
+        // given
+        final ExclusionAutomaton automaton = new ExclusionAutomaton(Sets.newHashSet("Order.*.zipCode"));
+
+        // when
+        final ExclusionState billingAddress = automaton.rootState("Order").onProperty("billingAddress");
+        final ExclusionState shippingAddress = automaton.rootState("Order").onProperty("shippingAddress");
+
+        // then
+        assertThat(billingAddress, is(sameInstance(shippingAddress)));
+    }
+
+    @Test
+    public void staysInDeadStateOnceNoPatternCanMatch() {
+        // given
+        final ExclusionAutomaton automaton = new ExclusionAutomaton(Sets.newHashSet("Order.customer"));
+
+        // when
+        final ExclusionState address = automaton.rootState("Order").onProperty("billingAddress");
+
+        // then
+        assertThat(address.mayExcludeFollowingPaths(), is(false));
+        assertThat(address.onProperty("customer"), is(sameInstance(address)));
+        assertThat(ExclusionAutomaton.NONE.rootState("Order").mayExcludeFollowingPaths(), is(false));
+    }
+
+    @Test
+    public void excludesPathsOutsideOfIncludedPatterns() {
+        // given
+        final ExclusionAutomaton automaton = new ExclusionAutomaton(
+                Sets.newHashSet("Order.lines[*].price.currency"),
+                Sets.newHashSet("Order.lines[*].price"));
+
+        // when
+        final ExclusionState order = automaton.rootState("Order");
+        final ExclusionState line = order.onProperty("lines").onElement();
+        final ExclusionState price = line.onProperty("price");
+
+        // then
+        assertThat(order.isExcluded(), is(false));
+        assertThat(order.onProperty("customer").isExcluded(), is(true));
+        assertThat(line.onProperty("audit").isExcluded(), is(true));
+        assertThat(price.isExcluded(), is(false));
+        assertThat(price.onProperty("amount").isExcluded(), is(false));
+        assertThat(price.onProperty("currency").isExcluded(), is(true));
+        assertThat(automaton.rootState("Customer").isExcluded(), is(true));
+    }
+
+    @Test
+    public void staysInIncludedStateOnceNoPatternIsPending() {
+        // given
+        final ExclusionAutomaton automaton = new ExclusionAutomaton(Sets.<String>newHashSet(), Sets.newHashSet("Order.customer"));
+
+        // when
+        final ExclusionState customer = automaton.rootState("Order").onProperty("customer");
+
+        // then
+        assertThat(customer.mayExcludeFollowingPaths(), is(false));
+        assertThat(customer.onProperty("name"), is(sameInstance(customer)));
+        assertThat(customer.onElement().isExcluded(), is(false));
+    }
+
+    @Test
+    public void includesOnlyPathsMatchingIncludedPatterns() {
+        // given
+        final ExclusionAutomaton automaton = new ExclusionAutomaton(Sets.<String>newHashSet(), Sets.newHashSet("**.name"));
+
+        // when
+        final ExclusionState order = automaton.rootState("Order");
+        final ExclusionState password = order.onProperty("password");
+        final ExclusionState name = order.onProperty("customer").onProperty("name");
+
+        // then
+        assertThat(password.isExcluded(), is(false));
+        assertThat(password.isIncluded(), is(false));
+        assertThat(name.isIncluded(), is(true));
+        assertThat(name.onProperty("first").isIncluded(), is(true));
+        assertThat(new ExclusionAutomaton(Sets.<String>newHashSet()).rootState("Order").isIncluded(), is(true));
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.adapter.BeanAdapter;
+import com.codereligion.diff.internal.PropertyInclusionChecker;
+import com.codereligion.diff.util.AddressAdapter;
+import com.codereligion.diff.util.bean.Address;
+import com.codereligion.diff.util.bean.Invoice;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link com.codereligion.diff.internal.linewriter.PlanCompiler}.
+ *
+ * @since 19.10.2026
+ */
+public class PlanCompilerTest {
+
+    private final PlanCompiler planCompiler = new PlanCompiler(new PropertyInclusionChecker(Sets.newHashSet("class", "zipCode")));
+
+    @Test
+    public void compilesIncludedPropertiesOfBeans() throws Exception {
+        final List<PropertyPlan> properties = planCompiler.planFor(Address.class).getProperties();
+
+        assertThat(properties.size(), is(1));
+        assertThat(properties.get(0).extendPath("Address"), is("Address.street"));
+        assertThat(properties.get(0).read(new Address().withStreet("street")), is((Object) "street"));
+    }
+
+    @Test
+    public void compilesPropertiesOfAdaptedBeansInOrderOfTheirNames() throws Exception {
+
+        // given
+        final AddressAdapter adapter = new AddressAdapter();
+        final PlanCompiler adaptingPlanCompiler = new PlanCompiler(
+                new PropertyInclusionChecker(Sets.<String>newHashSet()),
+                ImmutableMap.<Class<?>, BeanAdapter<?>>of(Address.class, adapter),
+                false,
+                false);
+
+        // when
+        final List<PropertyPlan> properties = adaptingPlanCompiler.planFor(Address.class).getProperties();
+
+        // then
+        assertThat(properties.size(), is(2));
+        assertThat(properties.get(0).getName(), is("street"));
+        assertThat(properties.get(1).read(new Address().withZipCode(12345)), is((Object) 12345));
+        assertThat(adapter.getReadCount(), is(1));
+    }
+
+    @Test
+    public void compilesIncludedFieldsOfClassHierarchyInOrderOfTheirNames() throws Exception {
+
+        // given
+        final PlanCompiler fieldPlanCompiler = new PlanCompiler(
+                new PropertyInclusionChecker(Sets.<String>newHashSet()),
+                ImmutableMap.<Class<?>, BeanAdapter<?>>of(),
+                false,
+                true);
+
+        // when
+        final List<PropertyPlan> properties = fieldPlanCompiler.planFor(Invoice.class).getProperties();
+
+        // then
+        assertThat(properties.size(), is(2));
+        assertThat(properties.get(0).getName(), is("id"));
+        assertThat(properties.get(0).read(new Invoice().withId(42)), is((Object) 42));
+        assertThat(properties.get(1).getName(), is("number"));
+    }
+
+    @Test
+    public void compilesDispatchOncePerClass() {
+        final ValueDispatch dispatch = planCompiler.dispatchFor(Address.class);
+
+        assertThat(dispatch.getDispatch(), is(Dispatch.BEAN));
+        assertThat(planCompiler.dispatchFor(Address.class), is(sameInstance(dispatch)));
+        assertThat(planCompiler.planFor(Address.class), is(sameInstance(dispatch.getBeanPlan())));
+    }
+
+    @Test
+    public void dispatchesLikeTheLineWriters() {
+        assertThat(planCompiler.dispatchFor(Lists.newArrayList().getClass()).getDispatch(), is(Dispatch.ITERABLE));
+        assertThat(planCompiler.dispatchFor(Maps.newHashMap().getClass()).getDispatch(), is(Dispatch.MAP));
+        assertThat(planCompiler.dispatchFor(int[].class).getDispatch(), is(Dispatch.PRIMITIVE_ARRAY));
+        assertThat(planCompiler.dispatchFor(ByteBuffer.allocateDirect(1).getClass()).getDispatch(), is(Dispatch.BYTE_BUFFER));
+    }
+
+    @Test
+    public void propertyPlanCachesDispatchOfLastValueClass() {
+
+        // given
+        final PropertyPlan propertyPlan = planCompiler.planFor(Address.class).getProperties().get(0);
+
+        // when
+        final ValueDispatch first = propertyPlan.dispatchFor(Address.class, planCompiler);
+        final ValueDispatch second = propertyPlan.dispatchFor(Address.class, planCompiler);
+        final ValueDispatch other = propertyPlan.dispatchFor(int[].class, planCompiler);
+
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(other.getDispatch(), is(Dispatch.PRIMITIVE_ARRAY));
+        assertThat(propertyPlan.dispatchFor(int[].class, planCompiler), is(sameInstance(other)));
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.codereligion.diff.util.bean.Address;
+import org.junit.Test;
+import static com.codereligion.matcher.IsNotInstantiatable.isNotInstantiatable;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link com.codereligion.diff.internal.linewriter.RecordIntrospector}.
+ *
+ * @since 19.10.2026
+ */
+public class RecordIntrospectorTest {
+
+    @Test
+    public void isNotPublicInstantiatable() {
+        assertThat(RecordIntrospector.class, isNotInstantiatable());
+    }
+
+    @Test
+    public void doesNotFindComponentsOfBeans() {
+        assertThat(RecordIntrospector.getComponentAccessors(Address.class).isPresent(), is(false));
+    }
+
+    @Test
+    public void doesNotFindComponentsOfInterfacesAndPrimitives() {
+        assertThat(RecordIntrospector.getComponentAccessors(Runnable.class).isPresent(), is(false));
+        assertThat(RecordIntrospector.getComponentAccessors(int.class).isPresent(), is(false));
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.linewriter;
+
+import com.google.common.collect.Lists;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+
+/**
+ * Tests the {@link SubtreeHasher}.
+ *
+ * @since 19.10.2026
+ */
+public class SubtreeHasherTest {
+
+    @Test
+    public void fingerprintsEverySubtreeParentsFirst() {
+        // given
+        final List<String> lines = Lists.newArrayList(
+                "Order.id='1'",
+                "Order.items[0].name='a'",
+                "Order.items[1].name='b'",
+                "Order.tags['x']='y'");
+
+        // when
+        final Map<String, String> fingerprints = SubtreeHasher.fingerprint("Order", lines);
+
+        // then
+        assertThat(fingerprints.keySet(), contains("Order", "Order.id", "Order.items", "Order.items[0]",
+                "Order.items[0].name", "Order.items[1]", "Order.items[1].name", "Order.tags", "Order.tags['x']"));
+    }
+
+    @Test
+    public void fingerprintsEqualSubtreesAtDifferentPathsEqually() {
+        // given
+        final List<String> lines = Lists.newArrayList("Order.items[0].name='a'", "Order.items[1].name='a'");
+
+        // when
+        final Map<String, String> fingerprints = SubtreeHasher.fingerprint("Order", lines);
+
+        // then
+        assertThat(fingerprints.get("Order.items[0]"), is(fingerprints.get("Order.items[1]")));
+    }
+
+    @Test
+    public void fingerprintDependsOnNamesOfChildren() {
+        // given
+        final List<String> lines = Lists.newArrayList("Order.id='1'");
+        final List<String> renamedLines = Lists.newArrayList("Order.number='1'");
+
+        // when
+        final Map<String, String> fingerprints = SubtreeHasher.fingerprint("Order", lines);
+        final Map<String, String> renamedFingerprints = SubtreeHasher.fingerprint("Order", renamedLines);
+
+        // then
+        assertThat(renamedFingerprints.get("Order"), is(not(fingerprints.get("Order"))));
+    }
+
+    @Test
+    public void doesNotSplitPathWithinIndex() {
+        // given
+        final List<String> lines = Lists.newArrayList("Map['a.b[0]']='c=d'");
+
+        // when
+        final Map<String, String> fingerprints = SubtreeHasher.fingerprint("Map", lines);
+
+        // then
+        assertThat(fingerprints.keySet(), contains("Map", "Map['a.b[0]']"));
+    }
+
+    @Test
+    public void fingerprintsRootWithoutLines() {
+        // when
+        final Map<String, String> fingerprints = SubtreeHasher.fingerprint("Order", Collections.<String>emptyList());
+
+        // then
+        assertThat(fingerprints.keySet(), contains("Order"));
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.serializer;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link BuiltInSerializer}.
+ *
+ * @since 19.10.2026
+ */
+public class BuiltInSerializerTest {
+
+    @Test
+    public void appliesToExactClassesOnly() throws Exception {
+        assertThat(BuiltInSerializer.DATE.applies(new Date()), is(true));
+        assertThat(BuiltInSerializer.DATE.applies(new java.sql.Date(0)), is(false));
+        assertThat(BuiltInSerializer.DATE.applies(null), is(false));
+    }
+
+    @Test
+    public void appliesToAllEnums() throws Exception {
+        assertThat(BuiltInSerializer.ENUM.applies(TimeUnit.DAYS), is(true));
+        assertThat(BuiltInSerializer.ENUM.applies("DAYS"), is(false));
+    }
+
+    @Test
+    public void indexesSerializersByExactClass() throws Exception {
+        final Map<Class<?>, BuiltInSerializer> index = BuiltInSerializer.indexByExactClass();
+
+        assertThat(index.get(Short.class), is(BuiltInSerializer.INTEGER));
+        assertThat(index.get(UUID.class), is(BuiltInSerializer.CANONICAL_STRING));
+        assertThat(index.containsKey(Number.class), is(false));
+    }
+
+    @Test
+    public void serializesPrimitiveWrappers() throws Exception {
+        assertThat(BuiltInSerializer.INTEGER.serialize((byte) -3), is("-3"));
+        assertThat(BuiltInSerializer.LONG.serialize(Long.MIN_VALUE), is(String.valueOf(Long.MIN_VALUE)));
+        assertThat(BuiltInSerializer.DOUBLE.serialize(0.1d), is("0.1"));
+        assertThat(BuiltInSerializer.BOOLEAN.serialize(true), is("true"));
+        assertThat(BuiltInSerializer.CHARACTER.serialize('c'), is("c"));
+    }
+
+    @Test
+    public void serializesEnumsByName() throws Exception {
+        assertThat(BuiltInSerializer.ENUM.serialize(TimeUnit.DAYS), is("DAYS"));
+    }
+
+    @Test
+    public void serializesBigDecimalsWithScale() throws Exception {
+        assertThat(BuiltInSerializer.CANONICAL_STRING.serialize(new BigDecimal("1.50")), is("1.50"));
+    }
+
+    @Test
+    public void serializesDatesAsIsoInstantsInUtc() throws Exception {
+        assertThat(BuiltInSerializer.DATE.serialize(new Date(0)), is("1970-01-01T00:00:00.000Z"));
+        assertThat(BuiltInSerializer.DATE.serialize(new Date(1384330530007L)), is("2013-11-13T08:15:30.007Z"));
+        assertThat(BuiltInSerializer.DATE.serialize(new Date(951782400000L)), is("2000-02-29T00:00:00.000Z"));
+        assertThat(BuiltInSerializer.DATE.serialize(new Date(-1L)), is("1969-12-31T23:59:59.999Z"));
+    }
+
+    @Test
+    public void serializesJavaTimeTypesIfAvailable() throws Exception {
+        final Class<?> localDateClass;
+        try {
+            localDateClass = Class.forName("java.time.LocalDate");
+        } catch (final ClassNotFoundException e) {
+            return;
+        }
+
+        final Object localDate = localDateClass.getMethod("of", int.class, int.class, int.class).invoke(null, 2013, 11, 13);
+
+        assertThat(BuiltInSerializer.CANONICAL_STRING.applies(localDate), is(true));
+        assertThat(BuiltInSerializer.CANONICAL_STRING.serialize(localDate), is("2013-11-13"));
+    }
+}
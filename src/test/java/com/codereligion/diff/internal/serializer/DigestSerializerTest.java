@@ -0,0 +1,109 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.serializer;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link com.codereligion.diff.internal.serializer.DigestSerializer}.
+ *
+ * @since 19.10.2026
+ */
+public class DigestSerializerTest {
+
+    private final DigestSerializer serializer = new DigestSerializer(3);
+
+    @Test
+    public void appliesToContentAboveThreshold() {
+        assertThat(serializer.applies("abcd"), is(true));
+        assertThat(serializer.applies(new byte[4]), is(true));
+        assertThat(serializer.applies(ByteBuffer.allocate(4)), is(true));
+    }
+
+    @Test
+    public void doesNotApplyToContentUpToThresholdOrOtherTypes() {
+        assertThat(serializer.applies("abc"), is(false));
+        assertThat(serializer.applies(new byte[3]), is(false));
+        assertThat(serializer.applies(ByteBuffer.allocate(3)), is(false));
+        assertThat(serializer.applies(12345), is(false));
+        assertThat(serializer.applies(null), is(false));
+    }
+
+    @Test
+    public void serializesDigestAndLength() {
+        final String result = serializer.serialize("abcdef");
+
+        assertThat(result, startsWith("murmur3_128:"));
+        assertThat(result.endsWith(";length=6"), is(true));
+        assertThat(result.length(), is("murmur3_128:".length() + 32 + ";length=6".length()));
+    }
+
+    @Test
+    public void serializesEqualContentToEqualDigests() {
+        assertThat(serializer.serialize("abcdef"), is(serializer.serialize(new StringBuilder("abcdef"))));
+        assertThat(serializer.serialize("abcdef"), is(not(serializer.serialize("abcdeg"))));
+    }
+
+    @Test
+    public void serializesHeapAndDirectBuffersWithSameContentToEqualDigests() {
+
+        // given
+        final byte[] bytes = new byte[20000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        final ByteBuffer heap = ByteBuffer.wrap(bytes);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        // when
+        final String heapResult = serializer.serialize(heap);
+        final String directResult = serializer.serialize(direct);
+
+        // then
+        assertThat(heapResult, is(directResult));
+        assertThat(heapResult, is(serializer.serialize(bytes)));
+        assertThat(direct.position(), is(0));
+    }
+
+    @Test
+    public void serializesOnlyRemainingBytesOfBuffer() {
+
+        // given
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[] {9, 1, 2, 3, 4, 9});
+        buffer.position(1).limit(5);
+
+        // when
+        final String result = serializer.serialize(buffer);
+
+        // then
+        assertThat(result, is(serializer.serialize(new byte[] {1, 2, 3, 4})));
+        assertThat(buffer.position(), is(1));
+    }
+
+    @Test
+    public void appendsToGivenBuilder() {
+        final StringBuilder builder = new StringBuilder("foo=");
+        serializer.serialize("abcdef", builder);
+
+        assertThat(builder.toString(), is("foo=" + serializer.serialize("abcdef")));
+    }
+}
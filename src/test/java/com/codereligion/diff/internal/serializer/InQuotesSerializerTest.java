@@ -15,6 +15,8 @@
  */
 package com.codereligion.diff.internal.serializer;
 
+import com.codereligion.diff.serializer.AbstractCheckableAppendingSerializer;
+import com.codereligion.diff.serializer.CheckableAppendingSerializer;
 import com.codereligion.diff.serializer.CheckableSerializer;
 import com.codereligion.diff.util.bean.User;
 import com.google.common.collect.Sets;
@@ -86,6 +88,49 @@ public class InQuotesSerializerTest {
         verify(mock).serialize(user);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void serializeAppendsQuotesAndValueOfDecoratedObjectToGivenBuilder() throws Exception {
+
+        // given
+        final User user = new User();
+        final CheckableSerializer<Object> mock = mock(CheckableSerializer.class);
+        final CheckableAppendingSerializer<Object> checkableSerializer = InQuotesSerializer.appendInQuotes(mock);
+        final StringBuilder builder = new StringBuilder("User=");
+
+        when(mock.serialize(user)).thenReturn("Foo");
+
+        // when
+        checkableSerializer.serialize(user, builder);
+
+        // then
+        assertThat(builder.toString(), is("User='Foo'"));
+    }
+
+    @Test
+    public void serializeDelegatesToAppendingSerializerOfDecoratedObject() throws Exception {
+
+        // given
+        final CheckableAppendingSerializer<Object> checkableSerializer = InQuotesSerializer.appendInQuotes(new AbstractCheckableAppendingSerializer<Object>() {
+            @Override
+            public boolean applies(final Object object) {
+                return true;
+            }
+
+            @Override
+            public void serialize(final Object object, final StringBuilder builder) {
+                builder.append(42);
+            }
+        });
+        final StringBuilder builder = new StringBuilder();
+
+        // when
+        checkableSerializer.serialize(new User(), builder);
+
+        // then
+        assertThat(builder.toString(), is("'42'"));
+    }
+
     private Matcher<Iterable<? super CheckableSerializer<?>>> hasItem(final Matcher<? super CheckableSerializer<?>> matcher) {
         return Matchers.hasItem(matcher);
     }
@@ -47,4 +47,12 @@ public class NullSerializerTest {
 
         assertThat(result, is("null"));
     }
+
+    @Test
+    public void appendsNullAsString() throws Exception {
+        final StringBuilder builder = new StringBuilder("foo=");
+        NullSerializer.INSTANCE.serialize(null, builder);
+
+        assertThat(builder.toString(), is("foo=null"));
+    }
 }
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.internal.serializer;
+
+import com.codereligion.diff.serializer.AbstractCheckableAppendingSerializer;
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link SerializationCache}.
+ *
+ * @since 19.10.2026
+ */
+public class SerializationCacheTest {
+
+    private static final Set<Class<?>> NONE = ImmutableSet.of();
+    private static final Set<Class<?>> STRINGS = ImmutableSet.<Class<?>>of(CharSequence.class);
+
+    @Test
+    public void serializesEqualValuesOnceIfCachedByEquality() throws Exception {
+        final CountingSerializer serializer = new CountingSerializer();
+        final SerializationCache cache = new SerializationCache(STRINGS, NONE, 10);
+
+        final String first = serialize(cache, serializer, new String("EUR"));
+        final String second = serialize(cache, serializer, new String("EUR"));
+
+        assertThat(first, is("EUR"));
+        assertThat(second, is("EUR"));
+        assertThat(serializer.invocations, is(1));
+    }
+
+    @Test
+    public void serializesEqualValuesAgainIfCachedByIdentity() throws Exception {
+        final CountingSerializer serializer = new CountingSerializer();
+        final SerializationCache cache = new SerializationCache(NONE, STRINGS, 10);
+        final String value = new String("EUR");
+
+        serialize(cache, serializer, value);
+        serialize(cache, serializer, value);
+        serialize(cache, serializer, new String("EUR"));
+
+        assertThat(serializer.invocations, is(2));
+    }
+
+    @Test
+    public void doesNotCacheValuesOfUndeclaredTypes() throws Exception {
+        final CountingSerializer serializer = new CountingSerializer();
+        final SerializationCache cache = new SerializationCache(STRINGS, NONE, 10);
+
+        serialize(cache, serializer, 42);
+        serialize(cache, serializer, 42);
+        serialize(cache, serializer, null);
+
+        assertThat(serializer.invocations, is(3));
+    }
+
+    @Test
+    public void evictsValuesBeyondMaximumSize() throws Exception {
+        final CountingSerializer serializer = new CountingSerializer();
+        final SerializationCache cache = new SerializationCache(STRINGS, NONE, 1);
+
+        serialize(cache, serializer, "EUR");
+        serialize(cache, serializer, "USD");
+        serialize(cache, serializer, "EUR");
+
+        assertThat(serializer.invocations, is(3));
+    }
+
+    private String serialize(final SerializationCache cache, final CountingSerializer serializer, final Object value) {
+        final StringBuilder builder = new StringBuilder();
+        cache.serialize(value, serializer, builder);
+        return builder.toString();
+    }
+
+    private static class CountingSerializer extends AbstractCheckableAppendingSerializer<Object> {
+
+        private int invocations;
+
+        @Override
+        public boolean applies(final Object object) {
+            return true;
+        }
+
+        @Override
+        public void serialize(final Object object, final StringBuilder builder) {
+            invocations++;
+            builder.append(object);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util;
+
+import com.codereligion.diff.adapter.BeanAdapter;
+import com.codereligion.diff.util.bean.Address;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * Reads the properties of an {@link Address} by direct getter calls and counts the reads,
+ * declaring the properties in reverse order of their names.
+ * 
+ * @since 19.10.2026
+ */
+public class AddressAdapter implements BeanAdapter<Address> {
+
+	private int readCount;
+
+	@Override
+	public Class<Address> getBeanClass() {
+		return Address.class;
+	}
+
+	@Override
+	public List<String> getPropertyNames() {
+		return ImmutableList.of("zipCode", "street");
+	}
+
+	@Override
+	public Class<?> getPropertyType(final int propertyIndex) {
+		return propertyIndex == 0 ? int.class : String.class;
+	}
+
+	@Override
+	public Object read(final Address address, final int propertyIndex) {
+		readCount++;
+		switch (propertyIndex) {
+			case 0: return address.getZipCode();
+			case 1: return address.getStreet();
+			default: throw new IndexOutOfBoundsException(String.valueOf(propertyIndex));
+		}
+	}
+
+	public int getReadCount() {
+		return readCount;
+	}
+}
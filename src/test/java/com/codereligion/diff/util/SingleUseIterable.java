@@ -0,0 +1,44 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util;
+
+import java.util.Iterator;
+
+/**
+ * Iterates the given {@code elements} only once, like an iterable backed by a cursor or stream,
+ * and throws an {@link IllegalStateException} when it is iterated again.
+ * 
+ * @since 19.10.2026
+ */
+public class SingleUseIterable<T> implements Iterable<T> {
+
+	private final Iterator<T> iterator;
+
+	private boolean iterated;
+
+	public SingleUseIterable(final Iterable<T> elements) {
+		this.iterator = elements.iterator();
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		if (iterated) {
+			throw new IllegalStateException("This iterable can only be iterated once.");
+		}
+		iterated = true;
+		return iterator;
+	}
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util;
+
+import com.codereligion.diff.laziness.LazinessDetector;
+import com.google.common.collect.Sets;
+import java.util.Set;
+
+/**
+ * Considers the given values as uninitialized by their identity.
+ * 
+ * @since 19.10.2026
+ */
+public class StubLazinessDetector implements LazinessDetector {
+
+	private final Set<Object> uninitializedValues = Sets.newIdentityHashSet();
+
+	public StubLazinessDetector(final Object... uninitializedValues) {
+		for (final Object uninitializedValue : uninitializedValues) {
+			this.uninitializedValues.add(uninitializedValue);
+		}
+	}
+
+	@Override
+	public boolean isUninitialized(final Object value) {
+		return uninitializedValues.contains(value);
+	}
+}
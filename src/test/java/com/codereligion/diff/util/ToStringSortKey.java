@@ -0,0 +1,49 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util;
+
+import com.codereligion.diff.comparator.CheckableStringSortKey;
+import com.google.common.collect.Sets;
+import java.util.Set;
+
+/**
+ * Extracts the {@link Object#toString()} value of instances of the given types as their sort key.
+ * 
+ * @since 19.10.2026
+ */
+public class ToStringSortKey implements CheckableStringSortKey<Object> {
+
+	private final Set<Class<?>> types;
+
+	public ToStringSortKey(final Class<?>... types) {
+		this.types = Sets.newHashSet(types);
+	}
+
+	@Override
+	public String extractKey(final Object object) {
+		return object.toString();
+	}
+
+	@Override
+	public boolean applies(final Object object) {
+		for (final Class<?> type : types) {
+			if (type.isInstance(object)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util;
+
+import com.codereligion.diff.comparator.CheckableLongSortKey;
+import com.codereligion.diff.util.bean.Address;
+
+/**
+ * Extracts the zip code of addresses as their sort key.
+ * 
+ * @since 19.10.2026
+ */
+public class ZipCodeSortKey implements CheckableLongSortKey<Address> {
+
+	@Override
+	public long extractKey(final Address address) {
+		return address.getZipCode();
+	}
+
+	@Override
+	public boolean applies(final Object object) {
+		return object instanceof Address;
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util.bean;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+
+public class Customer {
+
+	private String name;
+
+	private List<Order> orders = Lists.newArrayList();
+
+	public String getName() {
+		return name;
+	}
+
+	public List<Order> getOrders() {
+		return orders;
+	}
+
+	public Customer withName(final String name) {
+		this.name = name;
+		return this;
+	}
+
+	public Customer withOrder(final Order order) {
+		this.orders.add(order);
+		return this;
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util.bean;
+
+public class Invoice extends Entity {
+
+	public static final String PREFIX = "INV-";
+
+	private String number;
+
+	private transient String label;
+
+	public String getNumber() {
+		throw new IllegalStateException("number is loaded lazily");
+	}
+
+	public String getLabel() {
+		if (label == null) {
+			label = PREFIX + number;
+		}
+		return label;
+	}
+
+	public Invoice withId(Integer id) {
+		setId(id);
+		return this;
+	}
+
+	public Invoice withNumber(String number) {
+		this.number = number;
+		return this;
+	}
+}
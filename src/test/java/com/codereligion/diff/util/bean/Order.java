@@ -0,0 +1,53 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util.bean;
+
+public class Order {
+
+	private Customer customer;
+
+	private Address billingAddress;
+
+	private Address shippingAddress;
+
+	public Customer getCustomer() {
+		return customer;
+	}
+
+	public Address getBillingAddress() {
+		return billingAddress;
+	}
+
+	public Address getShippingAddress() {
+		return shippingAddress;
+	}
+
+	public Order withCustomer(final Customer customer) {
+		this.customer = customer;
+		customer.withOrder(this);
+		return this;
+	}
+
+	public Order withBillingAddress(final Address billingAddress) {
+		this.billingAddress = billingAddress;
+		return this;
+	}
+
+	public Order withShippingAddress(final Address shippingAddress) {
+		this.shippingAddress = shippingAddress;
+		return this;
+	}
+}
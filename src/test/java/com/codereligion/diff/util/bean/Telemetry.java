@@ -0,0 +1,37 @@
+/**
+ * Copyright 2013 www.codereligion.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codereligion.diff.util.bean;
+
+public class Telemetry {
+
+	private byte[] bytes = new byte[] {0, -1};
+
+	private double[] doubles = new double[] {0.5};
+
+	private long[] longs = new long[] {0, 42};
+
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	public double[] getDoubles() {
+		return doubles;
+	}
+
+	public long[] getLongs() {
+		return longs;
+	}
+}